@@ -1,3 +1,5 @@
+import { BatchResults } from "@/components/batch-results";
+import { JobProgress } from "@/components/job-progress";
 import { Alert, AlertDescription, AlertTitle } from "@/components/ui/alert";
 import { Button } from "@/components/ui/button";
 import { Label } from "@/components/ui/label";
@@ -9,6 +11,9 @@ import clsx from "clsx";
 import { UploadIcon } from "lucide-react";
 import { ChangeEvent, useCallback, useEffect, useRef, useState } from "react";
 
+// larger files are parsed as an asynchronous job with progress reporting
+const LARGE_UPLOAD_THRESHOLD = 1024 * 1024;
+
 interface ParseError {
     status?: number;
     statusText?: string;
@@ -19,11 +24,27 @@ function App() {
     const [isCustomParser, setIsCustomParser] = useState(false);
     const [showDropzone, setShowDropzone] = useState(false);
     const [file, setFile] = useState<File | null>(null);
+    // several files are parsed as a batch with a streamed response instead
+    const [batchFiles, setBatchFiles] = useState<File[] | null>(null);
     const [csrDetails, setCsrDetails] = useState<CsrDetailsModel | null>(null);
     const [error, setError] = useState<ParseError | null>(null);
 
     const fileInputRef = useRef<HTMLInputElement>(null);
 
+    const isLargeUpload = file !== null && file.size > LARGE_UPLOAD_THRESHOLD;
+
+    const selectFiles = useCallback((fileList: FileList) => {
+        if (fileList.length === 1) {
+            setFile(fileList.item(0));
+            setBatchFiles(null);
+        } else if (fileList.length > 1) {
+            setFile(null);
+            setBatchFiles(Array.from(fileList));
+            setCsrDetails(null);
+            setError(null);
+        }
+    }, []);
+
     // initialize file drag and drop
     useEffect(() => {
         let dragCounter = 0;
@@ -50,11 +71,7 @@ function App() {
             e.preventDefault();
 
             if (e.dataTransfer) {
-                const fileList = e.dataTransfer.files;
-
-                if (fileList.length > 0) {
-                    setFile(fileList.item(0));
-                }
+                selectFiles(e.dataTransfer.files);
             }
         };
 
@@ -69,13 +86,19 @@ function App() {
             document.removeEventListener("dragover", dragOver);
             document.removeEventListener("drop", drop);
         };
-    }, []);
+    }, [selectFiles]);
 
     useEffect(() => {
         if (!file) {
             return;
         }
 
+        if (file.size > LARGE_UPLOAD_THRESHOLD) {
+            setCsrDetails(null);
+            setError(null);
+            return;
+        }
+
         async function request() {
             const url = isCustomParser ? "/api/v1/csr-custom" : "/api/v1/csr";
 
@@ -108,11 +131,14 @@ function App() {
         request();
     }, [isCustomParser, file]);
 
-    const onInputChange = useCallback((e: ChangeEvent<HTMLInputElement>) => {
-        if (e.target.files && e.target.files.length > 0) {
-            setFile(e.target.files.item(0));
-        }
-    }, []);
+    const onInputChange = useCallback(
+        (e: ChangeEvent<HTMLInputElement>) => {
+            if (e.target.files) {
+                selectFiles(e.target.files);
+            }
+        },
+        [selectFiles],
+    );
 
     return (
         <>
@@ -122,6 +148,7 @@ function App() {
                     <input
                         ref={fileInputRef}
                         type="file"
+                        multiple
                         className="hidden"
                         onChange={onInputChange}
                     />
@@ -129,7 +156,7 @@ function App() {
                         <UploadIcon />
                         Pick a file ...
                     </Button>
-                    <div>... or drag and drop a file into this window</div>
+                    <div>... or drag and drop one or many files into this window</div>
                     <div>PEM and DER files are supported</div>
                     <div className="flex flex-row items-center gap-3">
                         <Label className={clsx("transition", isCustomParser && "opacity-25")}>
@@ -141,7 +168,15 @@ function App() {
                         </Label>
                     </div>
                     <Separator className="my-8" />
-                    <div data-testid="filename">{!file ? "No file selected" : file.name}</div>
+                    <div data-testid="filename">
+                        {batchFiles ? `${batchFiles.length} files` : !file ? "No file selected" : file.name}
+                    </div>
+                    {batchFiles && (
+                        <BatchResults files={batchFiles} engine={isCustomParser ? "CUSTOM" : "BOUNCY_CASTLE"} />
+                    )}
+                    {file && isLargeUpload && (
+                        <JobProgress file={file} engine={isCustomParser ? "CUSTOM" : "BOUNCY_CASTLE"} />
+                    )}
                     {error && (
                         <Alert variant="destructive">
                             <AlertTitle>
@@ -193,6 +228,29 @@ function App() {
                                         </TableCell>
                                     </TableRow>
                                 )}
+                                <TableRow>
+                                    <TableCell>Public Key Fingerprint (SHA-256)</TableCell>
+                                    <TableCell data-testid="public-key-fingerprint">
+                                        <span className="break-all">
+                                            {csrDetails.publicKeyFingerprint}
+                                        </span>
+                                        {csrDetails.keyPreviouslySeen && (
+                                            <span
+                                                className="text-destructive"
+                                                data-testid="key-previously-seen"
+                                            >
+                                                {" "}
+                                                (key was used in a previous CSR)
+                                            </span>
+                                        )}
+                                    </TableCell>
+                                </TableRow>
+                                {csrDetails.subject && (
+                                    <TableRow>
+                                        <TableCell>Subject</TableCell>
+                                        <TableCell data-testid="subject">{csrDetails.subject}</TableCell>
+                                    </TableRow>
+                                )}
                                 {csrDetails.commonName && (
                                     <TableRow>
                                         <TableCell>Common Name</TableCell>
@@ -241,11 +299,22 @@ function App() {
                                         </TableCell>
                                     </TableRow>
                                 )}
-                                {csrDetails.subjectAlternativeName && (
+                                {csrDetails.subjectAlternativeNames && (
                                     <TableRow>
                                         <TableCell>Subject Alternative Name</TableCell>
-                                        <TableCell data-testid="san">
-                                            {csrDetails.subjectAlternativeName}
+                                        <TableCell>
+                                            <span data-testid="san">
+                                                {csrDetails.subjectAlternativeNames
+                                                    .map(name => `${name.type}: ${name.value}`)
+                                                    .join(", ")}
+                                            </span>
+                                            {csrDetails.subjectAlternativeNameCount !==
+                                                csrDetails.subjectAlternativeNames.length && (
+                                                <span className="ml-2 text-muted-foreground">
+                                                    (first {csrDetails.subjectAlternativeNames.length} of{" "}
+                                                    {csrDetails.subjectAlternativeNameCount})
+                                                </span>
+                                            )}
                                         </TableCell>
                                     </TableRow>
                                 )}
@@ -257,6 +326,48 @@ function App() {
                                         </TableCell>
                                     </TableRow>
                                 )}
+                                {csrDetails.keyUsage && (
+                                    <TableRow>
+                                        <TableCell>Key Usage</TableCell>
+                                        <TableCell data-testid="key-usage">
+                                            {csrDetails.keyUsage.join(", ")}
+                                        </TableCell>
+                                    </TableRow>
+                                )}
+                                {csrDetails.extendedKeyUsage && (
+                                    <TableRow>
+                                        <TableCell>Extended Key Usage</TableCell>
+                                        <TableCell data-testid="extended-key-usage">
+                                            {csrDetails.extendedKeyUsage.join(", ")}
+                                        </TableCell>
+                                    </TableRow>
+                                )}
+                                {csrDetails.basicConstraintsCa != null && (
+                                    <TableRow>
+                                        <TableCell>Basic Constraints</TableCell>
+                                        <TableCell data-testid="basic-constraints">
+                                            CA: {csrDetails.basicConstraintsCa ? "true" : "false"}
+                                            {csrDetails.basicConstraintsPathLength != null &&
+                                                `, path length: ${csrDetails.basicConstraintsPathLength}`}
+                                        </TableCell>
+                                    </TableRow>
+                                )}
+                                {csrDetails.subjectKeyIdentifier && (
+                                    <TableRow>
+                                        <TableCell>Subject Key Identifier</TableCell>
+                                        <TableCell data-testid="subject-key-identifier">
+                                            {csrDetails.subjectKeyIdentifier}
+                                        </TableCell>
+                                    </TableRow>
+                                )}
+                                {csrDetails.criticalExtensions && (
+                                    <TableRow>
+                                        <TableCell>Critical Extensions</TableCell>
+                                        <TableCell data-testid="critical-extensions">
+                                            {csrDetails.criticalExtensions.join(", ")}
+                                        </TableCell>
+                                    </TableRow>
+                                )}
                             </TableBody>
                         </Table>
                     )}
@@ -265,7 +376,7 @@ function App() {
             {showDropzone && (
                 <div className="absolute flex flex-col gap-3 items-center justify-center left-0 top-0 w-screen h-screen bg-white backdrop-blur bg-opacity-60">
                     <UploadIcon size={64} />
-                    <span className="text-lg font-semibold">Drop file here</span>
+                    <span className="text-lg font-semibold">Drop files here</span>
                 </div>
             )}
         </>
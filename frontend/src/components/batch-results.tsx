@@ -0,0 +1,242 @@
+import { Alert, AlertDescription, AlertTitle } from "@/components/ui/alert";
+import { BatchResultModel } from "@/models";
+import clsx from "clsx";
+import { useEffect, useRef, useState } from "react";
+
+// files are sent in several requests, so results also show up while later files are still uploading
+// in browsers which only read the response after the whole request body was sent
+const MAX_FILES_PER_REQUEST = 50;
+const MAX_BYTES_PER_REQUEST = 1024 * 1024;
+
+// only the visible rows are rendered, which requires a fixed row height
+const ROW_HEIGHT = 36;
+const VIEWPORT_HEIGHT = 480;
+// rows rendered above and below the visible ones, so fast scrolling does not show empty rows
+const OVERSCAN = 10;
+
+const COLUMNS =
+    "grid grid-cols-[4rem_minmax(0,2fr)_minmax(0,2fr)_minmax(0,1fr)_minmax(0,2fr)] items-center gap-3 px-3";
+
+interface BatchResultsProps {
+    files: File[];
+    engine: "CUSTOM" | "BOUNCY_CASTLE";
+}
+
+function splitRequests(files: File[]): File[][] {
+    const requests: File[][] = [];
+    let current: File[] = [];
+    let bytes = 0;
+
+    for (const file of files) {
+        if (
+            current.length > 0 &&
+            (current.length === MAX_FILES_PER_REQUEST || bytes + file.size > MAX_BYTES_PER_REQUEST)
+        ) {
+            requests.push(current);
+            current = [];
+            bytes = 0;
+        }
+
+        current.push(file);
+        bytes += file.size;
+    }
+
+    if (current.length > 0) {
+        requests.push(current);
+    }
+
+    return requests;
+}
+
+async function* readLines(body: ReadableStream<Uint8Array>): AsyncGenerator<string> {
+    const reader = body.pipeThrough(new TextDecoderStream()).getReader();
+    let buffered = "";
+
+    for (;;) {
+        const { done, value } = await reader.read();
+        if (done) {
+            break;
+        }
+
+        buffered += value;
+
+        let end: number;
+        while ((end = buffered.indexOf("\n")) >= 0) {
+            const line = buffered.slice(0, end);
+            buffered = buffered.slice(end + 1);
+
+            if (line) {
+                yield line;
+            }
+        }
+    }
+
+    if (buffered) {
+        yield buffered;
+    }
+}
+
+function publicKey(result: BatchResultModel) {
+    const details = result.result;
+    if (!details) {
+        return "";
+    }
+
+    if (details.rsaKeyLength) {
+        return `${details.publicKeyAlgorithm} ${details.rsaKeyLength}`;
+    }
+
+    return details.ecCurve ? `${details.publicKeyAlgorithm} ${details.ecCurve}` : details.publicKeyAlgorithm;
+}
+
+function ResultRow({ index, result }: { index: number; result: BatchResultModel }) {
+    return (
+        <div
+            role="row"
+            className={clsx(COLUMNS, "absolute left-0 right-0 border-b")}
+            style={{ top: index * ROW_HEIGHT, height: ROW_HEIGHT }}
+            data-testid="batch-row"
+        >
+            <div role="cell" className="text-muted-foreground">
+                {index + 1}
+            </div>
+            <div role="cell" className="truncate" title={result.source}>
+                {result.source ?? "-"}
+            </div>
+            <div role="cell" className="truncate" title={result.result?.commonName}>
+                {result.result?.commonName}
+            </div>
+            <div role="cell" className="truncate">
+                {publicKey(result)}
+            </div>
+            <div
+                role="cell"
+                className={clsx("truncate", result.error && "text-destructive")}
+                title={result.error}
+                data-testid="batch-status"
+            >
+                {result.error ?? "Parsed"}
+            </div>
+        </div>
+    );
+}
+
+/**
+ * Uploads many files as multipart requests and shows every result as soon as its line of the NDJSON response arrives.
+ */
+export function BatchResults({ files, engine }: BatchResultsProps) {
+    // results are appended without copying, count triggers the rendering at most once per frame
+    const results = useRef<BatchResultModel[]>([]);
+    const errors = useRef(0);
+    const [count, setCount] = useState(0);
+    const [done, setDone] = useState(false);
+    const [error, setError] = useState<string | null>(null);
+    const [scrollTop, setScrollTop] = useState(0);
+
+    useEffect(() => {
+        results.current = [];
+        errors.current = 0;
+        setCount(0);
+        setDone(false);
+        setError(null);
+
+        const controller = new AbortController();
+        let frame = 0;
+
+        const append = (result: BatchResultModel) => {
+            results.current.push(result);
+            if (result.error) {
+                errors.current++;
+            }
+
+            if (!frame) {
+                frame = requestAnimationFrame(() => {
+                    frame = 0;
+                    setCount(results.current.length);
+                });
+            }
+        };
+
+        async function upload() {
+            for (const requestFiles of splitRequests(files)) {
+                const form = new FormData();
+                for (const file of requestFiles) {
+                    form.append("files", file, file.name);
+                }
+
+                const response = await fetch(`/api/v1/csr-batch?engine=${engine}`, {
+                    method: "POST",
+                    body: form,
+                    signal: controller.signal,
+                });
+
+                if (!response.ok || !response.body) {
+                    let message = response.statusText;
+                    try {
+                        message = (await response.json()).error;
+                    } catch {
+                        // dev server proxy responds with an empty body if the API is not available
+                    }
+
+                    setError(`${response.status}: ${message}`);
+                    return;
+                }
+
+                for await (const line of readLines(response.body)) {
+                    append(JSON.parse(line) as BatchResultModel);
+                }
+            }
+
+            setDone(true);
+        }
+
+        upload().catch(() => {
+            if (!controller.signal.aborted) {
+                setError("API not available");
+            }
+        });
+
+        return () => {
+            controller.abort();
+            cancelAnimationFrame(frame);
+        };
+    }, [files, engine]);
+
+    const first = Math.max(0, Math.floor(scrollTop / ROW_HEIGHT) - OVERSCAN);
+    const last = Math.min(count, Math.ceil((scrollTop + VIEWPORT_HEIGHT) / ROW_HEIGHT) + OVERSCAN);
+
+    return (
+        <div className="flex flex-col gap-3 w-full">
+            <div data-testid="batch-progress">
+                {count} of {files.length} results, {errors.current} errors
+                {!done && !error && " ..."}
+            </div>
+            {error && (
+                <Alert variant="destructive">
+                    <AlertTitle>Upload failed</AlertTitle>
+                    <AlertDescription data-testid="error-message">{error}</AlertDescription>
+                </Alert>
+            )}
+            <div role="table" className="w-full text-sm" aria-rowcount={count}>
+                <div role="row" className={clsx(COLUMNS, "h-10 border-b font-medium text-muted-foreground")}>
+                    <div role="columnheader">#</div>
+                    <div role="columnheader">File</div>
+                    <div role="columnheader">Common Name</div>
+                    <div role="columnheader">Public Key</div>
+                    <div role="columnheader">Status</div>
+                </div>
+                <div
+                    className="overflow-y-auto"
+                    style={{ height: VIEWPORT_HEIGHT }}
+                    onScroll={e => setScrollTop(e.currentTarget.scrollTop)}
+                >
+                    <div className="relative" style={{ height: count * ROW_HEIGHT }}>
+                        {results.current.slice(first, last).map((result, i) => (
+                            <ResultRow key={first + i} index={first + i} result={result} />
+                        ))}
+                    </div>
+                </div>
+            </div>
+        </div>
+    );
+}
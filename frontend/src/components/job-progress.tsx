@@ -0,0 +1,124 @@
+import { Alert, AlertDescription, AlertTitle } from "@/components/ui/alert";
+import { JobModel } from "@/models";
+import { useEffect, useState } from "react";
+
+// must not be larger than csr-parser.jobs.max-page-size
+const RESULT_PAGE_SIZE = 10000;
+
+interface JobProgressProps {
+    file: File;
+    engine: "CUSTOM" | "BOUNCY_CASTLE";
+}
+
+function ProgressBar({ value, testId }: { value: number; testId: string }) {
+    return (
+        <div className="h-2 w-full rounded bg-secondary" data-testid={testId}>
+            <div
+                className="h-2 rounded bg-primary transition-all"
+                style={{ width: `${Math.min(100, Math.round(value * 100))}%` }}
+            />
+        </div>
+    );
+}
+
+/**
+ * Uploads a large file as an asynchronous job and shows the upload and parse progress.
+ */
+export function JobProgress({ file, engine }: JobProgressProps) {
+    const [uploadedBytes, setUploadedBytes] = useState(0);
+    const [job, setJob] = useState<JobModel | null>(null);
+    const [error, setError] = useState<string | null>(null);
+
+    useEffect(() => {
+        setUploadedBytes(0);
+        setJob(null);
+        setError(null);
+
+        let events: EventSource | null = null;
+
+        // fetch does not report upload progress
+        const xhr = new XMLHttpRequest();
+        xhr.upload.onprogress = e => setUploadedBytes(e.loaded);
+        xhr.onload = () => {
+            let json;
+            try {
+                json = JSON.parse(xhr.responseText);
+            } catch {
+                setError("API not available");
+                return;
+            }
+
+            if (xhr.status !== 202) {
+                setError(`${xhr.status} ${xhr.statusText}: ${json.error}`);
+                return;
+            }
+
+            const created = json as JobModel;
+            setJob(created);
+
+            events = new EventSource(`/api/v1/jobs/${created.id}/events`);
+            events.addEventListener("progress", e => {
+                const update = JSON.parse((e as MessageEvent).data) as JobModel;
+                setJob(update);
+
+                if (update.status === "COMPLETED" || update.status === "FAILED") {
+                    // the server closes the stream, prevent the browser from reconnecting
+                    events?.close();
+                }
+            });
+        };
+        xhr.onerror = () => setError("API not available");
+        xhr.open("POST", `/api/v1/jobs?engine=${engine}`);
+        xhr.send(file);
+
+        return () => {
+            xhr.abort();
+            events?.close();
+        };
+    }, [file, engine]);
+
+    if (error) {
+        return (
+            <Alert variant="destructive">
+                <AlertTitle>Job failed</AlertTitle>
+                <AlertDescription data-testid="error-message">{error}</AlertDescription>
+            </Alert>
+        );
+    }
+
+    const pages = job ? Math.ceil(job.availableResults / RESULT_PAGE_SIZE) : 0;
+
+    return (
+        <div className="flex flex-col gap-3 w-full max-w-xl">
+            <div>Upload</div>
+            <ProgressBar value={uploadedBytes / Math.max(1, file.size)} testId="upload-progress" />
+            {job && (
+                <>
+                    <div>
+                        Parsing ({job.status.toLowerCase()}): {job.records} CSRs, {job.errors} errors
+                    </div>
+                    <ProgressBar
+                        value={job.processedBytes / Math.max(1, job.inputBytes)}
+                        testId="parse-progress"
+                    />
+                    {job.error && <div className="text-destructive">{job.error}</div>}
+                    {job.status === "COMPLETED" && (
+                        <div className="flex flex-col gap-1" data-testid="job-results">
+                            {Array.from({ length: pages }, (_, page) => (
+                                <a
+                                    key={page}
+                                    className="text-primary underline-offset-4 hover:underline"
+                                    href={`/api/v1/jobs/${job.id}/results?offset=${page * RESULT_PAGE_SIZE}&limit=${RESULT_PAGE_SIZE}`}
+                                >
+                                    Results {page * RESULT_PAGE_SIZE + 1} -{" "}
+                                    {Math.min((page + 1) * RESULT_PAGE_SIZE, job.availableResults)}{" "}
+                                    (NDJSON)
+                                </a>
+                            ))}
+                        </div>
+                    )}
+                </>
+            )}
+        </div>
+    );
+}
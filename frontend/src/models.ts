@@ -1,3 +1,8 @@
+export interface SubjectAlternativeName {
+    type: string;
+    value: string;
+}
+
 export interface CsrDetailsModel {
     issuer?: string;
 
@@ -9,12 +14,52 @@ export interface CsrDetailsModel {
     rsaKeyLength?: number;
     ecCurve?: string;
 
+    publicKeyFingerprint: string;
+    keyPreviouslySeen?: boolean;
+
+    subject?: string;
     commonName?: string;
     country?: string;
     locality?: string;
     stateOrProvince?: string;
     organizationName?: string;
     organizationUnit?: string;
-    subjectAlternativeName?: string;
+    // may only be the first page of all names, see subjectAlternativeNameCount
+    subjectAlternativeNames?: SubjectAlternativeName[];
+    subjectAlternativeNameCount?: number;
+    // sanOffset of the next page, missing on the last page
+    subjectAlternativeNameNextOffset?: number;
     emailAddress?: string;
+
+    keyUsage?: string[];
+    extendedKeyUsage?: string[];
+    basicConstraintsCa?: boolean;
+    basicConstraintsPathLength?: number;
+    subjectKeyIdentifier?: string;
+    criticalExtensions?: string[];
+}
+
+export interface JobModel {
+    id: string;
+    status: "UPLOADING" | "QUEUED" | "RUNNING" | "COMPLETED" | "FAILED";
+    engine: string;
+
+    inputBytes: number;
+    processedBytes: number;
+    records: number;
+    errors: number;
+    availableResults: number;
+
+    createdAt: string;
+    startedAt?: string;
+    finishedAt?: string;
+    error?: string;
+}
+
+// one line of the NDJSON response of /api/v1/csr-batch
+export interface BatchResultModel {
+    // file name, missing if the upload itself failed
+    source?: string;
+    result?: CsrDetailsModel;
+    error?: string;
 }
@@ -94,3 +94,30 @@ test("upload some-file", async ({ page }) => {
     await expect(page.getByTestId("email-address")).not.toBeAttached();
     await expect(page.getByTestId("san")).not.toBeAttached();
 });
+
+test("upload multiple files", async ({ page }) => {
+    await page.goto("http://localhost:8080/");
+
+    const fileChooserPromise = page.waitForEvent("filechooser");
+
+    await page.getByRole("button", { name: "Pick a file" }).click();
+
+    const fileChooser = await fileChooserPromise;
+
+    await fileChooser.setFiles([
+        path.join(process.cwd(), "../src/test/resources/rsa-csr.pem"),
+        path.join(process.cwd(), "../src/test/resources/ecdsa-csr.pem"),
+        path.join(process.cwd(), "../src/test/resources/some-file"),
+    ]);
+
+    await expect(page.getByTestId("filename")).toHaveText("3 files");
+
+    await expect(page.getByTestId("batch-row")).toHaveCount(3);
+    await expect(page.getByTestId("batch-progress")).toHaveText("3 of 3 results, 1 errors");
+
+    await expect(page.getByTestId("batch-status").nth(0)).toHaveText("Parsed");
+    await expect(page.getByTestId("batch-status").nth(1)).toHaveText("Parsed");
+    await expect(page.getByTestId("batch-status").nth(2)).toHaveText(
+        "File is not a valid Certificate Signing Request",
+    );
+});
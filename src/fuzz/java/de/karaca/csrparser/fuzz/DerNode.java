@@ -0,0 +1,160 @@
+package de.karaca.csrparser.fuzz;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Mutable tree of DER elements, encoded again with correct lengths after a mutation, so mutations deep inside the
+ * structure are not rejected by the enclosing elements already.
+ *
+ * Constructed elements have children, primitive elements have content. The content of an OCTET STRING which is DER
+ * itself, e.g. the value of an extension, is decoded into children as well.
+ **/
+final class DerNode {
+    private static final int TAG_OCTET_STRING = 0x04;
+    private static final int CONSTRUCTED = 0x20;
+    private static final int MAX_DEPTH = 24;
+
+    // identifier octets, more than one for high tag numbers
+    byte[] tag;
+    // null for elements with children
+    byte[] content;
+    List<DerNode> children;
+
+    private DerNode(byte[] tag, byte[] content, List<DerNode> children) {
+        this.tag = tag;
+        this.content = content;
+        this.children = children;
+    }
+
+    static DerNode primitive(byte[] tag, byte[] content) {
+        return new DerNode(tag, content, null);
+    }
+
+    static DerNode constructed(byte[] tag, List<DerNode> children) {
+        return new DerNode(tag, null, children);
+    }
+
+    DerNode copy() {
+        List<DerNode> copiedChildren = null;
+        if (children != null) {
+            copiedChildren = new ArrayList<>(children.size());
+            for (DerNode child : children) {
+                copiedChildren.add(child.copy());
+            }
+        }
+
+        return new DerNode(tag.clone(), content == null ? null : content.clone(), copiedChildren);
+    }
+
+    /**
+     * @return the elements of a DER encoding, or null if it is not exactly a sequence of well-formed elements
+     **/
+    static List<DerNode> decode(byte[] input) {
+        return decode(input, 0, input.length, 0);
+    }
+
+    private static List<DerNode> decode(byte[] input, int start, int end, int depth) {
+        if (depth > MAX_DEPTH) {
+            return null;
+        }
+
+        List<DerNode> nodes = new ArrayList<>();
+        int pos = start;
+
+        while (pos < end) {
+            int tagStart = pos;
+            if ((input[pos++] & 0x1F) == 0x1F) {
+                while (pos < end && (input[pos] & 0x80) != 0) {
+                    pos++;
+                }
+                pos++;
+            }
+            if (pos >= end) {
+                return null;
+            }
+            byte[] tag = Arrays.copyOfRange(input, tagStart, pos);
+
+            int length = input[pos++] & 0xFF;
+            if (length > 0x7F) {
+                int octets = length & 0x7F;
+                if (octets == 0 || octets > 3 || pos + octets > end) {
+                    return null;
+                }
+                length = 0;
+                for (int i = 0; i < octets; i++) {
+                    length = (length << 8) | (input[pos++] & 0xFF);
+                }
+            }
+            if (length > end - pos) {
+                return null;
+            }
+
+            List<DerNode> children = null;
+            if ((tag[0] & CONSTRUCTED) != 0) {
+                children = decode(input, pos, pos + length, depth + 1);
+                if (children == null) {
+                    return null;
+                }
+            } else if (tag.length == 1 && tag[0] == TAG_OCTET_STRING && length > 1) {
+                // encapsulated DER if it decodes completely, plain content otherwise
+                children = decode(input, pos, pos + length, depth + 1);
+            }
+
+            nodes.add(new DerNode(
+                    tag, children == null ? Arrays.copyOfRange(input, pos, pos + length) : null, children));
+            pos += length;
+        }
+
+        return nodes;
+    }
+
+    static byte[] encode(List<DerNode> nodes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (DerNode node : nodes) {
+            node.encode(out);
+        }
+        return out.toByteArray();
+    }
+
+    private void encode(ByteArrayOutputStream out) {
+        byte[] value = content != null ? content : encode(children);
+
+        out.writeBytes(tag);
+        writeLength(out, value.length);
+        out.writeBytes(value);
+    }
+
+    static void writeLength(ByteArrayOutputStream out, int length) {
+        if (length < 0x80) {
+            out.write(length);
+        } else if (length < 0x100) {
+            out.write(0x81);
+            out.write(length);
+        } else if (length < 0x10000) {
+            out.write(0x82);
+            out.write(length >>> 8);
+            out.write(length);
+        } else {
+            out.write(0x83);
+            out.write(length >>> 16);
+            out.write(length >>> 8);
+            out.write(length);
+        }
+    }
+
+    /**
+     * Visit this element and all elements below it, parents before their children.
+     **/
+    void forEach(Consumer<DerNode> action) {
+        action.accept(this);
+        if (children != null) {
+            for (DerNode child : children) {
+                child.forEach(action);
+            }
+        }
+    }
+}
@@ -0,0 +1,540 @@
+package de.karaca.csrparser.fuzz;
+
+import de.karaca.csrparser.corpus.CsrCorpus;
+import de.karaca.csrparser.differential.DifferentialParser;
+import de.karaca.csrparser.differential.DifferentialResult;
+import de.karaca.csrparser.differential.EngineResult;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.service.ParserEngine;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Mutation-based differential fuzzer of the custom decoder against BouncyCastle.
+ *
+ * Starting from the synthetic corpus and the saved findings, every input is a mutation of an input of the pool.
+ * Both engines parse it and the outcome is checked: an exception other than {@link InvalidCsrException}, different
+ * values of the compared fields, one engine accepting what the other rejects, and parses which are slow or allocate
+ * much more than the input size are findings. Findings are minimized and saved as regression fixtures, which
+ * FuzzRegressionTest replays.
+ *
+ * There is no coverage instrumentation, the search is guided by outcomes instead: a mutant is kept in the pool if
+ * its outcome class, the error code and message of each engine or the fields it accepted, was not seen before, so
+ * mutants which get further into the decoder are mutated again.
+ **/
+public class DifferentialFuzzer {
+    private static final int MAX_POOL_SIZE = 4096;
+
+    // allocations every parse may make regardless of the input size, e.g. for PEM decoding and the model
+    private static final long ALLOCATION_ALLOWANCE = 64 * 1024;
+
+    // parses of a slow input, the fastest one counts, so a GC pause or JIT compilation is not reported
+    private static final int CONFIRMATION_RUNS = 3;
+
+    // bounds the parses spent to minimize one finding
+    private static final int MAX_MINIMIZATION_ATTEMPTS = 2000;
+
+    // characters of a field value in the description of a mismatch
+    private static final int MAX_VALUE_LENGTH = 200;
+
+    // characters of an error message which distinguish outcomes, the rest often contains values of the input
+    private static final int MAX_MESSAGE_LENGTH = 60;
+
+    // rounds over the initial inputs before parse times and allocations are checked
+    private static final int WARMUP_ROUNDS = 5;
+
+    private final FuzzOptions options;
+    private final DifferentialParser parser;
+    private final FindingStore findings;
+    private final SplittableRandom random;
+    private final Mutator mutator;
+
+    private final List<byte[]> pool = new ArrayList<>();
+    private final Set<String> outcomes = new HashSet<>();
+
+    // input of the parse in progress, watched for hangs
+    private volatile byte[] current;
+    private volatile long currentStart;
+
+    private long executions;
+    private long customAccepted;
+    private long bouncyCastleAccepted;
+    private long customNanos;
+    private long bouncyCastleNanos;
+
+    public DifferentialFuzzer(FuzzOptions options) throws IOException {
+        this.options = options;
+        this.parser = new DifferentialParser();
+        this.findings = new FindingStore(options.getFindings());
+        this.random = new SplittableRandom(options.getSeed());
+        this.mutator = new Mutator(random.split());
+    }
+
+    public static void main(String[] args) throws Exception {
+        FuzzOptions options;
+
+        try {
+            options = FuzzOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println();
+            System.err.print(FuzzOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        DifferentialFuzzer fuzzer = new DifferentialFuzzer(options);
+        int saved = fuzzer.run();
+
+        // fails the Gradle task, so new findings are not overlooked
+        System.exit(saved > 0 ? 1 : 0);
+    }
+
+    /**
+     * @return number of new findings which were saved
+     **/
+    public int run() throws IOException {
+        System.err.printf("Seed %d, findings are saved to %s%n", options.getSeed(), options.getFindings());
+
+        List<byte[]> initial = new ArrayList<>(CsrCorpus.builder()
+                .seed(options.getSeed())
+                .maxSubjectAlternativeNames(options.getMaxSubjectAlternativeNames())
+                .pemRate(0)
+                .build()
+                .generate(options.getCorpusSize()));
+        initial.addAll(readFindings(options.getFindings()));
+
+        Thread watchdog = new Thread(this::watchForHangs, "fuzz-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+
+        // the initial inputs are checked for findings as well, the parse times only once the code is compiled
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (byte[] input : initial) {
+                execute(input, round == WARMUP_ROUNDS - 1);
+            }
+        }
+        pool.addAll(initial);
+
+        Path stats = options.getStats();
+        if (stats.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(stats.toAbsolutePath().getParent());
+        }
+
+        try (Writer statsWriter = Files.newBufferedWriter(stats, StandardCharsets.UTF_8)) {
+            statsWriter.write("seconds,executions,executionsPerSecond,poolSize,outcomes,customMicros,"
+                    + "bouncyCastleMicros,customAccepted,bouncyCastleAccepted,findings\n");
+
+            fuzz(statsWriter);
+        }
+
+        parser.shutdown();
+
+        System.err.printf(
+                "%d new findings saved, found by kind %s, progress written to %s%n",
+                findings.getSaved(), findings.getFound(), stats.toAbsolutePath());
+
+        return findings.getSaved();
+    }
+
+    private void fuzz(Writer statsWriter) throws IOException {
+        long start = System.nanoTime();
+        long deadline = start + options.getDuration().toNanos();
+        long reportIntervalNanos = options.getReportInterval().toNanos();
+        long nextReport = start + reportIntervalNanos;
+
+        executions = 0;
+        customAccepted = 0;
+        bouncyCastleAccepted = 0;
+        customNanos = 0;
+        bouncyCastleNanos = 0;
+
+        long reportedExecutions = 0;
+        long reportedAt = start;
+
+        while (options.getIterations() == 0 || executions < options.getIterations()) {
+            long now = System.nanoTime();
+            if (now - deadline >= 0) {
+                break;
+            }
+
+            if (now - nextReport >= 0) {
+                report(statsWriter, now - start, (executions - reportedExecutions) * 1e9 / (now - reportedAt));
+                reportedExecutions = executions;
+                reportedAt = now;
+                nextReport += reportIntervalNanos;
+            }
+
+            byte[] input = mutator.mutate(pool.get(random.nextInt(pool.size())), pool.get(random.nextInt(pool.size())));
+            if (random.nextDouble() < options.getPemRate()) {
+                input = pem(input);
+            }
+
+            if (execute(input, true)) {
+                if (pool.size() < MAX_POOL_SIZE) {
+                    pool.add(input);
+                } else {
+                    pool.set(random.nextInt(MAX_POOL_SIZE), input);
+                }
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        report(statsWriter, elapsed, executions * 1e9 / elapsed);
+    }
+
+    /**
+     * Parse the input with both engines and save what it finds.
+     *
+     * @return true if the outcome class of the input is new
+     **/
+    private boolean execute(byte[] input, boolean checkPerformance) throws IOException {
+        DifferentialResult result = parse(input);
+
+        executions++;
+        customNanos += result.getCustom().getElapsedNanos();
+        bouncyCastleNanos += result.getBouncyCastle().getElapsedNanos();
+        if (result.getCustom().isAccepted()) {
+            customAccepted++;
+        }
+        if (result.getBouncyCastle().isAccepted()) {
+            bouncyCastleAccepted++;
+        }
+
+        String signature = signature(result);
+        if (signature != null) {
+            FindingKind kind = FindingKind.valueOf(signature.substring(0, signature.indexOf(' ')));
+
+            // known signatures are only counted, minimizing them again would be wasted
+            if (findings.isNew(signature)) {
+                byte[] finding = minimize(input, signature);
+                save(kind, signature, finding, parse(finding));
+            } else {
+                save(kind, signature, input, result);
+            }
+        }
+
+        if (checkPerformance) {
+            checkPerformance(input, result);
+        }
+
+        return outcomes.add(outcome(result.getCustom()) + " | " + outcome(result.getBouncyCastle()));
+    }
+
+    private void checkPerformance(byte[] input, DifferentialResult result) throws IOException {
+        long maxNanos = options.getMaxParseTime().toNanos();
+        long maxAllocatedBytes = ALLOCATION_ALLOWANCE + (long) options.getMaxAllocationRatio() * input.length;
+
+        boolean slow = result.getCustom().getElapsedNanos() > maxNanos
+                || result.getBouncyCastle().getElapsedNanos() > maxNanos;
+        boolean allocating = result.getCustom().getAllocatedBytes() > maxAllocatedBytes
+                || result.getBouncyCastle().getAllocatedBytes() > maxAllocatedBytes;
+
+        if (!slow && !allocating) {
+            return;
+        }
+
+        // the fastest and least allocating of several parses, the first one may include a GC pause
+        long[] nanos = {Long.MAX_VALUE, Long.MAX_VALUE};
+        long[] allocatedBytes = {Long.MAX_VALUE, Long.MAX_VALUE};
+
+        DifferentialResult confirmation = result;
+        for (int i = 0; i < CONFIRMATION_RUNS; i++) {
+            confirmation = parse(input);
+
+            EngineResult[] engines = {confirmation.getCustom(), confirmation.getBouncyCastle()};
+            for (int e = 0; e < engines.length; e++) {
+                nanos[e] = Math.min(nanos[e], engines[e].getElapsedNanos());
+                allocatedBytes[e] = Math.min(allocatedBytes[e], engines[e].getAllocatedBytes());
+            }
+        }
+
+        EngineResult[] engines = {confirmation.getCustom(), confirmation.getBouncyCastle()};
+        for (int e = 0; e < engines.length; e++) {
+            String engine = engineName(engines[e].getEngine());
+
+            if (nanos[e] > maxNanos) {
+                save(
+                        FindingKind.SLOW,
+                        "SLOW " + engine + " " + engines[e].describe(),
+                        input,
+                        confirmation,
+                        String.format("%s took %.1f ms for %d bytes", engine, nanos[e] / 1e6, input.length));
+            }
+
+            if (allocatedBytes[e] > maxAllocatedBytes) {
+                save(
+                        FindingKind.ALLOCATION,
+                        "ALLOCATION " + engine + " " + engines[e].describe(),
+                        input,
+                        confirmation,
+                        String.format("%s allocated %d bytes for %d bytes", engine, allocatedBytes[e], input.length));
+            }
+        }
+    }
+
+    private DifferentialResult parse(byte[] input) {
+        currentStart = System.nanoTime();
+        current = input;
+
+        try {
+            return parser.parse(input);
+        } finally {
+            current = null;
+        }
+    }
+
+    /**
+     * @return signature of the finding in the result, starting with its kind, null if there is none
+     **/
+    private static String signature(DifferentialResult result) {
+        for (EngineResult engine : List.of(result.getCustom(), result.getBouncyCastle())) {
+            if (engine.isCrashed()) {
+                Throwable crash = engine.getCrash();
+                StackTraceElement[] stackTrace = crash.getStackTrace();
+
+                return "CRASH " + engineName(engine.getEngine()) + " " + crash.getClass().getName()
+                        + (stackTrace.length > 0 ? " at " + stackTrace[0] : "");
+            }
+        }
+
+        if (result.isMismatch()) {
+            return "MISMATCH " + String.join(",", result.getMismatchedFields());
+        }
+
+        if (result.isAcceptanceMismatch()) {
+            EngineResult accepting = result.getCustom().isAccepted() ? result.getCustom() : result.getBouncyCastle();
+            EngineResult rejecting = result.getCustom().isAccepted() ? result.getBouncyCastle() : result.getCustom();
+
+            return "ACCEPTANCE " + engineName(accepting.getEngine()) + " accepted, " + engineName(rejecting.getEngine())
+                    + " rejected " + rejecting.describe();
+        }
+
+        return null;
+    }
+
+    /**
+     * Remove elements and then bytes of the input as long as it has the same finding.
+     **/
+    private byte[] minimize(byte[] input, String signature) {
+        byte[] smallest = input;
+        int attempts = 0;
+
+        // whole elements first, so the result is still DER where possible
+        List<DerNode> nodes = DerNode.decode(smallest);
+        if (nodes != null) {
+            boolean removed = true;
+            while (removed && attempts < MAX_MINIMIZATION_ATTEMPTS) {
+                removed = false;
+
+                List<List<DerNode>> scopes = new ArrayList<>();
+                scopes.add(nodes);
+                for (DerNode node : nodes) {
+                    node.forEach(n -> {
+                        if (n.children != null) {
+                            scopes.add(n.children);
+                        }
+                    });
+                }
+
+                for (List<DerNode> scope : scopes) {
+                    for (int i = scope.size() - 1; i >= 0 && attempts < MAX_MINIMIZATION_ATTEMPTS; i--) {
+                        DerNode node = scope.remove(i);
+                        byte[] candidate = DerNode.encode(nodes);
+                        attempts++;
+
+                        if (signature.equals(signature(parse(candidate)))) {
+                            smallest = candidate;
+                            removed = true;
+                        } else {
+                            scope.add(i, node);
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int chunk = smallest.length / 2; chunk > 0 && attempts < MAX_MINIMIZATION_ATTEMPTS; chunk /= 2) {
+            for (int pos = smallest.length - chunk; pos >= 0 && attempts < MAX_MINIMIZATION_ATTEMPTS; pos -= chunk) {
+                byte[] candidate = new byte[smallest.length - chunk];
+                System.arraycopy(smallest, 0, candidate, 0, pos);
+                System.arraycopy(smallest, pos + chunk, candidate, pos, smallest.length - pos - chunk);
+                attempts++;
+
+                if (signature.equals(signature(parse(candidate)))) {
+                    smallest = candidate;
+                }
+            }
+        }
+
+        return smallest;
+    }
+
+    private void save(FindingKind kind, String signature, byte[] input, DifferentialResult result, String... details)
+            throws IOException {
+        List<String> description = new ArrayList<>(List.of(details));
+        description.add("custom: " + describe(result.getCustom()));
+        description.add("bouncyCastle: " + describe(result.getBouncyCastle()));
+
+        for (String field : result.getMismatchedFields()) {
+            description.add(field + ": custom " + abbreviate(result.getCustom().getFields().get(field))
+                    + ", bouncyCastle " + abbreviate(result.getBouncyCastle().getFields().get(field)));
+        }
+
+        for (EngineResult engine : List.of(result.getCustom(), result.getBouncyCastle())) {
+            if (engine.isCrashed()) {
+                StringWriter stackTrace = new StringWriter();
+                engine.getCrash().printStackTrace(new PrintWriter(stackTrace));
+                description.add(stackTrace.toString().strip());
+            }
+        }
+
+        Path file = findings.save(kind, signature, input, description);
+        if (file != null) {
+            System.err.println("New finding " + file + ": " + signature);
+        }
+    }
+
+    /**
+     * @return the value with control characters replaced, shortened to a line of the description
+     **/
+    private static String abbreviate(Object value) {
+        String text = String.valueOf(value).replaceAll("\\p{Cntrl}", "?");
+
+        return text.length() <= MAX_VALUE_LENGTH ? text : text.substring(0, MAX_VALUE_LENGTH) + "...";
+    }
+
+    private static String describe(EngineResult engine) {
+        if (engine.getRejection() != null) {
+            return engine.getRejection().getCode() + " " + engine.getRejection().getMessage();
+        }
+
+        return engine.describe();
+    }
+
+    /**
+     * @return outcome class of an engine, the fields it accepted or the error without offsets and lengths
+     **/
+    private static String outcome(EngineResult engine) {
+        if (engine.isAccepted()) {
+            return engine.getFields().entrySet().stream()
+                    .filter(field -> field.getValue() != null)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.joining(",", "accepted ", ""));
+        }
+
+        Throwable error = engine.isCrashed() ? engine.getCrash() : engine.getRejection();
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+
+        String message = String.valueOf(cause.getMessage()).replaceAll("\\d+", "#");
+
+        return engine.describe() + " " + cause.getClass().getSimpleName() + " "
+                + message.substring(0, Math.min(message.length(), MAX_MESSAGE_LENGTH));
+    }
+
+    private void watchForHangs() {
+        long hangTimeoutNanos = options.getHangTimeout().toNanos();
+
+        while (true) {
+            byte[] input = current;
+            if (input != null && System.nanoTime() - currentStart > hangTimeoutNanos) {
+                try {
+                    findings.save(
+                            FindingKind.HANG,
+                            "HANG " + FindingStore.hash(input),
+                            input,
+                            List.of("parse did not return within " + options.getHangTimeout()));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+
+                System.err.println("Parse did not return within " + options.getHangTimeout() + ", stopping");
+                System.exit(3);
+            }
+
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void report(Writer statsWriter, long elapsedNanos, double executionsPerSecond) throws IOException {
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(elapsedNanos);
+        long count = Math.max(1, executions);
+        Map<FindingKind, Long> found = findings.getFound();
+
+        System.err.printf(
+                "[%5ds] %d executions, %.0f/s, pool %d, outcomes %d, custom %.1f us (%.1f%% accepted), "
+                        + "bouncy castle %.1f us (%.1f%% accepted), findings %s%n",
+                seconds,
+                executions,
+                executionsPerSecond,
+                pool.size(),
+                outcomes.size(),
+                customNanos / 1e3 / count,
+                100.0 * customAccepted / count,
+                bouncyCastleNanos / 1e3 / count,
+                100.0 * bouncyCastleAccepted / count,
+                found);
+
+        statsWriter.write(String.format(
+                "%d,%d,%.0f,%d,%d,%.1f,%.1f,%d,%d,%d%n",
+                seconds,
+                executions,
+                executionsPerSecond,
+                pool.size(),
+                outcomes.size(),
+                customNanos / 1e3 / count,
+                bouncyCastleNanos / 1e3 / count,
+                customAccepted,
+                bouncyCastleAccepted,
+                found.values().stream().mapToLong(Long::longValue).sum()));
+        statsWriter.flush();
+    }
+
+    private static List<byte[]> readFindings(Path directory) throws IOException {
+        List<byte[]> inputs = new ArrayList<>();
+
+        if (!Files.isDirectory(directory)) {
+            return inputs;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (!file.getFileName().toString().endsWith(FindingStore.DESCRIPTION_SUFFIX)) {
+                    inputs.add(Files.readAllBytes(file));
+                }
+            }
+        }
+
+        return inputs;
+    }
+
+    private static byte[] pem(byte[] der) {
+        return ("-----BEGIN CERTIFICATE REQUEST-----\n"
+                        + Base64.getMimeEncoder(64, new byte[] {'\n'}).encodeToString(der)
+                        + "\n-----END CERTIFICATE REQUEST-----\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String engineName(ParserEngine engine) {
+        return engine == ParserEngine.CUSTOM ? "custom" : "bouncyCastle";
+    }
+}
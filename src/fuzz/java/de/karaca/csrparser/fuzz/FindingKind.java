@@ -0,0 +1,16 @@
+package de.karaca.csrparser.fuzz;
+
+public enum FindingKind {
+    // an engine threw something else than InvalidCsrException
+    CRASH,
+    // both engines accepted the input with different values
+    MISMATCH,
+    // one engine accepted the input, the other one rejected it
+    ACCEPTANCE,
+    // a parse took longer than the maximum parse time
+    SLOW,
+    // a parse allocated much more than the input size
+    ALLOCATION,
+    // a parse did not return within the hang timeout
+    HANG
+}
@@ -0,0 +1,117 @@
+package de.karaca.csrparser.fuzz;
+
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Saves findings as regression fixtures, one per signature: an input file named after the kind and the hash of the
+ * input, and a description next to it with the suffix {@code .txt}. Signatures of the descriptions which are already
+ * in the directory are not saved again, so repeated runs only add new findings.
+ **/
+final class FindingStore {
+    static final String DESCRIPTION_SUFFIX = ".txt";
+
+    private static final String SIGNATURE_PREFIX = "signature: ";
+    private static final byte[] PEM_PREFIX = "-----BEGIN".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path directory;
+    private final Set<String> signatures = new HashSet<>();
+    private final Map<FindingKind, Integer> saved = new EnumMap<>(FindingKind.class);
+    private final Map<FindingKind, Long> found = new EnumMap<>(FindingKind.class);
+
+    FindingStore(Path directory) throws IOException {
+        this.directory = directory;
+
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + DESCRIPTION_SUFFIX)) {
+            for (Path file : files) {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    if (line.startsWith(SIGNATURE_PREFIX)) {
+                        signatures.add(line.substring(SIGNATURE_PREFIX.length()));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the signature was not found before
+     **/
+    synchronized boolean isNew(String signature) {
+        return !signatures.contains(signature);
+    }
+
+    /**
+     * Count a finding and save it if its signature is new.
+     *
+     * @return the saved input file, null if the signature was found before
+     **/
+    synchronized Path save(FindingKind kind, String signature, byte[] input, List<String> description)
+            throws IOException {
+        found.merge(kind, 1L, Long::sum);
+
+        if (!signatures.add(signature)) {
+            return null;
+        }
+
+        Files.createDirectories(directory);
+
+        String name = kind.name().toLowerCase() + "-" + hash(input);
+        Path file = directory.resolve(name + (isPem(input) ? ".pem" : ".der"));
+
+        Files.write(file, input);
+        Files.write(
+                directory.resolve(name + DESCRIPTION_SUFFIX),
+                (SIGNATURE_PREFIX + signature + "\n" + String.join("\n", description) + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+
+        saved.merge(kind, 1, Integer::sum);
+
+        return file;
+    }
+
+    /**
+     * @return number of findings by kind, including those which were not saved as their signature was known
+     **/
+    synchronized Map<FindingKind, Long> getFound() {
+        return new EnumMap<>(found);
+    }
+
+    synchronized int getSaved() {
+        return saved.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * @return the first 8 bytes of the SHA-256 hash of the input in hex, identifying an input in file names
+     **/
+    static String hash(byte[] input) {
+        return HexFormat.of().formatHex(KeyFingerprintService.fingerprint(input), 0, 8);
+    }
+
+    private static boolean isPem(byte[] input) {
+        if (input.length < PEM_PREFIX.length) {
+            return false;
+        }
+
+        for (int i = 0; i < PEM_PREFIX.length; i++) {
+            if (input[i] != PEM_PREFIX[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
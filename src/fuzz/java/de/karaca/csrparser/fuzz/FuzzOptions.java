@@ -0,0 +1,104 @@
+package de.karaca.csrparser.fuzz;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class FuzzOptions {
+    public static final String USAGE =
+            """
+            Usage: fuzz [options]
+
+            Feeds mutated CSRs of the synthetic corpus to the custom and the BouncyCastle engine and saves inputs
+            which crash an engine, are parsed differently, or take too long or allocate too much.
+
+            Options:
+              --seed=<n>                    seed of the corpus and the mutations (default: random, printed)
+              --duration=<seconds>          run time (default: 60)
+              --iterations=<n>              stop after this many inputs (default: no limit)
+              --corpus-size=<n>             CSRs generated as initial inputs (default: 200)
+              --max-subject-alternative-names=<n>
+                                            maximum number of names of a generated CSR (default: 20)
+              --pem-rate=<0..1>             share of mutated inputs wrapped in PEM (default: 0.1)
+              --max-parse-millis=<n>        parse time of one engine reported as slow (default: 20)
+              --max-allocation-ratio=<n>    bytes allocated per input byte reported as excessive,
+                                            beyond an allowance of 64 KiB (default: 64)
+              --hang-timeout=<seconds>      parse time after which the input is saved and the run stops
+                                            (default: 10)
+              --findings=<directory>        where findings are saved (default: src/test/resources/fuzz)
+              --report-interval=<seconds>   interval of the progress lines (default: 10)
+              --stats=<file>                progress as CSV (default: build/fuzz/stats.csv)
+            """;
+
+    private final long seed;
+    private final Duration duration;
+    // 0 for no limit
+    private final long iterations;
+    private final int corpusSize;
+    private final int maxSubjectAlternativeNames;
+    private final double pemRate;
+    private final Duration maxParseTime;
+    private final int maxAllocationRatio;
+    private final Duration hangTimeout;
+    private final Path findings;
+    private final Duration reportInterval;
+    private final Path stats;
+
+    /**
+     * Parse the command line arguments.
+     *
+     * @throws IllegalArgumentException if an option is unknown or has an invalid value
+     **/
+    public static FuzzOptions parse(String[] args) {
+        var builder = FuzzOptions.builder()
+                .seed(System.nanoTime())
+                .duration(Duration.ofSeconds(60))
+                .corpusSize(200)
+                .maxSubjectAlternativeNames(20)
+                .pemRate(0.1)
+                .maxParseTime(Duration.ofMillis(20))
+                .maxAllocationRatio(64)
+                .hangTimeout(Duration.ofSeconds(10))
+                .findings(Path.of("src", "test", "resources", "fuzz"))
+                .reportInterval(Duration.ofSeconds(10))
+                .stats(Path.of("build", "fuzz", "stats.csv"));
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg : arg.substring(0, separator);
+            String value = separator < 0 ? "" : arg.substring(separator + 1);
+
+            switch (name) {
+                case "--seed" -> builder.seed(Long.parseLong(value));
+                case "--duration" -> builder.duration(Duration.ofSeconds(positive(name, Long.parseLong(value))));
+                case "--iterations" -> builder.iterations(positive(name, Long.parseLong(value)));
+                case "--corpus-size" -> builder.corpusSize((int) positive(name, Integer.parseInt(value)));
+                case "--max-subject-alternative-names" -> builder.maxSubjectAlternativeNames(Integer.parseInt(value));
+                case "--pem-rate" -> builder.pemRate(Double.parseDouble(value));
+                case "--max-parse-millis" -> builder.maxParseTime(
+                        Duration.ofMillis(positive(name, Long.parseLong(value))));
+                case "--max-allocation-ratio" -> builder.maxAllocationRatio(
+                        (int) positive(name, Integer.parseInt(value)));
+                case "--hang-timeout" -> builder.hangTimeout(Duration.ofSeconds(positive(name, Long.parseLong(value))));
+                case "--findings" -> builder.findings(Path.of(value));
+                case "--report-interval" -> builder.reportInterval(
+                        Duration.ofSeconds(positive(name, Long.parseLong(value))));
+                case "--stats" -> builder.stats(Path.of(value));
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static long positive(String name, long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+
+        return value;
+    }
+}
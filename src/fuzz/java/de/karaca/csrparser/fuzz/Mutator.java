@@ -0,0 +1,281 @@
+package de.karaca.csrparser.fuzz;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Mutations of DER encoded CSRs.
+ *
+ * Most mutations change the tree of elements and encode it again, so the enclosing lengths stay consistent and the
+ * decoder gets past the outer structure to the element which was changed. The others change the raw bytes, including
+ * the length octets, which the tree mutations never get wrong.
+ **/
+final class Mutator {
+    private static final int MAX_STACKED = 3;
+    private static final int MAX_REPEAT = 256;
+    private static final int MAX_LENGTH = 1 << 20;
+
+    private static final byte[] SEQUENCE = {0x30};
+
+    // values at the edges of the decoder's checks
+    private static final int[] INTERESTING_BYTES = {0x00, 0x01, 0x1F, 0x7F, 0x80, 0x81, 0x82, 0x83, 0x84, 0xFF};
+
+    // length octets which are invalid, not minimal or at the limits of int and signed short
+    private static final byte[][] INTERESTING_LENGTHS = {
+        {0x00},
+        {0x7F},
+        {(byte) 0x80},
+        {(byte) 0x81, 0x00},
+        {(byte) 0x81, 0x05},
+        {(byte) 0x81, (byte) 0xFF},
+        {(byte) 0x82, 0x00, 0x05},
+        {(byte) 0x82, 0x7F, (byte) 0xFF},
+        {(byte) 0x82, (byte) 0x80, 0x00},
+        {(byte) 0x82, (byte) 0xFF, (byte) 0xFF},
+        {(byte) 0x84, 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF},
+        {(byte) 0x84, (byte) 0x80, 0x00, 0x00, 0x00},
+        {(byte) 0x84, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF},
+        {(byte) 0x88, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x01},
+        {(byte) 0xFF}
+    };
+
+    // universal, context-specific and high tag number identifiers
+    private static final byte[][] TAGS = {
+        {0x01}, {0x02}, {0x03}, {0x04}, {0x05}, {0x06}, {0x0C}, {0x13}, {0x14}, {0x16}, {0x17}, {0x18}, {0x1E},
+        {0x30}, {0x31}, {(byte) 0x80}, {(byte) 0x81}, {(byte) 0x82}, {(byte) 0x86}, {(byte) 0x87}, {(byte) 0x88},
+        {(byte) 0xA0}, {(byte) 0xA3}, {(byte) 0xA4}, {0x1F, 0x22}, {0x1F, (byte) 0x81, 0x00},
+        {0x1F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F}
+    };
+
+    private final SplittableRandom random;
+
+    Mutator(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * @param donor another input to take elements from
+     * @return the input with one to a few mutations, the input itself is not changed
+     **/
+    byte[] mutate(byte[] input, byte[] donor) {
+        byte[] result = input;
+
+        int count = 1 + random.nextInt(MAX_STACKED);
+        for (int i = 0; i < count; i++) {
+            byte[] mutated = mutateOnce(result, donor);
+            if (mutated.length > MAX_LENGTH) {
+                break;
+            }
+            result = mutated;
+        }
+
+        return result;
+    }
+
+    private byte[] mutateOnce(byte[] input, byte[] donor) {
+        if (input.length == 0) {
+            return randomBytes(1 + random.nextInt(16));
+        }
+
+        List<DerNode> nodes = random.nextInt(4) == 0 ? null : DerNode.decode(input);
+        if (nodes == null || nodes.isEmpty()) {
+            return mutateRaw(input);
+        }
+
+        List<Slot> slots = new ArrayList<>();
+        collectSlots(nodes, slots);
+        Slot slot = slots.get(random.nextInt(slots.size()));
+        DerNode node = slot.node();
+
+        switch (random.nextInt(9)) {
+            case 0 -> slot.siblings().remove(slot.index());
+            case 1 -> slot.siblings().add(slot.index(), node.copy());
+            case 2 -> {
+                int other = random.nextInt(slot.siblings().size());
+                slot.siblings().set(slot.index(), slot.siblings().get(other));
+                slot.siblings().set(other, node);
+            }
+            case 3 -> {
+                List<DerNode> donorNodes = DerNode.decode(donor);
+                if (donorNodes == null || donorNodes.isEmpty()) {
+                    return mutateRaw(input);
+                }
+
+                List<Slot> donorSlots = new ArrayList<>();
+                collectSlots(donorNodes, donorSlots);
+                DerNode donated = donorSlots.get(random.nextInt(donorSlots.size())).node();
+
+                if (random.nextBoolean()) {
+                    slot.siblings().set(slot.index(), donated);
+                } else {
+                    slot.siblings().add(slot.index(), donated);
+                }
+            }
+            case 4 -> replaceContent(node);
+            case 5 -> node.tag = TAGS[random.nextInt(TAGS.length)].clone();
+            case 6 -> slot.siblings().set(slot.index(), DerNode.constructed(SEQUENCE, new ArrayList<>(List.of(node))));
+            case 7 -> {
+                // many copies of an element, e.g. names or extensions, for slow paths
+                int copies = 2 + random.nextInt(MAX_REPEAT);
+                for (int i = 0; i < copies; i++) {
+                    slot.siblings().add(slot.index(), node.copy());
+                }
+            }
+            default -> {
+                List<DerNode> objectIdentifiers = new ArrayList<>();
+                for (DerNode root : nodes) {
+                    root.forEach(n -> {
+                        if (n.content != null && n.tag.length == 1 && n.tag[0] == 0x06) {
+                            objectIdentifiers.add(n);
+                        }
+                    });
+                }
+
+                if (objectIdentifiers.isEmpty()) {
+                    return mutateRaw(input);
+                }
+
+                mutateObjectIdentifier(objectIdentifiers.get(random.nextInt(objectIdentifiers.size())));
+            }
+        }
+
+        return DerNode.encode(nodes);
+    }
+
+    private byte[] mutateRaw(byte[] input) {
+        byte[] result = input.clone();
+
+        switch (random.nextInt(5)) {
+            case 0 -> {
+                int flips = 1 + random.nextInt(4);
+                for (int i = 0; i < flips; i++) {
+                    result[random.nextInt(result.length)] ^= (byte) (1 << random.nextInt(8));
+                }
+            }
+            case 1 -> result[random.nextInt(result.length)] =
+                    (byte) INTERESTING_BYTES[random.nextInt(INTERESTING_BYTES.length)];
+            case 2 -> {
+                // replace the length octets of an element with a header at a random position
+                int pos = random.nextInt(result.length);
+                int lengthPos = pos + 1;
+                if (lengthPos >= result.length) {
+                    return result;
+                }
+
+                int lengthOctets = (result[lengthPos] & 0x80) == 0 ? 1 : 1 + (result[lengthPos] & 0x7F);
+                int end = Math.min(result.length, lengthPos + lengthOctets);
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                out.write(result, 0, lengthPos);
+                out.writeBytes(INTERESTING_LENGTHS[random.nextInt(INTERESTING_LENGTHS.length)]);
+                out.write(result, end, result.length - end);
+                return out.toByteArray();
+            }
+            case 3 -> {
+                return Arrays.copyOf(result, random.nextInt(result.length));
+            }
+            default -> {
+                int pos = random.nextInt(result.length + 1);
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                out.write(result, 0, pos);
+                out.writeBytes(randomBytes(1 + random.nextInt(8)));
+                out.write(result, pos, result.length - pos);
+                return out.toByteArray();
+            }
+        }
+
+        return result;
+    }
+
+    private void replaceContent(DerNode node) {
+        switch (random.nextInt(5)) {
+            case 0 -> node.content = new byte[0];
+            case 1 -> node.content = randomBytes(1 + random.nextInt(64));
+            // e.g. an IP address of another length than 4 or 16
+            case 2 -> node.content = randomBytes(random.nextInt(20));
+            case 3 -> {
+                // long strings and integers
+                node.content = new byte[1 + random.nextInt(4096)];
+                Arrays.fill(node.content, (byte) (random.nextBoolean() ? 'a' : 0xFF));
+            }
+            default -> {
+                if (node.content == null || node.content.length == 0) {
+                    node.content = randomBytes(1);
+                } else {
+                    node.content = node.content.clone();
+                    node.content[random.nextInt(node.content.length)] =
+                            (byte) INTERESTING_BYTES[random.nextInt(INTERESTING_BYTES.length)];
+                }
+            }
+        }
+
+        node.children = null;
+    }
+
+    /**
+     * Change the base 128 components of an OID: leading and long runs of continuation octets, components beyond the
+     * range of long and an unterminated last component.
+     **/
+    private void mutateObjectIdentifier(DerNode node) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] content = node.content;
+        int pos = content.length == 0 ? 0 : random.nextInt(content.length + 1);
+
+        out.write(content, 0, pos);
+        switch (random.nextInt(4)) {
+            case 0 -> out.write(0x80);
+            case 1 -> {
+                int octets = 1 + random.nextInt(24);
+                for (int i = 0; i < octets; i++) {
+                    out.write(0xFF);
+                }
+                out.write(0x7F);
+            }
+            case 2 -> {
+                out.write(0x88);
+                out.write(0x80);
+                out.write(0x80);
+                out.write(0x00);
+            }
+            default -> {
+                // the last component never ends
+                out.write(content, pos, content.length - pos);
+                out.write(0x81);
+                node.content = out.toByteArray();
+                return;
+            }
+        }
+        out.write(content, pos, content.length - pos);
+
+        node.content = out.toByteArray();
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) random.nextInt(256);
+        }
+        return bytes;
+    }
+
+    private static void collectSlots(List<DerNode> siblings, List<Slot> slots) {
+        for (int i = 0; i < siblings.size(); i++) {
+            slots.add(new Slot(siblings, i));
+
+            List<DerNode> children = siblings.get(i).children;
+            if (children != null && !children.isEmpty()) {
+                collectSlots(children, slots);
+            }
+        }
+    }
+
+    private record Slot(List<DerNode> siblings, int index) {
+        DerNode node() {
+            return siblings.get(index);
+        }
+    }
+}
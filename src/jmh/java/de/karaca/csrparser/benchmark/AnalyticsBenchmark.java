@@ -0,0 +1,63 @@
+package de.karaca.csrparser.benchmark;
+
+import de.karaca.csrparser.analytics.AnalyticsProperties;
+import de.karaca.csrparser.analytics.ParseAnalytics;
+import de.karaca.csrparser.decoder.ObjectIdentifiers;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.service.ParserEngine;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Recording a parsed CSR into the analytics, by one and by eight threads at once.
+ * The time per recording should barely grow with the number of threads, as they do not contend.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyticsBenchmark {
+    private ParseAnalytics parseAnalytics;
+    private CsrDetailsModel model;
+
+    @Setup
+    public void setup() {
+        parseAnalytics = new ParseAnalytics(new AnalyticsProperties());
+
+        model = CsrDetailsModel.builder()
+                .signatureAlgorithmId(ObjectIdentifiers.ecdsaWithSHA256)
+                .publicKeyAlgorithmId(ObjectIdentifiers.EC)
+                .subjectAlternativeNameCount(3)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        parseAnalytics.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void recordSingleThread() {
+        parseAnalytics.recordParsed(ParserEngine.CUSTOM, 1200, model, ObjectIdentifiers.secp256r1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordEightThreads() {
+        parseAnalytics.recordParsed(ParserEngine.CUSTOM, 1200, model, ObjectIdentifiers.secp256r1);
+    }
+}
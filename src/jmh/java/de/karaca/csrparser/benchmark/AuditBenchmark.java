@@ -0,0 +1,95 @@
+package de.karaca.csrparser.benchmark;
+
+import de.karaca.csrparser.audit.AuditLog;
+import de.karaca.csrparser.audit.AuditProperties;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.service.ParserEngine;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time a request thread spends on an audit record, by one and by eight threads at once.
+ * Records which do not fit into the queue are dropped, so the result does not depend on the disk;
+ * the dropped count printed on tear down shows whether the writer kept up.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditBenchmark {
+    @Param({"NEVER", "INTERVAL", "BATCH"})
+    private AuditProperties.Fsync fsync;
+
+    private Path directory;
+    private AuditLog auditLog;
+    private CsrDetailsModel model;
+    private byte[] input;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("audit-benchmark");
+
+        AuditProperties properties = new AuditProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        properties.setFsync(fsync);
+
+        auditLog = new AuditLog(properties);
+
+        model = CsrDetailsModel.builder()
+                .subject("CN=www.example.com,O=Example,C=DE")
+                .publicKeyAlgorithm("RSA")
+                .rsaKeyLength(2048)
+                .build();
+
+        // only hashed, so the size of a typical CSR is all that matters
+        input = new byte[1200];
+        new Random(42).nextBytes(input);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        auditLog.shutdown();
+
+        System.out.println("written " + auditLog.snapshot().getWritten() + ", dropped "
+                + auditLog.snapshot().getDropped());
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void recordSingleThread() {
+        auditLog.recordParsed(ParserEngine.CUSTOM, input, model);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordEightThreads() {
+        auditLog.recordParsed(ParserEngine.CUSTOM, input, model);
+    }
+}
@@ -0,0 +1,143 @@
+package de.karaca.csrparser.benchmark;
+
+import de.karaca.csrparser.model.CertificateDetailsModel;
+import de.karaca.csrparser.service.CertificateParserService;
+import java.io.ByteArrayInputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing a PEM chain of a leaf certificate with an RSA key and 20 DNS names and its EC CA certificate.
+ * The CertificateFactory benchmark reads the same values from the certificates as the custom parser.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CertificateBenchmark {
+    private byte[] chain;
+    private CertificateParserService certificateParserService;
+    private CertificateFactory certificateFactory;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPairGenerator rsaGenerator = KeyPairGenerator.getInstance("RSA");
+        rsaGenerator.initialize(2048);
+        KeyPair leafKeyPair = rsaGenerator.generateKeyPair();
+
+        KeyPairGenerator ecGenerator = KeyPairGenerator.getInstance("EC");
+        ecGenerator.initialize(384);
+        KeyPair caKeyPair = ecGenerator.generateKeyPair();
+
+        X500Name caName = new X500Name("CN=Benchmark CA,O=Karaca,C=DE");
+        Date notBefore = new Date();
+        Date notAfter = Date.from(Instant.now().plus(Duration.ofDays(365)));
+
+        X509Certificate ca = sign(
+                new JcaX509v3CertificateBuilder(
+                                caName, BigInteger.ONE, notBefore, notAfter, caName, caKeyPair.getPublic())
+                        .addExtension(Extension.basicConstraints, true, new BasicConstraints(0))
+                        .addExtension(
+                                Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign)),
+                caKeyPair);
+
+        GeneralName[] names = new GeneralName[20];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = new GeneralName(GeneralName.dNSName, "host-" + i + ".example.com");
+        }
+
+        X509Certificate leaf = sign(
+                new JcaX509v3CertificateBuilder(
+                                caName,
+                                new BigInteger("0123456789abcdef0123", 16),
+                                notBefore,
+                                notAfter,
+                                new X500Name("CN=benchmark.example.com,OU=Ops,O=Karaca,L=Berlin,ST=Berlin,C=DE"),
+                                leafKeyPair.getPublic())
+                        .addExtension(Extension.subjectAlternativeName, false, new GeneralNames(names))
+                        .addExtension(
+                                Extension.keyUsage,
+                                true,
+                                new KeyUsage(KeyUsage.digitalSignature | KeyUsage.keyEncipherment))
+                        .addExtension(
+                                Extension.extendedKeyUsage,
+                                false,
+                                new ExtendedKeyUsage(KeyPurposeId.id_kp_serverAuth)),
+                caKeyPair);
+
+        chain = (toPem(leaf) + toPem(ca)).getBytes(StandardCharsets.US_ASCII);
+
+        certificateParserService = new CertificateParserService();
+        certificateFactory = CertificateFactory.getInstance("X.509");
+    }
+
+    @Benchmark
+    public List<CertificateDetailsModel> parseCustom() {
+        return certificateParserService.parse(chain);
+    }
+
+    @Benchmark
+    public void parseCertificateFactory(Blackhole blackhole) throws CertificateException {
+        for (var certificate : certificateFactory.generateCertificates(new ByteArrayInputStream(chain))) {
+            X509Certificate x509Certificate = (X509Certificate) certificate;
+
+            blackhole.consume(x509Certificate.getSerialNumber());
+            blackhole.consume(x509Certificate.getIssuerX500Principal().getName());
+            blackhole.consume(x509Certificate.getSubjectX500Principal().getName());
+            blackhole.consume(x509Certificate.getNotAfter());
+            blackhole.consume(x509Certificate.getPublicKey());
+            blackhole.consume(x509Certificate.getSubjectAlternativeNames());
+            blackhole.consume(x509Certificate.getKeyUsage());
+            blackhole.consume(x509Certificate.getExtendedKeyUsage());
+            blackhole.consume(x509Certificate.getBasicConstraints());
+        }
+    }
+
+    private static X509Certificate sign(JcaX509v3CertificateBuilder builder, KeyPair issuerKeyPair)
+            throws Exception {
+        var holder = builder.build(new JcaContentSignerBuilder("SHA384withECDSA").build(issuerKeyPair.getPrivate()));
+
+        return (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(holder.getEncoded()));
+    }
+
+    private static String toPem(X509Certificate certificate) throws CertificateException {
+        return "-----BEGIN CERTIFICATE-----\n"
+                + Base64.getMimeEncoder(64, new byte[] {'\n'}).encodeToString(certificate.getEncoded())
+                + "\n-----END CERTIFICATE-----\n";
+    }
+}
@@ -0,0 +1,81 @@
+package de.karaca.csrparser.benchmark;
+
+import de.karaca.csrparser.analytics.AnalyticsProperties;
+import de.karaca.csrparser.analytics.ParseAnalytics;
+import de.karaca.csrparser.corpus.CsrCorpus;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.fixtures.TestParsers;
+import de.karaca.csrparser.service.CsrParserService;
+import de.karaca.csrparser.service.ParserEngine;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Average parse time over a mixed synthetic corpus instead of a single CSR: RSA and EC keys, PEM and DER,
+ * different subject shapes and subject alternative name counts, optionally with malformed input.
+ * The corpus is generated from a fixed seed, so every run parses the same bytes.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CorpusBenchmark {
+    // power of two, the entries are selected with a mask
+    private static final int CORPUS_SIZE = 1024;
+
+    @Param({"CUSTOM", "BOUNCY_CASTLE"})
+    private ParserEngine engine;
+
+    @Param({"0", "0.1"})
+    private double malformedRate;
+
+    private List<byte[]> corpus;
+    private CsrParserService parserService;
+    private ParseAnalytics parseAnalytics;
+    private int next;
+
+    @Setup
+    public void setup() {
+        corpus = CsrCorpus.builder()
+                .seed(42)
+                .maxSubjectAlternativeNames(2000)
+                .malformedRate(malformedRate)
+                .build()
+                .generate(CORPUS_SIZE);
+
+        parseAnalytics = new ParseAnalytics(new AnalyticsProperties());
+
+        TestParsers.Builder parsers = TestParsers.builder().parseAnalytics(parseAnalytics);
+        parserService = engine == ParserEngine.CUSTOM ? parsers.custom() : parsers.bouncyCastle();
+    }
+
+    @TearDown
+    public void tearDown() {
+        parseAnalytics.shutdown();
+    }
+
+    @Benchmark
+    public Object parse() {
+        byte[] input = corpus.get(next++ & (CORPUS_SIZE - 1));
+
+        try {
+            return parserService.parse(input);
+        } catch (InvalidCsrException e) {
+            return e.getCode();
+        }
+    }
+}
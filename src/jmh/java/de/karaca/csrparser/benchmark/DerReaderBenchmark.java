@@ -0,0 +1,153 @@
+package de.karaca.csrparser.benchmark;
+
+import de.karaca.csrparser.decoder.CertificationRequest;
+import de.karaca.csrparser.decoder.CsrDecoder;
+import de.karaca.csrparser.decoder.DerReader;
+import de.karaca.csrparser.decoder.StandardExtensions;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Walks every element of a CSR with the {@link DerReader} and with the hand-rolled header decoding
+ * the decoder used before (relative buffer positions, lengths via BigInteger).
+ * decodeCertificationRequest measures the complete decoder on top of the reader, once with a new decoder and once
+ * with the pooled decoder of the thread. Run with {@code -PjmhProfilers=gc} to compare the allocation rates.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DerReaderBenchmark {
+    private static final int CONSTRUCTED = 0x20;
+
+    @Param({"10", "1000"})
+    private int sanCount;
+
+    @Param({"false", "true"})
+    private boolean direct;
+
+    private ByteBuffer csr;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        GeneralName[] names = new GeneralName[sanCount];
+        for (int i = 0; i < sanCount; i++) {
+            names[i] = new GeneralName(GeneralName.dNSName, "host-" + i + ".example.com");
+        }
+
+        ExtensionsGenerator extensions = new ExtensionsGenerator();
+        extensions.addExtension(Extension.subjectAlternativeName, false, new GeneralNames(names));
+
+        byte[] encoded = new JcaPKCS10CertificationRequestBuilder(
+                        new X500Name("CN=benchmark.example.com,O=Karaca,C=DE"), keyPair.getPublic())
+                .addAttribute(PKCSObjectIdentifiers.pkcs_9_at_extensionRequest, extensions.generate())
+                .build(new JcaContentSignerBuilder("SHA256withECDSA").build(keyPair.getPrivate()))
+                .getEncoded();
+
+        csr = direct ? ByteBuffer.allocateDirect(encoded.length) : ByteBuffer.allocate(encoded.length);
+        csr.put(encoded).flip();
+    }
+
+    @Benchmark
+    public int walkDerReader() {
+        return walk(new DerReader(csr));
+    }
+
+    @Benchmark
+    public int walkHandRolled() {
+        ByteBuffer buffer = csr.duplicate();
+        return walkHandRolled(buffer, buffer.limit());
+    }
+
+    @Benchmark
+    public CertificationRequest decodeCertificationRequest() {
+        return new CsrDecoder(csr).decodeCertificationRequest();
+    }
+
+    @Benchmark
+    public CertificationRequest decodeCertificationRequestPooled() {
+        CsrDecoder decoder = CsrDecoder.forCurrentThread(csr, StandardExtensions.REGISTRY);
+
+        try {
+            return decoder.decodeCertificationRequest();
+        } finally {
+            decoder.release();
+        }
+    }
+
+    private static int walk(DerReader reader) {
+        int elements = 0;
+
+        while (reader.hasNext()) {
+            reader.next();
+            elements++;
+
+            if (reader.isConstructed()) {
+                reader.enter();
+                elements += walk(reader);
+                reader.exit();
+            }
+        }
+
+        return elements;
+    }
+
+    private static int walkHandRolled(ByteBuffer buffer, int end) {
+        int elements = 0;
+
+        while (buffer.position() < end) {
+            int tag = buffer.get();
+            int length = readLength(buffer);
+            elements++;
+
+            if ((tag & CONSTRUCTED) != 0) {
+                elements += walkHandRolled(buffer, buffer.position() + length);
+            } else {
+                buffer.position(buffer.position() + length);
+            }
+        }
+
+        return elements;
+    }
+
+    // the header decoding of CsrDecoder before the DerReader
+    private static int readLength(ByteBuffer buffer) {
+        byte lengthByte = buffer.get();
+        if ((lengthByte & 0x80) != 0) {
+            int numBytes = lengthByte & 0x7F;
+            byte[] lengthBytes = new byte[numBytes];
+            buffer.get(lengthBytes);
+            return new BigInteger(1, lengthBytes).intValue();
+        }
+
+        return lengthByte;
+    }
+}
@@ -0,0 +1,148 @@
+package de.karaca.csrparser.benchmark;
+
+import de.karaca.csrparser.decoder.CertificationRequest;
+import de.karaca.csrparser.decoder.CsrDecoder;
+import de.karaca.csrparser.decoder.Extensions;
+import de.karaca.csrparser.decoder.ObjectIdentifiers;
+import de.karaca.csrparser.decoder.StandardExtensions;
+import de.karaca.csrparser.fixtures.TestParsers;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.PolicyViolation;
+import de.karaca.csrparser.policy.CompiledPolicy;
+import de.karaca.csrparser.policy.PolicyCompiler;
+import de.karaca.csrparser.policy.PolicyContext;
+import de.karaca.csrparser.policy.PolicyProperties;
+import de.karaca.csrparser.policy.PolicyService;
+import de.karaca.csrparser.service.CustomParserService;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the issuance policy: evaluate measures the compiled rules on already decoded values,
+ * parseCustom the complete parse with and without a policy. All names comply, so every rule runs.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolicyBenchmark {
+    private static final String POLICY = """
+            rules:
+              - type: MIN_RSA_KEY_LENGTH
+                value: 2048
+              - type: ALLOWED_CURVES
+                values: [secp256r1, secp384r1]
+              - type: ALLOWED_SIGNATURE_ALGORITHMS
+                values: [ecdsa-with-SHA256, sha256WithRSAEncryption]
+              - type: ALLOWED_DOMAINS
+                values: [example.com, "*.example.com", "*.example.org"]
+              - type: ALLOWED_COUNTRIES
+                values: [DE, AT, CH]
+            """;
+
+    @Param({"10", "1000"})
+    private int sanCount;
+
+    @Param({"false", "true"})
+    private boolean withPolicy;
+
+    private byte[] csr;
+    private Path policyFile;
+    private CompiledPolicy policy;
+    private PolicyContext context;
+    private CustomParserService customParserService;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        GeneralName[] names = new GeneralName[sanCount];
+        for (int i = 0; i < sanCount; i++) {
+            names[i] = new GeneralName(GeneralName.dNSName, "host-" + i + ".example.com");
+        }
+
+        ExtensionsGenerator extensions = new ExtensionsGenerator();
+        extensions.addExtension(Extension.subjectAlternativeName, false, new GeneralNames(names));
+
+        csr = new JcaPKCS10CertificationRequestBuilder(
+                        new X500Name("CN=benchmark.example.com,O=Karaca,C=DE"), keyPair.getPublic())
+                .addAttribute(PKCSObjectIdentifiers.pkcs_9_at_extensionRequest, extensions.generate())
+                .build(new JcaContentSignerBuilder("SHA256withECDSA").build(keyPair.getPrivate()))
+                .getEncoded();
+
+        policy = PolicyCompiler.compile(new ByteArrayInputStream(POLICY.getBytes(StandardCharsets.UTF_8)));
+
+        CertificationRequest request = new CsrDecoder(csr).decodeCertificationRequest();
+        Extensions requestedExtensions = request.getCertificationRequestInfo()
+                .getFirstAttribute(ObjectIdentifiers.pkcs9_extensionRequest);
+
+        context = PolicyContext.builder()
+                .signatureAlgorithmId(request.getSignatureAlgorithm())
+                .publicKeyAlgorithmId(request.getCertificationRequestInfo()
+                        .getSubjectPublicKeyInfo()
+                        .getAlgorithmIdentifier())
+                .publicKeyParameterId(request.getCertificationRequestInfo()
+                        .getSubjectPublicKeyInfo()
+                        .getParameterIdentifier())
+                .country("DE")
+                .subjectAlternativeNames(requestedExtensions.get(StandardExtensions.SUBJECT_ALTERNATIVE_NAME))
+                .build();
+
+        PolicyProperties policyProperties = new PolicyProperties();
+        if (withPolicy) {
+            policyFile = Files.createTempFile("policy", ".yaml");
+            Files.writeString(policyFile, POLICY);
+            policyProperties.setFile(policyFile);
+        }
+
+        // key reuse detection is disabled by default, it would only measure the fingerprint table
+        customParserService = TestParsers.builder().policyService(new PolicyService(policyProperties)).custom();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (policyFile != null) {
+            Files.delete(policyFile);
+        }
+    }
+
+    @Benchmark
+    public List<PolicyViolation> evaluate() {
+        return policy.evaluate(context);
+    }
+
+    @Benchmark
+    public CsrDetailsModel parseCustom() {
+        return customParserService.parse(csr);
+    }
+}
@@ -0,0 +1,107 @@
+package de.karaca.csrparser.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.karaca.csrparser.fixtures.TestParsers;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrField;
+import de.karaca.csrparser.model.CsrFieldFilter;
+import de.karaca.csrparser.service.BouncyCastleParserService;
+import de.karaca.csrparser.service.CustomParserService;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing with typical field projections of a CSR with an RSA key, a full subject and a few extensions.
+ * An empty projection requests all fields.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+    @Param({"", "commonName", "commonName,subjectAlternativeNames", "publicKeyFingerprint", "rsaKeyLength"})
+    private String fields;
+
+    private byte[] csr;
+    private Set<CsrField> projection;
+    private CustomParserService customParserService;
+    private BouncyCastleParserService bouncyCastleParserService;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        GeneralName[] names = new GeneralName[20];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = new GeneralName(GeneralName.dNSName, "host-" + i + ".example.com");
+        }
+
+        ExtensionsGenerator extensions = new ExtensionsGenerator();
+        extensions.addExtension(Extension.subjectAlternativeName, false, new GeneralNames(names));
+        extensions.addExtension(
+                Extension.keyUsage, true, new KeyUsage(KeyUsage.digitalSignature | KeyUsage.keyEncipherment));
+        extensions.addExtension(
+                Extension.extendedKeyUsage, false, new ExtendedKeyUsage(KeyPurposeId.id_kp_serverAuth));
+
+        csr = new JcaPKCS10CertificationRequestBuilder(
+                        new X500Name("CN=benchmark.example.com,OU=Ops,O=Karaca,L=Berlin,ST=Berlin,C=DE"),
+                        keyPair.getPublic())
+                .addAttribute(PKCSObjectIdentifiers.pkcs_9_at_extensionRequest, extensions.generate())
+                .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate()))
+                .getEncoded();
+
+        projection = CsrField.parse(fields);
+
+        // key reuse detection is disabled by default, it would only measure the fingerprint table
+        TestParsers.Builder parsers = TestParsers.builder();
+        customParserService = parsers.custom();
+        bouncyCastleParserService = parsers.bouncyCastle();
+        objectMapper = new ObjectMapper().setFilterProvider(CsrFieldFilter.PROVIDER);
+    }
+
+    @Benchmark
+    public CsrDetailsModel parseCustom() {
+        return customParserService.parse(csr, projection);
+    }
+
+    @Benchmark
+    public CsrDetailsModel parseBouncyCastle() {
+        return bouncyCastleParserService.parse(csr, projection);
+    }
+
+    @Benchmark
+    public void parseAndSerializeCustom() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), customParserService.parse(csr, projection));
+    }
+}
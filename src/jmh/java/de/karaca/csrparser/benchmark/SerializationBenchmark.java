@@ -0,0 +1,109 @@
+package de.karaca.csrparser.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import de.karaca.csrparser.fixtures.TestParsers;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrFieldFilter;
+import java.io.IOException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization cost of a parsed CSR per response format, with and without the Blackbird module.
+ * The encoded size of each format is printed during the setup.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    public enum Format {
+        JSON,
+        CBOR,
+        SMILE
+    }
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    private Format format;
+
+    @Param({"true", "false"})
+    private boolean blackbird;
+
+    @Param({"2", "1000"})
+    private int sanCount;
+
+    private CsrDetailsModel model;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        GeneralName[] names = new GeneralName[sanCount];
+        for (int i = 0; i < sanCount; i++) {
+            names[i] = new GeneralName(GeneralName.dNSName, "host-" + i + ".example.com");
+        }
+
+        ExtensionsGenerator extensions = new ExtensionsGenerator();
+        extensions.addExtension(Extension.subjectAlternativeName, false, new GeneralNames(names));
+
+        byte[] csr = new JcaPKCS10CertificationRequestBuilder(
+                        new X500Name("CN=benchmark.example.com,O=Karaca,C=DE"), keyPair.getPublic())
+                .addAttribute(PKCSObjectIdentifiers.pkcs_9_at_extensionRequest, extensions.generate())
+                .build(new JcaContentSignerBuilder("SHA256withECDSA").build(keyPair.getPrivate()))
+                .getEncoded();
+
+        model = TestParsers.custom().parse(csr);
+
+        JsonFactory factory =
+                switch (format) {
+                    case JSON -> new JsonFactory();
+                    case CBOR -> new CBORFactory();
+                    case SMILE -> new SmileFactory();
+                };
+
+        ObjectMapper objectMapper = new ObjectMapper(factory).setFilterProvider(CsrFieldFilter.PROVIDER);
+        if (blackbird) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+
+        // resolves the serializer once, like the message converters do on startup
+        writer = objectMapper.writerFor(CsrDetailsModel.class);
+
+        System.out.printf("%n%s with %d names: %d bytes%n", format, sanCount, serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(model);
+    }
+}
@@ -0,0 +1,103 @@
+package de.karaca.csrparser.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.karaca.csrparser.fixtures.TestParsers;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrFieldFilter;
+import de.karaca.csrparser.service.BouncyCastleParserService;
+import de.karaca.csrparser.service.CustomParserService;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing and JSON serialization of CSRs with a growing number of subject alternative names.
+ * Every tenth name is an IP address, all others are DNS names.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubjectAlternativeNameBenchmark {
+    @Param({"10", "100", "1000", "10000", "50000"})
+    private int sanCount;
+
+    private byte[] csr;
+    private CustomParserService customParserService;
+    private BouncyCastleParserService bouncyCastleParserService;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        GeneralName[] names = new GeneralName[sanCount];
+        for (int i = 0; i < sanCount; i++) {
+            if (i % 10 == 9) {
+                String address = "10." + (i >> 16 & 0xFF) + "." + (i >> 8 & 0xFF) + "." + (i & 0xFF);
+                names[i] = new GeneralName(GeneralName.iPAddress, address);
+            } else {
+                names[i] = new GeneralName(GeneralName.dNSName, "host-" + i + ".example.com");
+            }
+        }
+
+        ExtensionsGenerator extensions = new ExtensionsGenerator();
+        extensions.addExtension(Extension.subjectAlternativeName, false, new GeneralNames(names));
+
+        csr = new JcaPKCS10CertificationRequestBuilder(new X500Name("CN=benchmark.example.com"), keyPair.getPublic())
+                .addAttribute(PKCSObjectIdentifiers.pkcs_9_at_extensionRequest, extensions.generate())
+                .build(new JcaContentSignerBuilder("SHA256withECDSA").build(keyPair.getPrivate()))
+                .getEncoded();
+
+        // key reuse detection is disabled by default, it would only measure the fingerprint table
+        TestParsers.Builder parsers = TestParsers.builder();
+        customParserService = parsers.custom();
+        bouncyCastleParserService = parsers.bouncyCastle();
+        objectMapper = new ObjectMapper().setFilterProvider(CsrFieldFilter.PROVIDER);
+    }
+
+    @Benchmark
+    public CsrDetailsModel parseCustom() {
+        return customParserService.parse(csr);
+    }
+
+    @Benchmark
+    public CsrDetailsModel parseBouncyCastle() {
+        return bouncyCastleParserService.parse(csr);
+    }
+
+    @Benchmark
+    public void parseAndSerializeCustom() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), customParserService.parse(csr));
+    }
+
+    @Benchmark
+    public void parseAndSerializeBouncyCastle() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), bouncyCastleParserService.parse(csr));
+    }
+}
@@ -0,0 +1,41 @@
+package de.karaca.csrparser.load;
+
+import java.util.Locale;
+import lombok.Getter;
+
+/**
+ * Endpoints the load test sends requests to.
+ **/
+@Getter
+public enum Endpoint {
+    // BouncyCastle parser
+    CSR("/api/v1/csr", false),
+    CSR_CUSTOM("/api/v1/csr-custom", false),
+    // bundle upload, measured until the job is accepted, not until it is complete
+    JOBS("/api/v1/jobs?engine=CUSTOM", true);
+
+    private final String path;
+    private final boolean batch;
+
+    Endpoint(String path, boolean batch) {
+        this.path = path;
+        this.batch = batch;
+    }
+
+    /**
+     * @return the name used on the command line and in the result file, e.g. csr-custom
+     **/
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    public static Endpoint parse(String name) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.getName().equals(name.trim().toLowerCase(Locale.ROOT))) {
+                return endpoint;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown endpoint: " + name);
+    }
+}
@@ -0,0 +1,28 @@
+package de.karaca.csrparser.load;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Measured requests of an endpoint, or of all endpoints together.
+ **/
+@Getter
+@Builder
+public class EndpointResult {
+    // requests scheduled within the measured duration
+    private final long requests;
+    // responses with a 2xx status
+    private final long successful;
+    // successful responses per second of the measured duration
+    private final double throughput;
+
+    // e.g. 200, 429, timeout, error (connection failed) and not-sent (too many requests in flight)
+    private final Map<String, Long> outcomes;
+
+    // from the time the request was scheduled, not when it was sent, so delays of the load generator count as well
+    private final double meanLatencyMicros;
+    private final long maxLatencyMicros;
+    // e.g. p50, p99 and p999, accurate to 1%
+    private final Map<String, Long> latencyMicros;
+}
@@ -0,0 +1,386 @@
+package de.karaca.csrparser.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.karaca.csrparser.corpus.CsrCorpus;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Open-loop HTTP load generator for a running csr-parser.
+ *
+ * Requests are scheduled at a fixed arrival rate and sent asynchronously, independent of the responses, so a slow
+ * server does not slow down the load generator. Latencies are measured from the time a request was scheduled instead
+ * of the time it was sent, so delays of the load generator count as well and waiting requests are not hidden by
+ * coordinated omission. The endpoints get their share of the requests round-robin, each replays the corpus in order.
+ **/
+public class LoadTest {
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    // bundles uploaded to batch endpoints, each with the next CSRs of the corpus
+    private static final int MAX_BUNDLES = 16;
+
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final List<byte[]> inputs;
+    private final List<byte[]> bundles;
+    private final String corpusDescription;
+
+    // endpoints repeated by their weight, request i goes to schedule[i % schedule.length]
+    private final Endpoint[] schedule;
+    private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+    private final Recorder total = new Recorder();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private long maxSchedulingDelayNanos;
+
+    public LoadTest(LoadTestOptions options) throws IOException {
+        this.options = options;
+
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        if (options.getCorpus() != null) {
+            this.inputs = readCorpus(options.getCorpus());
+            this.corpusDescription = options.getCorpus().toString();
+        } else {
+            System.err.printf("Generating a corpus of %d CSRs%n", options.getCorpusSize());
+
+            this.inputs = CsrCorpus.builder()
+                    .seed(options.getSeed())
+                    .malformedRate(options.getMalformedRate())
+                    .build()
+                    .generate(options.getCorpusSize());
+            this.corpusDescription = String.format(
+                    "generated: %d CSRs, seed %d, malformed rate %s",
+                    options.getCorpusSize(), options.getSeed(), options.getMalformedRate());
+        }
+
+        this.bundles = options.getEndpoints().keySet().stream().anyMatch(Endpoint::isBatch)
+                ? bundles(inputs, options.getBatchSize())
+                : List.of();
+
+        List<Endpoint> schedule = new ArrayList<>();
+        options.getEndpoints().forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                schedule.add(endpoint);
+            }
+            recorders.put(endpoint, new Recorder());
+        });
+        this.schedule = schedule.toArray(Endpoint[]::new);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println();
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        LoadTestResult result = new LoadTest(options).run();
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        Path output = options.getOutput() != null
+                ? options.getOutput()
+                : Path.of("build", "load-test", "result-" + FILE_TIME.format(Instant.now()) + ".json");
+        if (output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        objectMapper.writeValue(output.toFile(), result);
+
+        print(result);
+        System.err.println("Result written to " + output.toAbsolutePath());
+
+        if (options.getBaseline() != null) {
+            compare(result, objectMapper.readTree(options.getBaseline().toFile()), options.getBaseline());
+        }
+    }
+
+    public LoadTestResult run() throws InterruptedException {
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long warmupNanos = options.getWarmup().toNanos();
+        long durationNanos = options.getDuration().toNanos();
+
+        String startedAt = Instant.now().toString();
+        System.err.printf(
+                "Sending %.0f requests/s to %s for %d s (warmup %d s)%n",
+                options.getRate(),
+                options.getUrl(),
+                options.getDuration().toSeconds(),
+                options.getWarmup().toSeconds());
+
+        long start = System.nanoTime();
+        long measureStart = start + warmupNanos;
+        long end = measureStart + durationNanos;
+        long progressAt = start + PROGRESS_INTERVAL_NANOS;
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + (long) (i * intervalNanos);
+            if (scheduled - end >= 0) {
+                break;
+            }
+
+            long now = System.nanoTime();
+            if (scheduled - now > 0) {
+                LockSupport.parkNanos(scheduled - now);
+            } else if (scheduled - measureStart >= 0) {
+                maxSchedulingDelayNanos = Math.max(maxSchedulingDelayNanos, now - scheduled);
+            }
+
+            send(i, scheduled, scheduled - measureStart >= 0);
+
+            if (now - progressAt >= 0) {
+                System.err.printf(
+                        "%3d s: %d measured requests, %d in flight%n",
+                        TimeUnit.NANOSECONDS.toSeconds(now - start),
+                        total.requests.sum(),
+                        inFlight.get());
+                progressAt += PROGRESS_INTERVAL_NANOS;
+            }
+        }
+
+        // responses of the last requests, at most until they time out
+        long deadline = System.nanoTime() + options.getTimeout().toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() - deadline < 0) {
+            Thread.sleep(10);
+        }
+
+        double seconds = durationNanos / 1e9;
+
+        Map<String, EndpointResult> endpoints = new LinkedHashMap<>();
+        recorders.forEach((endpoint, recorder) -> endpoints.put(endpoint.getName(), recorder.result(seconds)));
+
+        return LoadTestResult.builder()
+                .startedAt(startedAt)
+                .url(options.getUrl().toString())
+                .corpus(corpusDescription)
+                .targetRate(options.getRate())
+                .durationSeconds(options.getDuration().toSeconds())
+                .warmupSeconds(options.getWarmup().toSeconds())
+                .maxSchedulingDelayMicros(TimeUnit.NANOSECONDS.toMicros(maxSchedulingDelayNanos))
+                .total(total.result(seconds))
+                .endpoints(endpoints)
+                .build();
+    }
+
+    private void send(long index, long scheduled, boolean measured) {
+        Endpoint endpoint = schedule[(int) (index % schedule.length)];
+        // every endpoint replays the corpus in order
+        long position = index / schedule.length;
+        byte[] body = endpoint.isBatch()
+                ? bundles.get((int) (position % bundles.size()))
+                : inputs.get((int) (position % inputs.size()));
+
+        Recorder recorder = measured ? recorders.get(endpoint) : null;
+        if (recorder != null) {
+            recorder.requests.increment();
+            total.requests.increment();
+        }
+
+        if (inFlight.get() >= options.getMaxInFlight()) {
+            if (recorder != null) {
+                recorder.outcome("not-sent");
+                total.outcome("not-sent");
+            }
+            return;
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.getUrl() + endpoint.getPath()))
+                .timeout(options.getTimeout())
+                .header("Content-Type", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        inFlight.incrementAndGet();
+
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+
+            if (recorder == null) {
+                return;
+            }
+
+            long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+            String outcome = response != null ? Integer.toString(response.statusCode()) : outcome(error);
+            boolean successful = response != null && response.statusCode() / 100 == 2;
+
+            recorder.record(outcome, successful, latencyMicros);
+            total.record(outcome, successful, latencyMicros);
+        });
+    }
+
+    private static String outcome(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof HttpTimeoutException ? "timeout" : "error";
+    }
+
+    /**
+     * @return all files below the directory except the manifest written by generateCorpus, in the order of their names
+     **/
+    private static List<byte[]> readCorpus(Path directory) throws IOException {
+        List<byte[]> inputs = new ArrayList<>();
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().equals("manifest.csv"))
+                    .sorted()
+                    .toList()) {
+                inputs.add(Files.readAllBytes(file));
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("No files in corpus directory " + directory);
+        }
+
+        return inputs;
+    }
+
+    private static List<byte[]> bundles(List<byte[]> inputs, int batchSize) {
+        int count = (int) Math.min(MAX_BUNDLES, Math.max(1, (inputs.size() + batchSize - 1L) / batchSize));
+
+        List<byte[]> bundles = new ArrayList<>(count);
+        for (int bundle = 0; bundle < count; bundle++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (int i = 0; i < batchSize; i++) {
+                out.writeBytes(inputs.get((bundle * batchSize + i) % inputs.size()));
+            }
+            bundles.add(out.toByteArray());
+        }
+
+        return bundles;
+    }
+
+    private static void print(LoadTestResult result) {
+        System.err.printf(
+                "%n%-12s %10s %10s %12s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "successful", "throughput", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        result.getEndpoints().forEach((name, endpoint) -> print(name, endpoint));
+        print("total", result.getTotal());
+
+        System.err.printf(
+                "%nTarget rate %.0f requests/s, load generator up to %.3f ms behind the schedule%n",
+                result.getTargetRate(), result.getMaxSchedulingDelayMicros() / 1000.0);
+    }
+
+    private static void print(String name, EndpointResult result) {
+        Map<String, Long> latency = result.getLatencyMicros();
+
+        System.err.printf(
+                "%-12s %10d %10d %10.1f/s %10.3f %10.3f %10.3f %10.3f %10.3f  %s%n",
+                name,
+                result.getRequests(),
+                result.getSuccessful(),
+                result.getThroughput(),
+                latency.get("p50") / 1000.0,
+                latency.get("p90") / 1000.0,
+                latency.get("p99") / 1000.0,
+                latency.get("p999") / 1000.0,
+                result.getMaxLatencyMicros() / 1000.0,
+                result.getOutcomes());
+    }
+
+    private static void compare(LoadTestResult result, JsonNode baseline, Path file) {
+        System.err.printf("%nChanges compared with %s (%s):%n", file, baseline.path("startedAt").asText());
+
+        compare("total", baseline.path("total"), result.getTotal());
+        result.getEndpoints().forEach((name, endpoint) -> {
+            JsonNode before = baseline.path("endpoints").path(name);
+            if (!before.isMissingNode()) {
+                compare(name, before, endpoint);
+            }
+        });
+    }
+
+    private static void compare(String name, JsonNode before, EndpointResult after) {
+        StringBuilder line = new StringBuilder(String.format(
+                "%-12s throughput %s", name, change(before.path("throughput").asDouble(), after.getThroughput())));
+
+        after.getLatencyMicros().forEach((percentile, value) -> {
+            double previous = before.path("latencyMicros").path(percentile).asDouble();
+            line.append(String.format("  %s %s", percentile, change(previous, value)));
+        });
+
+        System.err.println(line);
+    }
+
+    private static String change(double before, double after) {
+        return before == 0 ? "n/a" : String.format("%+.1f%%", (after - before) * 100 / before);
+    }
+
+    /**
+     * Outcomes and latencies of the measured requests of an endpoint.
+     **/
+    private static final class Recorder {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder successful = new LongAdder();
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        void outcome(String outcome) {
+            outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        }
+
+        void record(String outcome, boolean successful, long latencyMicros) {
+            outcome(outcome);
+            latency.record(latencyMicros);
+
+            if (successful) {
+                this.successful.increment();
+            }
+        }
+
+        EndpointResult result(double seconds) {
+            Map<String, Long> outcomes = new TreeMap<>();
+            this.outcomes.forEach((outcome, count) -> outcomes.put(outcome, count.sum()));
+
+            return EndpointResult.builder()
+                    .requests(requests.sum())
+                    .successful(successful.sum())
+                    .throughput(successful.sum() / seconds)
+                    .outcomes(outcomes)
+                    .meanLatencyMicros(latency.mean())
+                    .maxLatencyMicros(latency.max())
+                    .latencyMicros(latency.percentiles())
+                    .build();
+        }
+    }
+}
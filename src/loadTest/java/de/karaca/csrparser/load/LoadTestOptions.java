@@ -0,0 +1,127 @@
+package de.karaca.csrparser.load;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class LoadTestOptions {
+    public static final String USAGE =
+            """
+            Usage: loadTest [options]
+
+            Sends requests at a fixed arrival rate to a running csr-parser and reports throughput and latency.
+
+            Options:
+              --url=<url>                   base URL of the server (default: http://localhost:8080)
+              --endpoints=<name[:weight]>,...
+                                            csr, csr-custom and jobs with their share of the requests
+                                            (default: csr:1,csr-custom:1)
+              --rate=<n>                    requests per second (default: 200)
+              --duration=<seconds>          measured duration (default: 60)
+              --warmup=<seconds>            duration at the same rate before, not measured (default: 10)
+              --corpus=<directory>          replay the files of a directory, e.g. written by generateCorpus
+              --corpus-size=<n>             CSRs generated if no corpus directory is given (default: 1000)
+              --seed=<n>                    seed of the generated corpus (default: 0)
+              --malformed-rate=<0..1>       share of malformed CSRs in the generated corpus (default: 0)
+              --batch-size=<n>              CSRs per bundle uploaded to jobs (default: 100)
+              --max-in-flight=<n>           requests without a response before new ones fail (default: 10000)
+              --timeout=<seconds>           request timeout (default: 30)
+              --output=<file>               result file (default: build/load-test/result-<time>.json)
+              --baseline=<file>             result file of an earlier run to compare with
+            """;
+
+    private final URI url;
+    private final Map<Endpoint, Integer> endpoints;
+    private final double rate;
+    private final Duration duration;
+    private final Duration warmup;
+    // null to generate the corpus
+    private final Path corpus;
+    private final int corpusSize;
+    private final long seed;
+    private final double malformedRate;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final Duration timeout;
+    // null for the default file name
+    private final Path output;
+    // null if there is nothing to compare with
+    private final Path baseline;
+
+    /**
+     * Parse the command line arguments.
+     *
+     * @throws IllegalArgumentException if an option is unknown or has an invalid value
+     **/
+    public static LoadTestOptions parse(String[] args) {
+        var builder = LoadTestOptions.builder()
+                .url(URI.create("http://localhost:8080"))
+                .endpoints(parseEndpoints("csr:1,csr-custom:1"))
+                .rate(200)
+                .duration(Duration.ofSeconds(60))
+                .warmup(Duration.ofSeconds(10))
+                .corpusSize(1000)
+                .batchSize(100)
+                .maxInFlight(10_000)
+                .timeout(Duration.ofSeconds(30));
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg : arg.substring(0, separator);
+            String value = separator < 0 ? "" : arg.substring(separator + 1);
+
+            switch (name) {
+                case "--url" -> builder.url(URI.create(value.replaceAll("/+$", "")));
+                case "--endpoints" -> builder.endpoints(parseEndpoints(value));
+                case "--rate" -> builder.rate(positive(name, Double.parseDouble(value)));
+                case "--duration" -> builder.duration(Duration.ofSeconds((long) positive(name, Long.parseLong(value))));
+                case "--warmup" -> builder.warmup(Duration.ofSeconds(Long.parseLong(value)));
+                case "--corpus" -> builder.corpus(Path.of(value));
+                case "--corpus-size" -> builder.corpusSize((int) positive(name, Integer.parseInt(value)));
+                case "--seed" -> builder.seed(Long.parseLong(value));
+                case "--malformed-rate" -> builder.malformedRate(Double.parseDouble(value));
+                case "--batch-size" -> builder.batchSize((int) positive(name, Integer.parseInt(value)));
+                case "--max-in-flight" -> builder.maxInFlight((int) positive(name, Integer.parseInt(value)));
+                case "--timeout" -> builder.timeout(Duration.ofSeconds((long) positive(name, Long.parseLong(value))));
+                case "--output" -> builder.output(Path.of(value));
+                case "--baseline" -> builder.baseline(Path.of(value));
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static Map<Endpoint, Integer> parseEndpoints(String value) {
+        Map<Endpoint, Integer> endpoints = new EnumMap<>(Endpoint.class);
+
+        for (String endpoint : value.split(",")) {
+            int separator = endpoint.indexOf(':');
+            int weight = separator < 0 ? 1 : Integer.parseInt(endpoint.substring(separator + 1));
+
+            if (weight > 0) {
+                endpoints.put(Endpoint.parse(separator < 0 ? endpoint : endpoint.substring(0, separator)), weight);
+            }
+        }
+
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("No endpoints given");
+        }
+
+        return endpoints;
+    }
+
+    private static double positive(String name, double value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+
+        return value;
+    }
+}
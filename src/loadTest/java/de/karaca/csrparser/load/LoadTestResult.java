@@ -0,0 +1,25 @@
+package de.karaca.csrparser.load;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Result file of a load test run, written as JSON.
+ **/
+@Getter
+@Builder
+public class LoadTestResult {
+    private final String startedAt;
+    private final String url;
+    private final String corpus;
+    private final double targetRate;
+    private final long durationSeconds;
+    private final long warmupSeconds;
+
+    // largest delay of the load generator behind the schedule, high values mean it could not keep the rate
+    private final long maxSchedulingDelayMicros;
+
+    private final EndpointResult total;
+    private final Map<String, EndpointResult> endpoints;
+}
@@ -2,8 +2,10 @@ package de.karaca.csrparser;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class CsrParserApplication {
     public static void main(String[] args) {
         SpringApplication.run(CsrParserApplication.class, args);
@@ -0,0 +1,84 @@
+package de.karaca.csrparser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.karaca.csrparser.bulk.BulkOptions;
+import de.karaca.csrparser.bulk.BulkParser;
+import de.karaca.csrparser.bulk.ResultWriter;
+import de.karaca.csrparser.service.CsrParserService;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Command line entry point for parsing CSR archives offline.
+ *
+ * Starts the application context without the web server and runs the {@link BulkParser}.
+ **/
+public class CsrParserCli {
+    public static void main(String[] args) throws Exception {
+        BulkOptions options;
+
+        try {
+            options = BulkOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println();
+            System.err.print(BulkOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CsrParserApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .profiles("cli")
+                .run(args);
+
+        try (context;
+                OutputStream outputStream = openOutput(options)) {
+            CsrParserService parserService = context.getBean(options.getEngine().getServiceType());
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+
+            try (ResultWriter resultWriter = ResultWriter.create(options.getFormat(), outputStream, objectMapper)) {
+                BulkParser.Summary summary = new BulkParser(parserService, resultWriter, options.getThreads())
+                        .run(options.getInputs());
+
+                System.err.println(summary);
+            }
+        }
+    }
+
+    private static OutputStream openOutput(BulkOptions options) throws IOException {
+        if (options.getOutput() == null) {
+            return new StandardOutput();
+        }
+
+        return Files.newOutputStream(options.getOutput());
+    }
+
+    /**
+     * Standard output is only flushed when the results are written, it stays open for the JVM and shutdown hooks.
+     **/
+    private static final class StandardOutput extends FilterOutputStream {
+        StandardOutput() {
+            super(System.out);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            // FilterOutputStream would write every byte on its own
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package de.karaca.csrparser.analytics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint with the counts and rates of {@link ParseAnalytics}, e.g. {@code GET /actuator/analytics}.
+ **/
+@Component
+@Endpoint(id = "analytics")
+public class AnalyticsEndpoint {
+    private final ParseAnalytics parseAnalytics;
+
+    public AnalyticsEndpoint(ParseAnalytics parseAnalytics) {
+        this.parseAnalytics = parseAnalytics;
+    }
+
+    @ReadOperation
+    public AnalyticsSnapshot analytics() {
+        return parseAnalytics.snapshot();
+    }
+}
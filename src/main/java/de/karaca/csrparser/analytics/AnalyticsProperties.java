@@ -0,0 +1,27 @@
+package de.karaca.csrparser.analytics;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "csr-parser.analytics")
+public class AnalyticsProperties {
+    /**
+     * Count the algorithms, key sizes, curves, input sizes and SAN counts of all parsed CSRs.
+     **/
+    private boolean enabled = true;
+
+    /**
+     * How often the counters are sampled for the 1, 5 and 15 minute rates.
+     **/
+    private Duration sampleInterval = Duration.ofSeconds(10);
+
+    /**
+     * Number of distinct values counted per dimension, further values are counted as "other".
+     * Limits the memory unknown algorithm identifiers can take up.
+     **/
+    private int maxValues = 256;
+}
@@ -0,0 +1,27 @@
+package de.karaca.csrparser.analytics;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class AnalyticsSnapshot {
+    // counts start with the application
+    private final Instant since;
+
+    // parsed CSRs by engine
+    private final List<CounterSnapshot> parsed;
+    // rejected inputs by engine
+    private final List<CounterSnapshot> failed;
+
+    private final List<CounterSnapshot> signatureAlgorithms;
+    private final List<CounterSnapshot> publicKeyAlgorithms;
+    private final List<CounterSnapshot> rsaKeyLengths;
+    private final List<CounterSnapshot> ecCurves;
+
+    // size of the request body, PEM or DER
+    private final HistogramSnapshot inputBytes;
+    private final HistogramSnapshot subjectAlternativeNames;
+}
@@ -0,0 +1,19 @@
+package de.karaca.csrparser.analytics;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class CounterSnapshot {
+    // e.g. an algorithm identifier
+    private final String value;
+    // readable name of the value, e.g. sha256WithRSAEncryption
+    private final String name;
+
+    private final long count;
+
+    // occurrences per second in the last 1m, 5m and 15m
+    private final Map<String, Double> rates;
+}
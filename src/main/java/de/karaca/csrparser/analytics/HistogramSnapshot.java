@@ -0,0 +1,16 @@
+package de.karaca.csrparser.analytics;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class HistogramSnapshot {
+    private final long count;
+    private final double mean;
+    private final long max;
+
+    // e.g. p50, p99 and p999, accurate to 12.5%
+    private final Map<String, Long> percentiles;
+}
@@ -0,0 +1,117 @@
+package de.karaca.csrparser.analytics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative int values with buckets of bounded relative size, similar to HdrHistogram.
+ *
+ * Values below 8 have a bucket each, every power of two above is split into 8 linear buckets, so a bucket is at most
+ * 12.5% of its values wide and 232 buckets cover the whole int range. Recording computes the bucket with a few bit
+ * operations and increments a {@link LongAdder}, it does not lock or allocate.
+ **/
+final class LogLinearHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Integer.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LogLinearHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value must not be negative");
+        }
+
+        buckets[bucket(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    static int bucket(int value) {
+        if (value < SUB_BUCKETS) {
+            return value;
+        }
+
+        int exponent = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(value);
+        int subBucket = (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return largest value of a bucket
+     **/
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Percentiles are the upper bound of the bucket they fall into, but at most the largest recorded value.
+     * Counts are read one by one while values are recorded, so a snapshot is not exact under load.
+     **/
+    HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+
+        long maxValue = max.get();
+
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            percentiles.put("p" + format(percentile), total == 0 ? 0 : valueAt(counts, total, percentile, maxValue));
+        }
+
+        long recorded = count.sum();
+
+        return HistogramSnapshot.builder()
+                .count(recorded)
+                .mean(recorded == 0 ? 0 : (double) sum.sum() / recorded)
+                .max(maxValue)
+                .percentiles(percentiles)
+                .build();
+    }
+
+    private static long valueAt(long[] counts, long total, double percentile, long maxValue) {
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxValue);
+            }
+        }
+
+        return maxValue;
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile)
+                ? Integer.toString((int) percentile)
+                : Double.toString(percentile).replace(".", "");
+    }
+}
@@ -0,0 +1,252 @@
+package de.karaca.csrparser.analytics;
+
+import de.karaca.csrparser.decoder.ObjectIdentifiers;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrField;
+import de.karaca.csrparser.service.ParserEngine;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import org.springframework.stereotype.Service;
+
+/**
+ * Live counts of the algorithms, key sizes and curves of the parsed CSRs, fed by both parser services.
+ *
+ * Recording only increments striped counters and histograms, parsing threads never lock or wait for each other.
+ * Algorithms and curves are counted by their identifier, which the decoders return as shared instances.
+ * A scheduler samples the counters periodically, rates are the difference to the sample taken 1, 5 and 15 minutes
+ * ago. Projected requests only count the parts which were decoded for them.
+ **/
+@Service
+public class ParseAnalytics {
+    private static final Duration[] WINDOWS = {Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(15)};
+
+    private record Sample(long nanoTime, List<Map<String, Long>> counts) {}
+
+    private final boolean enabled;
+    private final Instant since = Instant.now();
+
+    private final StripedCounters parsed;
+    private final StripedCounters failed;
+    private final StripedCounters signatureAlgorithms;
+    private final StripedCounters publicKeyAlgorithms;
+    private final StripedCounters rsaKeyLengths;
+    private final StripedCounters ecCurves;
+
+    // in the order of the sample counts
+    private final List<StripedCounters> counters;
+
+    private final LogLinearHistogram inputBytes = new LogLinearHistogram();
+    private final LogLinearHistogram subjectAlternativeNames = new LogLinearHistogram();
+
+    // ring of samples covering the longest window, guarded by this
+    private final Sample[] samples;
+    private int newestSample;
+
+    private final ScheduledExecutorService scheduler;
+
+    public ParseAnalytics(AnalyticsProperties properties) {
+        this.enabled = properties.isEnabled();
+
+        int maxValues = properties.getMaxValues();
+        parsed = new StripedCounters(maxValues);
+        failed = new StripedCounters(maxValues);
+        signatureAlgorithms = new StripedCounters(maxValues);
+        publicKeyAlgorithms = new StripedCounters(maxValues);
+        rsaKeyLengths = new StripedCounters(maxValues);
+        ecCurves = new StripedCounters(maxValues);
+
+        counters = List.of(parsed, failed, signatureAlgorithms, publicKeyAlgorithms, rsaKeyLengths, ecCurves);
+
+        long interval = properties.getSampleInterval().toMillis();
+        long longestWindow = WINDOWS[WINDOWS.length - 1].toMillis();
+
+        samples = new Sample[(int) ((longestWindow + interval - 1) / interval) + 1];
+        samples[0] = sample();
+
+        if (!enabled) {
+            scheduler = null;
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "parse-analytics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::addSample, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Count a parsed CSR.
+     *
+     * @param inputBytes size of the input, PEM or DER
+     * @param curveId    object identifier of the named curve of an EC key, null if the key has none
+     **/
+    public void recordParsed(ParserEngine engine, int inputBytes, CsrDetailsModel model, String curveId) {
+        if (!enabled) {
+            return;
+        }
+
+        parsed.increment(engine.name());
+        this.inputBytes.record(inputBytes);
+
+        if (model.getSignatureAlgorithmId() != null) {
+            signatureAlgorithms.increment(model.getSignatureAlgorithmId());
+        }
+
+        if (model.getPublicKeyAlgorithmId() != null) {
+            publicKeyAlgorithms.increment(model.getPublicKeyAlgorithmId());
+        }
+
+        if (model.getRsaKeyLength() != null) {
+            rsaKeyLengths.increment(Integer.toString(model.getRsaKeyLength()));
+        }
+
+        if (curveId != null) {
+            ecCurves.increment(curveId);
+        }
+
+        if (model.getSubjectAlternativeNameCount() != null) {
+            subjectAlternativeNames.record(model.getSubjectAlternativeNameCount());
+        } else if (isSubjectAlternativeNameDecoded(model.getFields())) {
+            // the CSR has no SAN extension
+            subjectAlternativeNames.record(0);
+        }
+    }
+
+    /**
+     * Count an input which was rejected as invalid.
+     **/
+    public void recordFailed(ParserEngine engine, int inputBytes) {
+        if (!enabled) {
+            return;
+        }
+
+        failed.increment(engine.name());
+        this.inputBytes.record(inputBytes);
+    }
+
+    public AnalyticsSnapshot snapshot() {
+        Sample current = sample();
+
+        List<List<CounterSnapshot>> snapshots = new ArrayList<>();
+        for (int i = 0; i < counters.size(); i++) {
+            snapshots.add(new ArrayList<>());
+        }
+
+        Sample[] windowSamples = new Sample[WINDOWS.length];
+        for (int w = 0; w < WINDOWS.length; w++) {
+            windowSamples[w] = windowStart(current.nanoTime() - WINDOWS[w].toNanos());
+        }
+
+        for (int i = 0; i < counters.size(); i++) {
+            UnaryOperator<String> names = nameResolver(counters.get(i));
+
+            for (Map.Entry<String, Long> entry : current.counts().get(i).entrySet()) {
+                Map<String, Double> rates = new LinkedHashMap<>();
+
+                for (int w = 0; w < WINDOWS.length; w++) {
+                    Sample start = windowSamples[w];
+                    long elapsed = current.nanoTime() - start.nanoTime();
+                    long previous = start.counts().get(i).getOrDefault(entry.getKey(), 0L);
+
+                    rates.put(
+                            WINDOWS[w].toMinutes() + "m",
+                            elapsed == 0 ? 0 : (entry.getValue() - previous) * 1e9 / elapsed);
+                }
+
+                snapshots.get(i)
+                        .add(CounterSnapshot.builder()
+                                .value(entry.getKey())
+                                .name(names.apply(entry.getKey()))
+                                .count(entry.getValue())
+                                .rates(rates)
+                                .build());
+            }
+        }
+
+        return AnalyticsSnapshot.builder()
+                .since(since)
+                .parsed(snapshots.get(0))
+                .failed(snapshots.get(1))
+                .signatureAlgorithms(snapshots.get(2))
+                .publicKeyAlgorithms(snapshots.get(3))
+                .rsaKeyLengths(snapshots.get(4))
+                .ecCurves(snapshots.get(5))
+                .inputBytes(inputBytes.snapshot())
+                .subjectAlternativeNames(subjectAlternativeNames.snapshot())
+                .build();
+    }
+
+    private UnaryOperator<String> nameResolver(StripedCounters counter) {
+        if (counter == signatureAlgorithms || counter == publicKeyAlgorithms) {
+            return ObjectIdentifiers::getAlgorithmName;
+        }
+
+        if (counter == ecCurves) {
+            return ObjectIdentifiers::getCurveName;
+        }
+
+        return UnaryOperator.identity();
+    }
+
+    private Sample sample() {
+        List<Map<String, Long>> counts = new ArrayList<>(counters.size());
+        for (StripedCounters counter : counters) {
+            counts.add(counter.sums());
+        }
+
+        return new Sample(System.nanoTime(), counts);
+    }
+
+    private synchronized void addSample() {
+        newestSample = (newestSample + 1) % samples.length;
+        samples[newestSample] = sample();
+    }
+
+    /**
+     * @return the newest sample taken at or before the given time, the oldest one if the window is not covered yet
+     **/
+    private synchronized Sample windowStart(long nanoTime) {
+        Sample result = samples[newestSample];
+
+        for (int i = 0; i < samples.length; i++) {
+            Sample sample = samples[Math.floorMod(newestSample - i, samples.length)];
+
+            if (sample == null) {
+                break;
+            }
+
+            result = sample;
+
+            if (sample.nanoTime() - nanoTime <= 0) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    private static boolean isSubjectAlternativeNameDecoded(Set<CsrField> fields) {
+        return fields == null
+                || fields.contains(CsrField.SUBJECT_ALTERNATIVE_NAMES)
+                || fields.contains(CsrField.SUBJECT_ALTERNATIVE_NAME_COUNT);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package de.karaca.csrparser.analytics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters keyed by a value, e.g. an algorithm identifier.
+ *
+ * Incrementing a known value is a lock-free map lookup and a {@link LongAdder} increment, which spreads concurrent
+ * updates over per-thread cells instead of contending on a single field. Only the first occurrence of a value
+ * inserts into the map. The number of values is limited, further values are counted as {@link #OTHER}.
+ **/
+final class StripedCounters {
+    static final String OTHER = "other";
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final int maxValues;
+
+    StripedCounters(int maxValues) {
+        this.maxValues = maxValues;
+    }
+
+    void increment(String value) {
+        LongAdder counter = counters.get(value);
+
+        if (counter == null) {
+            String key = counters.size() < maxValues ? value : OTHER;
+            counter = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+
+        counter.increment();
+    }
+
+    /**
+     * @return current counts sorted by value, not an atomic snapshot while counters are incremented
+     **/
+    Map<String, Long> sums() {
+        Map<String, Long> sums = new TreeMap<>();
+        counters.forEach((value, counter) -> sums.put(value, counter.sum()));
+        return sums;
+    }
+}
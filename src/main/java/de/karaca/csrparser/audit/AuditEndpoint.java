@@ -0,0 +1,23 @@
+package de.karaca.csrparser.audit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint with the counts of the {@link AuditLog}, e.g. {@code GET /actuator/audit}.
+ **/
+@Component
+@Endpoint(id = "audit")
+public class AuditEndpoint {
+    private final AuditLog auditLog;
+
+    public AuditEndpoint(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @ReadOperation
+    public AuditSnapshot audit() {
+        return auditLog.snapshot();
+    }
+}
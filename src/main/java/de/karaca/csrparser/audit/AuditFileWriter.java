@@ -0,0 +1,278 @@
+package de.karaca.csrparser.audit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes audit records as lines of JSON into rolling gzip files. Only used by the writer thread.
+ *
+ * The file which is written has the suffix {@code .part} and is renamed when it is complete. Flushing uses the
+ * SYNC_FLUSH mode of the deflater, so everything which was flushed can be decompressed, also from a file which was
+ * not completed because the process died. Such files are completed on the next start.
+ **/
+@Slf4j
+final class AuditFileWriter {
+    static final String PREFIX = "audit-";
+    static final String SUFFIX = ".ndjson.gz";
+    static final String PART_SUFFIX = ".part";
+
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // the gzip stream is finished explicitly, so the channel can be synced before it is closed,
+    // records are separated by line breaks instead of spaces
+    private final JsonFactory jsonFactory = new JsonFactoryBuilder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .rootValueSeparator((String) null)
+            .build();
+
+    private final Path directory;
+    private final AuditProperties.Fsync fsync;
+    private final long fsyncIntervalMillis;
+    private final long maxFileSize;
+    private final long rollIntervalMillis;
+    private final int maxFiles;
+
+    // file index within this process, files started within the same second are ordered by it
+    private int fileIndex;
+
+    // the open file, null between files
+    private Path file;
+    private FileChannel channel;
+    private CountingOutputStream compressed;
+    private GZIPOutputStream gzip;
+    private JsonGenerator generator;
+    private long openedAt;
+
+    private boolean unflushed;
+    private long syncedAt;
+
+    AuditFileWriter(AuditProperties properties) throws IOException {
+        this.directory = properties.getDirectory();
+        this.fsync = properties.getFsync();
+        this.fsyncIntervalMillis = properties.getFsyncInterval().toMillis();
+        this.maxFileSize = properties.getMaxFileSize().toBytes();
+        this.rollIntervalMillis = properties.getRollInterval().toMillis();
+        this.maxFiles = properties.getMaxFiles();
+
+        Files.createDirectories(directory);
+
+        recover();
+        deleteOldFiles();
+    }
+
+    void write(AuditRecord record) throws IOException {
+        if (generator == null) {
+            open();
+        }
+
+        record.write(generator);
+        generator.writeRaw('\n');
+
+        unflushed = true;
+    }
+
+    /**
+     * Called after a batch of records, flushes and syncs according to the fsync policy and rolls the file.
+     **/
+    void endBatch() throws IOException {
+        if (generator == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        switch (fsync) {
+            case NEVER -> {
+                // flushed when idle
+            }
+            case BATCH -> sync(now);
+            case INTERVAL -> {
+                if (now - syncedAt >= fsyncIntervalMillis) {
+                    sync(now);
+                }
+            }
+        }
+
+        if (compressed.count >= maxFileSize || now - openedAt >= rollIntervalMillis) {
+            close();
+        }
+    }
+
+    /**
+     * Called when there are no records to write, so written records do not linger in the buffers.
+     **/
+    void idle() throws IOException {
+        if (generator == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        if (unflushed) {
+            if (fsync == AuditProperties.Fsync.NEVER) {
+                generator.flush();
+                unflushed = false;
+            } else if (now - syncedAt >= fsyncIntervalMillis) {
+                sync(now);
+            }
+        }
+
+        if (now - openedAt >= rollIntervalMillis) {
+            close();
+        }
+    }
+
+    /**
+     * Complete the current file, the next record starts a new one.
+     **/
+    void close() throws IOException {
+        if (generator == null) {
+            return;
+        }
+
+        try {
+            generator.close();
+            gzip.finish();
+            channel.force(false);
+        } finally {
+            channel.close();
+            gzip = null;
+            generator = null;
+        }
+
+        complete(file);
+        file = null;
+
+        deleteOldFiles();
+    }
+
+    /**
+     * Close the current file after a failure without writing anything else. The file is kept as it is,
+     * it is completed on the next start.
+     **/
+    void abort() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Could not close audit file {}", file, e);
+            }
+        }
+
+        channel = null;
+        gzip = null;
+        generator = null;
+        file = null;
+    }
+
+    private void open() throws IOException {
+        long now = System.currentTimeMillis();
+
+        String name = PREFIX + FILE_TIME.format(Instant.ofEpochMilli(now)) + String.format("-%04d", fileIndex++);
+        file = directory.resolve(name + SUFFIX + PART_SUFFIX);
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        compressed = new CountingOutputStream(Channels.newOutputStream(channel));
+        // flushing the gzip stream flushes the deflater
+        gzip = new GZIPOutputStream(compressed, BUFFER_SIZE, true);
+        generator = jsonFactory.createGenerator(gzip);
+
+        openedAt = now;
+        syncedAt = now;
+        unflushed = false;
+    }
+
+    private void sync(long now) throws IOException {
+        generator.flush();
+        channel.force(false);
+
+        syncedAt = now;
+        unflushed = false;
+    }
+
+    /**
+     * Complete the files which were written when the process stopped.
+     **/
+    private void recover() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX + PART_SUFFIX)) {
+            for (Path part : files) {
+                log.info("Completing audit file {} of a previous run", part);
+                complete(part);
+            }
+        }
+    }
+
+    private static void complete(Path part) throws IOException {
+        String name = part.getFileName().toString();
+
+        Files.move(
+                part,
+                part.resolveSibling(name.substring(0, name.length() - PART_SUFFIX.length())),
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void deleteOldFiles() throws IOException {
+        List<Path> completed = new ArrayList<>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            files.forEach(completed::add);
+        }
+
+        if (completed.size() <= maxFiles) {
+            return;
+        }
+
+        // the names start with the time, so they sort oldest first
+        Collections.sort(completed);
+
+        for (Path old : completed.subList(0, completed.size() - maxFiles)) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    /**
+     * Counts the compressed bytes written to the current file.
+     **/
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
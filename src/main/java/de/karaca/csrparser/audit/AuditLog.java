@@ -0,0 +1,295 @@
+package de.karaca.csrparser.audit;
+
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.SubjectAlternativeNames;
+import de.karaca.csrparser.service.ParserEngine;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Audit log of every parsed and rejected CSR, written to rolling gzip files of NDJSON.
+ *
+ * Request threads only hash the input, build a compact {@link AuditRecord} and offer it to a bounded lock-free queue.
+ * A single writer thread drains the queue in batches, encodes the records and flushes and syncs the file according
+ * to the fsync policy, so neither encoding nor a slow disk adds to the latency of requests. If the writer falls
+ * behind and the queue is full, records are dropped and counted, with overflow BLOCK after waiting up to the block
+ * timeout.
+ **/
+@Slf4j
+@Service
+public class AuditLog {
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long BLOCK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long FAILURE_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long DROP_WARNING_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final AuditProperties properties;
+    private final int batchSize;
+    private final long blockTimeoutNanos;
+    private final int maxSubjectAlternativeNames;
+
+    // null if the audit log is disabled
+    private final AuditQueue<AuditRecord> queue;
+    private final AuditFileWriter fileWriter;
+    private final Thread writerThread;
+
+    private final LongAdder dropped = new LongAdder();
+    // only changed by the writer thread
+    private volatile long written;
+    private volatile long failed;
+
+    private volatile boolean running;
+
+    public AuditLog(AuditProperties properties) {
+        this.properties = properties;
+        this.batchSize = properties.getBatchSize();
+        this.blockTimeoutNanos = properties.getBlockTimeout().toNanos();
+        this.maxSubjectAlternativeNames = properties.getMaxSubjectAlternativeNames();
+
+        if (!properties.isEnabled()) {
+            queue = null;
+            fileWriter = null;
+            writerThread = null;
+            return;
+        }
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Audit batch size must be positive");
+        }
+
+        try {
+            fileWriter = new AuditFileWriter(properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open audit directory " + properties.getDirectory(), e);
+        }
+
+        queue = new AuditQueue<>(properties.getQueueCapacity());
+
+        running = true;
+
+        writerThread = new Thread(this::writeRecords, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        log.info(
+                "Writing audit records to {}, fsync {}, overflow {}",
+                properties.getDirectory().toAbsolutePath(),
+                properties.getFsync(),
+                properties.getOverflow());
+    }
+
+    public void recordParsed(ParserEngine engine, byte[] input, CsrDetailsModel model) {
+        if (queue != null) {
+            recordParsed(engine, ByteBuffer.wrap(input), model);
+        }
+    }
+
+    /**
+     * Record a parsed CSR, the fields of the model which were not requested are missing from the record as well.
+     * The position of the buffer is not changed.
+     **/
+    public void recordParsed(ParserEngine engine, ByteBuffer input, CsrDetailsModel model) {
+        if (queue == null) {
+            return;
+        }
+
+        SubjectAlternativeNames names = model.getSubjectAlternativeNames();
+
+        // formatted now, the names may read from the input which can change after the request
+        String[] subjectAlternativeNames = null;
+        if (names != null) {
+            int count = Math.min(names.size(), maxSubjectAlternativeNames);
+
+            subjectAlternativeNames = new String[count * 2];
+            for (int i = 0; i < count; i++) {
+                subjectAlternativeNames[2 * i] = names.getType(i);
+                subjectAlternativeNames[2 * i + 1] = names.getValue(i);
+            }
+        }
+
+        publish(new AuditRecord(
+                System.currentTimeMillis(),
+                engine,
+                currentClient(),
+                KeyFingerprintService.fingerprint(input),
+                input.remaining(),
+                null,
+                -1,
+                model.getSubject(),
+                subjectAlternativeNames,
+                model.getSubjectAlternativeNameCount(),
+                model.getPublicKeyAlgorithm(),
+                model.getRsaKeyLength(),
+                model.getEcCurve(),
+                model.getPublicKeyFingerprint(),
+                model.getPolicyViolations()));
+    }
+
+    public void recordRejected(ParserEngine engine, byte[] input, InvalidCsrException e) {
+        if (queue != null) {
+            recordRejected(engine, ByteBuffer.wrap(input), e);
+        }
+    }
+
+    /**
+     * Record a rejected input with its error code. The position of the buffer is not changed.
+     **/
+    public void recordRejected(ParserEngine engine, ByteBuffer input, InvalidCsrException e) {
+        if (queue == null) {
+            return;
+        }
+
+        publish(new AuditRecord(
+                System.currentTimeMillis(),
+                engine,
+                currentClient(),
+                KeyFingerprintService.fingerprint(input),
+                input.remaining(),
+                e.getCode(),
+                e.getOffset(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null));
+    }
+
+    public AuditSnapshot snapshot() {
+        return AuditSnapshot.builder()
+                .enabled(queue != null)
+                .queueCapacity(queue == null ? 0 : queue.capacity())
+                .written(written)
+                .dropped(dropped.sum())
+                .failed(failed)
+                .build();
+    }
+
+    private void publish(AuditRecord record) {
+        if (queue.offer(record)) {
+            return;
+        }
+
+        if (properties.getOverflow() == AuditProperties.Overflow.BLOCK) {
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+
+            do {
+                LockSupport.parkNanos(BLOCK_NANOS);
+
+                if (queue.offer(record)) {
+                    return;
+                }
+            } while (System.nanoTime() - deadline < 0);
+        }
+
+        dropped.increment();
+    }
+
+    private void writeRecords() {
+        long droppedWarned = 0;
+        long droppedWarnedAt = System.nanoTime();
+
+        while (running) {
+            if (writeBatch() == 0) {
+                try {
+                    fileWriter.idle();
+                } catch (IOException e) {
+                    fail(e, 0);
+                }
+
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+
+            long now = System.nanoTime();
+            if (now - droppedWarnedAt >= DROP_WARNING_INTERVAL_NANOS) {
+                long dropped = this.dropped.sum();
+                if (dropped > droppedWarned) {
+                    log.warn("Dropped {} audit records, the writer could not keep up", dropped - droppedWarned);
+                    droppedWarned = dropped;
+                }
+                droppedWarnedAt = now;
+            }
+        }
+
+        // write what was published before the shutdown
+        while (!queue.isEmpty() && writeBatch() > 0) {}
+
+        try {
+            fileWriter.close();
+        } catch (IOException e) {
+            fail(e, 0);
+        }
+    }
+
+    /**
+     * @return number of records taken from the queue
+     **/
+    private int writeBatch() {
+        int count = 0;
+
+        try {
+            AuditRecord record;
+            while (count < batchSize && (record = queue.poll()) != null) {
+                count++;
+                fileWriter.write(record);
+            }
+
+            if (count > 0) {
+                fileWriter.endBatch();
+                written += count;
+            }
+        } catch (IOException e) {
+            fail(e, count);
+        }
+
+        return count;
+    }
+
+    private void fail(IOException e, int lost) {
+        log.error("Could not write audit records to {}", properties.getDirectory(), e);
+
+        fileWriter.abort();
+        failed += lost;
+
+        // the queue fills up and drops records in the meantime, instead of failing for every batch
+        LockSupport.parkNanos(FAILURE_BACKOFF_NANOS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writerThread == null) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(writerThread);
+
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return address of the client of the current servlet request, null outside of servlet requests
+     **/
+    private static String currentClient() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest().getRemoteAddr()
+                : null;
+    }
+}
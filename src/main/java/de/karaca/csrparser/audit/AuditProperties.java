@@ -0,0 +1,83 @@
+package de.karaca.csrparser.audit;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "csr-parser.audit")
+public class AuditProperties {
+    /**
+     * Write an audit record for every parsed and rejected CSR.
+     **/
+    private boolean enabled = false;
+
+    /**
+     * Directory of the compressed NDJSON audit files.
+     **/
+    private Path directory = Path.of("data", "audit");
+
+    /**
+     * Records waiting for the writer thread, rounded up to a power of two.
+     **/
+    private int queueCapacity = 8192;
+
+    /**
+     * Records written before the file is flushed according to the fsync policy.
+     **/
+    private int batchSize = 512;
+
+    /**
+     * What a request thread does when the queue is full.
+     **/
+    private Overflow overflow = Overflow.DROP;
+
+    /**
+     * How long a request thread waits for space in the queue with overflow BLOCK, before the record is dropped.
+     **/
+    private Duration blockTimeout = Duration.ofMillis(10);
+
+    private Fsync fsync = Fsync.INTERVAL;
+
+    /**
+     * Time between two syncs with fsync INTERVAL.
+     **/
+    private Duration fsyncInterval = Duration.ofSeconds(1);
+
+    /**
+     * A new file is started when the compressed file reaches this size or is older than the roll interval.
+     **/
+    private DataSize maxFileSize = DataSize.ofMegabytes(64);
+
+    private Duration rollInterval = Duration.ofHours(1);
+
+    /**
+     * Number of completed files kept, the oldest ones are deleted.
+     **/
+    private int maxFiles = 168;
+
+    /**
+     * Subject alternative names written per record, the record always contains the total number.
+     **/
+    private int maxSubjectAlternativeNames = 16;
+
+    public enum Overflow {
+        // drop the record and count it
+        DROP,
+        // wait up to the block timeout for space, then drop the record
+        BLOCK
+    }
+
+    public enum Fsync {
+        // leave syncing the files to the operating system, the data is flushed when the writer is idle
+        NEVER,
+        // sync after every batch, the writer falls behind first if the disk is slow
+        BATCH,
+        // sync at most once per fsync interval
+        INTERVAL
+    }
+}
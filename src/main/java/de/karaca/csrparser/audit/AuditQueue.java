@@ -0,0 +1,103 @@
+package de.karaca.csrparser.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * Every slot has a sequence number which tells whose turn it is: a producer may fill the slot if the sequence equals
+ * its claimed position, the consumer may take it if the sequence is one ahead. Producers claim positions with a CAS
+ * on the tail and never wait for each other, a full queue is reported instead of waited on. Offering and polling do
+ * not allocate.
+ **/
+final class AuditQueue<E> {
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    // only accessed by the consumer thread
+    private long head;
+
+    /**
+     * @param capacity rounded up to a power of two
+     **/
+    AuditQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid queue capacity " + capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        elements = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return false if the queue is full
+     **/
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long sequence = sequences.get(slot);
+
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    // publishes the element to the consumer
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                // the slot still holds the element of the previous round
+                return false;
+            }
+
+            // another producer claimed the position, retry with the new tail
+        }
+    }
+
+    /**
+     * Must only be called by the consumer thread.
+     *
+     * @return the oldest element, null if the queue is empty or the oldest element is not published yet
+     **/
+    E poll() {
+        int slot = (int) head & mask;
+
+        if (sequences.get(slot) != head + 1) {
+            return null;
+        }
+
+        E element = elements.get(slot);
+        elements.lazySet(slot, null);
+        // hands the slot to the producers of the next round
+        sequences.set(slot, head + mask + 1);
+        head++;
+
+        return element;
+    }
+
+    /**
+     * Must only be called by the consumer thread.
+     **/
+    boolean isEmpty() {
+        return tail.get() == head;
+    }
+}
@@ -0,0 +1,98 @@
+package de.karaca.csrparser.audit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import de.karaca.csrparser.exception.DecodeError;
+import de.karaca.csrparser.model.PolicyViolation;
+import de.karaca.csrparser.service.ParserEngine;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Audit record of a single parse, built by the request thread and encoded by the writer thread.
+ * Holds only immutable values, the input itself is not referenced.
+ *
+ * @param code                    null if the CSR was parsed
+ * @param subjectAlternativeNames types and values of the first names, alternating
+ **/
+record AuditRecord(
+        long timestamp,
+        ParserEngine engine,
+        String client,
+        byte[] inputHash,
+        int inputLength,
+        DecodeError code,
+        int offset,
+        String subject,
+        String[] subjectAlternativeNames,
+        Integer subjectAlternativeNameCount,
+        String publicKeyAlgorithm,
+        Integer rsaKeyLength,
+        String ecCurve,
+        String publicKeyFingerprint,
+        List<PolicyViolation> policyViolations) {
+
+    /**
+     * Write the record as a single JSON object, null values are left out.
+     **/
+    void write(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+
+        generator.writeStringField("timestamp", Instant.ofEpochMilli(timestamp).toString());
+        generator.writeStringField("engine", engine.name());
+        generator.writeStringField("outcome", code == null ? "PARSED" : "REJECTED");
+        writeStringField(generator, "client", client);
+        generator.writeStringField("inputSha256", HexFormat.of().formatHex(inputHash));
+        generator.writeNumberField("inputLength", inputLength);
+
+        if (code != null) {
+            generator.writeStringField("error", code.name());
+            if (offset >= 0) {
+                generator.writeNumberField("offset", offset);
+            }
+        }
+
+        writeStringField(generator, "subject", subject);
+
+        if (subjectAlternativeNames != null) {
+            generator.writeArrayFieldStart("subjectAlternativeNames");
+            for (int i = 0; i < subjectAlternativeNames.length; i += 2) {
+                generator.writeStartObject();
+                generator.writeStringField("type", subjectAlternativeNames[i]);
+                generator.writeStringField("value", subjectAlternativeNames[i + 1]);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+
+        if (subjectAlternativeNameCount != null) {
+            generator.writeNumberField("subjectAlternativeNameCount", subjectAlternativeNameCount);
+        }
+
+        writeStringField(generator, "publicKeyAlgorithm", publicKeyAlgorithm);
+
+        if (rsaKeyLength != null) {
+            generator.writeNumberField("rsaKeyLength", rsaKeyLength);
+        }
+
+        writeStringField(generator, "ecCurve", ecCurve);
+        writeStringField(generator, "publicKeyFingerprint", publicKeyFingerprint);
+
+        if (policyViolations != null) {
+            generator.writeArrayFieldStart("policyViolations");
+            for (PolicyViolation violation : policyViolations) {
+                generator.writeString(violation.getRule());
+            }
+            generator.writeEndArray();
+        }
+
+        generator.writeEndObject();
+    }
+
+    private static void writeStringField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+}
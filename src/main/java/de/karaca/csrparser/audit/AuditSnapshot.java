@@ -0,0 +1,18 @@
+package de.karaca.csrparser.audit;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class AuditSnapshot {
+    private final boolean enabled;
+    private final int queueCapacity;
+
+    // records written to a file since the start
+    private final long written;
+    // records dropped because the queue was full
+    private final long dropped;
+    // records lost because writing the file failed
+    private final long failed;
+}
@@ -0,0 +1,103 @@
+package de.karaca.csrparser.bulk;
+
+import de.karaca.csrparser.service.ParserEngine;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class BulkOptions {
+    public static final String USAGE =
+            """
+            Usage: csr-parser [options] <file|directory>...
+
+            Parses all PEM and DER encoded CSRs in the given files, directories and bundle files.
+
+            Options:
+              --engine=custom|bouncycastle  parser engine (default: custom)
+              --format=ndjson|csv           output format (default: ndjson)
+              --output=<file>               output file (default: stdout)
+              --threads=<n>                 number of parser threads (default: number of cores)
+            """;
+
+    private final List<Path> inputs;
+    private final ParserEngine engine;
+    private final OutputFormat format;
+    private final Path output;
+    private final int threads;
+
+    /**
+     * Parse the command line arguments. Options not known to the bulk parser (e.g. Spring Boot properties
+     * like {@code --csr-parser.key-fingerprints.enabled=false}) are ignored.
+     *
+     * @throws IllegalArgumentException if an option has an invalid value or no input is given
+     **/
+    public static BulkOptions parse(String[] args) {
+        List<Path> inputs = new ArrayList<>();
+
+        var builder = BulkOptions.builder()
+                .engine(ParserEngine.CUSTOM)
+                .format(OutputFormat.NDJSON)
+                .threads(Runtime.getRuntime().availableProcessors());
+
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                inputs.add(Path.of(arg));
+                continue;
+            }
+
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+            String value = separator < 0 ? "" : arg.substring(separator + 1);
+
+            switch (name) {
+                case "engine" -> builder.engine(parseEngine(value));
+                case "format" -> builder.format(parseFormat(value));
+                case "output" -> builder.output(Path.of(value));
+                case "threads" -> builder.threads(parseThreads(value));
+                default -> {
+                    // Spring Boot property
+                }
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("No input files given");
+        }
+
+        return builder.inputs(List.copyOf(inputs)).build();
+    }
+
+    private static ParserEngine parseEngine(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "custom" -> ParserEngine.CUSTOM;
+            case "bouncycastle" -> ParserEngine.BOUNCY_CASTLE;
+            default -> throw new IllegalArgumentException("Unknown engine: " + value);
+        };
+    }
+
+    private static OutputFormat parseFormat(String value) {
+        try {
+            return OutputFormat.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format: " + value);
+        }
+    }
+
+    private static int parseThreads(String value) {
+        try {
+            int threads = Integer.parseInt(value);
+            if (threads > 0) {
+                return threads;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+
+        throw new IllegalArgumentException("Invalid number of threads: " + value);
+    }
+}
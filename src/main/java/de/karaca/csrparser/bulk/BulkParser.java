@@ -0,0 +1,175 @@
+package de.karaca.csrparser.bulk;
+
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.service.CsrParserService;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Parses all CSRs of a set of files in parallel.
+ *
+ * Files are memory-mapped in windows of {@link #WINDOW_SIZE} bytes, so inputs larger than the heap can be processed.
+ * The number of records waiting for a parser thread is bounded, which keeps the memory usage constant
+ * independent of the input size.
+ **/
+@Slf4j
+public class BulkParser {
+    static final int WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private final CsrParserService parserService;
+    private final ResultWriter resultWriter;
+    private final int threads;
+
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    public BulkParser(CsrParserService parserService, ResultWriter resultWriter, int threads) {
+        this.parserService = parserService;
+        this.resultWriter = resultWriter;
+        this.threads = threads;
+    }
+
+    /**
+     * Parse all records of the given files and directories and write the results.
+     * Directories are traversed recursively.
+     **/
+    public Summary run(List<Path> inputs) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Semaphore pending = new Semaphore(threads * 16);
+
+        resultWriter.writeHeader();
+
+        try {
+            for (Path input : inputs) {
+                List<Path> files;
+                try (Stream<Path> stream = Files.walk(input)) {
+                    files = stream.filter(Files::isRegularFile).sorted().toList();
+                }
+
+                for (Path file : files) {
+                    splitFile(file, executor, pending);
+                }
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        return Summary.builder()
+                .records(records.get())
+                .errors(errors.get())
+                .bytes(bytes.get())
+                .nanos(System.nanoTime() - start)
+                .build();
+    }
+
+    private void splitFile(Path file, ExecutorService executor, Semaphore pending) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long offset = 0;
+            int[] index = {0};
+
+            while (offset < size) {
+                long length = Math.min(WINDOW_SIZE, size - offset);
+                boolean endOfInput = offset + length == size;
+
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+
+                int consumed = CsrSplitter.split(window, endOfInput, record -> {
+                    String source = file + "#" + ++index[0];
+                    // copy the record, so the window is not kept alive by pending records
+                    byte[] bytes = new byte[record.remaining()];
+                    record.get(bytes);
+
+                    submit(source, bytes, executor, pending);
+                });
+
+                if (consumed == 0 && !endOfInput) {
+                    log.warn(
+                            "Skipping {} bytes at offset {} of {}, no record ends within the window",
+                            length,
+                            offset,
+                            file);
+                    consumed = (int) length;
+                }
+
+                offset += consumed;
+            }
+        }
+    }
+
+    private void submit(String source, byte[] record, ExecutorService executor, Semaphore pending) {
+        pending.acquireUninterruptibly();
+
+        executor.execute(() -> {
+            try {
+                resultWriter.write(resultWriter.encode(parse(source, record)));
+            } catch (IOException e) {
+                log.error("Could not write result of {}", source, e);
+            } finally {
+                pending.release();
+            }
+        });
+    }
+
+    private BulkResult parse(String source, byte[] record) {
+        records.incrementAndGet();
+        bytes.addAndGet(record.length);
+
+        try {
+            CsrDetailsModel model = parserService.parse(record);
+
+            return BulkResult.builder().source(source).result(model).build();
+        } catch (InvalidCsrException e) {
+            errors.incrementAndGet();
+
+            return BulkResult.builder().source(source).error(e.getMessage()).build();
+        } catch (RuntimeException e) {
+            errors.incrementAndGet();
+            log.warn("Unexpected error while parsing {}", source, e);
+
+            return BulkResult.builder().source(source).error(e.toString()).build();
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class Summary {
+        private final long records;
+        private final long errors;
+        private final long bytes;
+        private final long nanos;
+
+        @Override
+        public String toString() {
+            double seconds = nanos / 1e9;
+
+            return String.format(
+                    "Parsed %d records (%d errors, %.1f MiB) in %.3f s: %.0f records/s, %.1f MiB/s",
+                    records,
+                    errors,
+                    bytes / (1024.0 * 1024.0),
+                    seconds,
+                    records / seconds,
+                    bytes / (1024.0 * 1024.0) / seconds);
+        }
+    }
+}
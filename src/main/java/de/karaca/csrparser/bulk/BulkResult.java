@@ -0,0 +1,16 @@
+package de.karaca.csrparser.bulk;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkResult {
+    // file name and 1-based index of the record in the file, e.g. "bundle.pem#3", only the file name for uploads
+    private final String source;
+    private final CsrDetailsModel result;
+    private final String error;
+}
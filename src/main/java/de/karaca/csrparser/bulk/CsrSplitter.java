@@ -0,0 +1,170 @@
+package de.karaca.csrparser.bulk;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Splits a bundle of concatenated PEM and DER encoded CSRs into single records.
+ *
+ * PEM blocks of other types (e.g. certificates) and text between the blocks are skipped.
+ * A DER record is recognized by its outer SEQUENCE tag followed by a long form length and is cut at the encoded length.
+ * Every CSR is longer than 127 bytes, requiring the long form keeps text lines starting with '0' from being
+ * mistaken for DER records.
+ **/
+public final class CsrSplitter {
+    private static final byte[] PEM_BEGIN = "-----BEGIN ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PEM_END = "-----END ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PEM_DASHES = "-----".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PEM_CSR_HEADER =
+            "-----BEGIN CERTIFICATE REQUEST-----".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte TAG_SEQUENCE = 0x30;
+
+    private CsrSplitter() {}
+
+    /**
+     * Pass every complete record of the window to the consumer as a slice of the window.
+     * The slices are only valid until the window is released, consumers have to copy them if they are kept.
+     *
+     * @param endOfInput true if the window contains the end of the input, an incomplete record at the end is
+     *                   then passed to the consumer as is, so it is reported as invalid by the parser
+     * @return number of bytes consumed from the window. The remaining bytes belong to a record
+     * which continues in the next window.
+     **/
+    public static int split(ByteBuffer window, boolean endOfInput, Consumer<ByteBuffer> consumer) {
+        int start = window.position();
+        int limit = window.limit();
+        int pos = start;
+
+        while (pos < limit) {
+            byte b = window.get(pos);
+
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                pos++;
+                continue;
+            }
+
+            int end;
+
+            if (b == '-' && startsWith(window, pos, limit, PEM_BEGIN)) {
+                end = findPemEnd(window, pos, limit);
+            } else if (b == TAG_SEQUENCE && isDerLength(window, pos + 1, limit)) {
+                end = findDerEnd(window, pos, limit);
+            } else {
+                // not the start of a record, skip the whole line
+                int lineEnd = indexOf(window, (byte) '\n', pos, limit);
+
+                if (lineEnd < 0 && !endOfInput) {
+                    // the line might be the cut off start of a PEM header
+                    return pos - start;
+                }
+
+                pos = lineEnd < 0 ? limit : lineEnd + 1;
+                continue;
+            }
+
+            if (end < 0) {
+                if (!endOfInput) {
+                    return pos - start;
+                }
+
+                end = limit;
+            }
+
+            if (b == TAG_SEQUENCE || startsWith(window, pos, limit, PEM_CSR_HEADER)) {
+                consumer.accept(window.slice(pos, end - pos));
+            }
+
+            pos = end;
+        }
+
+        return pos - start;
+    }
+
+    /**
+     * @return exclusive end of the PEM block starting at pos or -1 if it does not end within the limit
+     **/
+    private static int findPemEnd(ByteBuffer window, int pos, int limit) {
+        int footer = indexOf(window, PEM_END, pos + PEM_BEGIN.length, limit);
+        if (footer < 0) {
+            return -1;
+        }
+
+        int dashes = indexOf(window, PEM_DASHES, footer + PEM_END.length, limit);
+        if (dashes < 0) {
+            return -1;
+        }
+
+        return dashes + PEM_DASHES.length;
+    }
+
+    private static boolean isDerLength(ByteBuffer window, int pos, int limit) {
+        if (pos >= limit) {
+            // cannot be decided yet, the record is incomplete either way
+            return true;
+        }
+
+        int lengthByte = window.get(pos) & 0xFF;
+
+        return lengthByte >= 0x81 && lengthByte <= 0x84;
+    }
+
+    /**
+     * @return exclusive end of the DER SEQUENCE starting at pos or -1 if it does not end within the limit
+     **/
+    private static int findDerEnd(ByteBuffer window, int pos, int limit) {
+        if (pos + 2 > limit) {
+            return -1;
+        }
+
+        int numBytes = window.get(pos + 1) & 0x7F;
+
+        if (pos + 2 + numBytes > limit) {
+            return -1;
+        }
+
+        long length = 0;
+        for (int i = 0; i < numBytes; i++) {
+            length = (length << 8) | (window.get(pos + 2 + i) & 0xFF);
+        }
+
+        long end = pos + 2 + numBytes + length;
+
+        return end > limit ? -1 : (int) end;
+    }
+
+    private static boolean startsWith(ByteBuffer window, int pos, int limit, byte[] prefix) {
+        if (pos + prefix.length > limit) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length; i++) {
+            if (window.get(pos + i) != prefix[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int indexOf(ByteBuffer window, byte value, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (window.get(i) == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int indexOf(ByteBuffer window, byte[] value, int from, int limit) {
+        for (int i = from; i <= limit - value.length; i++) {
+            if (window.get(i) == value[0] && startsWith(window, i, limit, value)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
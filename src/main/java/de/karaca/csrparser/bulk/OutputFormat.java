@@ -0,0 +1,6 @@
+package de.karaca.csrparser.bulk;
+
+public enum OutputFormat {
+    CSV,
+    NDJSON
+}
@@ -0,0 +1,152 @@
+package de.karaca.csrparser.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes one line per parsed record.
+ *
+ * Lines are encoded by the parser threads in parallel with {@link #encode(BulkResult)},
+ * only appending them to the output is serialized.
+ **/
+public abstract class ResultWriter implements Closeable {
+    private final Writer writer;
+
+    protected ResultWriter(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    public static ResultWriter create(OutputFormat format, OutputStream outputStream, ObjectMapper objectMapper) {
+        return switch (format) {
+            case CSV -> new CsvResultWriter(outputStream);
+            case NDJSON -> new NdjsonResultWriter(outputStream, objectMapper);
+        };
+    }
+
+    /**
+     * Encode a result as a single line without the line break. Must be thread-safe.
+     **/
+    public abstract String encode(BulkResult result);
+
+    /**
+     * Called once before the first line is written.
+     **/
+    public void writeHeader() throws IOException {}
+
+    public synchronized void write(String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private static class NdjsonResultWriter extends ResultWriter {
+        private final ObjectMapper objectMapper;
+
+        NdjsonResultWriter(OutputStream outputStream, ObjectMapper objectMapper) {
+            super(outputStream);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public String encode(BulkResult result) {
+            try {
+                return objectMapper.writeValueAsString(result);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class CsvResultWriter extends ResultWriter {
+        private static final List<Column> COLUMNS = List.of(
+                new Column("signatureAlgorithm", CsrDetailsModel::getSignatureAlgorithm),
+                new Column("signatureAlgorithmId", CsrDetailsModel::getSignatureAlgorithmId),
+                new Column("publicKeyAlgorithm", CsrDetailsModel::getPublicKeyAlgorithm),
+                new Column("publicKeyAlgorithmId", CsrDetailsModel::getPublicKeyAlgorithmId),
+                new Column("rsaKeyLength", CsrDetailsModel::getRsaKeyLength),
+                new Column("ecCurve", CsrDetailsModel::getEcCurve),
+                new Column("publicKeyFingerprint", CsrDetailsModel::getPublicKeyFingerprint),
+                new Column("keyPreviouslySeen", CsrDetailsModel::getKeyPreviouslySeen),
+                new Column("commonName", CsrDetailsModel::getCommonName),
+                new Column("country", CsrDetailsModel::getCountry),
+                new Column("locality", CsrDetailsModel::getLocality),
+                new Column("stateOrProvince", CsrDetailsModel::getStateOrProvince),
+                new Column("organizationName", CsrDetailsModel::getOrganizationName),
+                new Column("organizationUnit", CsrDetailsModel::getOrganizationUnit),
+                new Column("subjectAlternativeNames", CsrDetailsModel::getSubjectAlternativeNames),
+                new Column("emailAddress", CsrDetailsModel::getEmailAddress));
+
+        CsvResultWriter(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            write("source,error," + COLUMNS.stream().map(Column::name).collect(Collectors.joining(",")));
+        }
+
+        @Override
+        public String encode(BulkResult result) {
+            StringBuilder builder = new StringBuilder(256);
+
+            appendValue(builder, result.getSource());
+            builder.append(',');
+            appendValue(builder, result.getError());
+
+            for (Column column : COLUMNS) {
+                builder.append(',');
+
+                if (result.getResult() != null) {
+                    appendValue(builder, column.getter().apply(result.getResult()));
+                }
+            }
+
+            return builder.toString();
+        }
+
+        private static void appendValue(StringBuilder builder, Object value) {
+            if (value == null) {
+                return;
+            }
+
+            String string = value.toString();
+
+            if (string.indexOf(',') < 0
+                    && string.indexOf('"') < 0
+                    && string.indexOf('\n') < 0
+                    && string.indexOf('\r') < 0) {
+                builder.append(string);
+                return;
+            }
+
+            // RFC 4180 quoting
+            builder.append('"');
+            for (int i = 0; i < string.length(); i++) {
+                char c = string.charAt(i);
+                if (c == '"') {
+                    builder.append('"');
+                }
+                builder.append(c);
+            }
+            builder.append('"');
+        }
+
+        private record Column(String name, Function<CsrDetailsModel, Object> getter) {}
+    }
+}
@@ -0,0 +1,118 @@
+package de.karaca.csrparser.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import de.karaca.csrparser.bulk.BulkResult;
+import de.karaca.csrparser.exception.ErrorMessage;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrFieldFilter;
+import de.karaca.csrparser.model.JobModel;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary response formats for service clients. The format is selected with the Accept header,
+ * JSON stays the default.
+ *
+ * <ul>
+ *     <li>{@code application/cbor} (RFC 8949), streams of results as {@code application/cbor-seq} (RFC 8742)</li>
+ *     <li>{@code application/x-jackson-smile}, streams of results as concatenated Smile values</li>
+ * </ul>
+ **/
+@Configuration(proxyBeanMethods = false)
+public class SerializationConfiguration {
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+    public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    // types written by the controllers, their serializers are created on startup instead of the first request
+    private static final List<Class<?>> RESPONSE_TYPES =
+            List.of(CsrDetailsModel.class, JobModel.class, BulkResult.class, ErrorMessage.class);
+
+    /**
+     * Replaces the reflective property access of Jackson's bean serializers with generated lambdas.
+     * Registered with all object mappers built by Spring Boot.
+     **/
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * The field projection of {@link CsrDetailsModel} is applied by a property filter which every mapper has to know.
+     **/
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer csrFieldFilterCustomizer() {
+        return builder -> builder.filters(CsrFieldFilter.PROVIDER);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        // the builder is a prototype bean, so the factory does not leak into other mappers
+        return new MappingJackson2CborHttpMessageConverter(
+                builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(
+                builder.factory(new SmileFactory()).build());
+    }
+
+    /**
+     * CBOR and Smile codecs for the reactive deployment mode, JSON is registered by Spring Boot.
+     **/
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public CodecCustomizer binaryFormatCodecCustomizer(
+            Jackson2ObjectMapperBuilder cborBuilder, Jackson2ObjectMapperBuilder smileBuilder) {
+        ObjectMapper cborMapper = precompute(cborBuilder.factory(new CBORFactory()).build());
+        ObjectMapper smileMapper = precompute(smileBuilder.factory(new SmileFactory()).build());
+
+        return configurer -> {
+            configurer.customCodecs().register(new Jackson2CborEncoder(cborMapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper));
+            configurer.customCodecs().register(new Jackson2SmileEncoder(smileMapper));
+            configurer.customCodecs().register(new Jackson2SmileDecoder(smileMapper));
+        };
+    }
+
+    @Bean
+    public SmartInitializingSingleton precomputeSerializers(
+            ObjectMapper objectMapper, ObjectProvider<AbstractJackson2HttpMessageConverter> converters) {
+        return () -> {
+            precompute(objectMapper);
+            converters.orderedStream().forEach(converter -> precompute(converter.getObjectMapper()));
+        };
+    }
+
+    private static ObjectMapper precompute(ObjectMapper objectMapper) {
+        for (Class<?> type : RESPONSE_TYPES) {
+            // writerFor eagerly resolves the root serializer and puts it into the serializer cache of the mapper
+            objectMapper.writerFor(type);
+        }
+
+        return objectMapper;
+    }
+}
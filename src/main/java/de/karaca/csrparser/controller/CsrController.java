@@ -1,42 +1,157 @@
 package de.karaca.csrparser.controller;
 
+import de.karaca.csrparser.exception.InvalidUploadException;
+import de.karaca.csrparser.model.CertificateDetailsModel;
 import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrField;
+import de.karaca.csrparser.model.SubjectAlternativeNames;
+import de.karaca.csrparser.quota.QuotaService;
 import de.karaca.csrparser.service.BouncyCastleParserService;
+import de.karaca.csrparser.service.CertificateParserService;
 import de.karaca.csrparser.service.CustomParserService;
+import de.karaca.csrparser.service.ParserEngine;
+import de.karaca.csrparser.upload.MultipartReader;
+import de.karaca.csrparser.upload.UploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/api/v1")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CsrController {
 
     private final BouncyCastleParserService bouncyCastleParserService;
     private final CustomParserService customParserService;
+    private final CertificateParserService certificateParserService;
+    private final SubjectAlternativeNameProperties subjectAlternativeNameProperties;
+    private final UploadService uploadService;
+    private final QuotaService quotaService;
 
-    public CsrController(BouncyCastleParserService bouncyCastleParserService, CustomParserService customParserService) {
+    public CsrController(
+            BouncyCastleParserService bouncyCastleParserService,
+            CustomParserService customParserService,
+            CertificateParserService certificateParserService,
+            SubjectAlternativeNameProperties subjectAlternativeNameProperties,
+            UploadService uploadService,
+            QuotaService quotaService) {
         this.bouncyCastleParserService = bouncyCastleParserService;
         this.customParserService = customParserService;
+        this.certificateParserService = certificateParserService;
+        this.subjectAlternativeNameProperties = subjectAlternativeNameProperties;
+        this.uploadService = uploadService;
+        this.quotaService = quotaService;
     }
 
     /**
      * Parse CSR with BouncyCastle
+     *
+     * @param fields comma separated properties of the result, all properties if not given
      **/
     @PostMapping("/csr")
-    public CsrDetailsModel parseCsr(@RequestBody Resource file) throws IOException {
+    public CsrDetailsModel parseCsr(
+            @RequestBody Resource file,
+            @RequestParam(defaultValue = "0") int sanOffset,
+            @RequestParam(required = false) Integer sanLimit,
+            @RequestParam(required = false) String fields)
+            throws IOException {
         // reading files into a byte array is not really efficient but we are not expecting large files
         // and BouncyCastle requires a byte[] for DER and String for PEM anyway
-        return bouncyCastleParserService.parse(file.getContentAsByteArray());
+        CsrDetailsModel model = bouncyCastleParserService.parse(file.getContentAsByteArray(), CsrField.parse(fields));
+        quotaService.chargeParsed(model);
+
+        return pageSubjectAlternativeNames(
+                model, sanOffset, sanLimit, subjectAlternativeNameProperties.getMaxPageSize());
     }
 
     /**
      * Parse CSR with custom parser
+     *
+     * @param fields comma separated properties of the result, all properties if not given
      **/
     @PostMapping("/csr-custom")
-    public CsrDetailsModel parseCsrCustom(@RequestBody Resource file) throws IOException {
-        return customParserService.parse(file.getContentAsByteArray());
+    public CsrDetailsModel parseCsrCustom(
+            @RequestBody Resource file,
+            @RequestParam(defaultValue = "0") int sanOffset,
+            @RequestParam(required = false) Integer sanLimit,
+            @RequestParam(required = false) String fields)
+            throws IOException {
+        CsrDetailsModel model = customParserService.parse(file.getContentAsByteArray(), CsrField.parse(fields));
+        quotaService.chargeParsed(model);
+
+        return pageSubjectAlternativeNames(
+                model, sanOffset, sanLimit, subjectAlternativeNameProperties.getMaxPageSize());
+    }
+
+    /**
+     * Parse every file of a multipart/form-data upload as a single CSR. The response is NDJSON with one line per
+     * file in the order of the upload, each line is sent as soon as the file has been received and parsed.
+     * The body is read from the servlet request, there is no batch endpoint in the reactive mode.
+     *
+     * @param fields comma separated properties of the results, all properties if not given
+     **/
+    @PostMapping(
+            value = "/csr-batch",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void parseCsrBatch(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            @RequestParam(defaultValue = "CUSTOM") ParserEngine engine,
+            @RequestParam(required = false) String fields)
+            throws IOException {
+        // rejected before the body is read
+        Set<CsrField> projection = CsrField.parse(fields);
+
+        String boundary = MultipartReader.boundary(request.getContentType());
+        if (boundary == null) {
+            throw new InvalidUploadException("Missing or invalid multipart boundary");
+        }
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        uploadService.parse(request.getInputStream(), boundary, engine, projection, response.getOutputStream());
+    }
+
+    /**
+     * Parse a PEM certificate chain or a DER certificate with the custom parser.
+     * A CSR in the chain is matched against every certificate by its public key.
+     **/
+    @PostMapping("/certificates")
+    public List<CertificateDetailsModel> parseCertificates(@RequestBody Resource file) throws IOException {
+        return certificateParserService.parse(file.getContentAsByteArray());
+    }
+
+    /**
+     * Limit the subject alternative names to the requested page,
+     * subjectAlternativeNameCount still contains the total number of names.
+     **/
+    static CsrDetailsModel pageSubjectAlternativeNames(
+            CsrDetailsModel model, int offset, Integer limit, int maxPageSize) {
+        SubjectAlternativeNames names = model.getSubjectAlternativeNames();
+        if (names == null) {
+            return model;
+        }
+
+        int pageSize = limit == null ? maxPageSize : Math.min(Math.max(limit, 0), maxPageSize);
+
+        int from = Math.min(Math.max(offset, 0), names.size());
+        int to = (int) Math.min((long) from + pageSize, names.size());
+
+        if (from == 0 && to == names.size()) {
+            return model;
+        }
+
+        return model.withSubjectAlternativeNames(names.slice(from, to))
+                .withSubjectAlternativeNameNextOffset(to < names.size() ? to : null);
     }
 }
@@ -0,0 +1,130 @@
+package de.karaca.csrparser.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import de.karaca.csrparser.config.SerializationConfiguration;
+import de.karaca.csrparser.job.JobService;
+import de.karaca.csrparser.model.JobModel;
+import de.karaca.csrparser.service.ParserEngine;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/v1/jobs")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class JobController {
+    private static final JsonFactory CBOR_FACTORY = new CBORFactory();
+    private static final JsonFactory SMILE_FACTORY = new SmileFactory();
+
+    private final JobService jobService;
+
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    /**
+     * Create a job for a bundle of PEM and/or DER encoded CSRs. The upload is streamed to disk,
+     * the response is sent as soon as the upload is complete.
+     **/
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public JobModel createJob(
+            HttpServletRequest request,
+            InputStream body,
+            @RequestParam(defaultValue = "CUSTOM") ParserEngine engine)
+            throws IOException {
+        return jobService.create(body, request.getContentLengthLong(), engine).toModel();
+    }
+
+    @GetMapping("/{id}")
+    public JobModel getJob(@PathVariable String id) {
+        return jobService.get(id).toModel();
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteJob(@PathVariable String id) {
+        jobService.delete(id);
+    }
+
+    /**
+     * Progress events of the job. The stream is closed when the job has finished.
+     **/
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getJobEvents(@PathVariable String id) {
+        return jobService.subscribe(id);
+    }
+
+    /**
+     * Results of the job as NDJSON, one line per CSR in the order of the upload.
+     * Results can be downloaded while the job is still running, X-Available-Results contains the
+     * number of results which can be downloaded so far.
+     **/
+    @GetMapping(value = "/{id}/results", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getJobResults(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "1000") int limit) {
+        JobService.ResultPage page = jobService.getResultPage(id, offset, limit);
+
+        return resultsResponse(page, MediaType.APPLICATION_NDJSON)
+                .contentLength(page.getEndByte() - page.getStartByte())
+                .body(outputStream -> jobService.writeResultPage(page, outputStream));
+    }
+
+    /**
+     * Results of the job as CBOR sequence, one data item per CSR.
+     **/
+    @GetMapping(value = "/{id}/results", produces = SerializationConfiguration.APPLICATION_CBOR_SEQ_VALUE)
+    public ResponseEntity<StreamingResponseBody> getJobResultsCbor(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "1000") int limit) {
+        JobService.ResultPage page = jobService.getResultPage(id, offset, limit);
+
+        return resultsResponse(page, SerializationConfiguration.APPLICATION_CBOR_SEQ)
+                .body(outputStream -> jobService.transcodeResultPage(page, outputStream, CBOR_FACTORY));
+    }
+
+    /**
+     * Results of the job as Smile, one root value per CSR.
+     **/
+    @GetMapping(value = "/{id}/results", produces = SerializationConfiguration.APPLICATION_SMILE_VALUE)
+    public ResponseEntity<StreamingResponseBody> getJobResultsSmile(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "1000") int limit) {
+        JobService.ResultPage page = jobService.getResultPage(id, offset, limit);
+
+        return resultsResponse(page, SerializationConfiguration.APPLICATION_SMILE)
+                .body(outputStream -> jobService.transcodeResultPage(page, outputStream, SMILE_FACTORY));
+    }
+
+    private static ResponseEntity.BodyBuilder resultsResponse(JobService.ResultPage page, MediaType contentType) {
+        var builder = ResponseEntity.ok()
+                .contentType(contentType)
+                .header("X-Available-Results", Integer.toString(page.getAvailable()));
+
+        if (page.getTo() < page.getAvailable()) {
+            builder.header("X-Next-Offset", Integer.toString(page.getTo()));
+        }
+
+        return builder;
+    }
+}
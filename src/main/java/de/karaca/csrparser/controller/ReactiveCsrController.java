@@ -0,0 +1,122 @@
+package de.karaca.csrparser.controller;
+
+import de.karaca.csrparser.model.CertificateDetailsModel;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrField;
+import de.karaca.csrparser.reactive.ReactiveProperties;
+import de.karaca.csrparser.reactive.RequestBodyAssembler;
+import de.karaca.csrparser.service.BouncyCastleParserService;
+import de.karaca.csrparser.service.CertificateParserService;
+import de.karaca.csrparser.service.CsrParserService;
+import de.karaca.csrparser.service.CustomParserService;
+import java.util.List;
+import java.util.Set;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * The parse endpoints of {@link CsrController} for the reactive deployment mode: /csr, /csr-custom and
+ * /certificates. Batch uploads, the job API and quotas are only available in the servlet mode.
+ * Bodies are joined on the event loop, parsing runs on the parser scheduler.
+ **/
+@RestController
+@RequestMapping("/api/v1")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCsrController {
+
+    private final BouncyCastleParserService bouncyCastleParserService;
+    private final CustomParserService customParserService;
+    private final CertificateParserService certificateParserService;
+    private final SubjectAlternativeNameProperties subjectAlternativeNameProperties;
+    private final ReactiveProperties reactiveProperties;
+    private final Scheduler parserScheduler;
+
+    public ReactiveCsrController(
+            BouncyCastleParserService bouncyCastleParserService,
+            CustomParserService customParserService,
+            CertificateParserService certificateParserService,
+            SubjectAlternativeNameProperties subjectAlternativeNameProperties,
+            ReactiveProperties reactiveProperties,
+            Scheduler parserScheduler) {
+        this.bouncyCastleParserService = bouncyCastleParserService;
+        this.customParserService = customParserService;
+        this.certificateParserService = certificateParserService;
+        this.subjectAlternativeNameProperties = subjectAlternativeNameProperties;
+        this.reactiveProperties = reactiveProperties;
+        this.parserScheduler = parserScheduler;
+    }
+
+    /**
+     * Parse CSR with BouncyCastle
+     **/
+    @PostMapping("/csr")
+    public Mono<CsrDetailsModel> parseCsr(
+            @RequestBody Flux<DataBuffer> body,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, defaultValue = "-1") long contentLength,
+            @RequestParam(defaultValue = "0") int sanOffset,
+            @RequestParam(required = false) Integer sanLimit,
+            @RequestParam(required = false) String fields) {
+        return parse(bouncyCastleParserService, body, contentLength, sanOffset, sanLimit, fields);
+    }
+
+    /**
+     * Parse CSR with custom parser
+     **/
+    @PostMapping("/csr-custom")
+    public Mono<CsrDetailsModel> parseCsrCustom(
+            @RequestBody Flux<DataBuffer> body,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, defaultValue = "-1") long contentLength,
+            @RequestParam(defaultValue = "0") int sanOffset,
+            @RequestParam(required = false) Integer sanLimit,
+            @RequestParam(required = false) String fields) {
+        return parse(customParserService, body, contentLength, sanOffset, sanLimit, fields);
+    }
+
+    /**
+     * Parse a PEM certificate chain or a DER certificate with the custom parser
+     **/
+    @PostMapping("/certificates")
+    public Mono<List<CertificateDetailsModel>> parseCertificates(
+            @RequestBody Flux<DataBuffer> body,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, defaultValue = "-1") long contentLength) {
+        int maxRequestSize = (int) reactiveProperties.getMaxRequestSize().toBytes();
+
+        return RequestBodyAssembler.read(body, contentLength, maxRequestSize, parserScheduler, buffer -> {
+            // the certificate parser only takes an array
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(buffer.position(), bytes);
+            return certificateParserService.parse(bytes);
+        });
+    }
+
+    private Mono<CsrDetailsModel> parse(
+            CsrParserService parserService,
+            Flux<DataBuffer> body,
+            long contentLength,
+            int sanOffset,
+            Integer sanLimit,
+            String fields) {
+        // rejected before the body is read
+        Set<CsrField> projection = CsrField.parse(fields);
+        int maxRequestSize = (int) reactiveProperties.getMaxRequestSize().toBytes();
+        int maxPageSize = subjectAlternativeNameProperties.getMaxPageSize();
+
+        return RequestBodyAssembler.read(
+                body,
+                contentLength,
+                maxRequestSize,
+                parserScheduler,
+                buffer -> CsrController.pageSubjectAlternativeNames(
+                        parserService.parse(buffer, projection), sanOffset, sanLimit, maxPageSize));
+    }
+}
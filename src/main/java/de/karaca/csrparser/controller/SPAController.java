@@ -1,9 +1,11 @@
 package de.karaca.csrparser.controller;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SPAController {
     @GetMapping(value = "{path:^(?!api|public|assets)[^\\.]*}/**")
     public String forward() {
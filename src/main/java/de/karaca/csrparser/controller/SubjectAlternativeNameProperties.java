@@ -0,0 +1,16 @@
+package de.karaca.csrparser.controller;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "csr-parser.subject-alternative-names")
+public class SubjectAlternativeNameProperties {
+    /**
+     * Maximum number of subject alternative names in a single response. A truncated response has the offset of the
+     * next page in subjectAlternativeNameNextOffset, clients request the remaining names with the sanOffset parameter.
+     **/
+    private int maxPageSize = 10_000;
+}
@@ -0,0 +1,12 @@
+package de.karaca.csrparser.decoder;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class BasicConstraints {
+    private final boolean ca;
+    // null if the path length is not constrained
+    private final Integer pathLength;
+}
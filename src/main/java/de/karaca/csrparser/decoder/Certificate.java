@@ -0,0 +1,25 @@
+package de.karaca.csrparser.decoder;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * X.509 certificate as specified in RFC 5280, the signature is not verified.
+ **/
+@Getter
+@Builder
+public class Certificate {
+    // as encoded, 0 for v1 up to 2 for v3
+    private final int version;
+    private final BigInteger serialNumber;
+    private final String signatureAlgorithm;
+    private final Name issuer;
+    private final Instant notBefore;
+    private final Instant notAfter;
+    private final Name subject;
+    private final SubjectPublicKeyInfo subjectPublicKeyInfo;
+    // empty for certificates without extensions
+    private final Extensions extensions;
+}
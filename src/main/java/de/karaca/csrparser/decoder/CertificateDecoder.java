@@ -0,0 +1,203 @@
+package de.karaca.csrparser.decoder;
+
+import de.karaca.csrparser.exception.DecodeError;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Decodes X.509 certificates with a {@link DerReader}.
+ *
+ * Names, the SubjectPublicKeyInfo and the extensions share their structure with PKCS#10 and are decoded by a
+ * {@link CsrDecoder} on the same reader, so certificates are decoded with the same allocation behaviour as CSRs.
+ * Malformed input is reported with an {@link InvalidCsrException} like for CSRs.
+ **/
+public class CertificateDecoder {
+    // version [0] EXPLICIT Version DEFAULT v1
+    private static final int TAG_VERSION = 0xA0;
+    // issuerUniqueID [1] IMPLICIT and subjectUniqueID [2] IMPLICIT, both deprecated
+    private static final int TAG_ISSUER_UNIQUE_ID = 0x81;
+    private static final int TAG_SUBJECT_UNIQUE_ID = 0x82;
+    // extensions [3] EXPLICIT Extensions
+    private static final int TAG_EXTENSIONS = 0xA3;
+
+    private final DerReader reader;
+    private final CsrDecoder decoder;
+
+    /**
+     * Initialize a CertificateDecoder reading from the current scope of the given reader
+     *
+     * @param extensionRegistry extensions to decode, all other extensions are skipped
+     **/
+    public CertificateDecoder(DerReader reader, ExtensionRegistry extensionRegistry) {
+        this.reader = reader;
+        this.decoder = new CsrDecoder(reader, extensionRegistry);
+    }
+
+    /**
+     * Initialize a CertificateDecoder with a DER encoded buffer, decoding the {@link StandardExtensions}
+     **/
+    public CertificateDecoder(ByteBuffer buffer) {
+        this(new DerReader(buffer), StandardExtensions.REGISTRY);
+    }
+
+    /**
+     * Initialize a CertificateDecoder with a DER encoded byte array
+     **/
+    public CertificateDecoder(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Decode the next X.509 Certificate of the current scope.
+     * Malformed input is always rejected with an {@link InvalidCsrException}, never with another runtime exception.
+     **/
+    public Certificate decodeCertificate() {
+        try {
+            return decodeTBSCertificateAndSignature();
+        } catch (IndexOutOfBoundsException
+                | BufferUnderflowException
+                | IllegalArgumentException
+                | IllegalStateException
+                | ClassCastException e) {
+            throw decoder.malformed(e);
+        }
+    }
+
+    private Certificate decodeTBSCertificateAndSignature() {
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+
+        // TBSCertificate
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+
+        int version = 0;
+        if (reader.peekTag() == TAG_VERSION) {
+            reader.next();
+            reader.enter();
+            version = decoder.decodeInteger();
+            reader.exit();
+        }
+
+        reader.next(DerReader.TAG_INTEGER);
+        BigInteger serialNumber = reader.bigIntegerValue();
+
+        // signature, must be the same as the signatureAlgorithm after the TBSCertificate
+        reader.skip();
+
+        Name issuer = decoder.decodeName();
+
+        // Validity
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+        Instant notBefore = decodeTime();
+        Instant notAfter = decodeTime();
+        reader.exit();
+
+        Name subject = decoder.decodeName();
+
+        SubjectPublicKeyInfo subjectPublicKeyInfo = decoder.decodeSubjectPublicKeyInfo(CertificationRequestPart.ALL);
+
+        Extensions extensions = null;
+
+        while (reader.hasNext()) {
+            switch (reader.peekTag()) {
+                case TAG_ISSUER_UNIQUE_ID, TAG_SUBJECT_UNIQUE_ID -> reader.skip();
+                case TAG_EXTENSIONS -> {
+                    reader.next();
+                    reader.enter();
+                    extensions = decoder.decodeExtensions();
+                    reader.exit();
+                }
+                default -> throw new InvalidCsrException(
+                        DecodeError.BAD_TAG,
+                        "Unexpected tag " + InvalidCsrException.formatTag(reader.peekTag()) + " in TBSCertificate",
+                        reader.position());
+            }
+        }
+
+        reader.exit();
+
+        String signatureAlgorithm = decoder.decodeAlgorithmIdentifier();
+
+        // the signature is not verified
+        reader.exit();
+
+        return Certificate.builder()
+                .version(version)
+                .serialNumber(serialNumber)
+                .signatureAlgorithm(signatureAlgorithm)
+                .issuer(issuer)
+                .notBefore(notBefore)
+                .notAfter(notAfter)
+                .subject(subject)
+                .subjectPublicKeyInfo(subjectPublicKeyInfo)
+                .extensions(extensions != null ? extensions : new Extensions())
+                .build();
+    }
+
+    /**
+     * Decode a UTCTime or GeneralizedTime. RFC 5280 requires both to be in UTC with seconds and without fractions,
+     * UTCTime years below 50 are in the 21st century.
+     **/
+    private Instant decodeTime() {
+        int tag = reader.next();
+        int pos = reader.offset();
+        int length = reader.length();
+
+        int year;
+        if (tag == DerReader.TAG_UTC_TIME && length == 13) {
+            year = decodeDigits(pos, 2);
+            year += year < 50 ? 2000 : 1900;
+            pos += 2;
+        } else if (tag == DerReader.TAG_GENERALIZED_TIME && length == 15) {
+            year = decodeDigits(pos, 4);
+            pos += 4;
+        } else {
+            throw new InvalidCsrException(
+                    DecodeError.BAD_TAG,
+                    "Unsupported time " + InvalidCsrException.formatTag(tag) + " of length " + length,
+                    reader.headerOffset());
+        }
+
+        if (reader.buffer().get(pos + 10) != 'Z') {
+            throw new InvalidCsrException(DecodeError.INVALID_VALUE, "Time is not in UTC", pos);
+        }
+
+        try {
+            return LocalDateTime.of(
+                            year,
+                            decodeDigits(pos, 2),
+                            decodeDigits(pos + 2, 2),
+                            decodeDigits(pos + 4, 2),
+                            decodeDigits(pos + 6, 2),
+                            decodeDigits(pos + 8, 2))
+                    .toInstant(ZoneOffset.UTC);
+        } catch (DateTimeException e) {
+            throw new InvalidCsrException(DecodeError.INVALID_VALUE, "Invalid time", pos, e);
+        }
+    }
+
+    private int decodeDigits(int pos, int count) {
+        ByteBuffer buffer = reader.buffer();
+        int value = 0;
+
+        for (int i = pos; i < pos + count; i++) {
+            int digit = buffer.get(i) - '0';
+
+            if (digit < 0 || digit > 9) {
+                throw new InvalidCsrException(DecodeError.INVALID_VALUE, "Invalid time", pos);
+            }
+
+            value = value * 10 + digit;
+        }
+
+        return value;
+    }
+}
@@ -12,6 +12,9 @@ public class CertificationRequestInfo {
     private final SubjectPublicKeyInfo subjectPublicKeyInfo;
     private final MultiValueMap<String, Object> attributes;
 
+    // SHA-256 hash of the DER encoded CertificationRequestInfo
+    private final byte[] fingerprint;
+
     @SuppressWarnings("unchecked") // will throw ClassCastException anyway if wrong type
     public <T> T getFirstAttribute(String identifier) {
         return (T) attributes.getFirst(identifier);
@@ -0,0 +1,25 @@
+package de.karaca.csrparser.decoder;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Parts of a CertificationRequest which are decoded separately, see {@link CsrDecoder#decodeCertificationRequest(Set)}.
+ **/
+public enum CertificationRequestPart {
+    NAME,
+    PUBLIC_KEY_ALGORITHM,
+    // the public key built by Java, the most expensive part
+    PUBLIC_KEY,
+    // SHA-256 hash of the DER encoded SubjectPublicKeyInfo
+    PUBLIC_KEY_FINGERPRINT,
+    // SHA-256 hash of the DER encoded CertificationRequestInfo, the same for a request which was signed again
+    REQUEST_FINGERPRINT,
+    // attributes including the extension request, extensions are decoded as registered with the decoder
+    ATTRIBUTES,
+    SIGNATURE_ALGORITHM;
+
+    public static final Set<CertificationRequestPart> ALL =
+            Collections.unmodifiableSet(EnumSet.allOf(CertificationRequestPart.class));
+}
@@ -1,9 +1,9 @@
 package de.karaca.csrparser.decoder;
 
+import de.karaca.csrparser.exception.DecodeError;
 import de.karaca.csrparser.exception.InvalidCsrException;
-import java.math.BigInteger;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyFactory;
@@ -11,34 +11,71 @@ import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
-import java.util.ArrayList;
-import java.util.List;
-import lombok.extern.slf4j.Slf4j;
+import java.util.Set;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
-@Slf4j
+/**
+ * Decodes PKCS#10 structures with a {@link DerReader}.
+ *
+ * The decode methods read the next element of the current scope of the reader,
+ * so they can be combined with the navigation methods of the reader, e.g. in an {@link ExtensionDecoder}.
+ **/
 public class CsrDecoder {
-    private static final byte TAG_BOOLEAN = 0x01;
-    private static final byte TAG_INTEGER = 0x02;
-    private static final byte TAG_BIT_STRING = 0x03;
-    private static final byte TAG_OCTET_STRING = 0x04;
-    private static final byte TAG_NULL = 0x05;
-    private static final byte TAG_OBJECT_IDENTIFIER = 0x06;
-    private static final byte TAG_UTF8_STRING = 0x0C;
-    private static final byte TAG_PRINTABLE_STRING = 0x13;
-    private static final byte TAG_IA5_STRING = 0x16;
-    private static final byte TAG_SEQUENCE = 0x30;
-    private static final byte TAG_SET = 0x31;
-    private static final byte TAG_EXPLICIT_CONTENT_SPECIFIC = (byte) 0xA0;
-
-    private final ByteBuffer buffer;
+    // attributes [0] IMPLICIT SET OF Attribute
+    private static final int TAG_ATTRIBUTES = 0xA0;
+
+    // attribute types 2.5.4.x indexed by their last component
+    private static final String[] X520_ATTRIBUTE_TYPES = new String[16];
+
+    static {
+        for (String type : new String[] {
+            ObjectIdentifiers.commonName,
+            ObjectIdentifiers.serialNumber,
+            ObjectIdentifiers.country,
+            ObjectIdentifiers.locality,
+            ObjectIdentifiers.stateOrProvince,
+            ObjectIdentifiers.street,
+            ObjectIdentifiers.organizationName,
+            ObjectIdentifiers.organizationUnit
+        }) {
+            X520_ATTRIBUTE_TYPES[Integer.parseInt(type.substring("2.5.4.".length()))] = type;
+        }
+    }
+
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+    // decoders reused by the parser threads, see forCurrentThread
+    private static final ThreadLocal<CsrDecoder> THREAD_DECODERS =
+            ThreadLocal.withInitial(() -> new CsrDecoder(EMPTY_BUFFER));
+
+    private final DerReader reader;
+    private ExtensionRegistry extensionRegistry;
+
+    /**
+     * Initialize a CsrDecoder reading from the current scope of the given reader
+     *
+     * @param extensionRegistry extensions to decode, all other extensions are skipped
+     **/
+    public CsrDecoder(DerReader reader, ExtensionRegistry extensionRegistry) {
+        this.reader = reader;
+        this.extensionRegistry = extensionRegistry;
+    }
 
     /**
      * Initialize a CsrDecoder with a DER encoded buffer
+     *
+     * @param extensionRegistry extensions to decode, all other extensions are skipped
+     **/
+    public CsrDecoder(ByteBuffer buffer, ExtensionRegistry extensionRegistry) {
+        this(new DerReader(buffer), extensionRegistry);
+    }
+
+    /**
+     * Initialize a CsrDecoder with a DER encoded buffer, decoding the {@link StandardExtensions}
      **/
     public CsrDecoder(ByteBuffer buffer) {
-        this.buffer = buffer;
+        this(buffer, StandardExtensions.REGISTRY);
     }
 
     /**
@@ -48,16 +85,85 @@ public class CsrDecoder {
         this(ByteBuffer.wrap(bytes));
     }
 
+    /**
+     * Reset the decoder of the current thread onto the given buffer, so no decoder and reader are allocated per input.
+     *
+     * The decoded objects do not reference the decoder, but the decoder itself must not be used after the next call
+     * on the same thread. Callers {@link #release()} it when they are done, so it does not retain the buffer.
+     **/
+    public static CsrDecoder forCurrentThread(ByteBuffer buffer, ExtensionRegistry extensionRegistry) {
+        return THREAD_DECODERS.get().reset(buffer, extensionRegistry);
+    }
+
+    /**
+     * Decode another DER encoded buffer, forgetting all state of the previous one.
+     **/
+    public CsrDecoder reset(ByteBuffer buffer, ExtensionRegistry extensionRegistry) {
+        reader.reset(buffer);
+        this.extensionRegistry = extensionRegistry;
+        return this;
+    }
+
+    /**
+     * Drop the reference to the decoded buffer.
+     **/
+    public void release() {
+        reset(EMPTY_BUFFER, StandardExtensions.REGISTRY);
+    }
+
+    /**
+     * @return the reader the elements are decoded from
+     **/
+    public DerReader reader() {
+        return reader;
+    }
+
     /**
      * Decode a PKCS#10 CertificationRequest from the given buffer.
      **/
     public CertificationRequest decodeCertificationRequest() {
-        expectTag(TAG_SEQUENCE);
-        readLength();
+        return decodeCertificationRequest(CertificationRequestPart.ALL);
+    }
 
-        CertificationRequestInfo certificationRequestInfo = decodeCertificationRequestInfo();
+    /**
+     * Decode the given parts of a PKCS#10 CertificationRequest from the given buffer.
+     *
+     * The other parts are skipped by their length without being decoded or validated.
+     * They are null in the result, the attributes are empty.
+     * Malformed input is always rejected with an {@link InvalidCsrException}, never with another runtime exception.
+     **/
+    public CertificationRequest decodeCertificationRequest(Set<CertificationRequestPart> parts) {
+        try {
+            return decodeCertificationRequestParts(parts);
+        } catch (IndexOutOfBoundsException
+                | BufferUnderflowException
+                | IllegalArgumentException
+                | IllegalStateException
+                | ClassCastException e) {
+            throw malformed(e);
+        }
+    }
+
+    /**
+     * Reject the input for an exception which escaped the checks of the decoder, e.g. a value decoded by Java.
+     **/
+    InvalidCsrException malformed(RuntimeException e) {
+        return new InvalidCsrException(DecodeError.INVALID, "Malformed element", reader.position(), e);
+    }
 
-        String signatureAlgorithm = decodeAlgorithmIdentifier();
+    private CertificationRequest decodeCertificationRequestParts(Set<CertificationRequestPart> parts) {
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+
+        CertificationRequestInfo certificationRequestInfo = decodeCertificationRequestInfo(parts);
+
+        String signatureAlgorithm = null;
+        if (parts.contains(CertificationRequestPart.SIGNATURE_ALGORITHM)) {
+            signatureAlgorithm = decodeAlgorithmIdentifier();
+        }
+
+        // the signature is not verified
+        reader.exit();
 
         return CertificationRequest.builder()
                 .certificationRequestInfo(certificationRequestInfo)
@@ -65,33 +171,58 @@ public class CsrDecoder {
                 .build();
     }
 
-    private CertificationRequestInfo decodeCertificationRequestInfo() {
-        expectTag(TAG_SEQUENCE);
-        readLength();
+    private CertificationRequestInfo decodeCertificationRequestInfo(Set<CertificationRequestPart> parts) {
+        reader.next(DerReader.TAG_SEQUENCE);
 
-        int version = decodeInteger();
+        byte[] fingerprint = parts.contains(CertificationRequestPart.REQUEST_FINGERPRINT)
+                ? KeyFingerprintService.fingerprint(reader.encodedSlice())
+                : null;
 
-        Name name = decodeName();
+        reader.enter();
 
-        SubjectPublicKeyInfo subjectPublicKeyInfo = decodeSubjectPublicKeyInfo();
+        int version = decodeInteger();
 
-        expectTag(TAG_EXPLICIT_CONTENT_SPECIFIC);
-        int attributesLength = readLength();
-        int attributesEnd = buffer.position() + attributesLength;
+        Name name = null;
+        if (parts.contains(CertificationRequestPart.NAME)) {
+            name = decodeName();
+        } else {
+            reader.skip();
+        }
+
+        SubjectPublicKeyInfo subjectPublicKeyInfo = decodeSubjectPublicKeyInfo(parts);
 
         MultiValueMap<String, Object> attributes = new LinkedMultiValueMap<>();
 
-        while (buffer.position() < attributesEnd) {
-            expectTag(TAG_SEQUENCE);
-            readLength();
+        if (parts.contains(CertificationRequestPart.ATTRIBUTES)) {
+            decodeAttributes(attributes);
+        }
+
+        // skips the attributes if they were not decoded
+        reader.exit();
+
+        return CertificationRequestInfo.builder()
+                .version(version)
+                .name(name)
+                .subjectPublicKeyInfo(subjectPublicKeyInfo)
+                .attributes(attributes)
+                .fingerprint(fingerprint)
+                .build();
+    }
+
+    private void decodeAttributes(MultiValueMap<String, Object> attributes) {
+        reader.next(TAG_ATTRIBUTES);
+        reader.enter();
+
+        while (reader.hasNext()) {
+            reader.next(DerReader.TAG_SEQUENCE);
+            reader.enter();
 
             String attributeId = decodeObjectIdentifier();
 
-            expectTag(TAG_SET);
-            int valuesLength = readLength();
-            int valuesEnd = buffer.position() + valuesLength;
+            reader.next(DerReader.TAG_SET);
+            reader.enter();
 
-            while (buffer.position() < valuesEnd) {
+            while (reader.hasNext()) {
                 switch (attributeId) {
                     case ObjectIdentifiers.pkcs9_emailAddress:
                     case ObjectIdentifiers.pkcs9_unstructuredName:
@@ -100,365 +231,288 @@ public class CsrDecoder {
                     case ObjectIdentifiers.pkcs9_extensionRequest:
                         attributes.add(attributeId, decodeExtensions());
                         break;
-                    default: {
+                    default:
                         // skip unknown attribute
-                        buffer.get();
-                        int valueLength = readLength();
-                        buffer.position(buffer.position() + valueLength);
+                        reader.skip();
                         break;
-                    }
                 }
             }
+
+            reader.exit();
+            reader.exit();
         }
 
-        return CertificationRequestInfo.builder()
-                .version(version)
-                .name(name)
-                .subjectPublicKeyInfo(subjectPublicKeyInfo)
-                .attributes(attributes)
-                .build();
+        reader.exit();
     }
 
-    private SubjectPublicKeyInfo decodeSubjectPublicKeyInfo() {
-        int encodedStart = buffer.position();
+    /**
+     * @return null if no part of the SubjectPublicKeyInfo was requested
+     **/
+    SubjectPublicKeyInfo decodeSubjectPublicKeyInfo(Set<CertificationRequestPart> parts) {
+        reader.next(DerReader.TAG_SEQUENCE);
 
-        expectTag(TAG_SEQUENCE);
+        int offset = reader.headerOffset();
+        boolean decodeKey = parts.contains(CertificationRequestPart.PUBLIC_KEY);
+        boolean decodeFingerprint = parts.contains(CertificationRequestPart.PUBLIC_KEY_FINGERPRINT);
 
-        buffer.mark();
-        int numLengthBytes = readNumLengthBytes();
-        buffer.reset();
+        if (!decodeKey && !decodeFingerprint && !parts.contains(CertificationRequestPart.PUBLIC_KEY_ALGORITHM)) {
+            return null;
+        }
 
-        int length = readLength();
+        ByteBuffer encoded = reader.encodedSlice();
 
-        String algorithmIdentifier = decodeAlgorithmIdentifier();
+        reader.enter();
 
-        // Java requires the key to be in SubjectPublicKeyInfo DER encoded format
-        byte[] encoded = new byte[1 + numLengthBytes + length];
+        // AlgorithmIdentifier
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+        String algorithmIdentifier = decodeObjectIdentifier();
+        String parameterIdentifier =
+                reader.peekTag() == DerReader.TAG_OBJECT_IDENTIFIER ? decodeObjectIdentifier() : null;
+        // other parameters are read by Java
+        reader.exit();
 
-        // read whole SubjectPublicKeyInfo into byte[]
-        buffer.position(encodedStart);
-        buffer.get(encoded);
+        // the key is read by Java
+        reader.exit();
 
-        KeyFactory keyFactory = getKeyFactory(algorithmIdentifier);
+        PublicKey publicKey = null;
 
-        try {
-            PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(encoded));
-
-            return SubjectPublicKeyInfo.builder()
-                    .algorithmIdentifier(algorithmIdentifier)
-                    .publicKey(publicKey)
-                    .build();
-        } catch (InvalidKeySpecException e) {
-            throw new InvalidCsrException(e);
+        if (decodeKey) {
+            // Java requires the key to be in SubjectPublicKeyInfo DER encoded format
+            byte[] bytes = new byte[encoded.remaining()];
+            encoded.get(0, bytes);
+
+            try {
+                publicKey = getKeyFactory(algorithmIdentifier).generatePublic(new X509EncodedKeySpec(bytes));
+            } catch (InvalidKeySpecException e) {
+                throw new InvalidCsrException(DecodeError.INVALID_VALUE, "Invalid public key", offset, e);
+            }
         }
+
+        return SubjectPublicKeyInfo.builder()
+                .algorithmIdentifier(algorithmIdentifier)
+                .parameterIdentifier(parameterIdentifier)
+                .publicKey(publicKey)
+                .fingerprint(decodeFingerprint ? KeyFingerprintService.fingerprint(encoded) : null)
+                .build();
     }
 
-    private String decodeAlgorithmIdentifier() {
-        expectTag(TAG_SEQUENCE);
-        readLength();
+    String decodeAlgorithmIdentifier() {
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
 
         String id = decodeObjectIdentifier();
 
-        if (!ObjectIdentifiers.isParameterOmitted(id)) {
-            // skip parameters (will be read by Java)
-            buffer.get();
-            int length = readLength();
-            buffer.position(buffer.position() + length);
-        }
+        // skip parameters (will be read by Java)
+        reader.exit();
 
         return id;
     }
 
-    private Extensions decodeExtensions() {
-        expectTag(TAG_SEQUENCE);
-
-        int length = readLength();
-        int end = buffer.position() + length;
+    Extensions decodeExtensions() {
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
 
         Extensions extensions = new Extensions();
 
-        while (buffer.position() < end) {
-            expectTag(TAG_SEQUENCE);
-            readLength();
-
-            String extensionId = decodeObjectIdentifier();
+        while (reader.hasNext()) {
+            reader.next(DerReader.TAG_SEQUENCE);
+            reader.enter();
 
-            int tag = buffer.get();
-            if (tag == TAG_BOOLEAN) {
-                // critical property from Extension
-                int propLength = readLength();
-                buffer.position(buffer.position() + propLength);
+            reader.next(DerReader.TAG_OBJECT_IDENTIFIER);
+            ExtensionType<?> type = extensionRegistry.lookup(reader.buffer(), reader.offset(), reader.length());
+            int idOffset = reader.offset();
+            int idLength = reader.length();
 
-                // read next tag as this property is optional and defaults to false
-                tag = buffer.get();
+            // critical BOOLEAN DEFAULT FALSE
+            boolean critical = false;
+            if (reader.peekTag() == DerReader.TAG_BOOLEAN) {
+                critical = decodeBoolean();
             }
 
-            if (tag != TAG_OCTET_STRING) {
-                throw new InvalidCsrException();
+            reader.next(DerReader.TAG_OCTET_STRING);
+
+            if (type != null) {
+                reader.enterEncapsulated();
+                extensions.add(type, type.getId(), critical, type.getDecoder().decode(this));
+                // skip anything the decoder left unread
+                reader.exit();
+            } else if (critical) {
+                // only decode the identifier, the caller has to decide whether it can ignore the extension
+                extensions.add(
+                        null, InternCache.SHARED.objectIdentifier(reader.buffer(), idOffset, idLength), true, null);
             }
 
-            int extensionLength = readLength();
-
-            switch (extensionId) {
-                case ObjectIdentifiers.ext_subjectAlternativeName:
-                    extensions.getEntries().add(extensionId, decodeGeneralNames());
-                    break;
-                default:
-                    // skip unknown extension
-                    buffer.position(buffer.position() + extensionLength);
-                    break;
-            }
+            reader.exit();
         }
 
+        reader.exit();
+
         return extensions;
     }
 
-    private List<GeneralName> decodeGeneralNames() {
-        List<GeneralName> names = new ArrayList<>();
-
-        expectTag(TAG_SEQUENCE);
-        int length = readLength();
-        int end = buffer.position() + length;
-
-        while (buffer.position() < end) {
-            int tag = buffer.get();
-            if ((tag & 0x80) == 0) {
-                throw new InvalidCsrException();
-            }
+    /**
+     * Decode a SEQUENCE OF GeneralName. Only the positions of the names are recorded,
+     * their values are decoded by {@link GeneralNames} on demand.
+     **/
+    public GeneralNames decodeGeneralNames() {
+        GeneralNames names = new GeneralNames(reader.buffer());
 
-            int choiceTag = tag & 0x7F;
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
 
-            switch (choiceTag) {
-                case GeneralName.TAG_DNS: {
-                    String value = decodeIA5String();
+        while (reader.hasNext()) {
+            reader.next();
 
-                    names.add(new GeneralName(choiceTag, value));
+            // GeneralName is a CHOICE of context specific tags [0] to [8]
+            int choiceTag = reader.tagNumber();
+            if (reader.tagClass() != DerReader.CLASS_CONTEXT_SPECIFIC || choiceTag > GeneralNames.TAG_REGISTERED_ID) {
+                throw unsupportedTag("GeneralName");
+            }
 
-                    break;
-                }
-                case GeneralName.TAG_IP: {
-                    try {
-                        InetAddress address = InetAddress.getByAddress(decodeOctetString());
-                        String value = address.getHostAddress();
-                        names.add(new GeneralName(choiceTag, value));
-                    } catch (UnknownHostException e) {
-                        // cannot happen since we are reading raw ip addresses
-                    }
-
-                    break;
-                }
-                default: {
-                    // unsupported name tag, skip
-                    buffer.get();
-                    int nameLength = readLength();
-                    buffer.position(buffer.position() + nameLength);
+            names.add(choiceTag, reader.headerOffset(), reader.offset(), reader.length());
 
-                    break;
-                }
+            if (choiceTag == GeneralNames.TAG_OTHER_NAME
+                    || choiceTag == GeneralNames.TAG_DIRECTORY_NAME
+                    || choiceTag == GeneralNames.TAG_REGISTERED_ID) {
+                // structured names are rare, decode them right away so malformed names are reported while parsing
+                names.getValue(names.size() - 1);
             }
         }
 
+        reader.exit();
+
         return names;
     }
 
-    private Void decodeNull() {
-        expectTag(TAG_NULL);
-
-        if (readLength() != 0) {
-            throw new InvalidCsrException();
-        }
-
-        return null;
+    public boolean decodeBoolean() {
+        reader.next(DerReader.TAG_BOOLEAN);
+        return reader.booleanValue();
     }
 
-    private int decodeInteger() {
-        expectTag(TAG_INTEGER);
-        int length = readLength();
-        return readInt(length);
+    public int decodeInteger() {
+        reader.next(DerReader.TAG_INTEGER);
+        return reader.intValue();
     }
 
-    private String decodeString() {
-        int tag = buffer.get();
-
-        switch (tag) {
-            case TAG_IA5_STRING:
-            case TAG_PRINTABLE_STRING:
-                return decodeIA5String();
-            case TAG_UTF8_STRING:
-                return decodeUTF8String();
+    /**
+     * Decode an IA5String, PrintableString or UTF8String.
+     **/
+    public String decodeString() {
+        switch (reader.next()) {
+            case DerReader.TAG_IA5_STRING:
+            case DerReader.TAG_PRINTABLE_STRING:
+                return reader.stringValue(StandardCharsets.US_ASCII);
+            case DerReader.TAG_UTF8_STRING:
+                return reader.stringValue(StandardCharsets.UTF_8);
             default:
-                throw new InvalidCsrException();
+                throw unsupportedTag("string");
         }
     }
 
-    private String decodeIA5String() {
-        int length = readLength();
-        byte[] bytes = new byte[length];
-        buffer.get(bytes);
-        return new String(bytes, StandardCharsets.US_ASCII);
-    }
+    /**
+     * @return content of the BIT STRING without the unused bits octet, unused bits are cleared
+     **/
+    public byte[] decodeBitString() {
+        reader.next(DerReader.TAG_BIT_STRING);
 
-    private String decodeUTF8String() {
-        int length = readLength();
-        byte[] bytes = new byte[length];
-        buffer.get(bytes);
-        return new String(bytes, StandardCharsets.UTF_8);
-    }
+        if (reader.length() < 1) {
+            throw new InvalidCsrException(DecodeError.INVALID_LENGTH, "Empty BIT STRING", reader.headerOffset());
+        }
 
-    private byte[] decodeOctetString() {
-        expectTag(TAG_OCTET_STRING);
-        int length = readLength();
+        ByteBuffer buffer = reader.buffer();
 
-        byte[] bytes = new byte[length];
-        buffer.get(bytes);
+        int unusedBits = buffer.get(reader.offset());
+        if (unusedBits < 0 || unusedBits > 7) {
+            throw new InvalidCsrException(
+                    DecodeError.INVALID_VALUE, "Invalid unused bits of BIT STRING", reader.headerOffset());
+        }
+
+        byte[] bytes = new byte[reader.length() - 1];
+        buffer.get(reader.offset() + 1, bytes);
+
+        if (bytes.length > 0) {
+            bytes[bytes.length - 1] &= (byte) (0xFF << unusedBits);
+        }
 
         return bytes;
     }
 
+    public byte[] decodeOctetString() {
+        reader.next(DerReader.TAG_OCTET_STRING);
+        return reader.bytes();
+    }
+
     /**
      * Decode an OBJECT IDENTIFIER from the given buffer.
      *
      * @return ASN.1 Object Identifier as a {@link java.lang.String}
      **/
     public String decodeObjectIdentifier() {
-        expectTag(TAG_OBJECT_IDENTIFIER);
-
-        int length = readLength();
-
-        StringBuilder builder = new StringBuilder();
-
-        int end = buffer.position() + length;
-
-        int first = readObjectIdentifierComponent(end - buffer.position());
-        if (first < 40) {
-            builder.append("0.");
-            builder.append(first);
-        } else if (first < 80) {
-            builder.append("1.");
-            builder.append(first - 40);
-        } else {
-            builder.append("2.");
-            builder.append(first - 80);
-        }
-
-        while (buffer.position() < end) {
-            builder.append('.');
-            builder.append(readObjectIdentifierComponent(end - buffer.position()));
-        }
-
-        return builder.toString();
+        reader.next(DerReader.TAG_OBJECT_IDENTIFIER);
+        return reader.objectIdentifierValue();
     }
 
-    private int readObjectIdentifierComponent(int remainingBytes) {
-        byte b1 = buffer.get();
-        if ((b1 & 0x80) != 0) {
-            byte b2 = buffer.get();
-            if ((b2 & 0x80) != 0) {
-                // three bytes
-                byte b3 = buffer.get();
+    Name decodeName() {
+        Name name = new Name(reader.buffer());
 
-                if ((b2 & 0x01) != 0) {
-                    b3 |= 0x80;
-                }
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
 
-                b2 &= 0x7F;
-                b2 >>>= 1;
+        int rdn = 0;
 
-                if ((b1 & 0x01) != 0) {
-                    b2 |= 0x80;
-                }
+        while (reader.hasNext()) {
+            // RelativeDistinguishedName, a SET of one or more attributes
+            reader.next(DerReader.TAG_SET);
+            reader.enter();
 
-                b1 &= 0x7F;
-                b1 >>>= 1;
+            while (reader.hasNext()) {
+                // AttributeTypeAndValue
+                reader.next(DerReader.TAG_SEQUENCE);
+                reader.enter();
 
-                if ((b1 & 0x01) != 0) {
-                    b2 |= 0x80;
-                }
-
-                b1 >>>= 1;
+                // AttributeType
+                String type = decodeAttributeType();
 
-                return new BigInteger(1, new byte[] {b1, b2, b3}).intValue();
-            } else {
-                // two bytes
-                if ((b1 & 0x01) != 0) {
-                    b2 |= 0x80;
+                // AttributeValue, only its position is kept
+                byte tag = (byte) reader.next();
+                if (!Name.isSupportedString(tag)) {
+                    throw unsupportedTag("attribute value");
                 }
 
-                b1 &= 0x7F;
-                b1 >>>= 1;
+                name.add(type, rdn, tag, reader.offset(), reader.length());
 
-                return new BigInteger(1, new byte[] {b1, b2}).intValue();
+                reader.exit();
             }
-        }
-
-        // single byte
-        return b1;
-    }
-
-    private Name decodeName() {
-        Name name = new Name();
-
-        expectTag(TAG_SEQUENCE);
-
-        int length = readLength();
-        int end = buffer.position() + length;
-
-        while (buffer.position() < end) {
-            // RelativeDistinguishedName
-            expectTag(TAG_SET);
-            readLength();
 
-            // AttributeTypeAndValue
-            expectTag(TAG_SEQUENCE);
-            readLength();
-
-            // AttributeType
-            String type = decodeObjectIdentifier();
-            // AttributeValue
-            String value = decodeString();
-
-            name.getAttributes().put(type, value);
+            reader.exit();
+            rdn++;
         }
 
-        return name;
-    }
+        reader.exit();
 
-    private void expectTag(byte tag) {
-        if (buffer.get() != tag) {
-            throw new InvalidCsrException();
-        }
+        return name;
     }
 
-    private int readNumLengthBytes() {
-        byte lengthByte = buffer.get();
-        if ((lengthByte & 0x80) != 0) {
-            return (lengthByte & 0x7F) + 1;
-        }
-
-        return 1;
-    }
+    /**
+     * Decode the type of a name attribute. The common X.520 types (2.5.4.x) are mapped to the constants of
+     * {@link ObjectIdentifiers} without building a new string.
+     **/
+    private String decodeAttributeType() {
+        reader.next(DerReader.TAG_OBJECT_IDENTIFIER);
 
-    private int readLength() {
-        byte lengthByte = buffer.get();
-        if ((lengthByte & 0x80) != 0) {
-            int numBytes = lengthByte & 0x7F;
-            return readInt(numBytes);
-        }
+        ByteBuffer buffer = reader.buffer();
+        int pos = reader.offset();
 
-        return lengthByte;
-    }
+        if (reader.length() == 3 && buffer.get(pos) == 0x55 && buffer.get(pos + 1) == 0x04) {
+            int id = buffer.get(pos + 2);
 
-    private int readInt(int numBytes) {
-        if (numBytes > 4) {
-            throw new InvalidCsrException("not supported");
+            if (id >= 0 && id < X520_ATTRIBUTE_TYPES.length && X520_ATTRIBUTE_TYPES[id] != null) {
+                return X520_ATTRIBUTE_TYPES[id];
+            }
         }
 
-        byte[] lengthBytes = new byte[numBytes];
-        buffer.get(lengthBytes);
-
-        BigInteger lengthBigInt = new BigInteger(1, lengthBytes);
-
-        return lengthBigInt.intValue();
+        return reader.objectIdentifierValue();
     }
 
     private static KeyFactory getKeyFactory(String algorithmId) {
@@ -474,9 +528,18 @@ public class CsrDecoder {
                     return KeyFactory.getInstance("EC");
             }
         } catch (NoSuchAlgorithmException e) {
-            throw new InvalidCsrException("Public Key algorithm not supported", e);
+            throw new InvalidCsrException(
+                    DecodeError.UNSUPPORTED_ALGORITHM, "Public Key algorithm not supported: " + algorithmId, e);
         }
 
-        throw new InvalidCsrException("Public Key algorithm not supported");
+        throw new InvalidCsrException(
+                DecodeError.UNSUPPORTED_ALGORITHM, "Public Key algorithm not supported: " + algorithmId);
+    }
+
+    private InvalidCsrException unsupportedTag(String type) {
+        return new InvalidCsrException(
+                DecodeError.BAD_TAG,
+                "Unsupported " + type + " tag " + InvalidCsrException.formatTag(reader.tag()),
+                reader.headerOffset());
     }
 }
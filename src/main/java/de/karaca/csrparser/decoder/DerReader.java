@@ -0,0 +1,438 @@
+package de.karaca.csrparser.decoder;
+
+import de.karaca.csrparser.exception.DecodeError;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Streaming pull parser for DER encoded data.
+ *
+ * The reader walks the elements of the current scope one by one: {@link #next()} reads the header (tag and length)
+ * of the following element, {@link #enter()} makes the children of a constructed element the current scope and
+ * {@link #exit()} skips the remaining children and returns to the enclosing scope. Content which is not entered is
+ * skipped without being read.
+ *
+ * Only absolute positions of the buffer are used, so heap, direct and read-only buffers work alike and the
+ * position of the buffer is never changed. Navigation does not allocate, values are read from the buffer or returned
+ * as slices of it. A reader can be reset onto another buffer, so it can be reused for many inputs.
+ * Tags with high tag numbers and long form lengths up to the size of the buffer are supported,
+ * indefinite lengths are rejected as they are not allowed in DER.
+ *
+ * Malformed input is rejected with an {@link InvalidCsrException} carrying a {@link DecodeError} and the offset
+ * of the element.
+ **/
+public final class DerReader {
+    public static final int TAG_BOOLEAN = 0x01;
+    public static final int TAG_INTEGER = 0x02;
+    public static final int TAG_BIT_STRING = 0x03;
+    public static final int TAG_OCTET_STRING = 0x04;
+    public static final int TAG_NULL = 0x05;
+    public static final int TAG_OBJECT_IDENTIFIER = 0x06;
+    public static final int TAG_UTF8_STRING = 0x0C;
+    public static final int TAG_PRINTABLE_STRING = 0x13;
+    public static final int TAG_IA5_STRING = 0x16;
+    public static final int TAG_UTC_TIME = 0x17;
+    public static final int TAG_GENERALIZED_TIME = 0x18;
+    public static final int TAG_SEQUENCE = 0x30;
+    public static final int TAG_SET = 0x31;
+
+    public static final int CLASS_UNIVERSAL = 0x00;
+    public static final int CLASS_APPLICATION = 0x40;
+    public static final int CLASS_CONTEXT_SPECIFIC = 0x80;
+    public static final int CLASS_PRIVATE = 0xC0;
+
+    private static final int CONSTRUCTED = 0x20;
+    private static final int HIGH_TAG_NUMBER = 0x1F;
+
+    private static final int MAX_DEPTH = 32;
+
+    private ByteBuffer buffer;
+
+    // ends of the enclosing scopes, the current scope end is kept in scopeEnd
+    private final int[] scopeEnds = new int[MAX_DEPTH];
+    private int depth;
+    private int scopeEnd;
+
+    // position of the next element in the current scope
+    private int pos;
+
+    // the current element, tag is -1 if there is none
+    private int tag = -1;
+    private int tagNumber;
+    private int headerOffset;
+    private int offset;
+    private int length;
+
+    /**
+     * Read the elements between position and limit of the buffer.
+     **/
+    public DerReader(ByteBuffer buffer) {
+        this(buffer, buffer.position(), buffer.limit());
+    }
+
+    /**
+     * Read the elements between start (inclusive) and end (exclusive) of the buffer.
+     **/
+    public DerReader(ByteBuffer buffer, int start, int end) {
+        reset(buffer, start, end);
+    }
+
+    /**
+     * Read the elements between position and limit of another buffer, forgetting all state of the previous one.
+     **/
+    public void reset(ByteBuffer buffer) {
+        reset(buffer, buffer.position(), buffer.limit());
+    }
+
+    /**
+     * Read the elements between start (inclusive) and end (exclusive) of another buffer,
+     * forgetting all state of the previous one.
+     **/
+    public void reset(ByteBuffer buffer, int start, int end) {
+        if (start < 0 || start > end || end > buffer.limit()) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for limit "
+                    + buffer.limit());
+        }
+
+        this.buffer = buffer;
+        this.pos = start;
+        this.scopeEnd = end;
+        this.depth = 0;
+        this.tag = -1;
+    }
+
+    /**
+     * @return true if the current scope has another element
+     **/
+    public boolean hasNext() {
+        return pos < scopeEnd;
+    }
+
+    /**
+     * @return first identifier octet of the next element without reading it, -1 at the end of the scope
+     **/
+    public int peekTag() {
+        return pos < scopeEnd ? buffer.get(pos) & 0xFF : -1;
+    }
+
+    /**
+     * Read the header of the next element of the current scope, skipping the content of the current element.
+     *
+     * @return first identifier octet of the element, e.g. {@link #TAG_SEQUENCE}
+     **/
+    public int next() {
+        if (pos >= scopeEnd) {
+            throw error(DecodeError.TRUNCATED, "Unexpected end of element", pos);
+        }
+
+        int p = pos;
+        int identifier = buffer.get(p++) & 0xFF;
+        int number = identifier & HIGH_TAG_NUMBER;
+
+        if (number == HIGH_TAG_NUMBER) {
+            // base 128, all but the last octet have the high bit set
+            number = 0;
+            int b;
+            do {
+                if (p >= scopeEnd) {
+                    throw error(DecodeError.TRUNCATED, "Truncated tag", pos);
+                }
+                if (number > (Integer.MAX_VALUE >>> 7)) {
+                    throw error(DecodeError.LENGTH_OVERFLOW, "Tag number too large", pos);
+                }
+
+                b = buffer.get(p++) & 0xFF;
+                number = (number << 7) | (b & 0x7F);
+            } while ((b & 0x80) != 0);
+        }
+
+        if (p >= scopeEnd) {
+            throw error(DecodeError.TRUNCATED, "Truncated length", pos);
+        }
+
+        int contentLength = buffer.get(p++) & 0xFF;
+
+        if (contentLength > 0x7F) {
+            int numBytes = contentLength & 0x7F;
+
+            if (numBytes == 0) {
+                throw error(DecodeError.INVALID_LENGTH, "Indefinite length is not allowed in DER", pos);
+            }
+            if (numBytes > 4) {
+                throw error(DecodeError.LENGTH_OVERFLOW, "Length too large", pos);
+            }
+            if (numBytes > scopeEnd - p) {
+                throw error(DecodeError.TRUNCATED, "Truncated length", pos);
+            }
+
+            contentLength = 0;
+            for (int i = 0; i < numBytes; i++) {
+                contentLength = (contentLength << 8) | (buffer.get(p++) & 0xFF);
+            }
+
+            if (contentLength < 0) {
+                throw error(DecodeError.LENGTH_OVERFLOW, "Length too large", pos);
+            }
+        }
+
+        if (contentLength > scopeEnd - p) {
+            throw error(DecodeError.TRUNCATED, "Length exceeds the enclosing element", pos);
+        }
+
+        tag = identifier;
+        tagNumber = number;
+        headerOffset = pos;
+        offset = p;
+        length = contentLength;
+        pos = p + contentLength;
+
+        return identifier;
+    }
+
+    /**
+     * Read the header of the next element and check its first identifier octet.
+     **/
+    public void next(int expectedTag) {
+        int start = pos;
+
+        if (next() != expectedTag) {
+            throw InvalidCsrException.unexpectedTag(start, expectedTag, tag);
+        }
+    }
+
+    /**
+     * Skip the next element of the current scope.
+     **/
+    public void skip() {
+        next();
+    }
+
+    /**
+     * Make the content of the current element the current scope. The element has to be constructed.
+     **/
+    public void enter() {
+        checkCurrent();
+
+        if ((tag & CONSTRUCTED) == 0) {
+            throw error(DecodeError.BAD_TAG, "Element is not constructed", headerOffset);
+        }
+
+        enterEncapsulated();
+    }
+
+    /**
+     * Make the content of the current element the current scope, also if it is primitive.
+     * Used for DER encoded values wrapped in an OCTET STRING, e.g. the value of an extension.
+     **/
+    public void enterEncapsulated() {
+        checkCurrent();
+
+        if (depth == MAX_DEPTH) {
+            throw error(DecodeError.NESTED_TOO_DEEPLY, "Elements nested too deeply", headerOffset);
+        }
+
+        scopeEnds[depth++] = scopeEnd;
+        scopeEnd = offset + length;
+        pos = offset;
+        tag = -1;
+    }
+
+    /**
+     * Skip the remaining elements of the current scope and return to the enclosing scope.
+     * The next call of {@link #next()} reads the element following the one which was entered.
+     **/
+    public void exit() {
+        if (depth == 0) {
+            throw new IllegalStateException("Not within an element");
+        }
+
+        pos = scopeEnd;
+        scopeEnd = scopeEnds[--depth];
+        tag = -1;
+    }
+
+    /**
+     * @return number of entered elements
+     **/
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * @return position of the next element, the end of the scope if there is none
+     **/
+    public int position() {
+        return pos;
+    }
+
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return first identifier octet of the current element, containing class, constructed bit and low tag numbers
+     **/
+    public int tag() {
+        checkCurrent();
+        return tag;
+    }
+
+    /**
+     * @return tag number of the current element, also for high tag numbers
+     **/
+    public int tagNumber() {
+        checkCurrent();
+        return tagNumber;
+    }
+
+    /**
+     * @return one of the CLASS_ constants
+     **/
+    public int tagClass() {
+        checkCurrent();
+        return tag & CLASS_PRIVATE;
+    }
+
+    public boolean isConstructed() {
+        checkCurrent();
+        return (tag & CONSTRUCTED) != 0;
+    }
+
+    /**
+     * @return position of the first identifier octet of the current element
+     **/
+    public int headerOffset() {
+        checkCurrent();
+        return headerOffset;
+    }
+
+    /**
+     * @return position of the content of the current element
+     **/
+    public int offset() {
+        checkCurrent();
+        return offset;
+    }
+
+    /**
+     * @return length of the content of the current element
+     **/
+    public int length() {
+        checkCurrent();
+        return length;
+    }
+
+    /**
+     * @return position after the last content byte of the current element
+     **/
+    public int end() {
+        checkCurrent();
+        return offset + length;
+    }
+
+    /**
+     * @return content of the current element as a slice of the buffer
+     **/
+    public ByteBuffer slice() {
+        checkCurrent();
+        return buffer.slice(offset, length);
+    }
+
+    /**
+     * @return the whole current element including its header as a slice of the buffer
+     **/
+    public ByteBuffer encodedSlice() {
+        checkCurrent();
+        return buffer.slice(headerOffset, offset + length - headerOffset);
+    }
+
+    /**
+     * @return copy of the content of the current element
+     **/
+    public byte[] bytes() {
+        checkCurrent();
+
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return bytes;
+    }
+
+    /**
+     * @return content of the current element as a BOOLEAN
+     **/
+    public boolean booleanValue() {
+        checkCurrent();
+
+        if (length != 1) {
+            throw error(DecodeError.INVALID_LENGTH, "Invalid BOOLEAN length " + length, headerOffset);
+        }
+
+        return buffer.get(offset) != 0;
+    }
+
+    /**
+     * @return content of the current element as a two's complement INTEGER of up to four bytes
+     **/
+    public int intValue() {
+        checkCurrent();
+
+        if (length < 1 || length > 4) {
+            throw error(DecodeError.LENGTH_OVERFLOW, "Unsupported INTEGER length " + length, headerOffset);
+        }
+
+        // the first byte is sign extended
+        int value = buffer.get(offset);
+        for (int i = 1; i < length; i++) {
+            value = (value << 8) | (buffer.get(offset + i) & 0xFF);
+        }
+
+        return value;
+    }
+
+    /**
+     * @return content of the current element as a two's complement INTEGER of any length, e.g. a serial number
+     **/
+    public BigInteger bigIntegerValue() {
+        checkCurrent();
+
+        if (length < 1) {
+            throw error(DecodeError.INVALID_LENGTH, "Invalid INTEGER length " + length, headerOffset);
+        }
+
+        return new BigInteger(bytes());
+    }
+
+    /**
+     * @return content of the current element as dotted OBJECT IDENTIFIER, repeated identifiers are returned from the
+     * {@link InternCache} without being decoded again
+     **/
+    public String objectIdentifierValue() {
+        checkCurrent();
+        return InternCache.SHARED.objectIdentifier(buffer, offset, length);
+    }
+
+    /**
+     * @return content of the current element decoded with the given charset
+     **/
+    public String stringValue(Charset charset) {
+        checkCurrent();
+
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, charset);
+        }
+
+        return new String(bytes(), charset);
+    }
+
+    private void checkCurrent() {
+        if (tag < 0) {
+            throw new IllegalStateException("No current element");
+        }
+    }
+
+    private static InvalidCsrException error(DecodeError code, String message, int position) {
+        return new InvalidCsrException(code, message, position);
+    }
+}
@@ -0,0 +1,15 @@
+package de.karaca.csrparser.decoder;
+
+/**
+ * Decodes the value of an extension.
+ *
+ * @param <T> type of the decoded value
+ **/
+@FunctionalInterface
+public interface ExtensionDecoder<T> {
+    /**
+     * Decode the DER encoded extension value (the content of the extnValue OCTET STRING).
+     * The reader of the decoder is scoped to the value, elements left unread are skipped by the caller.
+     **/
+    T decode(CsrDecoder decoder);
+}
@@ -0,0 +1,97 @@
+package de.karaca.csrparser.decoder;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable set of extensions to decode, keyed on the encoded object identifier.
+ *
+ * The lookup hashes the identifier bytes directly in the decoded buffer and compares them in place,
+ * so extensions which are not registered are skipped without decoding their identifier into a string.
+ **/
+public final class ExtensionRegistry {
+    private static final ExtensionRegistry EMPTY = new ExtensionRegistry(new ExtensionType<?>[0]);
+
+    // open addressing with linear probing, at most half full
+    private final ExtensionType<?>[] table;
+    private final int mask;
+
+    private ExtensionRegistry(ExtensionType<?>[] types) {
+        int capacity = Integer.highestOneBit(Math.max(4, types.length * 2) - 1) << 1;
+
+        table = new ExtensionType<?>[capacity];
+        mask = capacity - 1;
+
+        for (ExtensionType<?> type : types) {
+            byte[] encodedId = type.getEncodedId();
+            int slot = hash(ByteBuffer.wrap(encodedId), 0, encodedId.length) & mask;
+
+            while (table[slot] != null) {
+                if (Arrays.equals(table[slot].getEncodedId(), encodedId)) {
+                    throw new IllegalArgumentException("duplicate extension " + type.getId());
+                }
+
+                slot = (slot + 1) & mask;
+            }
+
+            table[slot] = type;
+        }
+    }
+
+    public static ExtensionRegistry of(ExtensionType<?>... types) {
+        return new ExtensionRegistry(types);
+    }
+
+    /**
+     * @return a registry without extensions, all extensions are skipped
+     **/
+    public static ExtensionRegistry empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Find the extension whose encoded object identifier is stored at the given position of the buffer.
+     *
+     * @return the registered extension or null if it is not registered
+     **/
+    public ExtensionType<?> lookup(ByteBuffer buffer, int offset, int length) {
+        int slot = hash(buffer, offset, length) & mask;
+
+        ExtensionType<?> type;
+        while ((type = table[slot]) != null) {
+            if (matches(type.getEncodedId(), buffer, offset, length)) {
+                return type;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return null;
+    }
+
+    private static boolean matches(byte[] encodedId, ByteBuffer buffer, int offset, int length) {
+        if (encodedId.length != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (encodedId[i] != buffer.get(offset + i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int hash(ByteBuffer buffer, int offset, int length) {
+        // FNV-1a, most identifiers only differ in their last bytes
+        int hash = 0x811C9DC5;
+
+        for (int i = 0; i < length; i++) {
+            hash ^= buffer.get(offset + i) & 0xFF;
+            hash *= 0x01000193;
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+}
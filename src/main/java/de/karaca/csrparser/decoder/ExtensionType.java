@@ -0,0 +1,33 @@
+package de.karaca.csrparser.decoder;
+
+import lombok.Getter;
+
+/**
+ * An extension which can be decoded by {@link CsrDecoder}.
+ * Instances are used as typed keys to look up decoded values in {@link Extensions}.
+ *
+ * @param <T> type of the decoded value
+ **/
+@Getter
+public final class ExtensionType<T> {
+    private final String id;
+    // content bytes of the DER encoded object identifier, used for the registry lookup
+    private final byte[] encodedId;
+    private final ExtensionDecoder<T> decoder;
+
+    public ExtensionType(String id, ExtensionDecoder<T> decoder) {
+        this.id = id;
+        this.encodedId = ObjectIdentifiers.encode(id);
+        this.decoder = decoder;
+    }
+
+    @SuppressWarnings("unchecked") // values are only stored together with the type whose decoder created them
+    T cast(Object value) {
+        return (T) value;
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
@@ -1,25 +1,89 @@
 package de.karaca.csrparser.decoder;
 
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * Extensions of a certification request or certificate in encoding order.
+ *
+ * Contains the extensions decoded with the {@link ExtensionRegistry} of the decoder and critical extensions which
+ * are not registered (without value), so callers can detect critical extensions they do not understand.
+ **/
 public class Extensions {
-    private final MultiValueMap<String, Object> entries;
+    private static final int INITIAL_CAPACITY = 4;
 
-    public Extensions() {
-        entries = new LinkedMultiValueMap<>();
+    private ExtensionType<?>[] types = new ExtensionType<?>[INITIAL_CAPACITY];
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private boolean[] critical = new boolean[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @param type the registered extension or null if it was not decoded
+     **/
+    void add(ExtensionType<?> type, String id, boolean isCritical, Object value) {
+        if (size == types.length) {
+            int capacity = size * 2;
+
+            types = Arrays.copyOf(types, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            values = Arrays.copyOf(values, capacity);
+            critical = Arrays.copyOf(critical, capacity);
+        }
+
+        types[size] = type;
+        ids[size] = id;
+        values[size] = value;
+        critical[size] = isCritical;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    public boolean isCritical(int index) {
+        checkIndex(index);
+        return critical[index];
     }
 
-    public Extensions(MultiValueMap<String, Object> attributes) {
-        this.entries = new LinkedMultiValueMap<>(attributes);
+    /**
+     * @return the decoded value of the extension or null if the request does not contain it
+     **/
+    public <T> T get(ExtensionType<T> type) {
+        for (int i = 0; i < size; i++) {
+            if (types[i] == type) {
+                return type.cast(values[i]);
+            }
+        }
+
+        return null;
     }
 
-    public MultiValueMap<String, Object> getEntries() {
-        return entries;
+    /**
+     * @return identifiers of all critical extensions in encoding order, including extensions which were not decoded
+     **/
+    public List<String> getCriticalIds() {
+        List<String> criticalIds = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            if (critical[i]) {
+                criticalIds.add(ids[i]);
+            }
+        }
+
+        return criticalIds;
     }
 
-    @SuppressWarnings("unchecked") // will throw ClassCastException anyway if wrong type
-    public <T> T getFirst(String identifier) {
-        return (T) entries.getFirst(identifier);
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
     }
 }
@@ -0,0 +1,160 @@
+package de.karaca.csrparser.decoder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * SEQUENCE OF GeneralName (RFC 5280 4.2.1.6) in encoding order.
+ *
+ * Like {@link Name} only the tag and the position of every name within the decoded buffer are stored,
+ * the string representation of a name is built when it is requested. Requests with tens of thousands of names
+ * therefore only need three arrays instead of an object and a string per name.
+ **/
+public class GeneralNames {
+    public static final int TAG_OTHER_NAME = 0;
+    public static final int TAG_RFC822_NAME = 1;
+    public static final int TAG_DNS = 2;
+    public static final int TAG_X400_ADDRESS = 3;
+    public static final int TAG_DIRECTORY_NAME = 4;
+    public static final int TAG_EDI_PARTY_NAME = 5;
+    public static final int TAG_URI = 6;
+    public static final int TAG_IP = 7;
+    public static final int TAG_REGISTERED_ID = 8;
+
+    private static final String[] TYPE_NAMES = {
+        "otherName", "email", "DNS", "x400Address", "dirName", "ediPartyName", "URI", "IP", "RID"
+    };
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    // value [0] EXPLICIT of an OtherName
+    private static final int TAG_OTHER_NAME_VALUE = 0xA0;
+
+    private final ByteBuffer buffer;
+
+    private byte[] tags = new byte[INITIAL_CAPACITY];
+    // position of the GeneralName tag, the content and the content length
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int size;
+
+    GeneralNames(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    void add(int tag, int start, int offset, int length) {
+        if (size == tags.length) {
+            int capacity = size * 2;
+
+            tags = Arrays.copyOf(tags, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+
+        tags[size] = (byte) tag;
+        starts[size] = start;
+        offsets[size] = offset;
+        lengths[size] = length;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return context specific tag number of the name, one of the {@code TAG_} constants
+     **/
+    public int getTag(int index) {
+        checkIndex(index);
+        return tags[index];
+    }
+
+    /**
+     * @return short name of the type, e.g. "DNS" or "IP"
+     **/
+    public String getType(int index) {
+        return getTypeName(getTag(index));
+    }
+
+    public static String getTypeName(int tag) {
+        return TYPE_NAMES[tag];
+    }
+
+    /**
+     * String representation of the name:
+     * <ul>
+     *     <li>rfc822Name, dNSName and URI as is</li>
+     *     <li>iPAddress as IPv4 dotted decimal or RFC 5952 IPv6 text, name constraints as address/mask</li>
+     *     <li>registeredID as dotted object identifier</li>
+     *     <li>directoryName in RFC 4514 format (see {@link Name#toDistinguishedName()})</li>
+     *     <li>otherName as type-id:value, non string values hex encoded with a leading '#'</li>
+     *     <li>other types as '#' followed by the hex encoded GeneralName</li>
+     * </ul>
+     **/
+    public String getValue(int index) {
+        checkIndex(index);
+
+        int offset = offsets[index];
+        int length = lengths[index];
+
+        return switch (tags[index]) {
+            case TAG_RFC822_NAME, TAG_DNS, TAG_URI -> decodeAscii(offset, length);
+            case TAG_IP -> IpAddresses.format(buffer, offset, length);
+            case TAG_REGISTERED_ID -> ObjectIdentifiers.decode(buffer, offset, length);
+            case TAG_DIRECTORY_NAME -> decoderAt(offset, length).decodeName().toDistinguishedName();
+            case TAG_OTHER_NAME -> decodeOtherName(offset, length);
+            default -> "#" + hex(starts[index], offset + length - starts[index]);
+        };
+    }
+
+    private String decodeOtherName(int offset, int length) {
+        // OtherName ::= SEQUENCE { type-id OBJECT IDENTIFIER, value [0] EXPLICIT ANY }, the SEQUENCE is implicit
+        CsrDecoder decoder = decoderAt(offset, length);
+        DerReader reader = decoder.reader();
+
+        String typeId = decoder.decodeObjectIdentifier();
+
+        reader.next(TAG_OTHER_NAME_VALUE);
+        reader.enter();
+
+        if (Name.isSupportedString((byte) reader.peekTag())) {
+            return typeId + ":" + decoder.decodeString();
+        }
+
+        reader.next();
+        return typeId + ":#" + hex(reader.headerOffset(), reader.end() - reader.headerOffset());
+    }
+
+    private CsrDecoder decoderAt(int offset, int length) {
+        return new CsrDecoder(new DerReader(buffer, offset, offset + length), ExtensionRegistry.empty());
+    }
+
+    private String decodeAscii(int offset, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.US_ASCII);
+        }
+
+        return new String(copy(buffer, offset, length), StandardCharsets.US_ASCII);
+    }
+
+    private String hex(int offset, int length) {
+        return HexFormat.of().formatHex(copy(buffer, offset, length));
+    }
+
+    private static byte[] copy(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return bytes;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+}
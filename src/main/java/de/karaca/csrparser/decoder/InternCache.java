@@ -0,0 +1,103 @@
+package de.karaca.csrparser.decoder;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Direct-mapped cache of short strings decoded from DER, keyed by their encoding.
+ *
+ * Used for values which repeat across requests, e.g. object identifiers, country codes and organization names.
+ * Looking up a cached value neither allocates nor decodes. A miss decodes the value and replaces the entry of its
+ * slot, so values of the same slot evict each other and unique values cannot grow the cache.
+ *
+ * The cache is shared by all threads without locking. Entries are immutable and published through final fields,
+ * a race at worst replaces an entry another thread just stored or decodes a value twice.
+ **/
+final class InternCache {
+    static final InternCache SHARED = new InternCache(1024);
+
+    // longer values are decoded without the cache
+    static final int MAX_LENGTH = 32;
+
+    // distinguishes object identifiers from strings, which use their tag as kind
+    private static final int KIND_OBJECT_IDENTIFIER = 0x100;
+
+    @FunctionalInterface
+    interface ValueDecoder {
+        String decode(int kind, ByteBuffer buffer, int offset, int length);
+    }
+
+    private record Entry(int kind, byte[] key, String value) {}
+
+    private final Entry[] entries;
+    private final int mask;
+
+    /**
+     * @param size number of entries, a power of two
+     **/
+    InternCache(int size) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("size must be a power of two");
+        }
+
+        this.entries = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param kind     distinguishes different decodings of the same bytes, e.g. the tag of a string
+     * @param decoder  decodes the value on a miss, should be a non-capturing lambda or method reference,
+     *                 so passing it does not allocate
+     * @return the cached value or the value returned by the decoder
+     **/
+    String get(int kind, ByteBuffer buffer, int offset, int length, ValueDecoder decoder) {
+        if (length > MAX_LENGTH) {
+            return decoder.decode(kind, buffer, offset, length);
+        }
+
+        int hash = kind;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + buffer.get(offset + i);
+        }
+
+        int slot = (hash ^ (hash >>> 16)) & mask;
+
+        Entry entry = entries[slot];
+        if (entry != null && entry.kind == kind && matches(entry.key, buffer, offset, length)) {
+            return entry.value;
+        }
+
+        String value = decoder.decode(kind, buffer, offset, length);
+
+        byte[] key = new byte[length];
+        buffer.get(offset, key);
+        entries[slot] = new Entry(kind, key, value);
+
+        return value;
+    }
+
+    /**
+     * @return the dotted object identifier encoded at the given position
+     **/
+    String objectIdentifier(ByteBuffer buffer, int offset, int length) {
+        return get(
+                KIND_OBJECT_IDENTIFIER,
+                buffer,
+                offset,
+                length,
+                (kind, encoded, start, count) -> ObjectIdentifiers.decode(encoded, start, count));
+    }
+
+    private static boolean matches(byte[] key, ByteBuffer buffer, int offset, int length) {
+        if (key.length != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (key[i] != buffer.get(offset + i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,93 @@
+package de.karaca.csrparser.decoder;
+
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+
+/**
+ * Text representation of IP addresses without going through {@link java.net.InetAddress},
+ * which allocates an address object per call and does not compress IPv6 addresses.
+ **/
+public final class IpAddresses {
+    private IpAddresses() {}
+
+    /**
+     * Format the octets of an iPAddress GeneralName.
+     * Addresses with a mask (8 or 32 octets, used in name constraints) are formatted as address/mask,
+     * any other length as hex.
+     **/
+    public static String format(byte[] octets) {
+        return format(ByteBuffer.wrap(octets), 0, octets.length);
+    }
+
+    /**
+     * @see #format(byte[])
+     **/
+    public static String format(ByteBuffer buffer, int offset, int length) {
+        return switch (length) {
+            case 4 -> formatIPv4(buffer, offset);
+            case 16 -> formatIPv6(buffer, offset);
+            case 8 -> formatIPv4(buffer, offset) + "/" + formatIPv4(buffer, offset + 4);
+            case 32 -> formatIPv6(buffer, offset) + "/" + formatIPv6(buffer, offset + 16);
+            default -> {
+                byte[] bytes = new byte[length];
+                buffer.get(offset, bytes);
+                yield "#" + HexFormat.of().formatHex(bytes);
+            }
+        };
+    }
+
+    private static String formatIPv4(ByteBuffer buffer, int offset) {
+        StringBuilder builder = new StringBuilder(15);
+
+        for (int i = 0; i < 4; i++) {
+            if (i > 0) {
+                builder.append('.');
+            }
+            builder.append(buffer.get(offset + i) & 0xFF);
+        }
+
+        return builder.toString();
+    }
+
+    private static String formatIPv6(ByteBuffer buffer, int offset) {
+        int[] groups = new int[8];
+        for (int i = 0; i < 8; i++) {
+            groups[i] = ((buffer.get(offset + 2 * i) & 0xFF) << 8) | (buffer.get(offset + 2 * i + 1) & 0xFF);
+        }
+
+        // RFC 5952: the longest run of at least two zero groups (the first one on ties) is replaced by "::"
+        int zeroStart = -1;
+        int zeroLength = 1;
+        for (int i = 0; i < 8; i++) {
+            int j = i;
+            while (j < 8 && groups[j] == 0) {
+                j++;
+            }
+
+            if (j - i > zeroLength) {
+                zeroStart = i;
+                zeroLength = j - i;
+            }
+
+            i = j;
+        }
+
+        StringBuilder builder = new StringBuilder(39);
+
+        for (int i = 0; i < 8; i++) {
+            if (i == zeroStart) {
+                builder.append("::");
+                i += zeroLength - 1;
+                continue;
+            }
+
+            if (!builder.isEmpty() && builder.charAt(builder.length() - 1) != ':') {
+                builder.append(':');
+            }
+
+            builder.append(Integer.toHexString(groups[i]));
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package de.karaca.csrparser.decoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * KeyUsage extension (RFC 5280 4.2.1.3), the named bits are stored in an int.
+ **/
+public class KeyUsage {
+    public static final int DIGITAL_SIGNATURE = 0;
+    public static final int NON_REPUDIATION = 1;
+    public static final int KEY_ENCIPHERMENT = 2;
+    public static final int DATA_ENCIPHERMENT = 3;
+    public static final int KEY_AGREEMENT = 4;
+    public static final int KEY_CERT_SIGN = 5;
+    public static final int CRL_SIGN = 6;
+    public static final int ENCIPHER_ONLY = 7;
+    public static final int DECIPHER_ONLY = 8;
+
+    private static final String[] NAMES = {
+        "digitalSignature",
+        "nonRepudiation",
+        "keyEncipherment",
+        "dataEncipherment",
+        "keyAgreement",
+        "keyCertSign",
+        "cRLSign",
+        "encipherOnly",
+        "decipherOnly"
+    };
+
+    // bit n is set if the named bit n is asserted
+    private final int bits;
+
+    private KeyUsage(int bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * @param bytes content of the BIT STRING without the unused bits octet, the first named bit is the most
+     *              significant bit of the first byte
+     **/
+    public static KeyUsage fromBitString(byte[] bytes) {
+        int bits = 0;
+
+        for (int i = 0; i < NAMES.length && i / 8 < bytes.length; i++) {
+            if ((bytes[i / 8] & (0x80 >>> (i % 8))) != 0) {
+                bits |= 1 << i;
+            }
+        }
+
+        return new KeyUsage(bits);
+    }
+
+    public boolean has(int usage) {
+        return (bits & (1 << usage)) != 0;
+    }
+
+    /**
+     * @return names of the asserted bits as defined in RFC 5280
+     **/
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>(Integer.bitCount(bits));
+
+        for (int i = 0; i < NAMES.length; i++) {
+            if (has(i)) {
+                names.add(NAMES[i]);
+            }
+        }
+
+        return names;
+    }
+}
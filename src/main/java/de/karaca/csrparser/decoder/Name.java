@@ -1,24 +1,284 @@
 package de.karaca.csrparser.decoder;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * X.501 Name as a list of attributes in encoding order.
+ *
+ * The attributes are stored in parallel arrays: the attribute type (one of the constants of {@link ObjectIdentifiers}
+ * for known types), the index of the RelativeDistinguishedName it belongs to and the position of the encoded value
+ * within the decoded buffer. Values are only decoded to strings when they are requested, so repeated attributes
+ * (e.g. multiple OUs) and multi-valued RDNs are kept without building a map per name.
+ **/
 public class Name {
-    private final Map<String, String> attributes;
+    private static final int INITIAL_CAPACITY = 8;
 
-    public Name() {
-        attributes = new HashMap<>();
+    private static final byte TAG_UTF8_STRING = 0x0C;
+    private static final byte TAG_PRINTABLE_STRING = 0x13;
+    private static final byte TAG_TELETEX_STRING = 0x14;
+    private static final byte TAG_IA5_STRING = 0x16;
+    private static final byte TAG_UNIVERSAL_STRING = 0x1C;
+    private static final byte TAG_BMP_STRING = 0x1E;
+
+    private static final Charset UTF_32BE = Charset.forName("UTF-32BE");
+
+    private final ByteBuffer buffer;
+
+    private String[] types = new String[INITIAL_CAPACITY];
+    private int[] rdns = new int[INITIAL_CAPACITY];
+    private byte[] valueTags = new byte[INITIAL_CAPACITY];
+    private int[] valueOffsets = new int[INITIAL_CAPACITY];
+    private int[] valueLengths = new int[INITIAL_CAPACITY];
+    private int size;
+
+    // rendered on first use
+    private String distinguishedName;
+
+    /**
+     * @param buffer the buffer the values are decoded from, only absolute positions are used
+     **/
+    Name(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Append an attribute whose value is encoded at the given position of the buffer.
+     *
+     * @param rdn index of the RelativeDistinguishedName, attributes with the same index form a multi-valued RDN
+     **/
+    void add(String type, int rdn, byte valueTag, int valueOffset, int valueLength) {
+        if (size == types.length) {
+            int capacity = size * 2;
+
+            types = Arrays.copyOf(types, capacity);
+            rdns = Arrays.copyOf(rdns, capacity);
+            valueTags = Arrays.copyOf(valueTags, capacity);
+            valueOffsets = Arrays.copyOf(valueOffsets, capacity);
+            valueLengths = Arrays.copyOf(valueLengths, capacity);
+        }
+
+        types[size] = type;
+        rdns[size] = rdn;
+        valueTags[size] = valueTag;
+        valueOffsets[size] = valueOffset;
+        valueLengths[size] = valueLength;
+        size++;
+
+        distinguishedName = null;
+    }
+
+    /**
+     * @return true if values with the given tag can be decoded
+     **/
+    static boolean isSupportedString(byte tag) {
+        return tag == TAG_UTF8_STRING
+                || tag == TAG_PRINTABLE_STRING
+                || tag == TAG_IA5_STRING
+                // legacy string types, still found in the names of older CA certificates
+                || tag == TAG_TELETEX_STRING
+                || tag == TAG_BMP_STRING
+                || tag == TAG_UNIVERSAL_STRING;
+    }
+
+    /**
+     * @return number of attributes over all RDNs
+     **/
+    public int size() {
+        return size;
     }
 
-    public Name(Map<String, String> attributes) {
-        this.attributes = new HashMap<>(attributes);
+    public String getType(int index) {
+        checkIndex(index);
+        return types[index];
     }
 
-    public Map<String, String> getAttributes() {
-        return attributes;
+    /**
+     * @return index of the RelativeDistinguishedName the attribute belongs to
+     **/
+    public int getRdn(int index) {
+        checkIndex(index);
+        return rdns[index];
     }
 
+    public String getValue(int index) {
+        checkIndex(index);
+
+        if (isRepeatedType(types[index])) {
+            // returned from the cache without being decoded again
+            return InternCache.SHARED.get(
+                    valueTags[index], buffer, valueOffsets[index], valueLengths[index], Name::decodeString);
+        }
+
+        return decodeString(valueTags[index], buffer, valueOffsets[index], valueLengths[index]);
+    }
+
+    /**
+     * @return true for attribute types whose values repeat across many requests, e.g. countries and organizations
+     **/
+    private static boolean isRepeatedType(String type) {
+        return switch (type) {
+            case ObjectIdentifiers.country,
+                    ObjectIdentifiers.stateOrProvince,
+                    ObjectIdentifiers.locality,
+                    ObjectIdentifiers.organizationName,
+                    ObjectIdentifiers.organizationUnit,
+                    ObjectIdentifiers.domainComponent -> true;
+            default -> false;
+        };
+    }
+
+    private static String decodeString(int tag, ByteBuffer buffer, int offset, int length) {
+        Charset charset = getCharset((byte) tag);
+
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, charset);
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, charset);
+    }
+
+    private static Charset getCharset(byte tag) {
+        return switch (tag) {
+            case TAG_UTF8_STRING -> StandardCharsets.UTF_8;
+            // TeletexString is decoded as Latin-1 like BouncyCastle does
+            case TAG_TELETEX_STRING -> StandardCharsets.ISO_8859_1;
+            case TAG_BMP_STRING -> StandardCharsets.UTF_16BE;
+            case TAG_UNIVERSAL_STRING -> UTF_32BE;
+            default -> StandardCharsets.US_ASCII;
+        };
+    }
+
+    /**
+     * @return value of the first attribute of the given type or null if there is none
+     **/
     public String getAttribute(String identifier) {
-        return attributes.get(identifier);
+        for (int i = 0; i < size; i++) {
+            if (types[i].equals(identifier)) {
+                return getValue(i);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return values of all attributes of the given type in encoding order
+     **/
+    public List<String> getAttributes(String identifier) {
+        List<String> values = new ArrayList<>(1);
+
+        for (int i = 0; i < size; i++) {
+            if (types[i].equals(identifier)) {
+                values.add(getValue(i));
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * String representation as specified in RFC 4514: the RDNs in reverse encoding order separated by ',',
+     * the attributes of a multi-valued RDN separated by '+'.
+     *
+     * Attribute types are written with their RFC 4519 names, other types as dotted OID.
+     * This matches the output of BouncyCastle's {@code RFC4519Style}.
+     **/
+    public String toDistinguishedName() {
+        if (distinguishedName == null) {
+            distinguishedName = renderDistinguishedName();
+        }
+
+        return distinguishedName;
+    }
+
+    @Override
+    public String toString() {
+        return toDistinguishedName();
+    }
+
+    private String renderDistinguishedName() {
+        StringBuilder builder = new StringBuilder();
+
+        int end = size;
+
+        while (end > 0) {
+            // find the first attribute of the last RDN which is not rendered yet
+            int start = end - 1;
+            while (start > 0 && rdns[start - 1] == rdns[end - 1]) {
+                start--;
+            }
+
+            if (!builder.isEmpty()) {
+                builder.append(',');
+            }
+
+            for (int i = start; i < end; i++) {
+                if (i > start) {
+                    builder.append('+');
+                }
+
+                builder.append(getShortName(types[i])).append('=');
+                appendEscaped(builder, getValue(i));
+            }
+
+            end = start;
+        }
+
+        return builder.toString();
+    }
+
+    private static String getShortName(String type) {
+        return switch (type) {
+            case ObjectIdentifiers.commonName -> "cn";
+            case ObjectIdentifiers.country -> "c";
+            case ObjectIdentifiers.locality -> "l";
+            case ObjectIdentifiers.stateOrProvince -> "st";
+            case ObjectIdentifiers.organizationName -> "o";
+            case ObjectIdentifiers.organizationUnit -> "ou";
+            case ObjectIdentifiers.street -> "street";
+            case ObjectIdentifiers.serialNumber -> "serialNumber";
+            case ObjectIdentifiers.domainComponent -> "dc";
+            case ObjectIdentifiers.userId -> "uid";
+            default -> type;
+        };
+    }
+
+    private static void appendEscaped(StringBuilder builder, String value) {
+        int length = value.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case ',', '+', '"', '\\', '<', '>', ';', '=' -> builder.append('\\').append(c);
+                case '#' -> {
+                    if (i == 0) {
+                        builder.append('\\');
+                    }
+                    builder.append(c);
+                }
+                case ' ' -> {
+                    if (i == 0 || i == length - 1) {
+                        builder.append('\\');
+                    }
+                    builder.append(c);
+                }
+                case '\0' -> builder.append("\\00");
+                default -> builder.append(c);
+            }
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
     }
 }
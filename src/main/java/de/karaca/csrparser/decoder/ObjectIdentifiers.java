@@ -1,5 +1,10 @@
 package de.karaca.csrparser.decoder;
 
+import de.karaca.csrparser.exception.DecodeError;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
 public final class ObjectIdentifiers {
 
     private ObjectIdentifiers() {}
@@ -10,12 +15,27 @@ public final class ObjectIdentifiers {
     public static final String stateOrProvince = "2.5.4.8";
     public static final String organizationName = "2.5.4.10";
     public static final String organizationUnit = "2.5.4.11";
+    public static final String serialNumber = "2.5.4.5";
+    public static final String street = "2.5.4.9";
+    public static final String domainComponent = "0.9.2342.19200300.100.1.25";
+    public static final String userId = "0.9.2342.19200300.100.1.1";
 
     public static final String pkcs9_emailAddress = "1.2.840.113549.1.9.1";
     public static final String pkcs9_unstructuredName = "1.2.840.113549.1.9.2";
     public static final String pkcs9_extensionRequest = "1.2.840.113549.1.9.14";
 
+    public static final String ext_subjectKeyIdentifier = "2.5.29.14";
+    public static final String ext_keyUsage = "2.5.29.15";
     public static final String ext_subjectAlternativeName = "2.5.29.17";
+    public static final String ext_basicConstraints = "2.5.29.19";
+    public static final String ext_extendedKeyUsage = "2.5.29.37";
+
+    public static final String kp_serverAuth = "1.3.6.1.5.5.7.3.1";
+    public static final String kp_clientAuth = "1.3.6.1.5.5.7.3.2";
+    public static final String kp_codeSigning = "1.3.6.1.5.5.7.3.3";
+    public static final String kp_emailProtection = "1.3.6.1.5.5.7.3.4";
+    public static final String kp_timeStamping = "1.3.6.1.5.5.7.3.8";
+    public static final String kp_OCSPSigning = "1.3.6.1.5.5.7.3.9";
 
     public static final String md2WithRSAEncryption = "1.2.840.113549.1.1.2";
     public static final String md5WithRSAEncryption = "1.2.840.113549.1.1.4";
@@ -57,6 +77,11 @@ public final class ObjectIdentifiers {
     // id-ecPublicKey
     public static final String EC = "1.2.840.10045.2.1";
 
+    // named curves, also known as prime256v1 / P-256, P-384 and P-521
+    public static final String secp256r1 = "1.2.840.10045.3.1.7";
+    public static final String secp384r1 = "1.3.132.0.34";
+    public static final String secp521r1 = "1.3.132.0.35";
+
     /**
      * In DER encoding there are optionally parameters in an ASN.1 AlgorithmIdentifier.
      *
@@ -138,4 +163,114 @@ public final class ObjectIdentifiers {
 
         return algorithmId;
     }
+
+    /**
+     * @return the SEC 2 name of a named curve or the identifier itself if it is unknown
+     **/
+    public static String getCurveName(String curveId) {
+        switch (curveId) {
+            case secp256r1:
+                return "secp256r1";
+            case secp384r1:
+                return "secp384r1";
+            case secp521r1:
+                return "secp521r1";
+        }
+
+        return curveId;
+    }
+
+    /**
+     * @return the name of a key purpose as defined in RFC 5280 or the identifier itself if it is unknown
+     **/
+    public static String getKeyPurposeName(String keyPurposeId) {
+        switch (keyPurposeId) {
+            case kp_serverAuth:
+                return "serverAuth";
+            case kp_clientAuth:
+                return "clientAuth";
+            case kp_codeSigning:
+                return "codeSigning";
+            case kp_emailProtection:
+                return "emailProtection";
+            case kp_timeStamping:
+                return "timeStamping";
+            case kp_OCSPSigning:
+                return "OCSPSigning";
+        }
+
+        return keyPurposeId;
+    }
+
+    /**
+     * Encode a dotted object identifier to the content bytes of its DER encoding (without tag and length).
+     **/
+    public static byte[] encode(String objectIdentifier) {
+        String[] components = objectIdentifier.split("\\.");
+        if (components.length < 2) {
+            throw new IllegalArgumentException("invalid object identifier " + objectIdentifier);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        encodeComponent(out, Long.parseLong(components[0]) * 40 + Long.parseLong(components[1]));
+        for (int i = 2; i < components.length; i++) {
+            encodeComponent(out, Long.parseLong(components[i]));
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode the content bytes of a DER encoded object identifier (without tag and length) to dotted form.
+     **/
+    public static String decode(ByteBuffer buffer, int offset, int length) {
+        StringBuilder builder = new StringBuilder(length * 3);
+
+        long value = 0;
+        boolean first = true;
+
+        for (int i = 0; i < length; i++) {
+            int b = buffer.get(offset + i);
+
+            if (value > (Long.MAX_VALUE >>> 7)) {
+                throw new InvalidCsrException(
+                        DecodeError.LENGTH_OVERFLOW, "Object identifier component too large", offset);
+            }
+
+            value = (value << 7) | (b & 0x7F);
+
+            if ((b & 0x80) != 0) {
+                continue;
+            }
+
+            if (first) {
+                // the first component combines the first two arcs as 40 * X + Y
+                long arc = Math.min(value / 40, 2);
+                builder.append(arc).append('.').append(value - arc * 40);
+                first = false;
+            } else {
+                builder.append('.').append(value);
+            }
+
+            value = 0;
+        }
+
+        if (first || (buffer.get(offset + length - 1) & 0x80) != 0) {
+            throw new InvalidCsrException(DecodeError.TRUNCATED, "Truncated object identifier", offset);
+        }
+
+        return builder.toString();
+    }
+
+    private static void encodeComponent(ByteArrayOutputStream out, long value) {
+        // base 128, most significant group first, all but the last byte have the high bit set
+        int shift = (63 - Long.numberOfLeadingZeros(value | 1)) / 7 * 7;
+
+        for (; shift > 0; shift -= 7) {
+            out.write((int) ((value >>> shift) & 0x7F) | 0x80);
+        }
+
+        out.write((int) (value & 0x7F));
+    }
 }
@@ -0,0 +1,66 @@
+package de.karaca.csrparser.decoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decoders for the extensions supported by the custom parser.
+ **/
+public final class StandardExtensions {
+    public static final ExtensionType<GeneralNames> SUBJECT_ALTERNATIVE_NAME = new ExtensionType<>(
+            ObjectIdentifiers.ext_subjectAlternativeName, decoder -> decoder.decodeGeneralNames());
+
+    public static final ExtensionType<KeyUsage> KEY_USAGE = new ExtensionType<>(
+            ObjectIdentifiers.ext_keyUsage, decoder -> KeyUsage.fromBitString(decoder.decodeBitString()));
+
+    public static final ExtensionType<List<String>> EXTENDED_KEY_USAGE =
+            new ExtensionType<>(ObjectIdentifiers.ext_extendedKeyUsage, StandardExtensions::decodeExtendedKeyUsage);
+
+    public static final ExtensionType<BasicConstraints> BASIC_CONSTRAINTS =
+            new ExtensionType<>(ObjectIdentifiers.ext_basicConstraints, StandardExtensions::decodeBasicConstraints);
+
+    public static final ExtensionType<byte[]> SUBJECT_KEY_IDENTIFIER = new ExtensionType<>(
+            ObjectIdentifiers.ext_subjectKeyIdentifier, decoder -> decoder.decodeOctetString());
+
+    public static final ExtensionRegistry REGISTRY = ExtensionRegistry.of(
+            SUBJECT_ALTERNATIVE_NAME, KEY_USAGE, EXTENDED_KEY_USAGE, BASIC_CONSTRAINTS, SUBJECT_KEY_IDENTIFIER);
+
+    private StandardExtensions() {}
+
+    private static List<String> decodeExtendedKeyUsage(CsrDecoder decoder) {
+        DerReader reader = decoder.reader();
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+
+        List<String> keyPurposeIds = new ArrayList<>();
+        while (reader.hasNext()) {
+            keyPurposeIds.add(decoder.decodeObjectIdentifier());
+        }
+
+        reader.exit();
+
+        return keyPurposeIds;
+    }
+
+    private static BasicConstraints decodeBasicConstraints(CsrDecoder decoder) {
+        DerReader reader = decoder.reader();
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+
+        // cA BOOLEAN DEFAULT FALSE
+        boolean ca = false;
+        if (reader.peekTag() == DerReader.TAG_BOOLEAN) {
+            ca = decoder.decodeBoolean();
+        }
+
+        // pathLenConstraint INTEGER OPTIONAL
+        Integer pathLength = null;
+        if (reader.hasNext()) {
+            pathLength = decoder.decodeInteger();
+        }
+
+        reader.exit();
+
+        return new BasicConstraints(ca, pathLength);
+    }
+}
@@ -8,5 +8,10 @@ import lombok.Getter;
 @Builder
 public class SubjectPublicKeyInfo {
     private final String algorithmIdentifier;
+    // parameters of the algorithm if they are an object identifier, e.g. the named curve of an EC key
+    private final String parameterIdentifier;
     private final PublicKey publicKey;
+
+    // SHA-256 hash of the DER encoded SubjectPublicKeyInfo
+    private final byte[] fingerprint;
 }
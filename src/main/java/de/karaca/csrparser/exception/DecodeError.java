@@ -0,0 +1,24 @@
+package de.karaca.csrparser.exception;
+
+/**
+ * Reason an input was rejected by the decoder, returned as {@code code} of the error response.
+ **/
+public enum DecodeError {
+    // an element has another tag than the structure requires
+    BAD_TAG,
+    // the input ends within an element
+    TRUNCATED,
+    // a length or number does not fit into the supported range
+    LENGTH_OVERFLOW,
+    // a length is not allowed in DER, e.g. indefinite or not matching the type
+    INVALID_LENGTH,
+    // elements are nested deeper than any CSR or certificate
+    NESTED_TOO_DEEPLY,
+    // an element has the expected tag but an invalid value
+    INVALID_VALUE,
+    UNSUPPORTED_ALGORITHM,
+    // the PEM armor or its Base64 content is invalid
+    INVALID_ENCODING,
+    // the input is not a CSR, no more specific reason is known
+    INVALID
+}
@@ -1,12 +1,34 @@
 package de.karaca.csrparser.exception;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.time.Instant;
 import lombok.Builder;
 import lombok.Getter;
 
 @Getter
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ErrorMessage {
     private final Instant timestamp;
     private final String error;
+
+    // details of a rejected CSR or certificate, see InvalidCsrException
+    private final DecodeError code;
+    private final Integer offset;
+    private final String expectedTag;
+    private final String actualTag;
+
+    /**
+     * @return error message with the reason and position of the rejection
+     **/
+    public static ErrorMessage of(InvalidCsrException e) {
+        return ErrorMessage.builder()
+                .timestamp(Instant.now())
+                .error(e.getMessage())
+                .code(e.getCode())
+                .offset(e.getOffset() < 0 ? null : e.getOffset())
+                .expectedTag(e.getExpectedTag() < 0 ? null : InvalidCsrException.formatTag(e.getExpectedTag()))
+                .actualTag(e.getActualTag() < 0 ? null : InvalidCsrException.formatTag(e.getActualTag()))
+                .build();
+    }
 }
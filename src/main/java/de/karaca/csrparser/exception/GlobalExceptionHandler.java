@@ -1,7 +1,11 @@
 package de.karaca.csrparser.exception;
 
 import java.time.Instant;
+import java.util.concurrent.RejectedExecutionException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,8 +17,27 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(InvalidCsrException.class)
     public ResponseEntity<ErrorMessage> invalidCsr(InvalidCsrException e) {
-        log.debug("Caught exception: ", e);
+        log.debug("Rejected CSR: {}", e.getCode(), e);
 
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(ErrorMessage.of(e));
+    }
+
+    @ExceptionHandler(InvalidCertificateException.class)
+    public ResponseEntity<ErrorMessage> invalidCertificate(InvalidCertificateException e) {
+        log.debug("Rejected certificate: ", e);
+
+        ErrorMessage body = e.getCause() instanceof InvalidCsrException cause
+                ? ErrorMessage.of(cause)
+                : ErrorMessage.builder()
+                        .timestamp(Instant.now())
+                        .error(e.getMessage())
+                        .build();
+
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @ExceptionHandler(InvalidFieldException.class)
+    public ResponseEntity<ErrorMessage> invalidField(InvalidFieldException e) {
         return ResponseEntity.badRequest()
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(ErrorMessage.builder()
@@ -22,4 +45,80 @@ public class GlobalExceptionHandler {
                         .error(e.getMessage())
                         .build());
     }
+
+    @ExceptionHandler(InvalidUploadException.class)
+    public ResponseEntity<ErrorMessage> invalidUpload(InvalidUploadException e) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ErrorMessage.builder()
+                        .timestamp(Instant.now())
+                        .error(e.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(DataBufferLimitException.class)
+    public ResponseEntity<ErrorMessage> requestTooLarge(DataBufferLimitException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ErrorMessage.builder()
+                        .timestamp(Instant.now())
+                        .error(e.getMessage())
+                        .build());
+    }
+
+    /**
+     * All parser threads are busy and the queue in front of them is full.
+     **/
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorMessage> overloaded(RejectedExecutionException e) {
+        log.debug("Rejected request: {}", e.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ErrorMessage.builder()
+                        .timestamp(Instant.now())
+                        .error("Server is overloaded, try again later")
+                        .build());
+    }
+
+    /**
+     * A tenant has used up its quota, Retry-After contains the seconds until the request would be admitted.
+     **/
+    @ExceptionHandler(QuotaExceededException.class)
+    public ResponseEntity<ErrorMessage> quotaExceeded(QuotaExceededException e) {
+        log.debug("Rejected request of tenant {}: {}", e.getTenant(), e.getMessage());
+
+        // rounded up, a retry before that would be rejected again
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ErrorMessage.builder()
+                        .timestamp(Instant.now())
+                        .error(e.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(JobNotFoundException.class)
+    public ResponseEntity<ErrorMessage> jobNotFound(JobNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ErrorMessage.builder()
+                        .timestamp(Instant.now())
+                        .error(e.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(JobException.class)
+    public ResponseEntity<ErrorMessage> job(JobException e) {
+        log.debug("Rejected job request: {}", e.getMessage());
+
+        return ResponseEntity.status(e.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ErrorMessage.builder()
+                        .timestamp(Instant.now())
+                        .error(e.getMessage())
+                        .build());
+    }
 }
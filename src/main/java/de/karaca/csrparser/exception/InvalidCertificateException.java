@@ -0,0 +1,20 @@
+package de.karaca.csrparser.exception;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rejection of an input which is not a valid certificate chain, without a stack trace unless debug logging is
+ * enabled for this class, see {@link InvalidCsrException}.
+ **/
+@Slf4j
+public class InvalidCertificateException extends RuntimeException {
+    private static final String INVALID_CERTIFICATE_MESSAGE = "File is not a valid X.509 certificate chain";
+
+    public InvalidCertificateException(String message) {
+        super(message, null, false, log.isDebugEnabled());
+    }
+
+    public InvalidCertificateException(Throwable cause) {
+        super(INVALID_CERTIFICATE_MESSAGE, cause, false, log.isDebugEnabled());
+    }
+}
@@ -1,21 +1,93 @@
 package de.karaca.csrparser.exception;
 
+import java.util.HexFormat;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rejection of an input which is not a valid CSR.
+ *
+ * Junk input is common, so the exception records where and why decoding failed instead of a stack trace:
+ * the stack trace is only filled in if debug logging is enabled for this class.
+ **/
+@Slf4j
+@Getter
 public class InvalidCsrException extends RuntimeException {
     private static final String INVALID_CSR_MESSAGE = "File is not a valid Certificate Signing Request";
 
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+
+    private final DecodeError code;
+
+    // position in the DER encoded input, -1 if unknown
+    private final int offset;
+
+    // first identifier octets for BAD_TAG, -1 otherwise
+    private final int expectedTag;
+    private final int actualTag;
+
     public InvalidCsrException() {
-        super(INVALID_CSR_MESSAGE);
+        this(DecodeError.INVALID, INVALID_CSR_MESSAGE, -1, -1, -1, null);
     }
 
     public InvalidCsrException(String message) {
-        super(message);
+        this(DecodeError.INVALID, message, -1, -1, -1, null);
     }
 
     public InvalidCsrException(String message, Throwable cause) {
-        super(message, cause);
+        this(DecodeError.INVALID, message, -1, -1, -1, cause);
     }
 
     public InvalidCsrException(Throwable cause) {
-        super(INVALID_CSR_MESSAGE, cause);
+        this(DecodeError.INVALID, INVALID_CSR_MESSAGE, -1, -1, -1, cause);
+    }
+
+    public InvalidCsrException(DecodeError code, String message) {
+        this(code, message, -1, -1, -1, null);
+    }
+
+    public InvalidCsrException(DecodeError code, String message, Throwable cause) {
+        this(code, message, -1, -1, -1, cause);
+    }
+
+    /**
+     * @param offset position of the invalid element, appended to the message
+     **/
+    public InvalidCsrException(DecodeError code, String message, int offset) {
+        this(code, message + " at offset " + offset, offset, -1, -1, null);
+    }
+
+    public InvalidCsrException(DecodeError code, String message, int offset, Throwable cause) {
+        this(code, message + " at offset " + offset, offset, -1, -1, cause);
+    }
+
+    private InvalidCsrException(
+            DecodeError code, String message, int offset, int expectedTag, int actualTag, Throwable cause) {
+        super(message, cause, false, log.isDebugEnabled());
+        this.code = code;
+        this.offset = offset;
+        this.expectedTag = expectedTag;
+        this.actualTag = actualTag;
+    }
+
+    /**
+     * @return BAD_TAG rejection of an element which does not have the tag the structure requires
+     **/
+    public static InvalidCsrException unexpectedTag(int offset, int expectedTag, int actualTag) {
+        return new InvalidCsrException(
+                DecodeError.BAD_TAG,
+                "Unexpected tag " + formatTag(actualTag) + ", expected " + formatTag(expectedTag) + " at offset "
+                        + offset,
+                offset,
+                expectedTag,
+                actualTag,
+                null);
+    }
+
+    /**
+     * @return the first identifier octet as hex, e.g. 0x30
+     **/
+    public static String formatTag(int tag) {
+        return "0x" + HEX.toHexDigits((byte) tag);
     }
 }
@@ -0,0 +1,7 @@
+package de.karaca.csrparser.exception;
+
+public class InvalidFieldException extends RuntimeException {
+    public InvalidFieldException(String field) {
+        super("Unknown field: " + field);
+    }
+}
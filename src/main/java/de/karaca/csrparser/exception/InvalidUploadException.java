@@ -0,0 +1,10 @@
+package de.karaca.csrparser.exception;
+
+/**
+ * A multipart upload which cannot be read, e.g. because a boundary is missing.
+ **/
+public class InvalidUploadException extends RuntimeException {
+    public InvalidUploadException(String message) {
+        super(message);
+    }
+}
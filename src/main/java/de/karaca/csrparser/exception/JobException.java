@@ -0,0 +1,17 @@
+package de.karaca.csrparser.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * A job request which cannot be fulfilled, e.g. because a limit is exceeded.
+ **/
+@Getter
+public class JobException extends RuntimeException {
+    private final HttpStatus status;
+
+    public JobException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+}
@@ -0,0 +1,20 @@
+package de.karaca.csrparser.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * A tenant has used up its quota or has too many requests in progress.
+ **/
+@Getter
+public class QuotaExceededException extends RuntimeException {
+    private final String tenant;
+    // when the request can be retried
+    private final Duration retryAfter;
+
+    public QuotaExceededException(String tenant, String message, Duration retryAfter) {
+        super(message);
+        this.tenant = tenant;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,29 @@
+package de.karaca.csrparser.fingerprint;
+
+import java.nio.file.Path;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "csr-parser.key-fingerprints")
+public class KeyFingerprintProperties {
+    /**
+     * Record fingerprints of the parsed public keys and requests to detect keys which are reused by different requests.
+     **/
+    private boolean enabled;
+
+    /**
+     * Memory-mapped file the fingerprints are persisted to.
+     **/
+    private Path file = Path.of("data", "key-fingerprints.bin");
+
+    /**
+     * Number of entries the table can hold. Only used when the file is created.
+     * A CSR takes up to three entries: its key, its request and a marker once the key is reused by another request,
+     * so the default holds at least a million CSRs.
+     * Every slot takes up 32 bytes and the table is filled up to 75%, the file is sparse on most file systems.
+     **/
+    private long maxEntries = 3_000_000;
+}
@@ -0,0 +1,144 @@
+package de.karaca.csrparser.fingerprint;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class KeyFingerprintService {
+    private static final byte[] REUSED_PREFIX = "reused:".getBytes(StandardCharsets.US_ASCII);
+
+    private final KeyFingerprintTable table;
+
+    private final AtomicBoolean fullWarningLogged = new AtomicBoolean();
+
+    public KeyFingerprintService(KeyFingerprintProperties properties) throws IOException {
+        if (properties.isEnabled()) {
+            table = KeyFingerprintTable.open(properties.getFile(), properties.getMaxEntries());
+
+            log.info(
+                    "Opened key fingerprint table {} with {} entries (capacity {})",
+                    properties.getFile(),
+                    table.size(),
+                    table.capacity());
+        } else {
+            table = null;
+        }
+    }
+
+    /**
+     * @return false if keys are not recorded, the parsers then skip the fingerprints needed for keyPreviouslySeen
+     **/
+    public boolean isEnabled() {
+        return table != null;
+    }
+
+    /**
+     * Record the public key of a CSR together with the request it was sent in.
+     *
+     * A key counts as reused once it has been seen in two different requests. Submitting the same request again,
+     * e.g. when a client retries, does not make its key reused, a request signed again with the same content neither.
+     *
+     * @param keyFingerprint fingerprint of the DER encoded SubjectPublicKeyInfo
+     * @param requestFingerprint fingerprint of the DER encoded CertificationRequestInfo
+     * @return true if the key was seen in another request before, false if not,
+     * null if reuse detection is disabled or the table is full and the answer is unknown
+     **/
+    public Boolean record(byte[] keyFingerprint, byte[] requestFingerprint) {
+        if (table == null) {
+            return null;
+        }
+
+        Boolean keySeen = add(keyFingerprint);
+        Boolean requestSeen = add(requestFingerprint);
+
+        if (keySeen == null || !keySeen) {
+            return keySeen;
+        }
+
+        byte[] reusedMarker = reusedMarker(keyFingerprint);
+
+        if (requestSeen != null && !requestSeen) {
+            // the key of a new request is known, remember that it is reused for later retries of either request
+            add(reusedMarker);
+            return true;
+        }
+
+        if (table.contains(reusedMarker)) {
+            return true;
+        }
+
+        // the same request again, unknown if the table was full
+        return requestSeen == null ? null : false;
+    }
+
+    /**
+     * @return true if the fingerprint was already in the table, false if it was added,
+     * null if it is unknown and the table is full
+     **/
+    private Boolean add(byte[] fingerprint) {
+        if (table.add(fingerprint)) {
+            return false;
+        }
+
+        if (!table.isFull()) {
+            return true;
+        }
+
+        if (fullWarningLogged.compareAndSet(false, true)) {
+            log.warn("Key fingerprint table is full, new keys are no longer recorded");
+        }
+
+        return table.contains(fingerprint) ? true : null;
+    }
+
+    /**
+     * @return entry which marks a key as seen in more than one request, distinct from any DER fingerprint
+     **/
+    private static byte[] reusedMarker(byte[] keyFingerprint) {
+        ByteBuffer input = ByteBuffer.allocate(REUSED_PREFIX.length + keyFingerprint.length);
+        input.put(REUSED_PREFIX).put(keyFingerprint).flip();
+
+        return fingerprint(input);
+    }
+
+    /**
+     * @return SHA-256 fingerprint of DER encoded data, e.g. a SubjectPublicKeyInfo
+     **/
+    public static byte[] fingerprint(byte[] encoded) {
+        return fingerprint(ByteBuffer.wrap(encoded));
+    }
+
+    /**
+     * @return SHA-256 fingerprint of the bytes between position and limit, the position of the buffer is not changed
+     **/
+    public static byte[] fingerprint(ByteBuffer encoded) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(encoded.duplicate());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String toHex(byte[] fingerprint) {
+        return HexFormat.of().formatHex(fingerprint);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (table != null) {
+            table.close();
+        }
+    }
+}
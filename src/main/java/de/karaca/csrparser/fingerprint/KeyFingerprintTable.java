@@ -0,0 +1,334 @@
+package de.karaca.csrparser.fingerprint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Off-heap open addressing hash set of SHA-256 fingerprints, persisted to a memory-mapped file.
+ *
+ * Every slot holds a full 32 byte fingerprint as four longs. The first long of a slot is also used as the slot state:
+ * 0 marks an empty slot, -1 a slot that is currently being written by another thread.
+ * Inserts claim a slot with a compare-and-set on the first long, so the table can be used from many threads without locking.
+ * The file is locked by a single process. Slots which are still claimed when the table is opened were left by a process
+ * which ended within an insert, they are cleared again, so readers only ever wait for threads of the same process.
+ *
+ * The table never grows. Its capacity is fixed when the file is created and inserts are refused
+ * once the configured maximum number of entries is reached.
+ **/
+public final class KeyFingerprintTable implements Closeable {
+    public static final int FINGERPRINT_LENGTH = 32;
+
+    private static final long MAGIC = 0x4353524650303031L; // "CSRFP001"
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int ENTRIES_OFFSET = 16;
+
+    private static final int SLOT_SHIFT = 5; // 32 bytes per slot
+    // a single mapping is limited to 2 GiB, so larger tables are split into segments of 2^25 slots (1 GiB)
+    private static final int SEGMENT_SHIFT = 25;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private static final long EMPTY = 0L;
+    private static final long CLAIMED = -1L;
+
+    // fixed byte order, so the file can be moved between machines
+    private static final VarHandle BUFFER_LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle ARRAY_LONGS =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+    private final long capacity;
+    private final long mask;
+    private final long maxEntries;
+
+    private KeyFingerprintTable(FileChannel channel, long capacity, long maxEntries) throws IOException {
+        this.channel = channel;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.maxEntries = maxEntries;
+
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+        long segmentSlots = Math.min(capacity, 1L << SEGMENT_SHIFT);
+        segments = new MappedByteBuffer[(int) (capacity / segmentSlots)];
+
+        for (int i = 0; i < segments.length; i++) {
+            long position = HEADER_SIZE + ((i * segmentSlots) << SLOT_SHIFT);
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, segmentSlots << SLOT_SHIFT);
+        }
+    }
+
+    /**
+     * Open the table at the given path or create it if it does not exist yet.
+     *
+     * @param maxEntries number of fingerprints the table should be able to hold,
+     *                   only used when a new file is created
+     **/
+    public static KeyFingerprintTable open(Path path, long maxEntries) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        FileChannel channel = FileChannel.open(
+                path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            if (!lock(channel)) {
+                throw new IOException("Key fingerprint table is already in use: " + path);
+            }
+
+            long capacity;
+
+            if (channel.size() == 0) {
+                // keep the load factor at or below 0.75 so probe sequences stay short
+                capacity = Long.highestOneBit(Math.max(16, maxEntries + maxEntries / 3) - 1) << 1;
+
+                // the file is sparse, only touched pages take up disk space
+                channel.write(ByteBuffer.allocate(1), HEADER_SIZE + (capacity << SLOT_SHIFT) - 1);
+
+                KeyFingerprintTable table = new KeyFingerprintTable(channel, capacity, capacity / 4 * 3);
+                BUFFER_LONGS.setVolatile(table.header, CAPACITY_OFFSET, capacity);
+                BUFFER_LONGS.setVolatile(table.header, MAGIC_OFFSET, MAGIC);
+                table.header.force();
+
+                return table;
+            }
+
+            MappedByteBuffer existingHeader = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            existingHeader.order(ByteOrder.LITTLE_ENDIAN);
+
+            capacity = existingHeader.getLong(CAPACITY_OFFSET);
+
+            if (existingHeader.getLong(MAGIC_OFFSET) != MAGIC
+                    || Long.bitCount(capacity) != 1
+                    || channel.size() != HEADER_SIZE + (capacity << SLOT_SHIFT)) {
+                throw new IOException("Not a key fingerprint table: " + path);
+            }
+
+            KeyFingerprintTable table = new KeyFingerprintTable(channel, capacity, capacity / 4 * 3);
+            table.recover();
+
+            return table;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static boolean lock(FileChannel channel) throws IOException {
+        try {
+            // released when the channel is closed
+            FileLock lock = channel.tryLock();
+            return lock != null;
+        } catch (OverlappingFileLockException e) {
+            // locked by another table of this process
+            return false;
+        }
+    }
+
+    /**
+     * Clear the slots which were claimed but never written and count the entries again, the counter is only
+     * incremented after a slot is written. Runs before the table is used by any thread.
+     **/
+    private void recover() {
+        long entries = 0;
+        long reclaimed = 0;
+
+        for (long slot = 0; slot < capacity; slot++) {
+            MappedByteBuffer segment = segments[(int) (slot >>> SEGMENT_SHIFT)];
+            int offset = (int) ((slot & SEGMENT_MASK) << SLOT_SHIFT);
+
+            long current = (long) BUFFER_LONGS.get(segment, offset);
+
+            if (current == CLAIMED) {
+                // no other slot was written past it, inserts wait for a claimed slot instead of probing further
+                BUFFER_LONGS.set(segment, offset + 8, EMPTY);
+                BUFFER_LONGS.set(segment, offset + 16, EMPTY);
+                BUFFER_LONGS.set(segment, offset + 24, EMPTY);
+                BUFFER_LONGS.set(segment, offset, EMPTY);
+                reclaimed++;
+            } else if (current != EMPTY) {
+                entries++;
+            }
+        }
+
+        BUFFER_LONGS.setVolatile(header, ENTRIES_OFFSET, entries);
+
+        if (reclaimed > 0) {
+            force();
+        }
+    }
+
+    /**
+     * Add a fingerprint to the table.
+     *
+     * @return true if the fingerprint was added, false if it was already present or the table is full
+     **/
+    public boolean add(byte[] fingerprint) {
+        checkLength(fingerprint);
+
+        long k0 = firstWord(fingerprint);
+        long k1 = (long) ARRAY_LONGS.get(fingerprint, 8);
+        long k2 = (long) ARRAY_LONGS.get(fingerprint, 16);
+        long k3 = (long) ARRAY_LONGS.get(fingerprint, 24);
+
+        long start = mix(k1);
+
+        for (long probe = 0; probe < capacity; probe++) {
+            long slot = (start + probe) & mask;
+            MappedByteBuffer segment = segments[(int) (slot >>> SEGMENT_SHIFT)];
+            int offset = (int) ((slot & SEGMENT_MASK) << SLOT_SHIFT);
+
+            long current = awaitWritten(segment, offset);
+
+            if (current == EMPTY) {
+                if (isFull()) {
+                    return false;
+                }
+
+                if (BUFFER_LONGS.compareAndSet(segment, offset, EMPTY, CLAIMED)) {
+                    BUFFER_LONGS.set(segment, offset + 8, k1);
+                    BUFFER_LONGS.set(segment, offset + 16, k2);
+                    BUFFER_LONGS.set(segment, offset + 24, k3);
+                    // publishing the first word makes the whole slot visible to other threads
+                    BUFFER_LONGS.setRelease(segment, offset, k0);
+
+                    BUFFER_LONGS.getAndAdd(header, ENTRIES_OFFSET, 1L);
+
+                    return true;
+                }
+
+                // another thread claimed the slot first, check if it inserted the same fingerprint
+                current = awaitWritten(segment, offset);
+            }
+
+            if (current == k0 && matches(segment, offset, k1, k2, k3)) {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return true if the fingerprint is present in the table
+     **/
+    public boolean contains(byte[] fingerprint) {
+        checkLength(fingerprint);
+
+        long k0 = firstWord(fingerprint);
+        long k1 = (long) ARRAY_LONGS.get(fingerprint, 8);
+        long k2 = (long) ARRAY_LONGS.get(fingerprint, 16);
+        long k3 = (long) ARRAY_LONGS.get(fingerprint, 24);
+
+        long start = mix(k1);
+
+        for (long probe = 0; probe < capacity; probe++) {
+            long slot = (start + probe) & mask;
+            MappedByteBuffer segment = segments[(int) (slot >>> SEGMENT_SHIFT)];
+            int offset = (int) ((slot & SEGMENT_MASK) << SLOT_SHIFT);
+
+            long current = awaitWritten(segment, offset);
+
+            if (current == EMPTY) {
+                return false;
+            }
+
+            if (current == k0 && matches(segment, offset, k1, k2, k3)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean isFull() {
+        return size() >= maxEntries;
+    }
+
+    public long size() {
+        return (long) BUFFER_LONGS.getVolatile(header, ENTRIES_OFFSET);
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Write all changes of the mapped file to the storage device.
+     **/
+    public void force() {
+        header.force();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private static void checkLength(byte[] fingerprint) {
+        if (fingerprint.length != FINGERPRINT_LENGTH) {
+            throw new IllegalArgumentException("fingerprint must be " + FINGERPRINT_LENGTH + " bytes long");
+        }
+    }
+
+    private static long awaitWritten(MappedByteBuffer segment, int offset) {
+        long current = (long) BUFFER_LONGS.getAcquire(segment, offset);
+
+        while (current == CLAIMED) {
+            Thread.onSpinWait();
+            current = (long) BUFFER_LONGS.getAcquire(segment, offset);
+        }
+
+        return current;
+    }
+
+    private static boolean matches(MappedByteBuffer segment, int offset, long k1, long k2, long k3) {
+        return (long) BUFFER_LONGS.get(segment, offset + 8) == k1
+                && (long) BUFFER_LONGS.get(segment, offset + 16) == k2
+                && (long) BUFFER_LONGS.get(segment, offset + 24) == k3;
+    }
+
+    private static long firstWord(byte[] fingerprint) {
+        long word = (long) ARRAY_LONGS.get(fingerprint, 0);
+
+        // 0 and -1 are reserved as slot states. Folding them into other values only
+        // loses one bit of a 256 bit hash for these two cases.
+        if (word == EMPTY) {
+            return 1L;
+        }
+
+        if (word == CLAIMED) {
+            return -2L;
+        }
+
+        return word;
+    }
+
+    private static long mix(long word) {
+        // fingerprints are already uniformly distributed, mixing only guards against crafted input
+        word ^= word >>> 33;
+        word *= 0xff51afd7ed558ccdL;
+        word ^= word >>> 33;
+        return word;
+    }
+}
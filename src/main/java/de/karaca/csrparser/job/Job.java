@@ -0,0 +1,82 @@
+package de.karaca.csrparser.job;
+
+import de.karaca.csrparser.model.JobModel;
+import de.karaca.csrparser.service.ParserEngine;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Getter
+public class Job {
+    private final String id;
+    private final ParserEngine engine;
+    private final Path inputFile;
+    private final Path resultFile;
+    private final Instant createdAt = Instant.now();
+
+    private volatile JobStatus status = JobStatus.UPLOADING;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    private volatile long inputBytes;
+    private final AtomicLong processedBytes = new AtomicLong();
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    // bytes of the upload and result files counted against the disk usage limit
+    private final AtomicLong diskUsage = new AtomicLong();
+
+    private final ResultIndex resultIndex = new ResultIndex();
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+    Job(String id, ParserEngine engine, Path directory) {
+        this.id = id;
+        this.engine = engine;
+        this.inputFile = directory.resolve(id + ".input");
+        this.resultFile = directory.resolve(id + ".ndjson");
+    }
+
+    void queued(long inputBytes) {
+        this.inputBytes = inputBytes;
+        this.status = JobStatus.QUEUED;
+    }
+
+    void started() {
+        this.startedAt = Instant.now();
+        this.status = JobStatus.RUNNING;
+    }
+
+    void completed() {
+        this.processedBytes.set(inputBytes);
+        this.finishedAt = Instant.now();
+        this.status = JobStatus.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.status = JobStatus.FAILED;
+    }
+
+    public JobModel toModel() {
+        return JobModel.builder()
+                .id(id)
+                .status(status.name())
+                .engine(engine.name())
+                .inputBytes(inputBytes)
+                .processedBytes(processedBytes.get())
+                .records(records.get())
+                .errors(errors.get())
+                .availableResults(resultIndex.count())
+                .createdAt(createdAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .error(error)
+                .build();
+    }
+}
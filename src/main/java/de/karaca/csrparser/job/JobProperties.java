@@ -0,0 +1,43 @@
+package de.karaca.csrparser.job;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "csr-parser.jobs")
+public class JobProperties {
+    /**
+     * Directory for uploaded files and results. Cleared on startup.
+     **/
+    private Path directory = Path.of("data", "jobs");
+
+    /**
+     * Number of jobs parsed at the same time.
+     **/
+    private int maxConcurrentJobs = 2;
+
+    /**
+     * Number of jobs which are uploading, waiting or running. New jobs are rejected above this limit.
+     **/
+    private int maxActiveJobs = 16;
+
+    /**
+     * Disk space used by uploads and results of all jobs.
+     **/
+    private DataSize maxDiskUsage = DataSize.ofGigabytes(10);
+
+    /**
+     * Finished jobs are deleted after this duration.
+     **/
+    private Duration retention = Duration.ofHours(1);
+
+    /**
+     * Maximum number of results returned by a single page.
+     **/
+    private int maxPageSize = 10_000;
+}
@@ -0,0 +1,452 @@
+package de.karaca.csrparser.job;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.karaca.csrparser.bulk.BulkResult;
+import de.karaca.csrparser.bulk.CsrSplitter;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.exception.JobException;
+import de.karaca.csrparser.exception.JobNotFoundException;
+import de.karaca.csrparser.service.CsrParserService;
+import de.karaca.csrparser.service.ParserEngine;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Parses large uploads with many CSRs asynchronously.
+ *
+ * Uploads are streamed to disk, parsed incrementally on a bounded pool and the results are appended to an
+ * NDJSON file, which can be downloaded page by page while the job is still running.
+ **/
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class JobService {
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    // results are flushed and made available for download in batches
+    private static final int FLUSH_INTERVAL = 256;
+    private static final long PROGRESS_INTERVAL_MILLIS = 500;
+
+    // error of a record which failed for another reason than being invalid, the details are only logged
+    private static final String UNEXPECTED_ERROR = "Unexpected error while parsing the CSR";
+
+    private final JobProperties properties;
+    private final BeanFactory beanFactory;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger activeJobs = new AtomicInteger();
+    private final AtomicLong diskUsage = new AtomicLong();
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService scheduler;
+
+    public JobService(JobProperties properties, BeanFactory beanFactory, ObjectMapper objectMapper)
+            throws IOException {
+        this.properties = properties;
+        this.beanFactory = beanFactory;
+        this.objectMapper = objectMapper;
+
+        // jobs do not survive a restart
+        FileSystemUtils.deleteRecursively(properties.getDirectory());
+        Files.createDirectories(properties.getDirectory());
+
+        executor = new ThreadPoolExecutor(
+                properties.getMaxConcurrentJobs(),
+                properties.getMaxConcurrentJobs(),
+                0,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(
+                this::publishProgress, PROGRESS_INTERVAL_MILLIS, PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::deleteExpiredJobs, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stream the upload to disk and queue the job.
+     *
+     * @param contentLength length of the upload or -1 if unknown
+     * @throws JobException if too many jobs are active or the disk usage limit would be exceeded
+     **/
+    public Job create(InputStream body, long contentLength, ParserEngine engine) throws IOException {
+        if (activeJobs.incrementAndGet() > properties.getMaxActiveJobs()) {
+            activeJobs.decrementAndGet();
+            throw new JobException(HttpStatus.TOO_MANY_REQUESTS, "Too many active jobs");
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), engine, properties.getDirectory());
+
+        try {
+            if (contentLength > remainingDiskSpace()) {
+                throw new JobException(HttpStatus.PAYLOAD_TOO_LARGE, "Upload exceeds the disk limit");
+            }
+
+            jobs.put(job.getId(), job);
+
+            long inputBytes = copyToDisk(body, job);
+            job.queued(inputBytes);
+
+            executor.execute(() -> run(job));
+
+            return job;
+        } catch (IOException | RuntimeException e) {
+            activeJobs.decrementAndGet();
+            delete(job);
+            throw e;
+        }
+    }
+
+    public Job get(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new JobNotFoundException(id);
+        }
+
+        return job;
+    }
+
+    public void delete(String id) {
+        Job job = get(id);
+
+        if (!job.getStatus().isFinished()) {
+            throw new JobException(HttpStatus.CONFLICT, "Job is still running");
+        }
+
+        delete(job);
+    }
+
+    /**
+     * Subscribe to progress events of the job. The emitter is completed when the job has finished.
+     **/
+    public SseEmitter subscribe(String id) {
+        Job job = get(id);
+
+        SseEmitter emitter = new SseEmitter(0L);
+        emitter.onCompletion(() -> job.getSubscribers().remove(emitter));
+        emitter.onError(e -> job.getSubscribers().remove(emitter));
+
+        job.getSubscribers().add(emitter);
+        sendProgress(job, emitter);
+
+        return emitter;
+    }
+
+    /**
+     * Describe a page of results. Results which are not flushed yet are not part of the page.
+     **/
+    public ResultPage getResultPage(String id, int offset, int limit) {
+        Job job = get(id);
+
+        ResultIndex index = job.getResultIndex();
+        int available = index.count();
+
+        int from = Math.min(Math.max(offset, 0), available);
+        int to = Math.min(from + Math.min(Math.max(limit, 0), properties.getMaxPageSize()), available);
+
+        return ResultPage.builder()
+                .job(job)
+                .from(from)
+                .to(to)
+                .startByte(index.start(from))
+                .endByte(index.start(to))
+                .available(available)
+                .build();
+    }
+
+    public void writeResultPage(ResultPage page, OutputStream outputStream) throws IOException {
+        try (FileChannel channel = FileChannel.open(page.getJob().getResultFile(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+
+            long position = page.getStartByte();
+            while (position < page.getEndByte()) {
+                position += channel.transferTo(position, page.getEndByte() - position, target);
+            }
+        }
+    }
+
+    /**
+     * Write the results of the page in another Jackson format, e.g. as CBOR sequence or concatenated Smile values.
+     * The NDJSON lines are transcoded token by token without binding them to objects.
+     **/
+    public void transcodeResultPage(ResultPage page, OutputStream outputStream, JsonFactory targetFactory)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(page.getJob().getResultFile(), StandardOpenOption.READ);
+                JsonParser parser = objectMapper
+                        .getFactory()
+                        .createParser(Channels.newInputStream(channel.position(page.getStartByte())));
+                JsonGenerator generator = targetFactory
+                        .createGenerator(outputStream)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            // the file may contain more results than the page, only the values of the page are read
+            for (int i = page.getFrom(); i < page.getTo(); i++) {
+                parser.nextToken();
+                generator.copyCurrentStructure(parser);
+            }
+        }
+    }
+
+    private long copyToDisk(InputStream body, Job job) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long total = 0;
+
+        try (OutputStream outputStream = Files.newOutputStream(job.getInputFile())) {
+            int read;
+            while ((read = body.read(buffer)) >= 0) {
+                reserveDiskSpace(job, read);
+                outputStream.write(buffer, 0, read);
+                total += read;
+            }
+        }
+
+        return total;
+    }
+
+    private void run(Job job) {
+        job.started();
+
+        CsrParserService parserService = beanFactory.getBean(job.getEngine().getServiceType());
+
+        try (FileChannel input = FileChannel.open(job.getInputFile(), StandardOpenOption.READ);
+                OutputStream output = new BufferedOutputStream(Files.newOutputStream(job.getResultFile()))) {
+            ResultAppender writer = new ResultAppender(job, parserService, output);
+
+            long size = input.size();
+            long offset = 0;
+
+            while (offset < size) {
+                long length = Math.min(WINDOW_SIZE, size - offset);
+                boolean endOfInput = offset + length == size;
+
+                MappedByteBuffer window = input.map(FileChannel.MapMode.READ_ONLY, offset, length);
+
+                int consumed = CsrSplitter.split(window, endOfInput, writer::write);
+
+                if (consumed == 0 && !endOfInput) {
+                    throw new IOException("No record ends within " + WINDOW_SIZE + " bytes at offset " + offset);
+                }
+
+                offset += consumed;
+            }
+
+            writer.flush();
+            // text between the records is not counted while parsing
+            job.getProcessedBytes().set(size);
+            job.completed();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Job {} failed", job.getId(), e);
+            job.failed(e.getMessage());
+        } finally {
+            activeJobs.decrementAndGet();
+
+            // the upload is not needed anymore, only the results are kept
+            try {
+                releaseDiskSpace(job, Files.size(job.getInputFile()));
+                Files.deleteIfExists(job.getInputFile());
+            } catch (IOException e) {
+                log.warn("Could not delete upload of job {}", job.getId(), e);
+            }
+        }
+    }
+
+    private void reserveDiskSpace(Job job, long bytes) {
+        if (diskUsage.addAndGet(bytes) > properties.getMaxDiskUsage().toBytes()) {
+            diskUsage.addAndGet(-bytes);
+            throw new JobException(HttpStatus.PAYLOAD_TOO_LARGE, "Disk usage limit for jobs exceeded");
+        }
+
+        job.getDiskUsage().addAndGet(bytes);
+    }
+
+    private void releaseDiskSpace(Job job, long bytes) {
+        diskUsage.addAndGet(-bytes);
+        job.getDiskUsage().addAndGet(-bytes);
+    }
+
+    private long remainingDiskSpace() {
+        return properties.getMaxDiskUsage().toBytes() - diskUsage.get();
+    }
+
+    private void publishProgress() {
+        for (Job job : jobs.values()) {
+            for (SseEmitter emitter : job.getSubscribers()) {
+                sendProgress(job, emitter);
+            }
+        }
+    }
+
+    private void sendProgress(Job job, SseEmitter emitter) {
+        // read the status first, so the final event always contains the final counters
+        boolean finished = job.getStatus().isFinished();
+
+        try {
+            emitter.send(SseEmitter.event().name("progress").data(job.toModel()));
+
+            if (finished) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client is gone
+            job.getSubscribers().remove(emitter);
+        }
+    }
+
+    private void deleteExpiredJobs() {
+        Instant expiry = Instant.now().minus(properties.getRetention());
+
+        for (Job job : jobs.values()) {
+            if (job.getFinishedAt() != null && job.getFinishedAt().isBefore(expiry)) {
+                delete(job);
+            }
+        }
+    }
+
+    private void delete(Job job) {
+        jobs.remove(job.getId());
+
+        try {
+            Files.deleteIfExists(job.getInputFile());
+            Files.deleteIfExists(job.getResultFile());
+        } catch (IOException e) {
+            log.warn("Could not delete files of job {}", job.getId(), e);
+        }
+
+        diskUsage.addAndGet(-job.getDiskUsage().getAndSet(0));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private class ResultAppender {
+        private final Job job;
+        private final CsrParserService parserService;
+        private final OutputStream output;
+
+        private long written;
+        private final long[] pendingEnds = new long[FLUSH_INTERVAL];
+        private int pending;
+
+        ResultAppender(Job job, CsrParserService parserService, OutputStream output) {
+            this.job = job;
+            this.parserService = parserService;
+            this.output = output;
+        }
+
+        void write(ByteBuffer record) {
+            long index = job.getRecords().incrementAndGet();
+            job.getProcessedBytes().addAndGet(record.remaining());
+
+            byte[] line = serialize("#" + index, record);
+
+            try {
+                reserveDiskSpace(job, line.length + 1);
+
+                output.write(line);
+                output.write('\n');
+
+                written += line.length + 1;
+                pendingEnds[pending++] = written;
+
+                if (pending == FLUSH_INTERVAL) {
+                    flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Parse and serialize the record. A record which can't be parsed or serialized is written as an error,
+         * the job continues with the next record.
+         **/
+        private byte[] serialize(String source, ByteBuffer record) {
+            try {
+                // the record is only valid during this call, it is parsed without a copy and serialized here
+                return objectMapper.writeValueAsBytes(BulkResult.builder()
+                        .source(source)
+                        .result(parserService.parse(record))
+                        .build());
+            } catch (InvalidCsrException e) {
+                return serializeError(source, e.getMessage());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Unexpected error while parsing {} of job {}", source, job.getId(), e);
+                return serializeError(source, UNEXPECTED_ERROR);
+            }
+        }
+
+        private byte[] serializeError(String source, String error) {
+            job.getErrors().incrementAndGet();
+
+            try {
+                return objectMapper.writeValueAsBytes(BulkResult.builder().source(source).error(error).build());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void flush() throws IOException {
+            output.flush();
+
+            for (int i = 0; i < pending; i++) {
+                job.getResultIndex().add(pendingEnds[i]);
+            }
+
+            pending = 0;
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class ResultPage {
+        private final Job job;
+        // index of the first and after the last result of the page
+        private final int from;
+        private final int to;
+        private final long startByte;
+        private final long endByte;
+        // number of results available for download
+        private final int available;
+    }
+}
@@ -0,0 +1,13 @@
+package de.karaca.csrparser.job;
+
+public enum JobStatus {
+    UPLOADING,
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
@@ -0,0 +1,30 @@
+package de.karaca.csrparser.job;
+
+import java.util.Arrays;
+
+/**
+ * End offsets of the result lines of a job, used to serve pages of results without scanning the file.
+ **/
+class ResultIndex {
+    private long[] ends = new long[1024];
+    private int count;
+
+    synchronized void add(long end) {
+        if (count == ends.length) {
+            ends = Arrays.copyOf(ends, ends.length * 2);
+        }
+
+        ends[count++] = end;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * @return byte offset of the start of the given line, lines up to {@link #count()} are valid
+     **/
+    synchronized long start(int line) {
+        return line == 0 ? 0 : ends[line - 1];
+    }
+}
@@ -0,0 +1,44 @@
+package de.karaca.csrparser.model;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class CertificateDetailsModel {
+    // X.509 version, 1 to 3
+    private final int version;
+    // hex encoded
+    private final String serialNumber;
+    private final String signatureAlgorithm;
+    private final String signatureAlgorithmId;
+
+    // RFC 4514 string representations
+    private final String issuer;
+    private final String subject;
+    private final String commonName;
+
+    private final Instant notBefore;
+    private final Instant notAfter;
+
+    private final String publicKeyAlgorithm;
+    private final String publicKeyAlgorithmId;
+    private final Integer rsaKeyLength;
+    private final String ecCurve;
+    // hex encoded SHA-256 hash of the DER encoded SubjectPublicKeyInfo, the same as for the CSR of the certificate
+    private final String publicKeyFingerprint;
+    // null if no CSR was given
+    private final Boolean matchesCsr;
+
+    private final SubjectAlternativeNames subjectAlternativeNames;
+    private final Integer subjectAlternativeNameCount;
+    private final List<String> keyUsage;
+    private final List<String> extendedKeyUsage;
+    private final Boolean basicConstraintsCa;
+    private final Integer basicConstraintsPathLength;
+    // hex encoded
+    private final String subjectKeyIdentifier;
+    private final List<String> criticalExtensions;
+}
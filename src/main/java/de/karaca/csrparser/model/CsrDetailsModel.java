@@ -1,11 +1,22 @@
 package de.karaca.csrparser.model;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.Set;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.With;
 
 @Getter
 @Builder
+@JsonFilter(CsrFieldFilter.ID)
 public class CsrDetailsModel {
+    // fields to write, null if all fields were requested
+    @JsonIgnore
+    private final Set<CsrField> fields;
+
     private final String issuer;
 
     private final String signatureAlgorithm;
@@ -17,12 +28,52 @@ public class CsrDetailsModel {
     private final Integer rsaKeyLength;
     private final String ecCurve;
 
+    // hex encoded SHA-256 hash of the DER encoded SubjectPublicKeyInfo
+    private final String publicKeyFingerprint;
+    // null if key reuse detection is disabled
+    private final Boolean keyPreviouslySeen;
+
+    // RFC 4514 string representation of the subject
+    private final String subject;
+    // multiple values of the same attribute (e.g. several OUs) are joined with ','
     private final String commonName;
     private final String country;
     private final String locality;
     private final String stateOrProvince;
     private final String organizationName;
     private final String organizationUnit;
-    private final String subjectAlternativeName;
+    // may be a page of all names, see subjectAlternativeNameCount
+    @With
+    private final SubjectAlternativeNames subjectAlternativeNames;
+    // total number of subject alternative names
+    private final Integer subjectAlternativeNameCount;
+    // sanOffset of the next page, only written if the response does not contain the last name
+    @With
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Integer subjectAlternativeNameNextOffset;
     private final String emailAddress;
+
+    // names as defined in RFC 5280, unknown key purposes as object identifier
+    private final List<String> keyUsage;
+    private final List<String> extendedKeyUsage;
+    private final Boolean basicConstraintsCa;
+    private final Integer basicConstraintsPathLength;
+    // hex encoded
+    private final String subjectKeyIdentifier;
+    // object identifiers of all extensions marked as critical
+    private final List<String> criticalExtensions;
+
+    // violated rules of the issuance policy, null if no policy is configured or the parser does not evaluate it
+    private final List<PolicyViolation> policyViolations;
+
+    /**
+     * @return the names of this response joined as "type: value, type: value", like before they were returned as a
+     * list
+     * @deprecated use {@link #getSubjectAlternativeNames()}, this string is built from all names on every write and
+     * is not written for a field projection
+     **/
+    @Deprecated
+    public String getSubjectAlternativeName() {
+        return subjectAlternativeNames == null ? null : subjectAlternativeNames.toString();
+    }
 }
@@ -0,0 +1,90 @@
+package de.karaca.csrparser.model;
+
+import de.karaca.csrparser.exception.InvalidFieldException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Properties of {@link CsrDetailsModel} which can be requested separately.
+ **/
+@Getter
+@RequiredArgsConstructor
+public enum CsrField {
+    ISSUER("issuer"),
+    SIGNATURE_ALGORITHM("signatureAlgorithm"),
+    SIGNATURE_ALGORITHM_ID("signatureAlgorithmId"),
+    PUBLIC_KEY_ALGORITHM("publicKeyAlgorithm"),
+    PUBLIC_KEY_ALGORITHM_ID("publicKeyAlgorithmId"),
+    RSA_KEY_LENGTH("rsaKeyLength"),
+    EC_CURVE("ecCurve"),
+    PUBLIC_KEY_FINGERPRINT("publicKeyFingerprint"),
+    KEY_PREVIOUSLY_SEEN("keyPreviouslySeen"),
+    SUBJECT("subject"),
+    COMMON_NAME("commonName"),
+    COUNTRY("country"),
+    LOCALITY("locality"),
+    STATE_OR_PROVINCE("stateOrProvince"),
+    ORGANIZATION_NAME("organizationName"),
+    ORGANIZATION_UNIT("organizationUnit"),
+    SUBJECT_ALTERNATIVE_NAMES("subjectAlternativeNames"),
+    SUBJECT_ALTERNATIVE_NAME_COUNT("subjectAlternativeNameCount"),
+    EMAIL_ADDRESS("emailAddress"),
+    KEY_USAGE("keyUsage"),
+    EXTENDED_KEY_USAGE("extendedKeyUsage"),
+    BASIC_CONSTRAINTS_CA("basicConstraintsCa"),
+    BASIC_CONSTRAINTS_PATH_LENGTH("basicConstraintsPathLength"),
+    SUBJECT_KEY_IDENTIFIER("subjectKeyIdentifier"),
+    CRITICAL_EXTENSIONS("criticalExtensions"),
+    POLICY_VIOLATIONS("policyViolations");
+
+    public static final Set<CsrField> ALL = Collections.unmodifiableSet(EnumSet.allOf(CsrField.class));
+
+    private static final Map<String, CsrField> BY_PROPERTY = new HashMap<>();
+
+    static {
+        for (CsrField field : values()) {
+            BY_PROPERTY.put(field.property, field);
+        }
+    }
+
+    // name of the JSON property
+    private final String property;
+
+    /**
+     * @return the field of the given JSON property or null if there is none
+     **/
+    public static CsrField forProperty(String property) {
+        return BY_PROPERTY.get(property);
+    }
+
+    /**
+     * Parse a comma separated list of JSON property names, e.g. {@code commonName,subjectAlternativeNames}.
+     *
+     * @return all fields if the list is null or blank
+     * @throws InvalidFieldException if a name is not a property of {@link CsrDetailsModel}
+     **/
+    public static Set<CsrField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+
+        Set<CsrField> result = EnumSet.noneOf(CsrField.class);
+
+        for (String property : fields.split(",")) {
+            CsrField field = forProperty(property.strip());
+
+            if (field == null) {
+                throw new InvalidFieldException(property.strip());
+            }
+
+            result.add(field);
+        }
+
+        return result;
+    }
+}
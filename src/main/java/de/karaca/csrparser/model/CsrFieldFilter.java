@@ -0,0 +1,45 @@
+package de.karaca.csrparser.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * Writes only the properties of a {@link CsrDetailsModel} which were requested,
+ * see {@link CsrDetailsModel#getFields()}.
+ *
+ * The filter is referenced by {@link CsrDetailsModel}, so every object mapper writing the model has to be
+ * configured with {@link #PROVIDER}.
+ **/
+public class CsrFieldFilter extends SimpleBeanPropertyFilter {
+    public static final String ID = "csrFields";
+
+    public static final FilterProvider PROVIDER = new SimpleFilterProvider().addFilter(ID, new CsrFieldFilter());
+
+    @Override
+    public void serializeAsField(
+            Object pojo, JsonGenerator generator, SerializerProvider provider, PropertyWriter writer)
+            throws Exception {
+        if (isRequested(pojo, writer.getName())) {
+            writer.serializeAsField(pojo, generator, provider);
+        } else if (!generator.canOmitFields()) {
+            writer.serializeAsOmittedField(pojo, generator, provider);
+        }
+    }
+
+    private static boolean isRequested(Object pojo, String property) {
+        if (!(pojo instanceof CsrDetailsModel model) || model.getFields() == null) {
+            return true;
+        }
+
+        // the offset of the next page is written with the page, the deprecated subjectAlternativeName never is
+        CsrField field = property.equals("subjectAlternativeNameNextOffset")
+                ? CsrField.SUBJECT_ALTERNATIVE_NAMES
+                : CsrField.forProperty(property);
+
+        return field != null && model.getFields().contains(field);
+    }
+}
@@ -0,0 +1,25 @@
+package de.karaca.csrparser.model;
+
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class JobModel {
+    private final String id;
+    private final String status;
+    private final String engine;
+
+    private final long inputBytes;
+    private final long processedBytes;
+    private final long records;
+    private final long errors;
+    // number of results which can be downloaded already
+    private final long availableResults;
+
+    private final Instant createdAt;
+    private final Instant startedAt;
+    private final Instant finishedAt;
+    private final String error;
+}
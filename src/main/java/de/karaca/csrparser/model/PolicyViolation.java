@@ -0,0 +1,20 @@
+package de.karaca.csrparser.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class PolicyViolation {
+    // name of the violated rule
+    private final String rule;
+    private final Severity severity;
+    private final String message;
+
+    public enum Severity {
+        // the CSR must not be accepted, evaluation stops at the first hard violation
+        HARD,
+        // reported, the remaining rules are still evaluated
+        SOFT
+    }
+}
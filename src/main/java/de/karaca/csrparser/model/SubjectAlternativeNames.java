@@ -0,0 +1,96 @@
+package de.karaca.csrparser.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+
+/**
+ * Subject alternative names of a CSR as a list of type and value pairs.
+ *
+ * The custom parser formats the values on access, the serializer writes them one by one
+ * without building an intermediate list, so requests with tens of thousands of names
+ * never hold more than a single formatted value at a time. BouncyCastle decodes the
+ * names into objects anyway, its values are formatted while parsing.
+ **/
+@JsonSerialize(using = SubjectAlternativeNames.Serializer.class)
+public abstract class SubjectAlternativeNames {
+    public abstract int size();
+
+    /**
+     * @return short name of the type: otherName, email, DNS, x400Address, dirName, ediPartyName, URI, IP or RID
+     **/
+    public abstract String getType(int index);
+
+    public abstract String getValue(int index);
+
+    /**
+     * @return a view of the names from (inclusive) to (exclusive)
+     **/
+    public SubjectAlternativeNames slice(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("slice " + from + " to " + to + " of " + size());
+        }
+
+        SubjectAlternativeNames names = this;
+
+        return new SubjectAlternativeNames() {
+            @Override
+            public int size() {
+                return to - from;
+            }
+
+            @Override
+            public String getType(int index) {
+                return names.getType(from + index);
+            }
+
+            @Override
+            public String getValue(int index) {
+                return names.getValue(from + index);
+            }
+        };
+    }
+
+    /**
+     * @return all names joined as "type: value, type: value"
+     **/
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+
+            builder.append(getType(i)).append(": ").append(getValue(i));
+        }
+
+        return builder.toString();
+    }
+
+    public static class Serializer extends StdSerializer<SubjectAlternativeNames> {
+        public Serializer() {
+            super(SubjectAlternativeNames.class);
+        }
+
+        @Override
+        public void serialize(SubjectAlternativeNames names, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            int size = names.size();
+
+            generator.writeStartArray(names, size);
+
+            for (int i = 0; i < size; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("type", names.getType(i));
+                generator.writeStringField("value", names.getValue(i));
+                generator.writeEndObject();
+            }
+
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package de.karaca.csrparser.policy;
+
+import de.karaca.csrparser.model.CsrField;
+import de.karaca.csrparser.model.PolicyViolation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Issuance policy compiled into checks by {@link PolicyCompiler}. Immutable and safe to share between threads.
+ **/
+public final class CompiledPolicy {
+    private final Rule[] rules;
+    private final Set<CsrField> requiredFields;
+
+    CompiledPolicy(Rule[] rules, Set<CsrField> requiredFields) {
+        this.rules = rules;
+        this.requiredFields = requiredFields;
+    }
+
+    /**
+     * @return fields whose parts of the CSR have to be decoded to evaluate the policy
+     **/
+    public Set<CsrField> getRequiredFields() {
+        return requiredFields;
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * Evaluate the rules in order, stopping at the first hard violation.
+     *
+     * @return the violations in evaluation order, empty if the CSR complies
+     **/
+    public List<PolicyViolation> evaluate(PolicyContext context) {
+        List<PolicyViolation> violations = null;
+
+        for (Rule rule : rules) {
+            String message = rule.check().check(context);
+
+            if (message == null) {
+                continue;
+            }
+
+            if (violations == null) {
+                violations = new ArrayList<>(2);
+            }
+
+            violations.add(PolicyViolation.builder()
+                    .rule(rule.name())
+                    .severity(rule.severity())
+                    .message(message)
+                    .build());
+
+            if (rule.severity() == PolicyViolation.Severity.HARD) {
+                break;
+            }
+        }
+
+        return violations == null ? List.of() : violations;
+    }
+
+    record Rule(String name, PolicyViolation.Severity severity, Check check) {}
+
+    @FunctionalInterface
+    interface Check {
+        /**
+         * @return description of the violation, null if the CSR complies
+         **/
+        String check(PolicyContext context);
+    }
+}
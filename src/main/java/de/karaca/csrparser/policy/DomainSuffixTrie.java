@@ -0,0 +1,108 @@
+package de.karaca.csrparser.policy;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Allow-list of domain names, stored as a trie over the reversed characters of the names.
+ *
+ * A lookup walks the name from its last character, so it takes one step per character regardless of the number
+ * of allowed domains and does not allocate. {@code example.com} allows exactly this name, {@code *.example.com}
+ * allows all names below it. Names are compared ASCII case-insensitively, internationalized names have to be
+ * given in their ASCII (punycode) form.
+ **/
+public final class DomainSuffixTrie {
+    private final Node root = new Node();
+
+    public DomainSuffixTrie(Collection<String> domains) {
+        for (String domain : domains) {
+            add(domain);
+        }
+    }
+
+    private void add(String domain) {
+        boolean subdomains = domain.startsWith("*.");
+        String name = subdomains ? domain.substring(2) : domain;
+
+        if (name.isEmpty() || name.startsWith(".") || name.endsWith(".") || name.contains("*")) {
+            throw new IllegalArgumentException("Invalid domain " + domain);
+        }
+
+        Node node = root;
+        for (int i = name.length() - 1; i >= 0; i--) {
+            node = node.getOrAddChild(toLowerCase(name.charAt(i)));
+        }
+
+        if (subdomains) {
+            node.subdomains = true;
+        } else {
+            node.exact = true;
+        }
+    }
+
+    public boolean matches(CharSequence name) {
+        int end = name.length();
+
+        // fully qualified with the root label
+        if (end > 0 && name.charAt(end - 1) == '.') {
+            end--;
+        }
+
+        Node node = root;
+
+        for (int i = end - 1; i >= 0; i--) {
+            char c = toLowerCase(name.charAt(i));
+
+            // the node is the suffix after the dot, at least one more label has to follow
+            if (c == '.' && node.subdomains && i > 0 && name.charAt(i - 1) != '.') {
+                return true;
+            }
+
+            node = node.getChild(c);
+            if (node == null) {
+                return false;
+            }
+        }
+
+        return node.exact;
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static class Node {
+        // few children per node, so a linear scan beats hashing
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+
+        // the suffix up to this node is allowed itself / names below it are allowed
+        private boolean exact;
+        private boolean subdomains;
+
+        Node getChild(char key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+
+            return null;
+        }
+
+        Node getOrAddChild(char key) {
+            Node child = getChild(key);
+
+            if (child == null) {
+                child = new Node();
+
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+
+            return child;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package de.karaca.csrparser.policy;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import de.karaca.csrparser.decoder.GeneralNames;
+import de.karaca.csrparser.decoder.ObjectIdentifiers;
+import de.karaca.csrparser.model.CsrField;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles the YAML issuance policy into checks on a {@link PolicyContext}.
+ *
+ * All parsing and lookup structures are built once: allow-lists become hash sets
+ * (matching the object identifier and its name), domain allow-lists a {@link DomainSuffixTrie}.
+ * Example:
+ *
+ * <pre>
+ * rules:
+ *   - name: rsa-key-size
+ *     type: MIN_RSA_KEY_LENGTH
+ *     value: 2048
+ *   - name: domains
+ *     type: ALLOWED_DOMAINS
+ *     severity: SOFT
+ *     values: [example.com, "*.example.com"]
+ * </pre>
+ **/
+public final class PolicyCompiler {
+    private static final ObjectMapper YAML_MAPPER = YAMLMapper.builder()
+            .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+            .build();
+
+    private PolicyCompiler() {}
+
+    /**
+     * @throws IllegalArgumentException if a rule is incomplete
+     **/
+    public static CompiledPolicy compile(InputStream yaml) throws IOException {
+        return compile(YAML_MAPPER.readValue(yaml, PolicyDefinition.class));
+    }
+
+    /**
+     * @throws IllegalArgumentException if a rule is incomplete
+     **/
+    public static CompiledPolicy compile(PolicyDefinition definition) {
+        if (definition == null || definition.getRules() == null) {
+            throw new IllegalArgumentException("Policy has no rules");
+        }
+
+        List<PolicyDefinition.Rule> rules = definition.getRules();
+
+        CompiledPolicy.Rule[] compiled = new CompiledPolicy.Rule[rules.size()];
+        Set<CsrField> requiredFields = EnumSet.noneOf(CsrField.class);
+
+        for (int i = 0; i < compiled.length; i++) {
+            PolicyDefinition.Rule rule = rules.get(i);
+
+            if (rule.getType() == null) {
+                throw new IllegalArgumentException("Rule " + (i + 1) + " has no type");
+            }
+            if (rule.getSeverity() == null) {
+                throw new IllegalArgumentException("Rule " + (i + 1) + " has no severity");
+            }
+
+            String name = rule.getName() != null ? rule.getName() : rule.getType().name();
+
+            compiled[i] = new CompiledPolicy.Rule(name, rule.getSeverity(), compileCheck(name, rule, requiredFields));
+        }
+
+        return new CompiledPolicy(compiled, requiredFields);
+    }
+
+    private static CompiledPolicy.Check compileCheck(
+            String name, PolicyDefinition.Rule rule, Set<CsrField> requiredFields) {
+        switch (rule.getType()) {
+            case MIN_RSA_KEY_LENGTH: {
+                if (rule.getValue() == null) {
+                    throw new IllegalArgumentException("Rule " + name + " has no value");
+                }
+
+                int minLength = rule.getValue();
+                requiredFields.add(CsrField.RSA_KEY_LENGTH);
+
+                return context -> {
+                    Integer length = context.getRsaKeyLength();
+
+                    return length != null && length < minLength
+                            ? "RSA key length " + length + " is below " + minLength
+                            : null;
+                };
+            }
+            case ALLOWED_CURVES: {
+                Set<String> allowed = toSet(name, rule);
+                requiredFields.add(CsrField.PUBLIC_KEY_ALGORITHM_ID);
+
+                return context -> {
+                    if (!ObjectIdentifiers.EC.equals(context.getPublicKeyAlgorithmId())) {
+                        return null;
+                    }
+
+                    String curve = context.getPublicKeyParameterId();
+                    if (curve == null) {
+                        return "EC key without a named curve";
+                    }
+
+                    String curveName = ObjectIdentifiers.getCurveName(curve);
+
+                    return allowed.contains(curve) || allowed.contains(curveName)
+                            ? null
+                            : "Curve " + curveName + " is not allowed";
+                };
+            }
+            case ALLOWED_SIGNATURE_ALGORITHMS: {
+                Set<String> allowed = toSet(name, rule);
+                requiredFields.add(CsrField.SIGNATURE_ALGORITHM_ID);
+
+                return context -> {
+                    String algorithm = context.getSignatureAlgorithmId();
+                    if (algorithm == null) {
+                        return null;
+                    }
+
+                    String algorithmName = ObjectIdentifiers.getAlgorithmName(algorithm);
+
+                    return allowed.contains(algorithm) || allowed.contains(algorithmName)
+                            ? null
+                            : "Signature algorithm " + algorithmName + " is not allowed";
+                };
+            }
+            case ALLOWED_DOMAINS: {
+                DomainSuffixTrie allowed = new DomainSuffixTrie(toSet(name, rule));
+                requiredFields.add(CsrField.SUBJECT_ALTERNATIVE_NAMES);
+
+                return context -> {
+                    GeneralNames names = context.getSubjectAlternativeNames();
+                    if (names == null) {
+                        return null;
+                    }
+
+                    for (int i = 0; i < names.size(); i++) {
+                        if (names.getTag(i) == GeneralNames.TAG_DNS) {
+                            String domain = names.getValue(i);
+
+                            if (!allowed.matches(domain)) {
+                                return "Domain " + domain + " is not allowed";
+                            }
+                        }
+                    }
+
+                    return null;
+                };
+            }
+            case ALLOWED_COUNTRIES: {
+                Set<String> allowed = toSet(name, rule);
+                requiredFields.add(CsrField.COUNTRY);
+
+                return context -> {
+                    String country = context.getCountry();
+
+                    return country != null && !allowed.contains(country)
+                            ? "Country " + country + " is not allowed"
+                            : null;
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported rule type " + rule.getType());
+        }
+    }
+
+    private static Set<String> toSet(String name, PolicyDefinition.Rule rule) {
+        if (rule.getValues() == null || rule.getValues().isEmpty()) {
+            throw new IllegalArgumentException("Rule " + name + " has no values");
+        }
+
+        return new HashSet<>(rule.getValues());
+    }
+}
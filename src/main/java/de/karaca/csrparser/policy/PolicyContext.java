@@ -0,0 +1,21 @@
+package de.karaca.csrparser.policy;
+
+import de.karaca.csrparser.decoder.GeneralNames;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * The decoded values of a CSR the policy rules look at, taken from the decoder without formatting them.
+ * Values which were not decoded or are not part of the CSR are null.
+ **/
+@Getter
+@Builder
+public class PolicyContext {
+    private final String signatureAlgorithmId;
+    private final String publicKeyAlgorithmId;
+    // named curve of EC keys
+    private final String publicKeyParameterId;
+    private final Integer rsaKeyLength;
+    private final String country;
+    private final GeneralNames subjectAlternativeNames;
+}
@@ -0,0 +1,43 @@
+package de.karaca.csrparser.policy;
+
+import de.karaca.csrparser.model.PolicyViolation;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Issuance policy as written in the YAML file, see {@link PolicyCompiler}.
+ **/
+@Getter
+@Setter
+public class PolicyDefinition {
+    // evaluated in this order
+    private List<Rule> rules = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Rule {
+        private String name;
+        private RuleType type;
+        private PolicyViolation.Severity severity = PolicyViolation.Severity.HARD;
+
+        // for MIN_RSA_KEY_LENGTH
+        private Integer value;
+        // for all other types
+        private List<String> values = new ArrayList<>();
+    }
+
+    public enum RuleType {
+        // RSA keys need at least the given number of bits, other keys pass
+        MIN_RSA_KEY_LENGTH,
+        // named curve of EC keys by SEC 2 name or object identifier, other keys pass
+        ALLOWED_CURVES,
+        // by name (e.g. sha256WithRSAEncryption) or object identifier
+        ALLOWED_SIGNATURE_ALGORITHMS,
+        // DNS subject alternative names, 'example.com' allows the domain, '*.example.com' all sub domains
+        ALLOWED_DOMAINS,
+        // country of the subject if it has one
+        ALLOWED_COUNTRIES
+    }
+}
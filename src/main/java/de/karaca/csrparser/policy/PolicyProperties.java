@@ -0,0 +1,23 @@
+package de.karaca.csrparser.policy;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "csr-parser.policy")
+public class PolicyProperties {
+    /**
+     * YAML file with the issuance policy, no policy is evaluated if not set.
+     **/
+    private Path file;
+
+    /**
+     * How often the file is checked for changes. A changed policy is compiled and replaces the current one
+     * without a restart, an invalid policy is logged and the current one is kept.
+     **/
+    private Duration reloadInterval = Duration.ofSeconds(5);
+}
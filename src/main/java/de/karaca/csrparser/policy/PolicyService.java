@@ -0,0 +1,108 @@
+package de.karaca.csrparser.policy;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Holds the compiled issuance policy and replaces it when the policy file changes.
+ *
+ * The policy is compiled once per change, parsing threads only read the current instance.
+ * An invalid file fails the startup, on a reload it is logged and the previous policy stays active.
+ **/
+@Slf4j
+@Service
+public class PolicyService {
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile CompiledPolicy policy;
+
+    // only accessed by the scheduler after the constructor
+    private FileTime lastModified;
+
+    public PolicyService(PolicyProperties properties) throws IOException {
+        this.file = properties.getFile();
+
+        if (file == null) {
+            scheduler = null;
+            return;
+        }
+
+        lastModified = Files.getLastModifiedTime(file);
+        policy = load();
+
+        log.info("Loaded issuance policy {} with {} rules", file, policy.size());
+
+        long interval = properties.getReloadInterval().toMillis();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "policy-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reloadIfModified, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the current policy or null if no policy is configured
+     **/
+    public CompiledPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Compile the policy file and replace the current policy.
+     *
+     * @return false if the file could not be compiled, the current policy is kept then
+     **/
+    public boolean reload() {
+        if (file == null) {
+            return false;
+        }
+
+        try {
+            policy = load();
+
+            log.info("Reloaded issuance policy {} with {} rules", file, policy.size());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not load issuance policy {}, keeping the current policy", file, e);
+            return false;
+        }
+    }
+
+    private void reloadIfModified() {
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+
+            if (!modified.equals(lastModified)) {
+                lastModified = modified;
+                reload();
+            }
+        } catch (IOException e) {
+            log.warn("Could not check issuance policy {}", file, e);
+        }
+    }
+
+    private CompiledPolicy load() throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return PolicyCompiler.compile(input);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
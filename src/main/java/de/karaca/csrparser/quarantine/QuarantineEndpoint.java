@@ -0,0 +1,81 @@
+package de.karaca.csrparser.quarantine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint of the {@link RejectedInputQuarantine}. The inputs may contain data of the clients,
+ * so the endpoint is only exposed on the internal management port of the kubernetes profile.
+ *
+ * <ul>
+ *     <li>{@code GET /actuator/quarantine} lists the entries</li>
+ *     <li>{@code GET /actuator/quarantine/{sequence}} downloads the captured bytes of an entry</li>
+ *     <li>{@code GET /actuator/quarantine/corpus} downloads all entries as a ZIP file, e.g. as a fuzzing corpus</li>
+ * </ul>
+ **/
+@Component
+@Endpoint(id = "quarantine")
+public class QuarantineEndpoint {
+    private static final String CORPUS = "corpus";
+
+    private final RejectedInputQuarantine quarantine;
+
+    public QuarantineEndpoint(RejectedInputQuarantine quarantine) {
+        this.quarantine = quarantine;
+    }
+
+    @ReadOperation
+    public QuarantineSnapshot entries() {
+        return quarantine.snapshot();
+    }
+
+    /**
+     * @return null (404) if the entry was overwritten or does not exist
+     **/
+    @ReadOperation(produces = "application/octet-stream")
+    public Resource download(@Selector String entry) {
+        if (CORPUS.equals(entry)) {
+            return new ByteArrayResource(corpus());
+        }
+
+        long sequence;
+        try {
+            sequence = Long.parseLong(entry);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        QuarantineEntry quarantineEntry = quarantine.entry(sequence);
+
+        return quarantineEntry == null ? null : new ByteArrayResource(quarantineEntry.getBytes());
+    }
+
+    private byte[] corpus() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (QuarantineEntry entry : quarantine.entries()) {
+                // e.g. 42-TRUNCATED-CUSTOM.bin
+                String name = entry.getSequence() + "-" + entry.getCode() + "-" + entry.getEngine() + ".bin";
+
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(entry.getBytes());
+                zip.closeEntry();
+            }
+        } catch (IOException e) {
+            // not thrown by a ByteArrayOutputStream
+            throw new UncheckedIOException(e);
+        }
+
+        return out.toByteArray();
+    }
+}
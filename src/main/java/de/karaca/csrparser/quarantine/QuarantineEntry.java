@@ -0,0 +1,28 @@
+package de.karaca.csrparser.quarantine;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.karaca.csrparser.exception.DecodeError;
+import de.karaca.csrparser.service.ParserEngine;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class QuarantineEntry {
+    // increases with every captured input, identifies the entry for the download
+    private final long sequence;
+    private final Instant timestamp;
+    private final ParserEngine engine;
+
+    private final DecodeError code;
+    // position of the error in the DER encoding, null if unknown
+    private final Integer offset;
+
+    // size of the rejected input and of the kept copy
+    private final int length;
+    private final int capturedLength;
+
+    @JsonIgnore
+    private final byte[] bytes;
+}
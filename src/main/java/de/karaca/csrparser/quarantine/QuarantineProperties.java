@@ -0,0 +1,32 @@
+package de.karaca.csrparser.quarantine;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "csr-parser.quarantine")
+public class QuarantineProperties {
+    /**
+     * Keep copies of recently rejected inputs for the quarantine actuator endpoint.
+     **/
+    private boolean enabled = true;
+
+    /**
+     * Number of inputs kept, the oldest one is overwritten when all are taken.
+     **/
+    private int maxEntries = 256;
+
+    /**
+     * Bytes kept per input, longer inputs are truncated. The memory of all entries (max-entries * max-entry-size)
+     * is allocated on startup and never grows.
+     **/
+    private DataSize maxEntrySize = DataSize.ofKilobytes(4);
+
+    /**
+     * Fraction of the rejected inputs which are kept, between 0 and 1.
+     **/
+    private double sampleRate = 0.1;
+}
@@ -0,0 +1,21 @@
+package de.karaca.csrparser.quarantine;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class QuarantineSnapshot {
+    private final int maxEntries;
+    private final int maxEntrySize;
+    private final double sampleRate;
+
+    // sampled inputs since the start, including the overwritten ones
+    private final long captured;
+    // sampled inputs which were skipped because their slot was being written by another thread
+    private final long dropped;
+
+    // newest first
+    private final List<QuarantineEntry> entries;
+}
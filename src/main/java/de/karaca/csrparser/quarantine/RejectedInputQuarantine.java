@@ -0,0 +1,243 @@
+package de.karaca.csrparser.quarantine;
+
+import de.karaca.csrparser.exception.DecodeError;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.service.ParserEngine;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Ring buffer of recently rejected inputs, so the inputs behind a spike of rejections can be inspected.
+ *
+ * All memory is allocated on startup: one array holds a fixed size slot per entry, the metadata is kept in
+ * parallel primitive arrays. Capturing claims the next slot with an atomic increment and copies the truncated input
+ * into it without locking or allocating. Every slot has a state which is odd while the slot is written, a capture
+ * which finds its slot taken by another writer is dropped instead of waiting. Readers copy an entry and only use
+ * the copy if the state did not change in between, like an optimistic read of a StampedLock.
+ **/
+@Slf4j
+@Service
+public class RejectedInputQuarantine {
+    private static final DecodeError[] CODES = DecodeError.values();
+    private static final ParserEngine[] ENGINES = ParserEngine.values();
+
+    private static final int READ_ATTEMPTS = 3;
+
+    private final int maxEntries;
+    private final int maxEntrySize;
+    private final double sampleRate;
+
+    private final byte[] data;
+
+    // per slot: even if the slot is stable, odd while it is written, 0 if it was never written
+    private final AtomicLongArray states;
+    private final long[] sequences;
+    private final long[] timestamps;
+    private final int[] engines;
+    private final int[] codes;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final int[] capturedLengths;
+
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    public RejectedInputQuarantine(QuarantineProperties properties) {
+        this.maxEntries = properties.isEnabled() ? properties.getMaxEntries() : 0;
+        this.maxEntrySize = (int) properties.getMaxEntrySize().toBytes();
+        this.sampleRate = properties.getSampleRate();
+
+        if (maxEntries < 0 || maxEntrySize < 0 || properties.getMaxEntrySize().toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid quarantine size");
+        }
+        if ((long) maxEntries * maxEntrySize > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Quarantine must not be larger than 2 GB");
+        }
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("Quarantine sample rate must be between 0 and 1");
+        }
+
+        data = new byte[maxEntries * maxEntrySize];
+        states = new AtomicLongArray(maxEntries);
+        sequences = new long[maxEntries];
+        timestamps = new long[maxEntries];
+        engines = new int[maxEntries];
+        codes = new int[maxEntries];
+        offsets = new int[maxEntries];
+        lengths = new int[maxEntries];
+        capturedLengths = new int[maxEntries];
+
+        if (maxEntries > 0) {
+            log.info(
+                    "Quarantine keeps {} rejected inputs of up to {} bytes, sampling {}",
+                    maxEntries,
+                    maxEntrySize,
+                    sampleRate);
+        }
+    }
+
+    /**
+     * Keep a truncated copy of a rejected input if it is sampled.
+     **/
+    public void capture(ParserEngine engine, byte[] input, InvalidCsrException e) {
+        if (!isSampled()) {
+            return;
+        }
+
+        int slot = claim(engine, input.length, e);
+        if (slot < 0) {
+            return;
+        }
+
+        int length = Math.min(input.length, maxEntrySize);
+        System.arraycopy(input, 0, data, slot * maxEntrySize, length);
+
+        publish(slot, length);
+    }
+
+    /**
+     * Keep a truncated copy of the bytes between position and limit of a rejected input if it is sampled.
+     * The position of the buffer is not changed.
+     **/
+    public void capture(ParserEngine engine, ByteBuffer input, InvalidCsrException e) {
+        if (!isSampled()) {
+            return;
+        }
+
+        int slot = claim(engine, input.remaining(), e);
+        if (slot < 0) {
+            return;
+        }
+
+        int length = Math.min(input.remaining(), maxEntrySize);
+        input.get(input.position(), data, slot * maxEntrySize, length);
+
+        publish(slot, length);
+    }
+
+    private boolean isSampled() {
+        return maxEntries > 0 && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * @return the slot with its metadata written, -1 if it is being written by another thread
+     **/
+    private int claim(ParserEngine engine, int length, InvalidCsrException e) {
+        long sequence = nextSequence.getAndIncrement();
+        int slot = (int) (sequence % maxEntries);
+
+        long state = states.get(slot);
+        if ((state & 1) != 0 || !states.compareAndSet(slot, state, state + 1)) {
+            dropped.increment();
+            return -1;
+        }
+
+        sequences[slot] = sequence;
+        timestamps[slot] = System.currentTimeMillis();
+        engines[slot] = engine.ordinal();
+        codes[slot] = e.getCode().ordinal();
+        offsets[slot] = e.getOffset();
+        lengths[slot] = length;
+
+        return slot;
+    }
+
+    private void publish(int slot, int capturedLength) {
+        capturedLengths[slot] = capturedLength;
+
+        // the volatile write makes the entry visible to readers which see the even state
+        states.incrementAndGet(slot);
+    }
+
+    /**
+     * @return the entries newest first, entries which are overwritten while they are read are left out
+     **/
+    public List<QuarantineEntry> entries() {
+        List<QuarantineEntry> entries = new ArrayList<>(maxEntries);
+
+        for (int slot = 0; slot < maxEntries; slot++) {
+            QuarantineEntry entry = read(slot);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+
+        entries.sort(Comparator.comparingLong(QuarantineEntry::getSequence).reversed());
+
+        return entries;
+    }
+
+    /**
+     * @return the entry with the given sequence number, null if it was overwritten or never captured
+     **/
+    public QuarantineEntry entry(long sequence) {
+        if (maxEntries == 0 || sequence < 0) {
+            return null;
+        }
+
+        QuarantineEntry entry = read((int) (sequence % maxEntries));
+
+        return entry != null && entry.getSequence() == sequence ? entry : null;
+    }
+
+    public QuarantineSnapshot snapshot() {
+        long dropped = this.dropped.sum();
+
+        return QuarantineSnapshot.builder()
+                .maxEntries(maxEntries)
+                .maxEntrySize(maxEntrySize)
+                .sampleRate(sampleRate)
+                .captured(nextSequence.get() - dropped)
+                .dropped(dropped)
+                .entries(entries())
+                .build();
+    }
+
+    private QuarantineEntry read(int slot) {
+        for (int attempt = 0; attempt < READ_ATTEMPTS; attempt++) {
+            long state = states.get(slot);
+
+            if (state == 0) {
+                return null;
+            }
+            if ((state & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            int capturedLength = Math.min(capturedLengths[slot], maxEntrySize);
+            int offset = offsets[slot];
+
+            QuarantineEntry entry = QuarantineEntry.builder()
+                    .sequence(sequences[slot])
+                    .timestamp(Instant.ofEpochMilli(timestamps[slot]))
+                    .engine(ENGINES[engines[slot]])
+                    .code(CODES[codes[slot]])
+                    .offset(offset < 0 ? null : offset)
+                    .length(lengths[slot])
+                    .capturedLength(capturedLength)
+                    .bytes(Arrays.copyOfRange(data, slot * maxEntrySize, slot * maxEntrySize + capturedLength))
+                    .build();
+
+            // orders the reads above before the validation, see StampedLock.validate
+            VarHandle.acquireFence();
+
+            if (states.get(slot) == state) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,105 @@
+package de.karaca.csrparser.quota;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Counts the body of requests without a Content-Length, e.g. chunked uploads, while it is read.
+ * {@link QuotaInterceptor} charges the counted size once the request is complete.
+ **/
+public class BodySizeFilter extends OncePerRequestFilter {
+    private final QuotaService quotaService;
+
+    public BodySizeFilter(QuotaService quotaService) {
+        this.quotaService = quotaService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (quotaService.isEnabled() && request.getContentLengthLong() < 0) {
+            request = new CountingRequest(request);
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    public static final class CountingRequest extends HttpServletRequestWrapper {
+        private ServletInputStream inputStream;
+
+        // only read by the request thread
+        private long bytesRead;
+
+        CountingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new CountingInputStream(super.getInputStream());
+            }
+
+            return inputStream;
+        }
+
+        private final class CountingInputStream extends ServletInputStream {
+            private final ServletInputStream delegate;
+
+            CountingInputStream(ServletInputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public int read() throws IOException {
+                int b = delegate.read();
+                if (b >= 0) {
+                    bytesRead++;
+                }
+
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = delegate.read(b, off, len);
+                if (n > 0) {
+                    bytesRead += n;
+                }
+
+                return n;
+            }
+
+            @Override
+            public boolean isFinished() {
+                return delegate.isFinished();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                delegate.setReadListener(readListener);
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package de.karaca.csrparser.quota;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Applies the quotas to the endpoints which parse, the job API has limits of its own.
+ **/
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class QuotaConfiguration implements WebMvcConfigurer {
+    private static final String[] PATHS = {
+        "/api/v1/csr", "/api/v1/csr-custom", "/api/v1/csr-batch", "/api/v1/certificates"
+    };
+
+    private final QuotaService quotaService;
+
+    public QuotaConfiguration(QuotaService quotaService) {
+        this.quotaService = quotaService;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QuotaInterceptor(quotaService)).addPathPatterns(PATHS);
+    }
+
+    @Bean
+    FilterRegistrationBean<BodySizeFilter> bodySizeFilter() {
+        FilterRegistrationBean<BodySizeFilter> registration =
+                new FilterRegistrationBean<>(new BodySizeFilter(quotaService));
+        registration.addUrlPatterns(PATHS);
+
+        return registration;
+    }
+}
@@ -0,0 +1,23 @@
+package de.karaca.csrparser.quota;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint with the usage of every tenant, e.g. {@code GET /actuator/quotas}.
+ **/
+@Component
+@Endpoint(id = "quotas")
+public class QuotaEndpoint {
+    private final QuotaService quotaService;
+
+    public QuotaEndpoint(QuotaService quotaService) {
+        this.quotaService = quotaService;
+    }
+
+    @ReadOperation
+    public QuotaSnapshot quotas() {
+        return quotaService.snapshot();
+    }
+}
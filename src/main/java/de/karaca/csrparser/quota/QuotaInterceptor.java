@@ -0,0 +1,50 @@
+package de.karaca.csrparser.quota;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Admits parse requests according to the quota of their tenant before the body is read.
+ * The body of a request without a Content-Length is counted by {@link BodySizeFilter} and charged when the request
+ * is complete. Rejections are thrown as {@link de.karaca.csrparser.exception.QuotaExceededException} and
+ * answered with 429.
+ **/
+public class QuotaInterceptor implements HandlerInterceptor {
+    private final QuotaService quotaService;
+
+    public QuotaInterceptor(QuotaService quotaService) {
+        this.quotaService = quotaService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!quotaService.isEnabled()) {
+            return true;
+        }
+
+        TenantQuota tenant = quotaService.resolve(request.getHeader(quotaService.getHeader()));
+
+        quotaService.enter(tenant, request.getContentLengthLong());
+        request.setAttribute(QuotaService.TENANT_ATTRIBUTE, tenant);
+
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request, HttpServletResponse response, Object handler, Exception exception) {
+        if (request.getAttribute(QuotaService.TENANT_ATTRIBUTE) instanceof TenantQuota tenant) {
+            request.removeAttribute(QuotaService.TENANT_ATTRIBUTE);
+
+            BodySizeFilter.CountingRequest counted =
+                    WebUtils.getNativeRequest(request, BodySizeFilter.CountingRequest.class);
+            if (counted != null) {
+                quotaService.chargeBody(tenant, counted.getBytesRead());
+            }
+
+            quotaService.exit(tenant);
+        }
+    }
+}
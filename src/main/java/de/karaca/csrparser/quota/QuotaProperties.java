@@ -0,0 +1,81 @@
+package de.karaca.csrparser.quota;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "csr-parser.quotas")
+public class QuotaProperties {
+    /**
+     * Limit the parse requests of every tenant, only in the servlet mode.
+     **/
+    private boolean enabled = false;
+
+    /**
+     * Request header with the API key which identifies the tenant.
+     **/
+    private String header = "X-Api-Key";
+
+    /**
+     * Quota of requests without a configured API key, they all share it.
+     **/
+    private Quota defaultQuota = new Quota();
+
+    /**
+     * Tenants by their name, which is used in the metrics.
+     **/
+    private Map<String, Tenant> tenants = new LinkedHashMap<>();
+
+    /**
+     * Cost of every request, one unit is about a small CSR with an EC key.
+     **/
+    private double requestCost = 1;
+
+    /**
+     * Cost per KiB of the request body, charged before the body is read, or after it was read if the request has no
+     * Content-Length.
+     **/
+    private double kibCost = 0.5;
+
+    /**
+     * Cost per 1024 bits of an RSA key, charged after parsing, e.g. 2 for RSA-4096 by default.
+     **/
+    private double rsaKbitCost = 0.5;
+
+    /**
+     * Cost of an EC key, charged after parsing.
+     **/
+    private double ecKeyCost = 0.25;
+
+    @Getter
+    @Setter
+    public static class Quota {
+        /**
+         * Cost units per second which are refilled.
+         **/
+        private double rate = 500;
+
+        /**
+         * Cost units which can be spent at once after an idle period.
+         **/
+        private double burst = 1000;
+
+        /**
+         * Requests of the tenant which are processed at the same time, so a single tenant cannot occupy all
+         * worker threads.
+         **/
+        private int maxConcurrentRequests = 32;
+    }
+
+    @Getter
+    @Setter
+    public static class Tenant extends Quota {
+        private List<String> apiKeys = new ArrayList<>();
+    }
+}
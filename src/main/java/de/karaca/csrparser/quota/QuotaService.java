@@ -0,0 +1,165 @@
+package de.karaca.csrparser.quota;
+
+import de.karaca.csrparser.exception.QuotaExceededException;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Per-tenant quotas of the parse API.
+ *
+ * Every tenant has a token bucket which is refilled at a fixed rate and a limit of requests in progress. The cost of
+ * a request is weighted by the size of its body, which is charged when the request is admitted, and by the type and
+ * size of the public key, which is charged after parsing and reduces what is left for the next requests. A body
+ * without a Content-Length is charged after it was read, like the key.
+ **/
+@Slf4j
+@Service
+public class QuotaService {
+    public static final String DEFAULT_TENANT = "default";
+
+    // request attribute with the tenant of an admitted request
+    static final String TENANT_ATTRIBUTE = QuotaService.class.getName() + ".tenant";
+
+    private static final double BYTES_PER_KIB = 1024;
+    private static final double BITS_PER_KBIT = 1024;
+
+    private final QuotaProperties properties;
+
+    private final TenantQuota defaultTenant;
+    private final Map<String, TenantQuota> tenantsByApiKey = new HashMap<>();
+    private final Map<String, TenantQuota> tenantsByName = new LinkedHashMap<>();
+
+    public QuotaService(QuotaProperties properties) {
+        this.properties = properties;
+        this.defaultTenant = new TenantQuota(DEFAULT_TENANT, properties.getDefaultQuota());
+
+        tenantsByName.put(DEFAULT_TENANT, defaultTenant);
+
+        properties.getTenants().forEach((name, quota) -> {
+            if (name.equals(DEFAULT_TENANT)) {
+                throw new IllegalArgumentException("Tenant name " + DEFAULT_TENANT + " is reserved");
+            }
+
+            TenantQuota tenant = new TenantQuota(name, quota);
+            tenantsByName.put(name, tenant);
+
+            for (String apiKey : quota.getApiKeys()) {
+                if (tenantsByApiKey.putIfAbsent(apiKey, tenant) != null) {
+                    throw new IllegalArgumentException("API key of tenant " + name + " is used by another tenant");
+                }
+            }
+        });
+
+        if (properties.isEnabled()) {
+            log.info("Quotas enabled for {} tenants by header {}", tenantsByName.size(), properties.getHeader());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public String getHeader() {
+        return properties.getHeader();
+    }
+
+    /**
+     * @return tenant of the API key, the default tenant for a missing or unknown key
+     **/
+    public TenantQuota resolve(String apiKey) {
+        return apiKey == null ? defaultTenant : tenantsByApiKey.getOrDefault(apiKey, defaultTenant);
+    }
+
+    /**
+     * Admit a request, must be followed by {@link #exit(TenantQuota)} once it is complete.
+     *
+     * @param contentLength length of the request body or -1 if it is unknown, the body is then charged by
+     * {@link #chargeBody(TenantQuota, long)}
+     * @throws QuotaExceededException if the tenant has too many requests in progress or not enough tokens
+     **/
+    public void enter(TenantQuota tenant, long contentLength) {
+        if (!tenant.tryEnter()) {
+            throw new QuotaExceededException(
+                    tenant.getName(),
+                    "Too many concurrent requests of tenant " + tenant.getName(),
+                    Duration.ofSeconds(1));
+        }
+
+        double cost = properties.getRequestCost() + bodyCost(contentLength);
+
+        long wait = tenant.tryAcquire(cost);
+        if (wait > 0) {
+            tenant.exit();
+
+            throw new QuotaExceededException(
+                    tenant.getName(), "Quota of tenant " + tenant.getName() + " exceeded", Duration.ofNanos(wait));
+        }
+    }
+
+    /**
+     * Charge the body of an admitted request which had no Content-Length once it was read.
+     **/
+    public void chargeBody(TenantQuota tenant, long bytesRead) {
+        double cost = bodyCost(bytesRead);
+
+        if (cost > 0) {
+            tenant.charge(cost);
+        }
+    }
+
+    public void exit(TenantQuota tenant) {
+        tenant.exit();
+    }
+
+    /**
+     * Charge the key of a parsed CSR to the tenant of the current request.
+     * Does nothing outside of requests which were admitted by {@link #enter(TenantQuota, long)}.
+     **/
+    public void chargeParsed(CsrDetailsModel model) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object tenant =
+                attributes == null ? null : attributes.getAttribute(TENANT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+        double cost = keyCost(model);
+
+        if (tenant instanceof TenantQuota quota && cost > 0) {
+            quota.charge(cost);
+        }
+    }
+
+    private double bodyCost(long bytes) {
+        return Math.max(bytes, 0) / BYTES_PER_KIB * properties.getKibCost();
+    }
+
+    /**
+     * @return cost of the public key, 0 if the key was not decoded for the requested fields
+     **/
+    double keyCost(CsrDetailsModel model) {
+        if (model.getRsaKeyLength() != null) {
+            return model.getRsaKeyLength() / BITS_PER_KBIT * properties.getRsaKbitCost();
+        }
+
+        if (model.getEcCurve() != null) {
+            return properties.getEcKeyCost();
+        }
+
+        return 0;
+    }
+
+    public QuotaSnapshot snapshot() {
+        Map<String, TenantSnapshot> tenants = new LinkedHashMap<>();
+        tenantsByName.forEach((name, tenant) -> tenants.put(name, tenant.snapshot()));
+
+        return QuotaSnapshot.builder()
+                .enabled(properties.isEnabled())
+                .tenants(tenants)
+                .build();
+    }
+}
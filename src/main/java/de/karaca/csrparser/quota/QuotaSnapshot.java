@@ -0,0 +1,14 @@
+package de.karaca.csrparser.quota;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class QuotaSnapshot {
+    private final boolean enabled;
+
+    // by tenant name, including the default tenant
+    private final Map<String, TenantSnapshot> tenants;
+}
@@ -0,0 +1,132 @@
+package de.karaca.csrparser.quota;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+
+/**
+ * Token bucket and concurrency limit of a single tenant.
+ *
+ * The bucket is kept in the form of the generic cell rate algorithm: instead of a token count which has to be
+ * refilled, a single timestamp holds the time at which the bucket would be full again. Taking tokens moves it into
+ * the future by the cost divided by the rate, a request is admitted if the timestamp stays within the burst from now.
+ * Both checks are a compare-and-set on one atomic, so request threads never block each other.
+ **/
+public final class TenantQuota {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    // costs are summed up in thousandths of a unit
+    private static final double MILLIS_PER_UNIT = 1000;
+
+    @Getter
+    private final String name;
+
+    private final double rate;
+    private final double nanosPerUnit;
+    private final long burstNanos;
+    private final int maxConcurrentRequests;
+
+    // the bucket is full at this System.nanoTime() value or any time after
+    private final AtomicLong fullAt;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rejectedConcurrent = new LongAdder();
+    private final LongAdder consumedMillis = new LongAdder();
+
+    TenantQuota(String name, QuotaProperties.Quota quota) {
+        if (quota.getRate() <= 0 || quota.getBurst() <= 0 || quota.getMaxConcurrentRequests() < 1) {
+            throw new IllegalArgumentException("Quota of tenant " + name + " must be positive");
+        }
+
+        this.name = name;
+        this.rate = quota.getRate();
+        this.nanosPerUnit = NANOS_PER_SECOND / quota.getRate();
+        this.burstNanos = (long) (quota.getBurst() * nanosPerUnit);
+        this.maxConcurrentRequests = quota.getMaxConcurrentRequests();
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Take a slot for a request in progress, must be released with {@link #exit()}.
+     *
+     * @return false if the tenant already has the maximum number of requests in progress
+     **/
+    boolean tryEnter() {
+        int current;
+        do {
+            current = inFlight.get();
+
+            if (current >= maxConcurrentRequests) {
+                rejectedConcurrent.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        return true;
+    }
+
+    void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Take the cost from the bucket if there are enough tokens. A cost above the burst is admitted when the bucket is
+     * full, the tenant is then in debt until the rate has made up for it.
+     *
+     * @return 0 if the request is admitted, otherwise the nanoseconds until it would be
+     **/
+    long tryAcquire(double cost) {
+        long costNanos = (long) (cost * nanosPerUnit);
+
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long start = current - now > 0 ? current : now;
+
+            long wait = start + costNanos - burstNanos - now;
+            if (wait > 0 && current - now > 0) {
+                rejected.increment();
+                return wait;
+            }
+
+            if (fullAt.compareAndSet(current, start + costNanos)) {
+                admitted.increment();
+                consumedMillis.add((long) (cost * MILLIS_PER_UNIT));
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Take the cost from the bucket unconditionally, for costs which are only known after the request was admitted.
+     **/
+    void charge(double cost) {
+        long costNanos = (long) (cost * nanosPerUnit);
+
+        fullAt.getAndUpdate(current -> {
+            long now = System.nanoTime();
+            return (current - now > 0 ? current : now) + costNanos;
+        });
+
+        consumedMillis.add((long) (cost * MILLIS_PER_UNIT));
+    }
+
+    TenantSnapshot snapshot() {
+        long debtNanos = Math.max(0, fullAt.get() - System.nanoTime());
+
+        return TenantSnapshot.builder()
+                .rate(rate)
+                .burst(burstNanos / nanosPerUnit)
+                .available((burstNanos - debtNanos) / nanosPerUnit)
+                .maxConcurrentRequests(maxConcurrentRequests)
+                .inFlight(inFlight.get())
+                .admitted(admitted.sum())
+                .rejected(rejected.sum())
+                .rejectedConcurrent(rejectedConcurrent.sum())
+                .consumed(consumedMillis.sum() / MILLIS_PER_UNIT)
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package de.karaca.csrparser.quota;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class TenantSnapshot {
+    // cost units per second and at once
+    private final double rate;
+    private final double burst;
+    // tokens in the bucket, negative while the tenant is in debt
+    private final double available;
+
+    private final int maxConcurrentRequests;
+    private final int inFlight;
+
+    // requests since the start
+    private final long admitted;
+    private final long rejected;
+    private final long rejectedConcurrent;
+
+    // cost units charged since the start
+    private final double consumed;
+}
@@ -0,0 +1,24 @@
+package de.karaca.csrparser.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Beans of the reactive deployment mode, enabled with the {@code reactive} profile.
+ **/
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfiguration {
+    /**
+     * Bounded scheduler for the CPU-bound parsing, so slow requests cannot block the event loop.
+     * A full queue fails the request with a {@link java.util.concurrent.RejectedExecutionException}.
+     **/
+    @Bean(destroyMethod = "dispose")
+    public Scheduler parserScheduler(ReactiveProperties properties) {
+        return Schedulers.newBoundedElastic(
+                properties.getParserThreads(), properties.getQueueCapacity(), "csr-parser");
+    }
+}
@@ -0,0 +1,26 @@
+package de.karaca.csrparser.reactive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "csr-parser.reactive")
+public class ReactiveProperties {
+    /**
+     * Number of threads parsing CSRs. The event loop threads never parse.
+     **/
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of requests waiting for a parser thread. Requests above this limit are rejected with 503.
+     **/
+    private int queueCapacity = 1000;
+
+    /**
+     * Maximum size of a request body. Larger bodies are rejected with 413.
+     **/
+    private DataSize maxRequestSize = DataSize.ofMegabytes(5);
+}
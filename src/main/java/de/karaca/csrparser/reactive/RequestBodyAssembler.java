@@ -0,0 +1,101 @@
+package de.karaca.csrparser.reactive;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Hands a request body to the parser without copying the received chunks.
+ *
+ * The chunks are joined by their buffer factory, which Netty does with a composite buffer over the pooled chunks.
+ * A body which arrived in a single chunk is parsed straight from the pooled memory, only a body of several chunks
+ * is copied once into a buffer of its final size. The pooled chunks are released after the result was emitted,
+ * as the result may still read from them (see {@link de.karaca.csrparser.service.CsrParserService#parse(ByteBuffer)}).
+ **/
+public final class RequestBodyAssembler {
+    private RequestBodyAssembler() {}
+
+    /**
+     * Read the body on the scheduler.
+     *
+     * @param contentLength length of the body or -1 if it is unknown, e.g. for chunked requests
+     * @return the result of the reader, fails with a {@link DataBufferLimitException} if the body is larger than
+     * maxSize
+     **/
+    public static <T> Mono<T> read(
+            Flux<DataBuffer> body,
+            long contentLength,
+            int maxSize,
+            Scheduler scheduler,
+            Function<ByteBuffer, T> reader) {
+        return assemble(body, contentLength, maxSize).flatMap(buffer -> {
+            // a second reference for the reader, so a request cancelled while it is parsed cannot free the memory
+            DataBufferUtils.retain(buffer);
+            AtomicBoolean readerStarted = new AtomicBoolean();
+
+            return Mono.just(buffer)
+                    .publishOn(scheduler)
+                    .<T>handle((joined, sink) -> {
+                        if (!readerStarted.compareAndSet(false, true)) {
+                            // cancelled before the reader started
+                            return;
+                        }
+
+                        try {
+                            sink.next(read(joined, reader));
+                        } finally {
+                            DataBufferUtils.release(joined);
+                        }
+                    })
+                    // the value is serialized when it is emitted, before the buffer is released here
+                    .doFinally(signal -> {
+                        if (readerStarted.compareAndSet(false, true)) {
+                            DataBufferUtils.release(buffer);
+                        }
+
+                        DataBufferUtils.release(buffer);
+                    });
+        });
+    }
+
+    /**
+     * @return the joined body, which has to be released by the caller
+     **/
+    static Mono<DataBuffer> assemble(Flux<DataBuffer> body, long contentLength, int maxSize) {
+        if (contentLength > maxSize) {
+            return Mono.error(tooLarge(maxSize));
+        }
+
+        return DataBufferUtils.join(body, maxSize)
+                .onErrorMap(DataBufferLimitException.class, e -> tooLarge(maxSize))
+                // join completes empty for an empty body
+                .switchIfEmpty(Mono.fromSupplier(() -> DefaultDataBufferFactory.sharedInstance.allocateBuffer(0)));
+    }
+
+    private static <T> T read(DataBuffer buffer, Function<ByteBuffer, T> reader) {
+        try (DataBuffer.ByteBufferIterator buffers = buffer.readableByteBuffers()) {
+            ByteBuffer first = buffers.hasNext() ? buffers.next() : ByteBuffer.allocate(0);
+
+            if (!buffers.hasNext()) {
+                return reader.apply(first);
+            }
+
+            ByteBuffer joined = ByteBuffer.allocate(buffer.readableByteCount());
+            joined.put(first);
+            buffers.forEachRemaining(joined::put);
+
+            return reader.apply(joined.flip());
+        }
+    }
+
+    private static DataBufferLimitException tooLarge(int maxSize) {
+        return new DataBufferLimitException("Request body exceeds the limit of " + maxSize + " bytes");
+    }
+}
@@ -1,35 +1,67 @@
 package de.karaca.csrparser.service;
 
+import de.karaca.csrparser.analytics.ParseAnalytics;
+import de.karaca.csrparser.audit.AuditLog;
+import de.karaca.csrparser.decoder.CsrDecoder;
+import de.karaca.csrparser.decoder.IpAddresses;
+import de.karaca.csrparser.decoder.KeyUsage;
+import de.karaca.csrparser.decoder.ObjectIdentifiers;
+import de.karaca.csrparser.exception.DecodeError;
 import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
 import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrField;
+import de.karaca.csrparser.model.SubjectAlternativeNames;
+import de.karaca.csrparser.quarantine.RejectedInputQuarantine;
 import java.io.IOException;
 import java.io.StringReader;
+import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.asn1.ASN1BitString;
 import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1IA5String;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.ASN1PrintableString;
+import org.bouncycastle.asn1.ASN1String;
+import org.bouncycastle.asn1.ASN1UTF8String;
 import org.bouncycastle.asn1.pkcs.Attribute;
 import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
 import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x500.style.RFC4519Style;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.asn1.x509.Extensions;
 import org.bouncycastle.asn1.x509.GeneralName;
 import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.OtherName;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
 import org.bouncycastle.crypto.params.ECPublicKeyParameters;
 import org.bouncycastle.crypto.params.RSAKeyParameters;
 import org.bouncycastle.crypto.util.PublicKeyFactory;
-import org.bouncycastle.openssl.PEMParser;
 import org.bouncycastle.operator.DefaultAlgorithmNameFinder;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.bouncycastle.util.encoders.DecoderException;
+import org.bouncycastle.util.io.pem.PemObject;
+import org.bouncycastle.util.io.pem.PemReader;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @Service
-public class BouncyCastleParserService {
+public class BouncyCastleParserService implements CsrParserService {
     private final ASN1ObjectIdentifier OID_COMMON_NAME = new ASN1ObjectIdentifier("2.5.4.3");
     private final ASN1ObjectIdentifier OID_COUNTRY = new ASN1ObjectIdentifier("2.5.4.6");
     private final ASN1ObjectIdentifier OID_LOCALITY = new ASN1ObjectIdentifier("2.5.4.7");
@@ -38,59 +70,95 @@ public class BouncyCastleParserService {
     private final ASN1ObjectIdentifier OID_ORGANIZATION_UNIT = new ASN1ObjectIdentifier("2.5.4.11");
     private final ASN1ObjectIdentifier OID_EMAIL_ADDRESS = PKCSObjectIdentifiers.pkcs_9_at_emailAddress;
 
+    // fields read from the extension request
+    private static final Set<CsrField> EXTENSION_FIELDS = EnumSet.of(
+            CsrField.SUBJECT_ALTERNATIVE_NAMES,
+            CsrField.SUBJECT_ALTERNATIVE_NAME_COUNT,
+            CsrField.KEY_USAGE,
+            CsrField.EXTENDED_KEY_USAGE,
+            CsrField.BASIC_CONSTRAINTS_CA,
+            CsrField.BASIC_CONSTRAINTS_PATH_LENGTH,
+            CsrField.SUBJECT_KEY_IDENTIFIER,
+            CsrField.CRITICAL_EXTENSIONS);
+
     private static final Charset PEM_CHARSET = StandardCharsets.US_ASCII;
 
-    private static final byte[] PEM_HEADER = "-----BEGIN CERTIFICATE REQUEST-----".getBytes(PEM_CHARSET);
+    private static final String PEM_TYPE = "CERTIFICATE REQUEST";
+    private static final byte[] PEM_HEADER = ("-----BEGIN " + PEM_TYPE + "-----").getBytes(PEM_CHARSET);
+
+    private final KeyFingerprintService keyFingerprintService;
+    private final ParseAnalytics parseAnalytics;
+    private final RejectedInputQuarantine quarantine;
+    private final AuditLog auditLog;
+
+    public BouncyCastleParserService(
+            KeyFingerprintService keyFingerprintService,
+            ParseAnalytics parseAnalytics,
+            RejectedInputQuarantine quarantine,
+            AuditLog auditLog) {
+        this.keyFingerprintService = keyFingerprintService;
+        this.parseAnalytics = parseAnalytics;
+        this.quarantine = quarantine;
+        this.auditLog = auditLog;
+    }
 
-    public CsrDetailsModel parse(byte[] bytes) {
+    /**
+     * BouncyCastle decodes the whole CSR, the projection only saves the conversion of the parts which were not
+     * requested (names, extensions, the public key and its fingerprint).
+     **/
+    @Override
+    public CsrDetailsModel parse(byte[] bytes, Set<CsrField> fields) {
         try {
             PKCS10CertificationRequest req = readPKCS10(bytes);
 
             DefaultAlgorithmNameFinder finder = new DefaultAlgorithmNameFinder();
 
-            String commonName = getAttributeFromName(req.getSubject(), OID_COMMON_NAME);
-            String country = getAttributeFromName(req.getSubject(), OID_COUNTRY);
-            String locality = getAttributeFromName(req.getSubject(), OID_LOCALITY);
-            String stateOrProvince = getAttributeFromName(req.getSubject(), OID_STATE_OR_PROVINCE);
-            String organizationName = getAttributeFromName(req.getSubject(), OID_ORGANIZATION_NAME);
-            String organizationUnit = getAttributeFromName(req.getSubject(), OID_ORGANIZATION_UNIT);
-            String emailAddress = getAttributeFromName(req.getSubject(), OID_EMAIL_ADDRESS);
+            var builder = CsrDetailsModel.builder().fields(fields.size() == CsrField.ALL.size() ? null : fields);
 
-            String subjectAlternativeName = null;
+            if (fields.contains(CsrField.SIGNATURE_ALGORITHM) || fields.contains(CsrField.SIGNATURE_ALGORITHM_ID)) {
+                builder.signatureAlgorithm(finder.getAlgorithmName(req.getSignatureAlgorithm()))
+                        .signatureAlgorithmId(req.getSignatureAlgorithm().getAlgorithm().toString());
+            }
 
-            Attribute[] extensions = req.getAttributes(PKCSObjectIdentifiers.pkcs_9_at_extensionRequest);
-            if (extensions != null && extensions.length > 0) {
-                ASN1Encodable[] values = extensions[0].getAttributeValues();
-                if (values != null && values.length > 0) {
-                    Extensions ext = Extensions.getInstance(values[0]);
-                    GeneralNames names = GeneralNames.fromExtensions(ext, Extension.subjectAlternativeName);
+            if (fields.contains(CsrField.PUBLIC_KEY_ALGORITHM) || fields.contains(CsrField.PUBLIC_KEY_ALGORITHM_ID)) {
+                builder.publicKeyAlgorithm(finder.getAlgorithmName(
+                                req.getSubjectPublicKeyInfo().getAlgorithm()))
+                        .publicKeyAlgorithmId(req.getSubjectPublicKeyInfo()
+                                .getAlgorithm()
+                                .getAlgorithm()
+                                .toString());
+            }
 
-                    subjectAlternativeName = Arrays.stream(names.getNames())
-                            .map(this::generalNameToString)
-                            .collect(Collectors.joining(", "));
-                }
+            X500Name subject = req.getSubject();
+
+            if (fields.contains(CsrField.SUBJECT)) {
+                builder.subject(X500Name.getInstance(RFC4519Style.INSTANCE, subject).toString());
             }
 
-            var builder = CsrDetailsModel.builder()
-                    .signatureAlgorithm(finder.getAlgorithmName(req.getSignatureAlgorithm()))
-                    .signatureAlgorithmId(
-                            req.getSignatureAlgorithm().getAlgorithm().toString())
-                    .publicKeyAlgorithm(finder.getAlgorithmName(
-                            req.getSubjectPublicKeyInfo().getAlgorithm()))
-                    .publicKeyAlgorithmId(req.getSubjectPublicKeyInfo()
-                            .getAlgorithm()
-                            .getAlgorithm()
-                            .toString())
-                    .commonName(commonName)
-                    .country(country)
-                    .locality(locality)
-                    .stateOrProvince(stateOrProvince)
-                    .organizationName(organizationName)
-                    .organizationUnit(organizationUnit)
-                    .subjectAlternativeName(subjectAlternativeName)
-                    .emailAddress(emailAddress);
-
-            AsymmetricKeyParameter keyParameter = PublicKeyFactory.createKey(req.getSubjectPublicKeyInfo());
+            builder.commonName(getAttributeFromName(subject, fields, CsrField.COMMON_NAME, OID_COMMON_NAME))
+                    .country(getAttributeFromName(subject, fields, CsrField.COUNTRY, OID_COUNTRY))
+                    .locality(getAttributeFromName(subject, fields, CsrField.LOCALITY, OID_LOCALITY))
+                    .stateOrProvince(getAttributeFromName(
+                            subject, fields, CsrField.STATE_OR_PROVINCE, OID_STATE_OR_PROVINCE))
+                    .organizationName(getAttributeFromName(
+                            subject, fields, CsrField.ORGANIZATION_NAME, OID_ORGANIZATION_NAME))
+                    .organizationUnit(getAttributeFromName(
+                            subject, fields, CsrField.ORGANIZATION_UNIT, OID_ORGANIZATION_UNIT))
+                    .emailAddress(getAttributeFromName(subject, fields, CsrField.EMAIL_ADDRESS, OID_EMAIL_ADDRESS));
+
+            if (!Collections.disjoint(fields, EXTENSION_FIELDS)) {
+                addExtensions(builder, req);
+            }
+
+            // nothing is hashed for keyPreviouslySeen if the detection is disabled
+            boolean detectKeyReuse = fields.contains(CsrField.KEY_PREVIOUSLY_SEEN) && keyFingerprintService.isEnabled();
+
+            AsymmetricKeyParameter keyParameter = null;
+
+            // only valid keys are recorded for keyPreviouslySeen
+            if (fields.contains(CsrField.RSA_KEY_LENGTH) || fields.contains(CsrField.EC_CURVE) || detectKeyReuse) {
+                keyParameter = createKey(req.getSubjectPublicKeyInfo());
+            }
 
             if (keyParameter instanceof RSAKeyParameters rsaKeyParameters) {
                 builder.rsaKeyLength(rsaKeyParameters.getModulus().bitLength());
@@ -104,16 +172,132 @@ public class BouncyCastleParserService {
                         .getSimpleName());
             }
 
-            return builder.build();
+            if (fields.contains(CsrField.PUBLIC_KEY_FINGERPRINT) || detectKeyReuse) {
+                byte[] fingerprint = KeyFingerprintService.fingerprint(
+                        req.getSubjectPublicKeyInfo().getEncoded());
 
-        } catch (IOException e) {
+                builder.publicKeyFingerprint(KeyFingerprintService.toHex(fingerprint));
+
+                if (detectKeyReuse) {
+                    byte[] requestFingerprint = KeyFingerprintService.fingerprint(req.toASN1Structure()
+                            .getCertificationRequestInfo()
+                            .getEncoded(ASN1Encoding.DER));
+
+                    builder.keyPreviouslySeen(keyFingerprintService.record(fingerprint, requestFingerprint));
+                }
+            }
+
+            CsrDetailsModel model = builder.build();
+
+            AlgorithmIdentifier keyAlgorithm = req.getSubjectPublicKeyInfo().getAlgorithm();
+
+            String curveId = null;
+            if (keyAlgorithm.getParameters() instanceof ASN1ObjectIdentifier curve
+                    && ObjectIdentifiers.EC.equals(keyAlgorithm.getAlgorithm().getId())) {
+                curveId = curve.getId();
+            }
+
+            parseAnalytics.recordParsed(ParserEngine.BOUNCY_CASTLE, bytes.length, model, curveId);
+            auditLog.recordParsed(ParserEngine.BOUNCY_CASTLE, bytes, model);
+
+            return model;
+
+        } catch (IOException
+                | IllegalArgumentException
+                | IllegalStateException
+                | ClassCastException
+                | InvalidCsrException e) {
+            // BouncyCastle reports some malformed structures with runtime exceptions
+            InvalidCsrException invalid = e instanceof InvalidCsrException csr ? csr : new InvalidCsrException(e);
+
+            parseAnalytics.recordFailed(ParserEngine.BOUNCY_CASTLE, bytes.length);
+            quarantine.capture(ParserEngine.BOUNCY_CASTLE, bytes, invalid);
+            auditLog.recordRejected(ParserEngine.BOUNCY_CASTLE, bytes, invalid);
+            throw invalid;
+        }
+    }
+
+    private void addExtensions(CsrDetailsModel.CsrDetailsModelBuilder builder, PKCS10CertificationRequest req) {
+        try {
+            Attribute[] extensions = req.getAttributes(PKCSObjectIdentifiers.pkcs_9_at_extensionRequest);
+            if (extensions != null && extensions.length > 0) {
+                ASN1Encodable[] values = extensions[0].getAttributeValues();
+                if (values != null && values.length > 0) {
+                    addExtensions(builder, Extensions.getInstance(values[0]));
+                }
+            }
+        } catch (IndexOutOfBoundsException | NullPointerException e) {
+            // thrown by the extension classes for some truncated or missing values
             throw new InvalidCsrException(e);
         }
     }
 
+    private void addExtensions(CsrDetailsModel.CsrDetailsModelBuilder builder, Extensions ext) {
+        GeneralNames names = GeneralNames.fromExtensions(ext, Extension.subjectAlternativeName);
+        if (names != null) {
+            GeneralName[] entries = names.getNames();
+
+            // every name is decoded here, so a malformed name rejects the CSR instead of failing the serialization
+            String[] types = new String[entries.length];
+            String[] values = new String[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                types[i] = generalNameType(entries[i]);
+                values[i] = generalNameValue(entries[i]);
+            }
+
+            builder.subjectAlternativeNames(new BouncyCastleSubjectAlternativeNames(types, values))
+                    .subjectAlternativeNameCount(entries.length);
+        }
+
+        ASN1Encodable keyUsage = ext.getExtensionParsedValue(Extension.keyUsage);
+        if (keyUsage != null) {
+            byte[] bits = ASN1BitString.getInstance(keyUsage).getBytes();
+            builder.keyUsage(KeyUsage.fromBitString(bits).getNames());
+        }
+
+        ExtendedKeyUsage extendedKeyUsage = ExtendedKeyUsage.fromExtensions(ext);
+        if (extendedKeyUsage != null) {
+            builder.extendedKeyUsage(Arrays.stream(extendedKeyUsage.getUsages())
+                    .map(usage -> ObjectIdentifiers.getKeyPurposeName(usage.getId()))
+                    .toList());
+        }
+
+        BasicConstraints basicConstraints = BasicConstraints.fromExtensions(ext);
+        if (basicConstraints != null) {
+            BigInteger pathLength = basicConstraints.getPathLenConstraint();
+
+            if (pathLength != null && pathLength.bitLength() > 31) {
+                // rejected like the custom parser rejects an INTEGER longer than 4 bytes
+                throw new InvalidCsrException(DecodeError.LENGTH_OVERFLOW, "Unsupported path length " + pathLength);
+            }
+
+            builder.basicConstraintsCa(basicConstraints.isCA())
+                    .basicConstraintsPathLength(pathLength == null ? null : pathLength.intValue());
+        }
+
+        SubjectKeyIdentifier subjectKeyIdentifier = SubjectKeyIdentifier.fromExtensions(ext);
+        if (subjectKeyIdentifier != null) {
+            builder.subjectKeyIdentifier(HexFormat.of().formatHex(subjectKeyIdentifier.getKeyIdentifier()));
+        }
+
+        ASN1ObjectIdentifier[] criticalExtensions = ext.getCriticalExtensionOIDs();
+        if (criticalExtensions.length > 0) {
+            builder.criticalExtensions(Arrays.stream(criticalExtensions)
+                    .map(ASN1ObjectIdentifier::getId)
+                    .toList());
+        }
+    }
+
+    private String getAttributeFromName(
+            X500Name name, Set<CsrField> fields, CsrField field, ASN1ObjectIdentifier attributeId) {
+        return fields.contains(field) ? getAttributeFromName(name, attributeId) : null;
+    }
+
     private String getAttributeFromName(X500Name name, ASN1ObjectIdentifier attributeId) {
+        // a multi-valued RDN may contain attributes of other types as well
         String result = Arrays.stream(name.getRDNs(attributeId))
                 .flatMap(rdn -> Arrays.stream(rdn.getTypesAndValues()))
+                .filter(attribute -> attribute.getType().equals(attributeId))
                 .map(attribute -> attribute.getValue().toString())
                 .collect(Collectors.joining(","));
 
@@ -124,30 +308,136 @@ public class BouncyCastleParserService {
         return result;
     }
 
-    private String generalNameToString(GeneralName name) {
-        String tag =
-                switch (name.getTagNo()) {
-                    case GeneralName.iPAddress -> "IP";
-                    case GeneralName.dNSName -> "DNS";
-                    default -> Integer.toString(name.getTagNo());
-                };
+    private static String generalNameType(GeneralName name) {
+        return switch (name.getTagNo()) {
+            case GeneralName.otherName -> "otherName";
+            case GeneralName.rfc822Name -> "email";
+            case GeneralName.dNSName -> "DNS";
+            case GeneralName.x400Address -> "x400Address";
+            case GeneralName.directoryName -> "dirName";
+            case GeneralName.ediPartyName -> "ediPartyName";
+            case GeneralName.uniformResourceIdentifier -> "URI";
+            case GeneralName.iPAddress -> "IP";
+            case GeneralName.registeredID -> "RID";
+            default -> Integer.toString(name.getTagNo());
+        };
+    }
+
+    /**
+     * Same format as the custom parser, see {@link de.karaca.csrparser.decoder.GeneralNames#getValue(int)}.
+     **/
+    private static String generalNameValue(GeneralName name) {
+        ASN1Encodable value = name.getName();
+
+        return switch (name.getTagNo()) {
+            case GeneralName.rfc822Name, GeneralName.dNSName, GeneralName.uniformResourceIdentifier ->
+                    ASN1IA5String.getInstance(value).getString();
+            case GeneralName.iPAddress -> IpAddresses.format(ASN1OctetString.getInstance(value).getOctets());
+            case GeneralName.registeredID -> ASN1ObjectIdentifier.getInstance(value).getId();
+            case GeneralName.directoryName -> X500Name.getInstance(RFC4519Style.INSTANCE, value).toString();
+            case GeneralName.otherName -> otherNameToString(OtherName.getInstance(value));
+            default -> "#" + hex(name);
+        };
+    }
+
+    private static String otherNameToString(OtherName otherName) {
+        ASN1Encodable value = otherName.getValue();
+
+        if (value instanceof ASN1UTF8String || value instanceof ASN1IA5String || value instanceof ASN1PrintableString) {
+            return otherName.getTypeID().getId() + ":" + ((ASN1String) value).getString();
+        }
+
+        return otherName.getTypeID().getId() + ":#" + hex(value);
+    }
+
+    private static String hex(ASN1Encodable value) {
+        try {
+            return HexFormat.of().formatHex(value.toASN1Primitive().getEncoded(ASN1Encoding.DER));
+        } catch (IOException e) {
+            throw new InvalidCsrException(e);
+        }
+    }
 
-        return tag + ": " + name.getName();
+    private static AsymmetricKeyParameter createKey(SubjectPublicKeyInfo keyInfo) throws IOException {
+        try {
+            return PublicKeyFactory.createKey(keyInfo);
+        } catch (IndexOutOfBoundsException | NullPointerException e) {
+            // thrown for some malformed key parameters
+            throw new InvalidCsrException(e);
+        }
     }
 
     private PKCS10CertificationRequest readPKCS10(byte[] bytes) throws IOException {
+        byte[] der = bytes;
+
         if (bytes.length >= PEM_HEADER.length
                 && Arrays.equals(bytes, 0, PEM_HEADER.length, PEM_HEADER, 0, PEM_HEADER.length)) {
             // file is in PEM format
 
             String csr = new String(bytes, StandardCharsets.US_ASCII);
 
-            try (PEMParser parser = new PEMParser(new StringReader(csr))) {
-                return (PKCS10CertificationRequest) parser.readObject();
+            try (PemReader reader = new PemReader(new StringReader(csr))) {
+                PemObject pem = reader.readPemObject();
+                if (pem == null || !pem.getType().equals(PEM_TYPE)) {
+                    throw new InvalidCsrException(DecodeError.INVALID_ENCODING, "Invalid PEM block");
+                }
+
+                der = pem.getContent();
+            } catch (DecoderException e) {
+                throw new InvalidCsrException(
+                        DecodeError.INVALID_ENCODING, "Invalid Base64 content of the PEM block", e);
             }
         }
 
-        // file is in DER format
-        return new PKCS10CertificationRequest(bytes);
+        try {
+            return new PKCS10CertificationRequest(der);
+        } catch (IOException | IndexOutOfBoundsException | NullPointerException e) {
+            // BouncyCastle reports malformed and some truncated structures without their position
+            throw locate(der, e);
+        }
+    }
+
+    /**
+     * Find the malformed element of a CSR which BouncyCastle rejected with the decoder of the custom parser,
+     * so the error response has the same code and offset for both engines.
+     *
+     * @return the rejection of the decoder, or one without a position if the decoder accepts the structure
+     **/
+    private static InvalidCsrException locate(byte[] der, Exception cause) {
+        try {
+            new CsrDecoder(der).decodeCertificationRequest();
+        } catch (InvalidCsrException e) {
+            return e;
+        }
+
+        return new InvalidCsrException(cause);
+    }
+
+    /**
+     * Names formatted while parsing, in the same format as the custom parser.
+     **/
+    private static class BouncyCastleSubjectAlternativeNames extends SubjectAlternativeNames {
+        private final String[] types;
+        private final String[] values;
+
+        BouncyCastleSubjectAlternativeNames(String[] types, String[] values) {
+            this.types = types;
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public String getType(int index) {
+            return types[index];
+        }
+
+        @Override
+        public String getValue(int index) {
+            return values[index];
+        }
     }
 }
@@ -0,0 +1,209 @@
+package de.karaca.csrparser.service;
+
+import de.karaca.csrparser.decoder.BasicConstraints;
+import de.karaca.csrparser.decoder.Certificate;
+import de.karaca.csrparser.decoder.CertificateDecoder;
+import de.karaca.csrparser.decoder.CertificationRequestPart;
+import de.karaca.csrparser.decoder.CsrDecoder;
+import de.karaca.csrparser.decoder.DerReader;
+import de.karaca.csrparser.decoder.Extensions;
+import de.karaca.csrparser.decoder.GeneralNames;
+import de.karaca.csrparser.decoder.KeyUsage;
+import de.karaca.csrparser.decoder.ObjectIdentifiers;
+import de.karaca.csrparser.decoder.StandardExtensions;
+import de.karaca.csrparser.decoder.SubjectPublicKeyInfo;
+import de.karaca.csrparser.exception.InvalidCertificateException;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
+import de.karaca.csrparser.model.CertificateDetailsModel;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import org.springframework.stereotype.Service;
+
+/**
+ * Parses issued certificates and chains with the custom DER decoder instead of a CertificateFactory.
+ **/
+@Service
+public class CertificateParserService {
+
+    private static final Charset PEM_CHARSET = StandardCharsets.US_ASCII;
+
+    private static final byte[] PEM_BEGIN = "-----BEGIN ".getBytes(PEM_CHARSET);
+    private static final byte[] PEM_END = "-----END ".getBytes(PEM_CHARSET);
+    private static final byte[] PEM_DASHES = "-----".getBytes(PEM_CHARSET);
+
+    private static final String PEM_CERTIFICATE = "CERTIFICATE";
+    private static final String PEM_CERTIFICATE_REQUEST = "CERTIFICATE REQUEST";
+
+    // a CSR is only decoded far enough to hash its SubjectPublicKeyInfo
+    private static final Set<CertificationRequestPart> CSR_PARTS =
+            Collections.unmodifiableSet(EnumSet.of(CertificationRequestPart.PUBLIC_KEY_FINGERPRINT));
+
+    /**
+     * Parse a PEM encoded certificate chain or a single DER encoded certificate.
+     *
+     * The PEM input may also contain the CSR the first certificate was issued for ("CERTIFICATE REQUEST"),
+     * every certificate is then matched against it by the SHA-256 fingerprint of the SubjectPublicKeyInfo.
+     * Other PEM blocks and text between the blocks are skipped.
+     *
+     * @return the certificates in input order
+     * @throws InvalidCertificateException if the input contains no certificate or a malformed one
+     **/
+    public List<CertificateDetailsModel> parse(byte[] bytes) {
+        List<ByteBuffer> certificates = new ArrayList<>();
+        byte[] csrFingerprint = null;
+
+        try {
+            if (bytes.length > 0 && bytes[0] == DerReader.TAG_SEQUENCE) {
+                certificates.add(ByteBuffer.wrap(bytes));
+            } else {
+                int pos = 0;
+
+                while ((pos = indexOf(bytes, PEM_BEGIN, pos)) >= 0) {
+                    int labelStart = pos + PEM_BEGIN.length;
+                    int labelEnd = indexOf(bytes, PEM_DASHES, labelStart);
+                    if (labelEnd < 0) {
+                        throw new InvalidCertificateException("Incomplete PEM header at offset " + pos);
+                    }
+
+                    String label = new String(bytes, labelStart, labelEnd - labelStart, PEM_CHARSET);
+
+                    int contentStart = labelEnd + PEM_DASHES.length;
+                    int footer = indexOf(bytes, PEM_END, contentStart);
+                    if (footer < 0) {
+                        throw new InvalidCertificateException("Missing PEM footer of " + label);
+                    }
+
+                    pos = footer + PEM_END.length;
+
+                    if (!label.equals(PEM_CERTIFICATE) && !label.equals(PEM_CERTIFICATE_REQUEST)) {
+                        continue;
+                    }
+
+                    // the MIME decoder skips the line breaks
+                    ByteBuffer der = Base64.getMimeDecoder()
+                            .decode(ByteBuffer.wrap(bytes, contentStart, footer - contentStart));
+
+                    if (label.equals(PEM_CERTIFICATE)) {
+                        certificates.add(der);
+                    } else if (csrFingerprint == null) {
+                        csrFingerprint = new CsrDecoder(der)
+                                .decodeCertificationRequest(CSR_PARTS)
+                                .getCertificationRequestInfo()
+                                .getSubjectPublicKeyInfo()
+                                .getFingerprint();
+                    } else {
+                        throw new InvalidCertificateException("Only one certificate request can be matched");
+                    }
+                }
+            }
+
+            if (certificates.isEmpty()) {
+                throw new InvalidCertificateException("No certificate found");
+            }
+
+            List<CertificateDetailsModel> models = new ArrayList<>(certificates.size());
+
+            for (ByteBuffer certificate : certificates) {
+                models.add(toModel(new CertificateDecoder(certificate).decodeCertificate(), csrFingerprint));
+            }
+
+            return models;
+        } catch (InvalidCsrException | IllegalArgumentException e) {
+            // the decoder reports malformed DER as an invalid CSR, Base64 errors are IllegalArgumentExceptions
+            throw new InvalidCertificateException(e);
+        }
+    }
+
+    private static CertificateDetailsModel toModel(Certificate certificate, byte[] csrFingerprint) {
+        SubjectPublicKeyInfo subjectPublicKeyInfo = certificate.getSubjectPublicKeyInfo();
+        String signatureAlgorithmId = certificate.getSignatureAlgorithm();
+        String publicKeyAlgorithmId = subjectPublicKeyInfo.getAlgorithmIdentifier();
+        byte[] fingerprint = subjectPublicKeyInfo.getFingerprint();
+
+        var builder = CertificateDetailsModel.builder()
+                .version(certificate.getVersion() + 1)
+                .serialNumber(certificate.getSerialNumber().toString(16))
+                .signatureAlgorithmId(signatureAlgorithmId)
+                .signatureAlgorithm(ObjectIdentifiers.getAlgorithmName(signatureAlgorithmId))
+                .issuer(certificate.getIssuer().toDistinguishedName())
+                .subject(certificate.getSubject().toDistinguishedName())
+                .commonName(certificate.getSubject().getAttribute(ObjectIdentifiers.commonName))
+                .notBefore(certificate.getNotBefore())
+                .notAfter(certificate.getNotAfter())
+                .publicKeyAlgorithmId(publicKeyAlgorithmId)
+                .publicKeyAlgorithm(ObjectIdentifiers.getAlgorithmName(publicKeyAlgorithmId))
+                .publicKeyFingerprint(KeyFingerprintService.toHex(fingerprint))
+                .matchesCsr(csrFingerprint == null ? null : Arrays.equals(csrFingerprint, fingerprint));
+
+        PublicKey publicKey = subjectPublicKeyInfo.getPublicKey();
+
+        if (publicKey instanceof RSAPublicKey rsaPublicKey) {
+            builder.rsaKeyLength(rsaPublicKey.getModulus().bitLength());
+        }
+
+        if (publicKey instanceof ECPublicKey ecPublicKey) {
+            builder.ecCurve(ecPublicKey.getParams().toString());
+        }
+
+        Extensions extensions = certificate.getExtensions();
+
+        GeneralNames subjectAlternativeNames = extensions.get(StandardExtensions.SUBJECT_ALTERNATIVE_NAME);
+        if (subjectAlternativeNames != null) {
+            builder.subjectAlternativeNames(new DecodedSubjectAlternativeNames(subjectAlternativeNames))
+                    .subjectAlternativeNameCount(subjectAlternativeNames.size());
+        }
+
+        KeyUsage keyUsage = extensions.get(StandardExtensions.KEY_USAGE);
+        if (keyUsage != null) {
+            builder.keyUsage(keyUsage.getNames());
+        }
+
+        List<String> extendedKeyUsage = extensions.get(StandardExtensions.EXTENDED_KEY_USAGE);
+        if (extendedKeyUsage != null) {
+            builder.extendedKeyUsage(extendedKeyUsage.stream()
+                    .map(ObjectIdentifiers::getKeyPurposeName)
+                    .toList());
+        }
+
+        BasicConstraints basicConstraints = extensions.get(StandardExtensions.BASIC_CONSTRAINTS);
+        if (basicConstraints != null) {
+            builder.basicConstraintsCa(basicConstraints.isCa())
+                    .basicConstraintsPathLength(basicConstraints.getPathLength());
+        }
+
+        byte[] subjectKeyIdentifier = extensions.get(StandardExtensions.SUBJECT_KEY_IDENTIFIER);
+        if (subjectKeyIdentifier != null) {
+            builder.subjectKeyIdentifier(HexFormat.of().formatHex(subjectKeyIdentifier));
+        }
+
+        List<String> criticalExtensions = extensions.getCriticalIds();
+        if (!criticalExtensions.isEmpty()) {
+            builder.criticalExtensions(criticalExtensions);
+        }
+
+        return builder.build();
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern, int from) {
+        for (int i = from; i <= bytes.length - pattern.length; i++) {
+            if (Arrays.equals(bytes, i, i + pattern.length, pattern, 0, pattern.length)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
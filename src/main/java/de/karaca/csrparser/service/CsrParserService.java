@@ -0,0 +1,49 @@
+package de.karaca.csrparser.service;
+
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrField;
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+public interface CsrParserService {
+    /**
+     * Parse a PEM or DER encoded CSR.
+     *
+     * @throws de.karaca.csrparser.exception.InvalidCsrException if the input is not a valid CSR
+     **/
+    default CsrDetailsModel parse(byte[] bytes) {
+        return parse(bytes, CsrField.ALL);
+    }
+
+    /**
+     * Parse a PEM or DER encoded CSR, only the given fields are set.
+     * Parts of the CSR which are not needed for the fields are skipped where the parser allows it.
+     *
+     * @throws de.karaca.csrparser.exception.InvalidCsrException if the input is not a valid CSR
+     **/
+    CsrDetailsModel parse(byte[] bytes, Set<CsrField> fields);
+
+    /**
+     * Parse a PEM or DER encoded CSR between position and limit of the buffer.
+     *
+     * @throws de.karaca.csrparser.exception.InvalidCsrException if the input is not a valid CSR
+     **/
+    default CsrDetailsModel parse(ByteBuffer buffer) {
+        return parse(buffer, CsrField.ALL);
+    }
+
+    /**
+     * Parse a PEM or DER encoded CSR between position and limit of the buffer, only the given fields are set.
+     * The position of the buffer is not changed.
+     *
+     * The result may read from the buffer until it is serialized (e.g. the subject alternative names are formatted
+     * on access), so the content of the buffer must not change before. Parsers which need an array copy the input.
+     *
+     * @throws de.karaca.csrparser.exception.InvalidCsrException if the input is not a valid CSR
+     **/
+    default CsrDetailsModel parse(ByteBuffer buffer, Set<CsrField> fields) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(buffer.position(), bytes);
+        return parse(bytes, fields);
+    }
+}
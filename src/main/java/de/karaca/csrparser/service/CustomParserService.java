@@ -1,157 +1,438 @@
 package de.karaca.csrparser.service;
 
+import de.karaca.csrparser.analytics.ParseAnalytics;
+import de.karaca.csrparser.audit.AuditLog;
+import de.karaca.csrparser.decoder.BasicConstraints;
 import de.karaca.csrparser.decoder.CertificationRequest;
 import de.karaca.csrparser.decoder.CertificationRequestInfo;
+import de.karaca.csrparser.decoder.CertificationRequestPart;
 import de.karaca.csrparser.decoder.CsrDecoder;
+import de.karaca.csrparser.decoder.ExtensionRegistry;
+import de.karaca.csrparser.decoder.ExtensionType;
 import de.karaca.csrparser.decoder.Extensions;
-import de.karaca.csrparser.decoder.GeneralName;
+import de.karaca.csrparser.decoder.GeneralNames;
+import de.karaca.csrparser.decoder.KeyUsage;
 import de.karaca.csrparser.decoder.Name;
 import de.karaca.csrparser.decoder.ObjectIdentifiers;
+import de.karaca.csrparser.decoder.StandardExtensions;
+import de.karaca.csrparser.decoder.SubjectPublicKeyInfo;
+import de.karaca.csrparser.exception.DecodeError;
 import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
 import de.karaca.csrparser.model.CsrDetailsModel;
-import java.io.ByteArrayOutputStream;
+import de.karaca.csrparser.model.CsrField;
+import de.karaca.csrparser.policy.CompiledPolicy;
+import de.karaca.csrparser.policy.PolicyContext;
+import de.karaca.csrparser.policy.PolicyService;
+import de.karaca.csrparser.quarantine.RejectedInputQuarantine;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.security.PublicKey;
 import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPublicKey;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 import org.springframework.stereotype.Service;
 
 @Service
-public class CustomParserService {
+public class CustomParserService implements CsrParserService {
 
     private static final Charset PEM_CHARSET = StandardCharsets.US_ASCII;
 
     private static final byte[] PEM_HEADER = "-----BEGIN CERTIFICATE REQUEST-----".getBytes(PEM_CHARSET);
     private static final byte[] PEM_FOOTER = "-----END CERTIFICATE REQUEST-----".getBytes(PEM_CHARSET);
 
-    public CsrDetailsModel parse(byte[] bytes) {
-        CsrDecoder decoder = new CsrDecoder(toDER(bytes));
+    private final KeyFingerprintService keyFingerprintService;
+    private final PolicyService policyService;
+    private final ParseAnalytics parseAnalytics;
+    private final RejectedInputQuarantine quarantine;
+    private final AuditLog auditLog;
+
+    public CustomParserService(
+            KeyFingerprintService keyFingerprintService,
+            PolicyService policyService,
+            ParseAnalytics parseAnalytics,
+            RejectedInputQuarantine quarantine,
+            AuditLog auditLog) {
+        this.keyFingerprintService = keyFingerprintService;
+        this.policyService = policyService;
+        this.parseAnalytics = parseAnalytics;
+        this.quarantine = quarantine;
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public CsrDetailsModel parse(byte[] bytes, Set<CsrField> fields) {
+        return parse(ByteBuffer.wrap(bytes), fields);
+    }
+
+    /**
+     * Parse the CSR between position and limit of the buffer without copying DER input.
+     * Heap, direct, read-only and mapped buffers are supported.
+     **/
+    @Override
+    public CsrDetailsModel parse(ByteBuffer buffer, Set<CsrField> fields) {
+        CsrDetailsModel model;
+        try {
+            model = decode(buffer, fields);
+        } catch (InvalidCsrException e) {
+            parseAnalytics.recordFailed(ParserEngine.CUSTOM, buffer.remaining());
+            quarantine.capture(ParserEngine.CUSTOM, buffer, e);
+            auditLog.recordRejected(ParserEngine.CUSTOM, buffer, e);
+            throw e;
+        }
+
+        auditLog.recordParsed(ParserEngine.CUSTOM, buffer, model);
+
+        return model;
+    }
+
+    private CsrDetailsModel decode(ByteBuffer buffer, Set<CsrField> fields) {
+        CompiledPolicy policy = fields.contains(CsrField.POLICY_VIOLATIONS) ? policyService.getPolicy() : null;
+
+        // the policy may need parts of the CSR which were not requested
+        Set<CsrField> decodedFields = fields;
+        if (policy != null && !fields.containsAll(policy.getRequiredFields())) {
+            decodedFields = EnumSet.copyOf(fields);
+            decodedFields.addAll(policy.getRequiredFields());
+        }
+
+        Projection projection = Projection.of(decodedFields, keyFingerprintService.isEnabled());
+
+        CsrDecoder decoder = CsrDecoder.forCurrentThread(toDER(buffer), projection.extensionRegistry());
+
+        CertificationRequest request;
+        try {
+            request = decoder.decodeCertificationRequest(projection.parts());
+        } finally {
+            decoder.release();
+        }
 
-        CertificationRequest request = decoder.decodeCertificationRequest();
         CertificationRequestInfo requestInfo = request.getCertificationRequestInfo();
+        SubjectPublicKeyInfo subjectPublicKeyInfo = requestInfo.getSubjectPublicKeyInfo();
         Name name = requestInfo.getName();
 
-        String publicKeyAlgorithmId = requestInfo.getSubjectPublicKeyInfo().getAlgorithmIdentifier();
+        var builder = CsrDetailsModel.builder().fields(fields.size() == CsrField.ALL.size() ? null : fields);
+
         String signatureAlgorithmId = request.getSignatureAlgorithm();
+        if (signatureAlgorithmId != null) {
+            builder.signatureAlgorithmId(signatureAlgorithmId)
+                    .signatureAlgorithm(ObjectIdentifiers.getAlgorithmName(signatureAlgorithmId));
+        }
+
+        if (subjectPublicKeyInfo != null) {
+            String publicKeyAlgorithmId = subjectPublicKeyInfo.getAlgorithmIdentifier();
+
+            builder.publicKeyAlgorithmId(publicKeyAlgorithmId)
+                    .publicKeyAlgorithm(ObjectIdentifiers.getAlgorithmName(publicKeyAlgorithmId));
+        }
+
+        if (name != null) {
+            if (fields.contains(CsrField.SUBJECT)) {
+                builder.subject(name.toDistinguishedName());
+            }
 
-        var builder = CsrDetailsModel.builder()
-                .publicKeyAlgorithmId(publicKeyAlgorithmId)
-                .publicKeyAlgorithm(ObjectIdentifiers.getAlgorithmName(publicKeyAlgorithmId))
-                .signatureAlgorithmId(signatureAlgorithmId)
-                .signatureAlgorithm(ObjectIdentifiers.getAlgorithmName(signatureAlgorithmId))
-                .commonName(name.getAttribute(ObjectIdentifiers.commonName))
-                .country(name.getAttribute(ObjectIdentifiers.country))
-                .locality(name.getAttribute(ObjectIdentifiers.locality))
-                .stateOrProvince(name.getAttribute(ObjectIdentifiers.stateOrProvince))
-                .organizationName(name.getAttribute(ObjectIdentifiers.organizationName))
-                .organizationUnit(name.getAttribute(ObjectIdentifiers.organizationUnit))
-                .emailAddress(name.getAttribute(ObjectIdentifiers.pkcs9_emailAddress));
+            builder.commonName(getAttributeFromName(name, fields, CsrField.COMMON_NAME, ObjectIdentifiers.commonName))
+                    .country(getAttributeFromName(name, fields, CsrField.COUNTRY, ObjectIdentifiers.country))
+                    .locality(getAttributeFromName(name, fields, CsrField.LOCALITY, ObjectIdentifiers.locality))
+                    .stateOrProvince(getAttributeFromName(
+                            name, fields, CsrField.STATE_OR_PROVINCE, ObjectIdentifiers.stateOrProvince))
+                    .organizationName(getAttributeFromName(
+                            name, fields, CsrField.ORGANIZATION_NAME, ObjectIdentifiers.organizationName))
+                    .organizationUnit(getAttributeFromName(
+                            name, fields, CsrField.ORGANIZATION_UNIT, ObjectIdentifiers.organizationUnit))
+                    .emailAddress(getAttributeFromName(
+                            name, fields, CsrField.EMAIL_ADDRESS, ObjectIdentifiers.pkcs9_emailAddress));
+        }
 
         Extensions extensions = requestInfo.<Extensions>getFirstAttribute(ObjectIdentifiers.pkcs9_extensionRequest);
 
+        GeneralNames subjectAlternativeNames =
+                extensions == null ? null : extensions.get(StandardExtensions.SUBJECT_ALTERNATIVE_NAME);
+
+        if (subjectAlternativeNames != null) {
+            builder.subjectAlternativeNames(new DecodedSubjectAlternativeNames(subjectAlternativeNames))
+                    .subjectAlternativeNameCount(subjectAlternativeNames.size());
+        }
+
         if (extensions != null) {
-            var subjectAlternativeNames =
-                    extensions.<List<GeneralName>>getFirst(ObjectIdentifiers.ext_subjectAlternativeName);
 
-            if (subjectAlternativeNames != null) {
-                String value = subjectAlternativeNames.stream()
-                        .map(this::generalNameToString)
-                        .collect(Collectors.joining(", "));
+            KeyUsage keyUsage = extensions.get(StandardExtensions.KEY_USAGE);
+            if (keyUsage != null) {
+                builder.keyUsage(keyUsage.getNames());
+            }
+
+            List<String> extendedKeyUsage = extensions.get(StandardExtensions.EXTENDED_KEY_USAGE);
+            if (extendedKeyUsage != null) {
+                builder.extendedKeyUsage(extendedKeyUsage.stream()
+                        .map(ObjectIdentifiers::getKeyPurposeName)
+                        .toList());
+            }
+
+            BasicConstraints basicConstraints = extensions.get(StandardExtensions.BASIC_CONSTRAINTS);
+            if (basicConstraints != null) {
+                builder.basicConstraintsCa(basicConstraints.isCa())
+                        .basicConstraintsPathLength(basicConstraints.getPathLength());
+            }
+
+            byte[] subjectKeyIdentifier = extensions.get(StandardExtensions.SUBJECT_KEY_IDENTIFIER);
+            if (subjectKeyIdentifier != null) {
+                builder.subjectKeyIdentifier(HexFormat.of().formatHex(subjectKeyIdentifier));
+            }
+
+            List<String> criticalExtensions = extensions.getCriticalIds();
+            if (!criticalExtensions.isEmpty()) {
+                builder.criticalExtensions(criticalExtensions);
+            }
+        }
+
+        byte[] fingerprint = subjectPublicKeyInfo == null ? null : subjectPublicKeyInfo.getFingerprint();
+
+        if (fingerprint != null) {
+            builder.publicKeyFingerprint(KeyFingerprintService.toHex(fingerprint));
 
-                builder.subjectAlternativeName(value);
+            // only decoded for keyPreviouslySeen, after the key itself was validated
+            if (requestInfo.getFingerprint() != null) {
+                builder.keyPreviouslySeen(keyFingerprintService.record(fingerprint, requestInfo.getFingerprint()));
             }
         }
 
-        PublicKey publicKey = requestInfo.getSubjectPublicKeyInfo().getPublicKey();
+        PublicKey publicKey = subjectPublicKeyInfo == null ? null : subjectPublicKeyInfo.getPublicKey();
 
+        Integer rsaKeyLength = null;
         if (publicKey instanceof RSAPublicKey rsaPublicKey) {
-            builder.rsaKeyLength(rsaPublicKey.getModulus().bitLength());
+            rsaKeyLength = rsaPublicKey.getModulus().bitLength();
+            builder.rsaKeyLength(rsaKeyLength);
         }
 
         if (publicKey instanceof ECPublicKey ecPublicKey) {
             builder.ecCurve(ecPublicKey.getParams().toString());
         }
 
-        return builder.build();
+        if (policy != null) {
+            var context = PolicyContext.builder()
+                    .signatureAlgorithmId(signatureAlgorithmId)
+                    .rsaKeyLength(rsaKeyLength)
+                    .country(name == null ? null : getAttributeFromName(name, ObjectIdentifiers.country))
+                    .subjectAlternativeNames(subjectAlternativeNames);
+
+            if (subjectPublicKeyInfo != null) {
+                context.publicKeyAlgorithmId(subjectPublicKeyInfo.getAlgorithmIdentifier())
+                        .publicKeyParameterId(subjectPublicKeyInfo.getParameterIdentifier());
+            }
+
+            // evaluated on the decoded values, the CSR is not parsed again
+            builder.policyViolations(policy.evaluate(context.build()));
+        }
+
+        CsrDetailsModel model = builder.build();
+
+        String curveId = null;
+        if (subjectPublicKeyInfo != null
+                && ObjectIdentifiers.EC.equals(subjectPublicKeyInfo.getAlgorithmIdentifier())) {
+            curveId = subjectPublicKeyInfo.getParameterIdentifier();
+        }
+
+        parseAnalytics.recordParsed(ParserEngine.CUSTOM, buffer.remaining(), model, curveId);
+
+        return model;
     }
 
-    private String generalNameToString(GeneralName name) {
-        String tag =
-                switch (name.getTag()) {
-                    case GeneralName.TAG_IP -> "IP";
-                    case GeneralName.TAG_DNS -> "DNS";
-                    default -> Integer.toString(name.getTag());
-                };
+    private String getAttributeFromName(Name name, Set<CsrField> fields, CsrField field, String attributeId) {
+        return fields.contains(field) ? getAttributeFromName(name, attributeId) : null;
+    }
+
+    private String getAttributeFromName(Name name, String attributeId) {
+        List<String> values = name.getAttributes(attributeId);
 
-        return tag + ": " + name.getValue();
+        if (values.isEmpty()) {
+            return null;
+        }
+
+        String result = values.size() == 1 ? values.get(0) : String.join(",", values);
+
+        if (result.isBlank()) {
+            return null;
+        }
+
+        return result;
     }
 
-    private byte[] toDER(byte[] bytes) {
-        if (bytes.length >= PEM_HEADER.length
-                && Arrays.equals(bytes, 0, PEM_HEADER.length, PEM_HEADER, 0, PEM_HEADER.length)) {
-            // file is in PEM format
-            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    /**
+     * @return the DER encoded CSR, the buffer itself if it is not PEM encoded
+     **/
+    private static ByteBuffer toDER(ByteBuffer buffer) {
+        int limit = buffer.limit();
+
+        if (!startsWith(buffer, buffer.position(), limit, PEM_HEADER)) {
+            return buffer;
+        }
 
-            buffer.position(PEM_HEADER.length);
+        int pos = buffer.position() + PEM_HEADER.length;
 
-            if (!readLineBreak(buffer)) {
-                throw new InvalidCsrException();
-            }
+        int lineBreak = lineBreakLength(buffer, pos, limit);
+        if (lineBreak == 0) {
+            throw new InvalidCsrException(DecodeError.INVALID_ENCODING, "Missing line break after the PEM header");
+        }
 
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-            while (buffer.hasRemaining()
-                    && buffer.remaining() >= PEM_FOOTER.length
-                    && !Arrays.equals(
-                            bytes,
-                            buffer.position(),
-                            buffer.position() + PEM_FOOTER.length,
-                            PEM_FOOTER,
-                            0,
-                            PEM_FOOTER.length)) {
-                int startPos = buffer.position();
-                int endPos = buffer.position();
-                while (!readLineBreak(buffer) && buffer.hasRemaining()) {
-                    endPos++;
-                    buffer.position(endPos);
-                }
+        pos += lineBreak;
+
+        // the Base64 lines are copied without their line breaks, they are shorter than the rest of the input
+        byte[] base64 = new byte[limit - pos];
+        int length = 0;
 
-                baos.write(buffer.array(), startPos, endPos - startPos);
+        while (limit - pos >= PEM_FOOTER.length && !startsWith(buffer, pos, limit, PEM_FOOTER)) {
+            int lineEnd = pos;
+            while (lineEnd < limit && lineBreakLength(buffer, lineEnd, limit) == 0) {
+                lineEnd++;
             }
 
-            return Base64.getDecoder().decode(baos.toByteArray());
+            buffer.get(pos, base64, length, lineEnd - pos);
+            length += lineEnd - pos;
+
+            pos = lineEnd + lineBreakLength(buffer, lineEnd, limit);
         }
 
-        return bytes;
+        try {
+            return Base64.getDecoder().decode(ByteBuffer.wrap(base64, 0, length));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCsrException(DecodeError.INVALID_ENCODING, "Invalid Base64 content of the PEM block", e);
+        }
     }
 
-    private static boolean readLineBreak(ByteBuffer buffer) {
-        if (!buffer.hasRemaining()) {
+    private static boolean startsWith(ByteBuffer buffer, int pos, int limit, byte[] prefix) {
+        if (limit - pos < prefix.length) {
             return false;
         }
 
-        // possible line breaks: \n \r \r\n
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(pos + i) != prefix[i]) {
+                return false;
+            }
+        }
 
-        byte b = buffer.get();
-        if (b != '\n' && b != '\r') {
-            return false;
+        return true;
+    }
+
+    /**
+     * @return length of the line break at pos (\n, \r or \r\n), 0 if there is none
+     **/
+    private static int lineBreakLength(ByteBuffer buffer, int pos, int limit) {
+        if (pos >= limit) {
+            return 0;
+        }
+
+        byte b = buffer.get(pos);
+
+        if (b == '\n') {
+            return 1;
         }
 
         if (b == '\r') {
-            int pos = buffer.position();
-            if (buffer.hasRemaining() && buffer.get() == '\n') {
-                return true;
-            }
+            return pos + 1 < limit && buffer.get(pos + 1) == '\n' ? 2 : 1;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Parts of the CSR and extensions which have to be decoded for a set of fields.
+     **/
+    private record Projection(Set<CertificationRequestPart> parts, ExtensionRegistry extensionRegistry) {
+        private static final Projection ALL =
+                new Projection(CertificationRequestPart.ALL, StandardExtensions.REGISTRY);
+
+        // without the key reuse detection the request is not hashed
+        private static final Projection ALL_WITHOUT_REQUEST_FINGERPRINT = new Projection(
+                Collections.unmodifiableSet(
+                        EnumSet.complementOf(EnumSet.of(CertificationRequestPart.REQUEST_FINGERPRINT))),
+                StandardExtensions.REGISTRY);
+
+        private static final ExtensionType<?>[] EXTENSIONS = {
+            StandardExtensions.SUBJECT_ALTERNATIVE_NAME,
+            StandardExtensions.KEY_USAGE,
+            StandardExtensions.EXTENDED_KEY_USAGE,
+            StandardExtensions.BASIC_CONSTRAINTS,
+            StandardExtensions.SUBJECT_KEY_IDENTIFIER
+        };
+
+        // registries for every combination of EXTENSIONS, indexed by a bit mask of their positions
+        private static final ExtensionRegistry[] REGISTRIES = new ExtensionRegistry[1 << EXTENSIONS.length];
+
+        static {
+            for (int mask = 0; mask < REGISTRIES.length; mask++) {
+                List<ExtensionType<?>> types = new ArrayList<>();
+
+                for (int i = 0; i < EXTENSIONS.length; i++) {
+                    if ((mask & (1 << i)) != 0) {
+                        types.add(EXTENSIONS[i]);
+                    }
+                }
 
-            buffer.position(pos);
+                REGISTRIES[mask] = ExtensionRegistry.of(types.toArray(ExtensionType<?>[]::new));
+            }
         }
 
-        return true;
+        static Projection of(Set<CsrField> fields, boolean detectKeyReuse) {
+            if (fields.size() == CsrField.ALL.size()) {
+                return detectKeyReuse ? ALL : ALL_WITHOUT_REQUEST_FINGERPRINT;
+            }
+
+            Set<CertificationRequestPart> parts = EnumSet.noneOf(CertificationRequestPart.class);
+            int extensions = 0;
+
+            for (CsrField field : fields) {
+                switch (field) {
+                    case ISSUER -> {
+                        // not part of a CSR
+                    }
+                    case SIGNATURE_ALGORITHM, SIGNATURE_ALGORITHM_ID -> parts.add(
+                            CertificationRequestPart.SIGNATURE_ALGORITHM);
+                    case PUBLIC_KEY_ALGORITHM, PUBLIC_KEY_ALGORITHM_ID -> parts.add(
+                            CertificationRequestPart.PUBLIC_KEY_ALGORITHM);
+                    case RSA_KEY_LENGTH, EC_CURVE -> parts.add(CertificationRequestPart.PUBLIC_KEY);
+                    case PUBLIC_KEY_FINGERPRINT -> parts.add(CertificationRequestPart.PUBLIC_KEY_FINGERPRINT);
+                    // only valid keys are recorded, nothing is decoded if the detection is disabled
+                    case KEY_PREVIOUSLY_SEEN -> {
+                        if (detectKeyReuse) {
+                            parts.addAll(EnumSet.of(
+                                    CertificationRequestPart.PUBLIC_KEY,
+                                    CertificationRequestPart.PUBLIC_KEY_FINGERPRINT,
+                                    CertificationRequestPart.REQUEST_FINGERPRINT));
+                        }
+                    }
+                    case SUBJECT,
+                            COMMON_NAME,
+                            COUNTRY,
+                            LOCALITY,
+                            STATE_OR_PROVINCE,
+                            ORGANIZATION_NAME,
+                            ORGANIZATION_UNIT,
+                            EMAIL_ADDRESS -> parts.add(CertificationRequestPart.NAME);
+                    case SUBJECT_ALTERNATIVE_NAMES, SUBJECT_ALTERNATIVE_NAME_COUNT -> extensions |= 1;
+                    case KEY_USAGE -> extensions |= 1 << 1;
+                    case EXTENDED_KEY_USAGE -> extensions |= 1 << 2;
+                    case BASIC_CONSTRAINTS_CA, BASIC_CONSTRAINTS_PATH_LENGTH -> extensions |= 1 << 3;
+                    case SUBJECT_KEY_IDENTIFIER -> extensions |= 1 << 4;
+                    // unregistered critical extensions are recorded with their identifier
+                    case CRITICAL_EXTENSIONS -> parts.add(CertificationRequestPart.ATTRIBUTES);
+                    case POLICY_VIOLATIONS -> {
+                        // the fields the policy needs are added by the caller
+                    }
+                }
+            }
+
+            if (extensions != 0) {
+                parts.add(CertificationRequestPart.ATTRIBUTES);
+            }
+
+            return new Projection(parts, REGISTRIES[extensions]);
+        }
     }
 }
@@ -0,0 +1,30 @@
+package de.karaca.csrparser.service;
+
+import de.karaca.csrparser.decoder.GeneralNames;
+import de.karaca.csrparser.model.SubjectAlternativeNames;
+
+/**
+ * Formats the decoded names on access, see {@link GeneralNames#getValue(int)}.
+ **/
+class DecodedSubjectAlternativeNames extends SubjectAlternativeNames {
+    private final GeneralNames names;
+
+    DecodedSubjectAlternativeNames(GeneralNames names) {
+        this.names = names;
+    }
+
+    @Override
+    public int size() {
+        return names.size();
+    }
+
+    @Override
+    public String getType(int index) {
+        return names.getType(index);
+    }
+
+    @Override
+    public String getValue(int index) {
+        return names.getValue(index);
+    }
+}
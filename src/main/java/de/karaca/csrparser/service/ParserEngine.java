@@ -0,0 +1,13 @@
+package de.karaca.csrparser.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ParserEngine {
+    BOUNCY_CASTLE(BouncyCastleParserService.class),
+    CUSTOM(CustomParserService.class);
+
+    private final Class<? extends CsrParserService> serviceType;
+}
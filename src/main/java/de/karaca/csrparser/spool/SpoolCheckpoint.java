@@ -0,0 +1,162 @@
+package de.karaca.csrparser.spool;
+
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only log of input files whose result has been written.
+ *
+ * Entries are keyed by the name and the SHA-256 hash of the content, so a new file which reuses the name of a
+ * recorded one is still parsed. Every entry is synced to disk before the file is archived. Entries are synced as a
+ * group commit: the worker which syncs first covers the entries the other workers wrote in the meantime, which then
+ * only wait for that sync instead of syncing again.
+ *
+ * An entry is only needed while the input file is not archived yet. Recording an entry and archiving the file
+ * happen under the read lock, so once no file is in between, the log can be truncated under the write lock.
+ * This keeps the file small, it never holds more entries than the compaction threshold.
+ **/
+class SpoolCheckpoint implements Closeable {
+    private static final int COMPACTION_THRESHOLD = 10_000;
+
+    private final FileChannel channel;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Object syncLock = new Object();
+
+    private volatile int entries;
+
+    // entries written to the channel and synced to disk, counted up across truncations
+    private long written;
+    private long synced;
+
+    SpoolCheckpoint(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        channel = FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    /**
+     * @return the SHA-256 hash of the file content in hex
+     **/
+    static String hash(byte[] content) {
+        return KeyFingerprintService.toHex(KeyFingerprintService.fingerprint(content));
+    }
+
+    /**
+     * @return the entry recording an input file with the given name and {@link #hash(byte[])} of its content
+     **/
+    static String entry(String name, String hash) {
+        return hash + " " + name;
+    }
+
+    /**
+     * @return all entries recorded in the log
+     **/
+    Set<String> load() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        channel.read(buffer, 0);
+
+        Set<String> entries = new HashSet<>();
+
+        // an incomplete last line from a crash is ignored, the file is then parsed again
+        String content = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        int start = 0;
+        int end;
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            entries.add(content.substring(start, end));
+            start = end + 1;
+        }
+
+        return entries;
+    }
+
+    /**
+     * Record the input file and run the action which removes it from the processing directory.
+     *
+     * @param entry the {@link #entry(String, String)} of the input file
+     **/
+    void commit(String entry, IoAction archive) throws IOException {
+        lock.readLock().lock();
+        try {
+            ByteBuffer line = StandardCharsets.UTF_8.encode(entry + "\n");
+            long sequence;
+
+            synchronized (channel) {
+                while (line.hasRemaining()) {
+                    channel.write(line);
+                }
+                entries++;
+                sequence = ++written;
+            }
+
+            // synced before archiving, so a file whose archiving is lost in a crash is not parsed again
+            sync(sequence);
+
+            archive.run();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (entries >= COMPACTION_THRESHOLD) {
+            truncate();
+        }
+    }
+
+    /**
+     * Sync the log up to the entry with the given sequence, unless another worker already did.
+     **/
+    private void sync(long sequence) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= sequence) {
+                return;
+            }
+
+            long target;
+            synchronized (channel) {
+                target = written;
+            }
+
+            channel.force(false);
+            synced = target;
+        }
+    }
+
+    /**
+     * Remove all entries. Must only be called when every recorded file has been archived.
+     **/
+    void truncate() throws IOException {
+        lock.writeLock().lock();
+        try {
+            channel.truncate(0);
+            channel.position(0);
+            entries = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @FunctionalInterface
+    interface IoAction {
+        void run() throws IOException;
+    }
+}
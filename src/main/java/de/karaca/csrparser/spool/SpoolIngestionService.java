@@ -0,0 +1,318 @@
+package de.karaca.csrparser.spool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.karaca.csrparser.exception.ErrorMessage;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.service.CsrParserService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+/**
+ * Parses CSR files dropped into the spool input directory.
+ *
+ * New files are claimed by moving them into the {@code .processing} sub directory without replacing a file,
+ * so every file is picked up once even if the directory listing and the watch events overlap. A file whose name
+ * is still being processed is claimed under the name with a sequence number appended, e.g. {@code csr.pem.1}.
+ * The result is written to a temporary file, synced and moved into the output directory, then the input file is
+ * recorded in the {@link SpoolCheckpoint} and archived or deleted. Results and archived files are named after the
+ * claimed file with a prefix of the content hash appended, e.g. {@code csr.pem.0a1b2c3d4e5f6a7b.json}, so a file
+ * dropped later under the same name does not replace them.
+ *
+ * After a restart, files left in the processing directory are parsed again unless the checkpoint shows that
+ * the result of a file with the same name and content was already written. Files are parsed at least once:
+ * a crash between writing the result and the checkpoint entry parses the file again, but the result is written
+ * under a name derived from the claimed file and its content, so it is replaced instead of duplicated.
+ * Only one instance may watch a spool directory.
+ **/
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "csr-parser.spool", name = "enabled", havingValue = "true")
+public class SpoolIngestionService implements SmartLifecycle {
+    private static final String PROCESSING_DIRECTORY = ".processing";
+    // hex digits of the content hash in the names of results and archived files
+    private static final int HASH_SUFFIX_LENGTH = 16;
+
+    private final SpoolProperties properties;
+    private final CsrParserService parserService;
+    private final ObjectMapper objectMapper;
+
+    private final Path inputDirectory;
+    private final Path processingDirectory;
+    private final Path outputDirectory;
+    private final Path archiveDirectory;
+
+    private final AtomicInteger tempFileCounter = new AtomicInteger();
+
+    private volatile boolean running;
+    private SpoolCheckpoint checkpoint;
+    private ThreadPoolExecutor executor;
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    public SpoolIngestionService(SpoolProperties properties, BeanFactory beanFactory, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.parserService = beanFactory.getBean(properties.getEngine().getServiceType());
+        this.objectMapper = objectMapper;
+
+        this.inputDirectory = properties.getInputDirectory();
+        this.processingDirectory = inputDirectory.resolve(PROCESSING_DIRECTORY);
+        this.outputDirectory = properties.getOutputDirectory();
+        this.archiveDirectory = properties.getArchiveDirectory();
+    }
+
+    @Override
+    public void start() {
+        try {
+            Files.createDirectories(processingDirectory);
+            Files.createDirectories(outputDirectory);
+            if (archiveDirectory != null) {
+                Files.createDirectories(archiveDirectory);
+            }
+
+            checkpoint = new SpoolCheckpoint(properties.getCheckpointFile());
+
+            executor = new ThreadPoolExecutor(
+                    properties.getWorkers(),
+                    properties.getWorkers(),
+                    0,
+                    TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                    (task, pool) -> {
+                        // backpressure: block the watcher thread until a worker is free
+                        try {
+                            while (!pool.isShutdown()) {
+                                if (pool.getQueue().offer(task, 1, TimeUnit.SECONDS)) {
+                                    return;
+                                }
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+
+                        // the claimed file stays in the processing directory
+                        log.warn("Spool ingestion is stopped, the claimed file is parsed after the next start");
+                    });
+
+            recover();
+
+            // register before the first scan, so no file can slip through between scan and watch
+            watchService = inputDirectory.getFileSystem().newWatchService();
+            inputDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+
+            running = true;
+
+            watcherThread = new Thread(this::watch, "spool-watcher");
+            watcherThread.start();
+
+            log.info("Watching spool directory {}", inputDirectory.toAbsolutePath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start spool ingestion", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+
+        try {
+            watchService.close();
+            watcherThread.join();
+
+            executor.shutdown();
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Spool workers did not finish in time, remaining files are parsed after the next start");
+                executor.shutdownNow();
+            }
+
+            checkpoint.close();
+        } catch (IOException e) {
+            log.warn("Could not close spool ingestion", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Finish the files which were claimed before the last shutdown.
+     **/
+    private void recover() throws IOException {
+        Set<String> committed = checkpoint.load();
+
+        List<Path> claimed = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(processingDirectory)) {
+            stream.forEach(claimed::add);
+        }
+
+        for (Path file : claimed) {
+            String hash = SpoolCheckpoint.hash(Files.readAllBytes(file));
+
+            if (committed.contains(SpoolCheckpoint.entry(file.getFileName().toString(), hash))) {
+                // the result was written, only archiving is missing
+                archive(file, hash);
+            } else {
+                executor.execute(() -> process(file));
+            }
+        }
+
+        // every recorded file is archived now
+        checkpoint.truncate();
+
+        if (!claimed.isEmpty()) {
+            log.info("Recovered {} spool files from the last run", claimed.size());
+        }
+    }
+
+    private void watch() {
+        scan();
+
+        while (running) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            }
+
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // too many events, the listing catches all files that were missed
+                    scan();
+                } else if (event.context() instanceof Path name) {
+                    claim(inputDirectory.resolve(name));
+                }
+            }
+
+            key.reset();
+        }
+    }
+
+    private void scan() {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(inputDirectory)) {
+            for (Path file : stream) {
+                claim(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not list spool directory {}", inputDirectory, e);
+        }
+    }
+
+    private void claim(Path file) {
+        String name = file.getFileName().toString();
+
+        if (name.startsWith(".") || name.endsWith(".tmp") || name.endsWith(".part") || !Files.isRegularFile(file)) {
+            return;
+        }
+
+        for (int sequence = 0; ; sequence++) {
+            Path claimed = processingDirectory.resolve(sequence == 0 ? name : name + "." + sequence);
+
+            try {
+                // fails if a file with the same name is still being processed, ATOMIC_MOVE would replace it
+                Files.move(file, claimed);
+            } catch (FileAlreadyExistsException e) {
+                continue;
+            } catch (NoSuchFileException e) {
+                // already claimed from a previous event or listing
+                return;
+            } catch (IOException e) {
+                log.warn("Could not claim spool file {}", file, e);
+                return;
+            }
+
+            executor.execute(() -> process(claimed));
+            return;
+        }
+    }
+
+    private void process(Path file) {
+        String name = file.getFileName().toString();
+
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            String hash = SpoolCheckpoint.hash(bytes);
+            Object result;
+            String suffix;
+
+            try {
+                result = parserService.parse(bytes);
+                suffix = ".json";
+            } catch (InvalidCsrException e) {
+                result = ErrorMessage.of(e);
+                suffix = ".error.json";
+            }
+
+            writeResult(stem(name, hash), suffix, result);
+
+            checkpoint.commit(SpoolCheckpoint.entry(name, hash), () -> archive(file, hash));
+        } catch (IOException | RuntimeException e) {
+            // the file stays in the processing directory and is retried after the next start
+            log.error("Could not process spool file {}", file, e);
+        }
+    }
+
+    private void writeResult(String stem, String suffix, Object result) throws IOException {
+        Path temp = outputDirectory.resolve("." + stem + "." + tempFileCounter.incrementAndGet() + ".tmp");
+
+        ByteBuffer json = ByteBuffer.wrap(objectMapper.writeValueAsBytes(result));
+
+        // the result must be on disk before the checkpoint entry, which skips the file after a crash
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            while (json.hasRemaining()) {
+                channel.write(json);
+            }
+            channel.force(false);
+        }
+
+        // a result of the other kind may exist from a previous attempt
+        Files.deleteIfExists(outputDirectory.resolve(stem + (suffix.equals(".json") ? ".error.json" : ".json")));
+        Files.move(temp, outputDirectory.resolve(stem + suffix), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void archive(Path file, String hash) throws IOException {
+        if (archiveDirectory == null) {
+            Files.deleteIfExists(file);
+        } else {
+            // only a file with the same name and content can be replaced
+            Path archived = archiveDirectory.resolve(stem(file.getFileName().toString(), hash));
+            Files.move(file, archived, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return name of the result and the archived file without the suffix of the result
+     **/
+    private static String stem(String name, String hash) {
+        return name + "." + hash.substring(0, HASH_SUFFIX_LENGTH);
+    }
+}
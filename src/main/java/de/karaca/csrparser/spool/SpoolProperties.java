@@ -0,0 +1,51 @@
+package de.karaca.csrparser.spool;
+
+import de.karaca.csrparser.service.ParserEngine;
+import java.nio.file.Path;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "csr-parser.spool")
+public class SpoolProperties {
+    /**
+     * Watch the input directory for CSR files.
+     **/
+    private boolean enabled = false;
+
+    /**
+     * Directory the CSR files are dropped into. Producers should write files under a hidden name
+     * (starting with '.') or with a '.tmp' or '.part' suffix and rename them when they are complete.
+     **/
+    private Path inputDirectory = Path.of("spool", "in");
+
+    /**
+     * Directory the results are written to, as {@code <file>.json} or {@code <file>.error.json}.
+     **/
+    private Path outputDirectory = Path.of("spool", "out");
+
+    /**
+     * Directory processed input files are moved to. Input files are deleted if not set.
+     **/
+    private Path archiveDirectory;
+
+    /**
+     * File recording which input files (name and content hash) already have a result, so they are not parsed again
+     * after a restart.
+     **/
+    private Path checkpointFile = Path.of("data", "spool-checkpoint");
+
+    private ParserEngine engine = ParserEngine.CUSTOM;
+
+    /**
+     * Number of parser threads.
+     **/
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of files waiting for a parser thread. Picking up new files blocks when the queue is full.
+     **/
+    private int queueCapacity = 1000;
+}
@@ -0,0 +1,358 @@
+package de.karaca.csrparser.upload;
+
+import de.karaca.csrparser.exception.InvalidUploadException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the parts of a multipart/form-data body (RFC 7578) one after the other while the body is received.
+ *
+ * The multipart support of the servlet container stores the complete request before the controller is called,
+ * here every part is returned as soon as the delimiter after it has arrived. Only the current part is held in memory,
+ * parts larger than the given maximum are skipped without buffering them.
+ **/
+public final class MultipartReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_SIZE = 16 * 1024;
+    private static final int INITIAL_CONTENT_SIZE = 8 * 1024;
+    // RFC 2046
+    private static final int MAX_BOUNDARY_LENGTH = 70;
+
+    private final InputStream inputStream;
+    // line break, "--" and the boundary, the line break in front of the boundary is not part of the content
+    private final byte[] delimiter;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private boolean started;
+    private boolean finished;
+
+    public MultipartReader(InputStream inputStream, String boundary) {
+        this.inputStream = inputStream;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+
+        // the first boundary is usually at the very start of the body without a line break in front of it
+        buffer[limit++] = '\r';
+        buffer[limit++] = '\n';
+    }
+
+    /**
+     * @return the boundary parameter of a multipart/form-data content type, null if it is missing or invalid
+     **/
+    public static String boundary(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data")) {
+            return null;
+        }
+
+        String boundary = parameters(contentType).get("boundary");
+
+        if (boundary == null || boundary.isEmpty() || boundary.length() > MAX_BOUNDARY_LENGTH) {
+            return null;
+        }
+
+        for (int i = 0; i < boundary.length(); i++) {
+            if (boundary.charAt(i) > 0x7e || boundary.charAt(i) < 0x20) {
+                return null;
+            }
+        }
+
+        return boundary;
+    }
+
+    /**
+     * Read the next part, blocks until it has been received completely.
+     *
+     * @param maxSize parts with more bytes are returned without content
+     * @return the next part or null after the last part
+     * @throws InvalidUploadException if the body is not a valid multipart body
+     **/
+    public Part next(int maxSize) throws IOException {
+        if (finished) {
+            return null;
+        }
+
+        if (!started) {
+            // anything in front of the first boundary is a preamble which has to be ignored
+            readContent(null);
+            started = true;
+        }
+
+        if (isCloseDelimiter()) {
+            // the epilogue after the last boundary is not read
+            finished = true;
+            return null;
+        }
+
+        Map<String, String> disposition = parameters(readHeaders().getOrDefault("content-disposition", ""));
+
+        Content content = new Content(maxSize);
+        readContent(content);
+
+        return new Part(disposition.get("name"), disposition.get("filename"), content.toArray());
+    }
+
+    /**
+     * Consume the rest of the line after a boundary.
+     *
+     * @return true if the boundary was the last one
+     **/
+    private boolean isCloseDelimiter() throws IOException {
+        require(2);
+
+        if (buffer[position] == '-' && buffer[position + 1] == '-') {
+            return true;
+        }
+
+        // transport padding
+        while (buffer[position] == ' ' || buffer[position] == '\t') {
+            position++;
+            require(2);
+        }
+
+        if (buffer[position] != '\r' || buffer[position + 1] != '\n') {
+            throw new InvalidUploadException("Invalid multipart boundary");
+        }
+
+        position += 2;
+        return false;
+    }
+
+    /**
+     * @return header values by their lower case names
+     **/
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        int headerSize = 0;
+
+        while (true) {
+            int end;
+            while ((end = indexOfLineBreak()) < 0) {
+                if (headerSize + limit - position > MAX_HEADER_SIZE) {
+                    throw new InvalidUploadException("Multipart headers exceed " + MAX_HEADER_SIZE + " bytes");
+                }
+
+                if (!fill()) {
+                    throw new InvalidUploadException("Multipart body ends within the headers of a part");
+                }
+            }
+
+            int length = end - position;
+            headerSize += length + 2;
+
+            if (headerSize > MAX_HEADER_SIZE) {
+                throw new InvalidUploadException("Multipart headers exceed " + MAX_HEADER_SIZE + " bytes");
+            }
+
+            // browsers send file names as UTF-8
+            String line = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position = end + 2;
+
+            if (line.isEmpty()) {
+                return headers;
+            }
+
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.putIfAbsent(
+                        line.substring(0, colon).strip().toLowerCase(Locale.ROOT),
+                        line.substring(colon + 1).strip());
+            }
+        }
+    }
+
+    /**
+     * Read up to and including the next delimiter.
+     *
+     * @param content receives the bytes in front of the delimiter, null to skip them
+     **/
+    private void readContent(Content content) throws IOException {
+        while (true) {
+            int index = indexOfDelimiter();
+
+            if (index >= 0) {
+                if (content != null) {
+                    content.append(buffer, position, index - position);
+                }
+                position = index + delimiter.length;
+                return;
+            }
+
+            // the end of the buffer can be the start of a delimiter which is completed by the next read
+            int end = Math.max(position, limit - delimiter.length + 1);
+            if (content != null) {
+                content.append(buffer, position, end - position);
+            }
+            position = end;
+
+            if (!fill()) {
+                throw new InvalidUploadException("Multipart body ends within a part");
+            }
+        }
+    }
+
+    private int indexOfDelimiter() {
+        int last = limit - delimiter.length;
+
+        outer:
+        for (int i = position; i <= last; i++) {
+            if (buffer[i] != delimiter[0]) {
+                continue;
+            }
+
+            for (int j = 1; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+
+            return i;
+        }
+
+        return -1;
+    }
+
+    private int indexOfLineBreak() {
+        for (int i = position; i < limit - 1; i++) {
+            if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void require(int bytes) throws IOException {
+        while (limit - position < bytes) {
+            if (!fill()) {
+                throw new InvalidUploadException("Multipart body ends without a closing boundary");
+            }
+        }
+    }
+
+    /**
+     * Move the unread bytes to the start of the buffer and read as much as is available.
+     *
+     * @return false at the end of the body
+     **/
+    private boolean fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+
+        // at most a header or the start of a delimiter is kept, so there is always space left
+        int read = inputStream.read(buffer, limit, buffer.length - limit);
+
+        if (read < 0) {
+            return false;
+        }
+
+        limit += read;
+        return true;
+    }
+
+    /**
+     * Parameters of a header value like {@code form-data; name="file"; filename="a.pem"} by their lower case names.
+     * Quoted values are not unescaped, browsers percent-encode quotes and line breaks in file names.
+     **/
+    static Map<String, String> parameters(String value) {
+        Map<String, String> parameters = new HashMap<>();
+
+        int i = value.indexOf(';');
+
+        while (i >= 0 && i < value.length()) {
+            int equals = value.indexOf('=', i + 1);
+            if (equals < 0) {
+                break;
+            }
+
+            String name = value.substring(i + 1, equals).strip().toLowerCase(Locale.ROOT);
+
+            int start = equals + 1;
+            while (start < value.length() && value.charAt(start) == ' ') {
+                start++;
+            }
+
+            String parameter;
+            if (start < value.length() && value.charAt(start) == '"') {
+                int end = value.indexOf('"', start + 1);
+                if (end < 0) {
+                    end = value.length();
+                }
+
+                parameter = value.substring(start + 1, end);
+                i = value.indexOf(';', end);
+            } else {
+                int end = value.indexOf(';', start);
+
+                parameter = value.substring(start, end < 0 ? value.length() : end).strip();
+                i = end;
+            }
+
+            parameters.putIfAbsent(name, parameter);
+        }
+
+        return parameters;
+    }
+
+    /**
+     * @param name name of the form field
+     * @param fileName name of the uploaded file, null for other form fields
+     * @param content null if the part exceeds the maximum size
+     **/
+    public record Part(String name, String fileName, byte[] content) {
+        public boolean isTooLarge() {
+            return content == null;
+        }
+    }
+
+    /**
+     * Content of a part, grows up to the maximum size and is discarded if the part is larger.
+     **/
+    private static final class Content {
+        private final int maxSize;
+        private byte[] bytes;
+        private int size;
+        private boolean tooLarge;
+
+        Content(int maxSize) {
+            this.maxSize = maxSize;
+            this.bytes = new byte[Math.min(maxSize, INITIAL_CONTENT_SIZE)];
+        }
+
+        void append(byte[] source, int offset, int length) {
+            if (tooLarge || length == 0) {
+                return;
+            }
+
+            if (length > maxSize - size) {
+                tooLarge = true;
+                bytes = null;
+                return;
+            }
+
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.min(Math.max(bytes.length * 2, size + length), maxSize));
+            }
+
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        byte[] toArray() {
+            if (tooLarge) {
+                return null;
+            }
+
+            return size == bytes.length ? bytes : Arrays.copyOf(bytes, size);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package de.karaca.csrparser.upload;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "csr-parser.uploads")
+public class UploadProperties {
+    /**
+     * Maximum size of a single file, larger files are answered with an error line.
+     **/
+    private DataSize maxFileSize = DataSize.ofMegabytes(5);
+
+    /**
+     * Maximum number of files in a single upload, the rest of the upload is not read.
+     **/
+    private int maxFiles = 10_000;
+}
@@ -0,0 +1,145 @@
+package de.karaca.csrparser.upload;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.karaca.csrparser.bulk.BulkResult;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.exception.InvalidUploadException;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrField;
+import de.karaca.csrparser.quota.QuotaService;
+import de.karaca.csrparser.service.CsrParserService;
+import de.karaca.csrparser.service.ParserEngine;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+/**
+ * Parses the files of a multipart upload while it is received.
+ *
+ * Every file is parsed as soon as it has arrived and its result is written and flushed as a line of NDJSON right
+ * away, so the client sees the first results while it is still sending the remaining files.
+ **/
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UploadService {
+    // error of a result which could not be serialized, the details are only logged
+    private static final String SERIALIZATION_ERROR = "Could not serialize the result";
+
+    private final BeanFactory beanFactory;
+    private final ObjectMapper objectMapper;
+    private final UploadProperties properties;
+    private final QuotaService quotaService;
+
+    public UploadService(
+            BeanFactory beanFactory,
+            ObjectMapper objectMapper,
+            UploadProperties properties,
+            QuotaService quotaService) {
+        this.beanFactory = beanFactory;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.quotaService = quotaService;
+    }
+
+    /**
+     * Write one line per file in the order of the upload, form fields without a file are ignored.
+     * If the rest of the body cannot be read, a last line with only an error is written.
+     **/
+    public void parse(
+            InputStream body, String boundary, ParserEngine engine, Set<CsrField> fields, OutputStream output)
+            throws IOException {
+        CsrParserService parserService = beanFactory.getBean(engine.getServiceType());
+        MultipartReader reader = new MultipartReader(body, boundary);
+        int maxFileSize = (int) properties.getMaxFileSize().toBytes();
+
+        int files = 0;
+        int errors = 0;
+
+        try {
+            MultipartReader.Part part;
+            while ((part = reader.next(maxFileSize)) != null) {
+                if (part.fileName() == null || part.fileName().isEmpty()) {
+                    continue;
+                }
+
+                if (files == properties.getMaxFiles()) {
+                    // the remaining files are not read
+                    writeLine(
+                            BulkResult.builder()
+                                    .error("Upload exceeds the limit of " + properties.getMaxFiles() + " files")
+                                    .build(),
+                            output);
+                    break;
+                }
+
+                files++;
+
+                BulkResult result = writeLine(parse(parserService, part, fields, maxFileSize), output);
+                if (result.getError() != null) {
+                    errors++;
+                }
+            }
+        } catch (InvalidUploadException e) {
+            // the response is already committed, the error can only be reported in the body
+            writeLine(BulkResult.builder().error(e.getMessage()).build(), output);
+        }
+
+        log.debug("Parsed upload of {} files with {}, {} errors", files, engine, errors);
+    }
+
+    private BulkResult parse(
+            CsrParserService parserService, MultipartReader.Part part, Set<CsrField> fields, int maxFileSize) {
+        if (part.isTooLarge()) {
+            return BulkResult.builder()
+                    .source(part.fileName())
+                    .error("File exceeds the limit of " + maxFileSize + " bytes")
+                    .build();
+        }
+
+        try {
+            CsrDetailsModel model = parserService.parse(part.content(), fields);
+            quotaService.chargeParsed(model);
+
+            return BulkResult.builder().source(part.fileName()).result(model).build();
+        } catch (InvalidCsrException e) {
+            return BulkResult.builder()
+                    .source(part.fileName())
+                    .error(e.getMessage())
+                    .build();
+        }
+    }
+
+    /**
+     * A result which can't be serialized is written as an error line of its file, the upload continues with the
+     * next file.
+     *
+     * @return the result which was written
+     **/
+    private BulkResult writeLine(BulkResult result, OutputStream output) throws IOException {
+        byte[] line;
+        try {
+            line = objectMapper.writeValueAsBytes(result);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unexpected error while serializing the result of {}", result.getSource(), e);
+
+            result = BulkResult.builder()
+                    .source(result.getSource())
+                    .error(SERIALIZATION_ERROR)
+                    .build();
+            line = objectMapper.writeValueAsBytes(result);
+        }
+
+        output.write(line);
+        output.write('\n');
+        // sends the line as a chunk of its own instead of waiting for the response buffer to fill up
+        output.flush();
+
+        return result;
+    }
+}
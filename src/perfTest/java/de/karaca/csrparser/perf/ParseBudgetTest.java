@@ -0,0 +1,208 @@
+package de.karaca.csrparser.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import de.karaca.csrparser.analytics.AnalyticsProperties;
+import de.karaca.csrparser.analytics.ParseAnalytics;
+import de.karaca.csrparser.decoder.CsrDecoder;
+import de.karaca.csrparser.decoder.StandardExtensions;
+import de.karaca.csrparser.fixtures.TestParsers;
+import de.karaca.csrparser.service.CustomParserService;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Checks the allocations and the latency of a parse against the budgets in {@code parse-budgets.yaml}, one test per
+ * target and fixture of the file. Every parse is warmed up until it is compiled by C2, so the measurements include
+ * the effect of escape analysis, then measured in several runs of which the lowest values count.
+ **/
+public class ParseBudgetTest {
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 2_000;
+    private static final int RUNS = 5;
+
+    private static final Path REPORT_FILE = Path.of("build", "perf-test", "parse-budgets.csv");
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static ParseAnalytics parseAnalytics;
+    private static CustomParserService customParserService;
+
+    // keeps the results reachable, so the parses are not eliminated as dead code
+    private static volatile Object sink;
+
+    // measured values next to the budgets, one line per test
+    private static final List<String> REPORT_LINES = new ArrayList<>();
+
+    @BeforeAll
+    static void setup() {
+        parseAnalytics = new ParseAnalytics(new AnalyticsProperties());
+
+        customParserService = TestParsers.builder().parseAnalytics(parseAnalytics).custom();
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        parseAnalytics.shutdown();
+
+        if (!REPORT_LINES.isEmpty()) {
+            Files.createDirectories(REPORT_FILE.getParent());
+            REPORT_LINES.add(0, "test,allocatedBytes,allocatedBytesBudget,latencyMicros,latencyMicrosCeiling");
+            Files.write(REPORT_FILE, REPORT_LINES);
+        }
+    }
+
+    @TestFactory
+    Stream<DynamicTest> testBudgets() throws Exception {
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported(), "thread allocation counters are not supported");
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        Map<String, byte[]> fixtures = fixtures();
+
+        Map<String, Function<byte[], Runnable>> targets = Map.of(
+                // DER only, the decoder is not concerned with PEM
+                "decoder", input -> () -> decode(input),
+                "customParser", input -> () -> sink = customParserService.parse(input));
+
+        return ParseBudgets.load().getBudgets().entrySet().stream()
+                .flatMap(target -> target.getValue().entrySet().stream()
+                        .map(budget -> DynamicTest.dynamicTest(target.getKey() + " " + budget.getKey(), () -> {
+                            assertThat(targets).containsKey(target.getKey());
+                            assertThat(fixtures).containsKey(budget.getKey());
+
+                            check(
+                                    target.getKey() + " " + budget.getKey(),
+                                    targets.get(target.getKey()).apply(fixtures.get(budget.getKey())),
+                                    budget.getValue());
+                        })));
+    }
+
+    private static void check(String name, Runnable parse, ParseBudgets.Budget budget) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            parse.run();
+        }
+
+        long allocatedBytes = Long.MAX_VALUE;
+        long latencyNanos = Long.MAX_VALUE;
+
+        for (int run = 0; run < RUNS; run++) {
+            long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                parse.run();
+            }
+
+            long elapsed = System.nanoTime() - start;
+            long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+            allocatedBytes = Math.min(allocatedBytes, allocated / MEASURED_ITERATIONS);
+            latencyNanos = Math.min(latencyNanos, elapsed / MEASURED_ITERATIONS);
+        }
+
+        REPORT_LINES.add(String.format(
+                Locale.ROOT,
+                "%s,%d,%d,%.1f,%d",
+                name,
+                allocatedBytes,
+                budget.getAllocatedBytes(),
+                latencyNanos / 1000.0,
+                budget.getLatencyMicros()));
+
+        assertThat(allocatedBytes)
+                .as("bytes allocated per parse by %s, %.1f us per parse", name, latencyNanos / 1000.0)
+                .isLessThanOrEqualTo(budget.getAllocatedBytes());
+        assertThat(latencyNanos / 1000)
+                .as("average microseconds per parse by %s, %d bytes per parse", name, allocatedBytes)
+                .isLessThanOrEqualTo(budget.getLatencyMicros());
+    }
+
+    private static void decode(byte[] input) {
+        CsrDecoder decoder = CsrDecoder.forCurrentThread(ByteBuffer.wrap(input), StandardExtensions.REGISTRY);
+        try {
+            sink = decoder.decodeCertificationRequest();
+        } finally {
+            decoder.release();
+        }
+    }
+
+    /**
+     * @return every fixture PEM and DER encoded, e.g. rsa-2048-pem and rsa-2048-der
+     **/
+    private static Map<String, byte[]> fixtures() throws Exception {
+        Map<String, byte[]> csrs = new LinkedHashMap<>();
+        csrs.put("rsa-2048", der(Path.of("src/test/resources/rsa-csr.pem")));
+        csrs.put("rsa-4096", der(Path.of("src/test/resources/rsa-csr-4096.pem")));
+        csrs.put("ec-p256", der(Path.of("src/test/resources/ecdsa-csr.pem")));
+        csrs.put("san-1000", subjectAlternativeNames(1000));
+
+        Map<String, byte[]> fixtures = new LinkedHashMap<>();
+        csrs.forEach((name, der) -> {
+            fixtures.put(name + "-der", der);
+            fixtures.put(name + "-pem", pem(der));
+        });
+
+        return fixtures;
+    }
+
+    private static byte[] subjectAlternativeNames(int count) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        GeneralName[] names = new GeneralName[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = new GeneralName(GeneralName.dNSName, "host-" + i + ".example.com");
+        }
+
+        ExtensionsGenerator extensions = new ExtensionsGenerator();
+        extensions.addExtension(Extension.subjectAlternativeName, false, new GeneralNames(names));
+
+        return new JcaPKCS10CertificationRequestBuilder(new X500Name("CN=san.example.com"), keyPair.getPublic())
+                .addAttribute(PKCSObjectIdentifiers.pkcs_9_at_extensionRequest, extensions.generate())
+                .build(new JcaContentSignerBuilder("SHA256withECDSA").build(keyPair.getPrivate()))
+                .getEncoded();
+    }
+
+    private static byte[] der(Path pemFile) throws Exception {
+        String pem = Files.readString(pemFile, StandardCharsets.US_ASCII);
+        String base64 = pem.substring(pem.indexOf('\n') + 1, pem.indexOf("-----END"));
+
+        return Base64.getMimeDecoder().decode(base64);
+    }
+
+    private static byte[] pem(byte[] der) {
+        String base64 = Base64.getMimeEncoder(64, new byte[] {'\n'}).encodeToString(der);
+
+        return ("-----BEGIN CERTIFICATE REQUEST-----\n" + base64 + "\n-----END CERTIFICATE REQUEST-----\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+}
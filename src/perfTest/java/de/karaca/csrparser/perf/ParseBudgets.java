@@ -0,0 +1,41 @@
+package de.karaca.csrparser.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Budgets of the parse hot path as written in {@code parse-budgets.yaml}.
+ **/
+@Getter
+@Setter
+public class ParseBudgets {
+    private static final ObjectMapper YAML_MAPPER = new YAMLMapper();
+
+    // by target (e.g. customParser) and fixture (e.g. rsa-2048-pem), in the order of the file
+    private Map<String, Map<String, Budget>> budgets = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Budget {
+        // bytes allocated on the parsing thread per parse
+        private long allocatedBytes;
+        // ceiling of the average time per parse
+        private long latencyMicros;
+    }
+
+    static ParseBudgets load() throws IOException {
+        try (InputStream in = ParseBudgets.class.getResourceAsStream("/parse-budgets.yaml")) {
+            if (in == null) {
+                throw new IOException("parse-budgets.yaml not found");
+            }
+
+            return YAML_MAPPER.readValue(in, ParseBudgets.class);
+        }
+    }
+}
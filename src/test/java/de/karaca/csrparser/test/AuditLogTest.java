@@ -0,0 +1,124 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.karaca.csrparser.audit.AuditLog;
+import de.karaca.csrparser.audit.AuditProperties;
+import de.karaca.csrparser.audit.AuditSnapshot;
+import de.karaca.csrparser.exception.DecodeError;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.service.ParserEngine;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AuditLogTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecords() throws IOException {
+        AuditProperties properties = new AuditProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        properties.setFsync(AuditProperties.Fsync.BATCH);
+
+        AuditLog auditLog = new AuditLog(properties);
+
+        CsrDetailsModel model = CsrDetailsModel.builder()
+                .subject("CN=example.com")
+                .publicKeyAlgorithm("RSA")
+                .rsaKeyLength(2048)
+                .build();
+
+        auditLog.recordParsed(ParserEngine.CUSTOM, bytes("csr"), model);
+        auditLog.recordRejected(
+                ParserEngine.BOUNCY_CASTLE,
+                ByteBuffer.wrap(bytes("xxjunk")).position(2),
+                new InvalidCsrException(DecodeError.TRUNCATED, "Truncated", 4));
+
+        // writes the remaining records and completes the file
+        auditLog.shutdown();
+
+        AuditSnapshot snapshot = auditLog.snapshot();
+        assertThat(snapshot.getWritten()).isEqualTo(2);
+        assertThat(snapshot.getDropped()).isZero();
+
+        List<JsonNode> records = readRecords();
+        assertThat(records).hasSize(2);
+
+        JsonNode parsed = records.get(0);
+        assertThat(parsed.get("engine").asText()).isEqualTo("CUSTOM");
+        assertThat(parsed.get("outcome").asText()).isEqualTo("PARSED");
+        assertThat(parsed.get("subject").asText()).isEqualTo("CN=example.com");
+        assertThat(parsed.get("rsaKeyLength").asInt()).isEqualTo(2048);
+        assertThat(parsed.get("inputLength").asInt()).isEqualTo(3);
+        assertThat(parsed.get("inputSha256").asText()).isEqualTo(sha256Hex("csr"));
+        assertThat(parsed.has("error")).isFalse();
+
+        JsonNode rejected = records.get(1);
+        assertThat(rejected.get("outcome").asText()).isEqualTo("REJECTED");
+        assertThat(rejected.get("error").asText()).isEqualTo("TRUNCATED");
+        assertThat(rejected.get("offset").asInt()).isEqualTo(4);
+        // only the bytes after the position of the buffer
+        assertThat(rejected.get("inputSha256").asText()).isEqualTo(sha256Hex("junk"));
+        assertThat(rejected.has("subject")).isFalse();
+    }
+
+    @Test
+    void testDisabled() {
+        AuditProperties properties = new AuditProperties();
+        properties.setDirectory(directory.resolve("disabled"));
+
+        AuditLog auditLog = new AuditLog(properties);
+        auditLog.recordRejected(ParserEngine.CUSTOM, bytes("junk"), new InvalidCsrException());
+        auditLog.shutdown();
+
+        assertThat(auditLog.snapshot().isEnabled()).isFalse();
+        assertThat(Files.exists(properties.getDirectory())).isFalse();
+    }
+
+    private List<JsonNode> readRecords() throws IOException {
+        List<JsonNode> records = new ArrayList<>();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                assertThat(file.getFileName().toString()).endsWith(".ndjson.gz");
+
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        records.add(objectMapper.readTree(line));
+                    }
+                }
+            }
+        }
+
+        return records;
+    }
+
+    private static String sha256Hex(String value) {
+        return KeyFingerprintService.toHex(KeyFingerprintService.fingerprint(bytes(value)));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
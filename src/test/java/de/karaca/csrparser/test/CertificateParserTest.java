@@ -0,0 +1,120 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import de.karaca.csrparser.exception.InvalidCertificateException;
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
+import de.karaca.csrparser.model.CertificateDetailsModel;
+import de.karaca.csrparser.service.CertificateParserService;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class CertificateParserTest {
+    private final CertificateParserService parserService = new CertificateParserService();
+
+    @Test
+    void testChain() throws Exception {
+        byte[] chain = Files.readAllBytes(Path.of("src/test/resources/certificate-chain.pem"));
+
+        List<CertificateDetailsModel> models = parserService.parse(chain);
+
+        assertThat(models).hasSize(2);
+
+        CertificateDetailsModel leaf = models.get(0);
+        assertThat(leaf.getVersion()).isEqualTo(3);
+        assertThat(leaf.getSerialNumber()).isEqualTo("123456789abcdef0123");
+        assertThat(leaf.getSubject()).isEqualTo("cn=example.com,o=Internet Widgits Pty Ltd,st=NRW,c=DE");
+        assertThat(leaf.getCommonName()).isEqualTo("example.com");
+        assertThat(leaf.getIssuer()).isEqualTo("cn=Test CA,o=Test,c=DE");
+        assertThat(leaf.getSignatureAlgorithm()).isEqualTo("ecdsa-with-SHA384");
+        assertThat(leaf.getPublicKeyAlgorithm()).isEqualTo("rsaEncryption");
+        assertThat(leaf.getRsaKeyLength()).isEqualTo(4096);
+        assertThat(leaf.getSubjectAlternativeNames().toString())
+                .isEqualTo("DNS: example.com, DNS: www.example.com, IP: 192.0.2.1");
+        assertThat(leaf.getSubjectAlternativeNameCount()).isEqualTo(3);
+        assertThat(leaf.getKeyUsage()).containsExactly("digitalSignature", "keyEncipherment");
+        assertThat(leaf.getExtendedKeyUsage()).containsExactly("serverAuth");
+        assertThat(leaf.getBasicConstraintsCa()).isFalse();
+        assertThat(leaf.getCriticalExtensions()).containsExactly("2.5.29.19", "2.5.29.15");
+        assertThat(leaf.getMatchesCsr()).isNull();
+
+        CertificateDetailsModel ca = models.get(1);
+        assertThat(ca.getSubject()).isEqualTo(ca.getIssuer());
+        assertThat(ca.getPublicKeyAlgorithm()).isEqualTo("id-ecPublicKey");
+        assertThat(ca.getEcCurve()).isNotNull();
+        assertThat(ca.getBasicConstraintsCa()).isTrue();
+        assertThat(ca.getBasicConstraintsPathLength()).isEqualTo(0);
+        assertThat(ca.getSubjectKeyIdentifier()).isNotNull();
+        assertThat(ca.getSubjectAlternativeNames()).isNull();
+
+        // same values as the CertificateFactory
+        List<X509Certificate> certificates = CertificateFactory.getInstance("X.509")
+                .generateCertificates(new ByteArrayInputStream(chain))
+                .stream()
+                .map(X509Certificate.class::cast)
+                .toList();
+
+        for (int i = 0; i < certificates.size(); i++) {
+            X509Certificate certificate = certificates.get(i);
+            CertificateDetailsModel model = models.get(i);
+
+            assertThat(model.getSerialNumber()).isEqualTo(certificate.getSerialNumber().toString(16));
+            assertThat(model.getNotBefore()).isEqualTo(certificate.getNotBefore().toInstant());
+            assertThat(model.getNotAfter()).isEqualTo(certificate.getNotAfter().toInstant());
+            assertThat(model.getSignatureAlgorithmId()).isEqualTo(certificate.getSigAlgOID());
+            assertThat(model.getPublicKeyFingerprint())
+                    .isEqualTo(KeyFingerprintService.toHex(
+                            KeyFingerprintService.fingerprint(certificate.getPublicKey().getEncoded())));
+        }
+
+        // DER encoded single certificate
+        List<CertificateDetailsModel> der = parserService.parse(certificates.get(1).getEncoded());
+
+        assertThat(der).hasSize(1);
+        assertThat(der.get(0).getSubject()).isEqualTo(ca.getSubject());
+    }
+
+    @Test
+    void testMatchCsr() throws Exception {
+        byte[] chain = Files.readAllBytes(Path.of("src/test/resources/certificate-chain.pem"));
+        byte[] csr = Files.readAllBytes(Path.of("src/test/resources/rsa-csr-san.pem"));
+        byte[] otherCsr = Files.readAllBytes(Path.of("src/test/resources/rsa-csr.pem"));
+
+        List<CertificateDetailsModel> models = parserService.parse(concat(csr, chain));
+
+        assertThat(models).extracting(CertificateDetailsModel::getMatchesCsr).containsExactly(true, false);
+
+        models = parserService.parse(concat(chain, otherCsr));
+
+        assertThat(models).extracting(CertificateDetailsModel::getMatchesCsr).containsExactly(false, false);
+    }
+
+    @Test
+    void testInvalid() throws Exception {
+        byte[] csr = Files.readAllBytes(Path.of("src/test/resources/rsa-csr.pem"));
+
+        assertThatExceptionOfType(InvalidCertificateException.class)
+                .isThrownBy(() -> parserService.parse(csr))
+                .withMessage("No certificate found");
+
+        byte[] truncated = Files.readAllBytes(Path.of("src/test/resources/certificate-chain.pem"));
+        String pem = new String(truncated, StandardCharsets.US_ASCII).replaceFirst("\n[A-Za-z0-9+/]{64}\n", "\n");
+
+        assertThatExceptionOfType(InvalidCertificateException.class)
+                .isThrownBy(() -> parserService.parse(pem.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = new byte[first.length + second.length];
+        System.arraycopy(first, 0, bytes, 0, first.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+}
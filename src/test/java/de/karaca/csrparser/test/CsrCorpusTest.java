@@ -0,0 +1,92 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import de.karaca.csrparser.corpus.CorpusEntry;
+import de.karaca.csrparser.corpus.CsrCorpus;
+import de.karaca.csrparser.corpus.KeyType;
+import de.karaca.csrparser.corpus.Malformation;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.fixtures.TestParsers;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.service.CustomParserService;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class CsrCorpusTest {
+    // EC keys only, RSA key generation would dominate the run time of the tests
+    private static final Set<KeyType> KEY_TYPES = EnumSet.of(KeyType.EC_P256, KeyType.EC_P384);
+
+    private final CustomParserService customParserService = TestParsers.custom();
+
+    @Test
+    void testReproducible() {
+        List<byte[]> corpus = corpus(42).generate(20);
+
+        assertThat(corpus(42).generate(20)).containsExactlyElementsOf(corpus);
+        // entries do not depend on the entries before them
+        assertThat(corpus(42).entry(17).getBytes()).isEqualTo(corpus.get(17));
+
+        assertThat(corpus(43).generate(20))
+                .zipSatisfy(corpus, (other, bytes) -> assertThat(other).isNotEqualTo(bytes));
+    }
+
+    @Test
+    void testValidEntriesParse() {
+        corpus(1).stream(100).forEach(entry -> {
+            assertThat(entry.isValid()).isTrue();
+
+            CsrDetailsModel model = customParserService.parse(entry.getBytes());
+
+            assertThat(model.getPublicKeyAlgorithm()).isEqualTo("id-ecPublicKey");
+            if (entry.getSubjectAlternativeNames() > 0) {
+                assertThat(model.getSubjectAlternativeNameCount()).isEqualTo(entry.getSubjectAlternativeNames());
+            } else {
+                assertThat(model.getSubjectAlternativeNameCount()).isNull();
+            }
+        });
+    }
+
+    @Test
+    void testMalformedEntriesAreRejected() {
+        // accepted by the custom parser: it does not verify signatures, ignores data after the CSR
+        // and does not require the END line of a PEM block
+        Set<Malformation> malformations = EnumSet.complementOf(
+                EnumSet.of(Malformation.BIT_FLIP, Malformation.TRAILING_DATA, Malformation.MISSING_PEM_FOOTER));
+
+        CsrCorpus corpus = CsrCorpus.builder()
+                .seed(2)
+                .keyTypes(KEY_TYPES)
+                .maxSubjectAlternativeNames(100)
+                .malformedRate(1)
+                .malformations(malformations)
+                .build();
+
+        corpus.stream(100).forEach(entry -> {
+            assertThat(entry.getMalformation()).isIn(malformations);
+            assertThatExceptionOfType(InvalidCsrException.class)
+                    .as(entry.getFileName())
+                    .isThrownBy(() -> customParserService.parse(entry.getBytes()));
+        });
+    }
+
+    @Test
+    void testFileName() {
+        CorpusEntry entry = corpus(42).entry(7);
+
+        assertThat(entry.getFileName())
+                .startsWith("000000007-ec_p")
+                .endsWith(entry.isPem() ? ".pem" : ".der");
+    }
+
+    private static CsrCorpus corpus(long seed) {
+        return CsrCorpus.builder()
+                .seed(seed)
+                .keyTypes(KEY_TYPES)
+                .maxSubjectAlternativeNames(2000)
+                .build();
+    }
+}
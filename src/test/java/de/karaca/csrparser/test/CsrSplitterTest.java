@@ -0,0 +1,53 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.karaca.csrparser.bulk.CsrSplitter;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class CsrSplitterTest {
+    @Test
+    void testBundle() throws Exception {
+        byte[] bundle = bundle();
+
+        List<Integer> lengths = new ArrayList<>();
+        int consumed = CsrSplitter.split(ByteBuffer.wrap(bundle), true, record -> lengths.add(record.remaining()));
+
+        assertThat(consumed).isEqualTo(bundle.length);
+        // the certificate and the text lines are skipped, trailing line breaks are not part of the records
+        assertThat(lengths).containsExactly(1150, 798, 504);
+    }
+
+    @Test
+    void testIncompleteRecord() throws Exception {
+        byte[] bundle = bundle();
+
+        List<Integer> lengths = new ArrayList<>();
+        ByteBuffer window = ByteBuffer.wrap(bundle, 0, 1500).slice();
+        int consumed = CsrSplitter.split(window, false, record -> lengths.add(record.remaining()));
+
+        // the DER record is cut off by the window and has to be read again from the next window
+        assertThat(lengths).containsExactly(1150);
+        assertThat(bundle[consumed]).isEqualTo((byte) 0x30);
+    }
+
+    private static byte[] bundle() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        outputStream.write("some text\n0 starts like a SEQUENCE\n".getBytes(StandardCharsets.US_ASCII));
+        outputStream.write(Files.readAllBytes(Path.of("src/test/resources/rsa-csr.pem")));
+        outputStream.write(Files.readAllBytes(Path.of("src/test/resources/rsa-csr.der")));
+        outputStream.write(
+                "-----BEGIN CERTIFICATE-----\nAA==\n-----END CERTIFICATE-----\n".getBytes(StandardCharsets.US_ASCII));
+        outputStream.write(Files.readAllBytes(Path.of("src/test/resources/ecdsa-csr.pem")));
+
+        return outputStream.toByteArray();
+    }
+}
@@ -2,23 +2,51 @@ package de.karaca.csrparser.test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.karaca.csrparser.decoder.CsrDecoder;
+import de.karaca.csrparser.decoder.DerReader;
+import de.karaca.csrparser.exception.DecodeError;
 import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.exception.InvalidFieldException;
+import de.karaca.csrparser.fingerprint.KeyFingerprintProperties;
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
+import de.karaca.csrparser.fixtures.TestParsers;
 import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrField;
 import de.karaca.csrparser.service.CustomParserService;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HexFormat;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
 
 @SpringBootTest
+@AutoConfigureMockMvc
 public class CustomParserTest {
     @Autowired
     CustomParserService parserService;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    MockMvc mockMvc;
+
     @Test
     void testOID() {
         byte[] bytes = HexFormat.of().parseHex("06092a864886f70d01010b");
@@ -121,12 +149,168 @@ public class CustomParserTest {
             assertThat(model.getSignatureAlgorithm()).isEqualTo("sha256WithRSAEncryption");
             assertThat(model.getRsaKeyLength()).isEqualTo(4096);
 
-            assertThat(model.getSubjectAlternativeName()).isEqualTo("DNS: test.com, DNS: test.de");
+            assertThat(model.getSubjectAlternativeNameCount()).isEqualTo(2);
+            assertThat(model.getSubjectAlternativeNames()).hasToString("DNS: test.com, DNS: test.de");
 
             assertThat(model.getEmailAddress()).isNull();
         }
     }
 
+    @Test
+    void testFieldProjection() throws Exception {
+        try (InputStream inputStream = new FileInputStream("src/test/resources/rsa-csr-san.pem")) {
+            Set<CsrField> fields = CsrField.parse("commonName,subjectAlternativeNames");
+            CsrDetailsModel model = parserService.parse(inputStream.readAllBytes(), fields);
+
+            assertThat(model.getCommonName()).isEqualTo("example.com");
+            assertThat(model.getSubjectAlternativeNames()).hasToString("DNS: test.com, DNS: test.de");
+
+            // skipped parts of the CSR
+            assertThat(model.getCountry()).isNull();
+            assertThat(model.getPublicKeyAlgorithm()).isNull();
+            assertThat(model.getRsaKeyLength()).isNull();
+            assertThat(model.getPublicKeyFingerprint()).isNull();
+            assertThat(model.getSignatureAlgorithm()).isNull();
+
+            JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(model));
+            assertThat(json.fieldNames()).toIterable().containsExactly("commonName", "subjectAlternativeNames");
+        }
+
+        assertThatExceptionOfType(InvalidFieldException.class).isThrownBy(() -> CsrField.parse("commonName,foo"));
+    }
+
+    @Test
+    void testMultiValuedName() throws Exception {
+        try (InputStream inputStream = new FileInputStream("src/test/resources/rsa-csr-multi-ou.pem")) {
+            CsrDetailsModel model = parserService.parse(inputStream.readAllBytes());
+
+            assertThat(model.getCommonName()).isEqualTo("multi.example.com");
+            assertThat(model.getOrganizationName()).isEqualTo("Karaca");
+            assertThat(model.getOrganizationUnit()).isEqualTo("Dev,Ops");
+
+            assertThat(model.getSubject()).isEqualTo("uid=42+cn=multi.example.com,ou=Ops,ou=Dev,o=Karaca,c=DE");
+        }
+    }
+
+    @Test
+    void testSANTypes() throws Exception {
+        try (InputStream inputStream = new FileInputStream("src/test/resources/rsa-csr-san-types.pem")) {
+            CsrDetailsModel model = parserService.parse(inputStream.readAllBytes());
+
+            assertThat(model.getSubjectAlternativeNames())
+                    .hasToString("DNS: san.example.com, "
+                            + "IP: 192.168.0.1, "
+                            + "IP: 2001:db8::1, "
+                            + "email: admin@example.com, "
+                            + "URI: https://example.com/csr, "
+                            + "RID: 1.2.3.4, "
+                            + "otherName: 1.3.6.1.4.1.311.20.2.3:user@example.com, "
+                            + "dirName: cn=Directory,o=Karaca,c=DE");
+        }
+    }
+
+    @Test
+    void testExtensions() throws Exception {
+        try (InputStream inputStream = new FileInputStream("src/test/resources/rsa-csr-extensions.pem")) {
+            CsrDetailsModel model = parserService.parse(inputStream.readAllBytes());
+
+            assertThat(model.getSubjectAlternativeNames()).hasToString("DNS: ext.example.com");
+            assertThat(model.getKeyUsage()).containsExactly("digitalSignature", "keyEncipherment");
+            assertThat(model.getExtendedKeyUsage()).containsExactly("serverAuth", "clientAuth", "1.3.6.1.4.1.99999.1");
+            assertThat(model.getBasicConstraintsCa()).isTrue();
+            assertThat(model.getBasicConstraintsPathLength()).isZero();
+            assertThat(model.getSubjectKeyIdentifier()).isEqualTo("b5cb4bb93feacaa56a2c94c9a877b8c8c873bb08");
+            assertThat(model.getCriticalExtensions()).containsExactly("2.5.29.15", "2.5.29.19");
+        }
+    }
+
+    @Test
+    void testByteBuffer() throws Exception {
+        for (String file : new String[] {"rsa-csr-san-types.pem", "rsa-csr.der"}) {
+            byte[] bytes = Files.readAllBytes(Path.of("src/test/resources", file));
+            CsrDetailsModel expected = parserService.parse(bytes);
+
+            // direct buffer with other data around the CSR, passed as read-only buffer at a non-zero position
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 16);
+            direct.position(7);
+            direct.put(bytes);
+            ByteBuffer buffer = direct.asReadOnlyBuffer().limit(7 + bytes.length).position(7);
+
+            CsrDetailsModel model = parserService.parse(buffer);
+
+            assertThat(buffer.position()).isEqualTo(7);
+            assertThat(model.getSubject()).isEqualTo(expected.getSubject());
+            assertThat(model.getRsaKeyLength()).isEqualTo(expected.getRsaKeyLength());
+            assertThat(model.getPublicKeyFingerprint()).isEqualTo(expected.getPublicKeyFingerprint());
+            assertThat(String.valueOf(model.getSubjectAlternativeNames()))
+                    .isEqualTo(String.valueOf(expected.getSubjectAlternativeNames()));
+        }
+    }
+
+    @Test
+    void testKeyReuse(@TempDir Path tempDir) throws Exception {
+        KeyFingerprintProperties properties = new KeyFingerprintProperties();
+        properties.setEnabled(true);
+        properties.setFile(tempDir.resolve("key-fingerprints.bin"));
+
+        try (InputStream inputStream = new FileInputStream("src/test/resources/ecdsa-csr.pem");
+                InputStream reusedInputStream = new FileInputStream("src/test/resources/ecdsa-csr-reused-key.pem")) {
+            byte[] bytes = inputStream.readAllBytes();
+            byte[] reusedKeyBytes = reusedInputStream.readAllBytes();
+
+            KeyFingerprintService keyFingerprintService = new KeyFingerprintService(properties);
+            try {
+                CustomParserService service =
+                        TestParsers.builder().keyFingerprintService(keyFingerprintService).custom();
+
+                CsrDetailsModel first = service.parse(bytes);
+                CsrDetailsModel retry = service.parse(bytes);
+                CsrDetailsModel reusedKey = service.parse(reusedKeyBytes);
+                CsrDetailsModel retryAfterReuse = service.parse(bytes);
+
+                assertThat(first.getPublicKeyFingerprint())
+                        .isEqualTo("04c5193bd0dd4de627f445aecc2cc897db4ff982f0f917c4bd99f9c039a38ea4");
+                assertThat(reusedKey.getPublicKeyFingerprint()).isEqualTo(first.getPublicKeyFingerprint());
+                assertThat(first.getKeyPreviouslySeen()).isFalse();
+                assertThat(retry.getKeyPreviouslySeen()).isFalse();
+                assertThat(reusedKey.getKeyPreviouslySeen()).isTrue();
+                assertThat(retryAfterReuse.getKeyPreviouslySeen()).isTrue();
+            } finally {
+                keyFingerprintService.close();
+            }
+        }
+    }
+
+    @Test
+    void testPathLengthOverflow() throws Exception {
+        // pathlen:4294967296 does not fit into an int
+        byte[] bytes = Files.readAllBytes(Path.of("src/test/resources/ecdsa-csr-path-length-overflow.pem"));
+
+        assertThatExceptionOfType(InvalidCsrException.class)
+                .isThrownBy(() -> parserService.parse(bytes))
+                .satisfies(e -> assertThat(e.getCode()).isEqualTo(DecodeError.LENGTH_OVERFLOW));
+    }
+
+    @Test
+    void testMalformedResponse() throws Exception {
+        byte[] der = Files.readAllBytes(Path.of("src/test/resources/rsa-csr.der"));
+
+        // the outer SEQUENCE is longer than the input
+        assertRejected(Arrays.copyOf(der, der.length / 2), DecodeError.TRUNCATED, 0);
+
+        // an OCTET STRING instead of the version INTEGER
+        byte[] badTag = der.clone();
+        badTag[8] = DerReader.TAG_OCTET_STRING;
+        assertRejected(badTag, DecodeError.BAD_TAG, 8);
+
+        // the CertificationRequestInfo has a length of five octets
+        byte[] oversized = new byte[der.length + 3];
+        System.arraycopy(der, 0, oversized, 0, 4);
+        System.arraycopy(new byte[] {0x30, (byte) 0x85, 0x01, 0x00, 0x00, 0x00, 0x00}, 0, oversized, 4, 7);
+        System.arraycopy(der, 8, oversized, 11, der.length - 8);
+        assertRejected(oversized, DecodeError.LENGTH_OVERFLOW, 4);
+    }
+
     @Test
     void testInvalidCsr() throws Exception {
         try (InputStream inputStream = new FileInputStream("src/test/resources/ec-private-key.pem")) {
@@ -144,4 +328,11 @@ public class CustomParserTest {
                     .isThrownBy(() -> parserService.parse(inputStream.readAllBytes()));
         }
     }
+
+    private void assertRejected(byte[] body, DecodeError code, int offset) throws Exception {
+        mockMvc.perform(post("/api/v1/csr-custom").contentType(MediaType.APPLICATION_OCTET_STREAM).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(code.name()))
+                .andExpect(jsonPath("$.offset").value(offset));
+    }
 }
@@ -0,0 +1,188 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.karaca.csrparser.decoder.DerReader;
+import de.karaca.csrparser.exception.DecodeError;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+import org.junit.jupiter.api.Test;
+
+public class DerReaderTest {
+    // SEQUENCE { INTEGER -1, OCTET STRING 0102, SEQUENCE { BOOLEAN TRUE, NULL }, OBJECT IDENTIFIER 1.2.840.113549 }
+    private static final byte[] NESTED =
+            HexFormat.of().parseHex("30160201ff0402010230050101ff050006062a864886f70d");
+
+    @Test
+    void testNavigation() {
+        DerReader reader = new DerReader(ByteBuffer.wrap(NESTED));
+
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+
+        reader.next(DerReader.TAG_INTEGER);
+        assertThat(reader.intValue()).isEqualTo(-1);
+
+        reader.next(DerReader.TAG_OCTET_STRING);
+        assertThat(reader.offset()).isEqualTo(7);
+        assertThat(reader.length()).isEqualTo(2);
+        assertThat(reader.bytes()).containsExactly(1, 2);
+
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+        assertThat(reader.depth()).isEqualTo(2);
+        assertThat(reader.peekTag()).isEqualTo(DerReader.TAG_BOOLEAN);
+        // the NULL is skipped by exit
+        reader.exit();
+
+        assertThat(reader.peekTag()).isEqualTo(DerReader.TAG_OBJECT_IDENTIFIER);
+        reader.next();
+        assertThat(reader.objectIdentifierValue()).isEqualTo("1.2.840.113549");
+        assertThat(reader.hasNext()).isFalse();
+
+        reader.exit();
+        assertThat(reader.hasNext()).isFalse();
+    }
+
+    @Test
+    void testSkip() {
+        DerReader reader = new DerReader(ByteBuffer.wrap(NESTED));
+
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+        reader.skip();
+        reader.skip();
+        reader.skip();
+
+        reader.next(DerReader.TAG_OBJECT_IDENTIFIER);
+        assertThat(reader.end()).isEqualTo(NESTED.length);
+    }
+
+    @Test
+    void testHighTagNumber() {
+        // [APPLICATION 300] constructed containing [PRIVATE 31] primitive
+        byte[] bytes = HexFormat.of().parseHex("7f822c05df1f020102");
+        DerReader reader = new DerReader(ByteBuffer.wrap(bytes));
+
+        reader.next();
+        assertThat(reader.tagClass()).isEqualTo(DerReader.CLASS_APPLICATION);
+        assertThat(reader.tagNumber()).isEqualTo(300);
+        assertThat(reader.isConstructed()).isTrue();
+        assertThat(reader.offset()).isEqualTo(4);
+
+        reader.enter();
+        reader.next();
+        assertThat(reader.tagClass()).isEqualTo(DerReader.CLASS_PRIVATE);
+        assertThat(reader.tagNumber()).isEqualTo(31);
+        assertThat(reader.isConstructed()).isFalse();
+        assertThat(reader.slice()).isEqualTo(ByteBuffer.wrap(new byte[] {1, 2}));
+    }
+
+    @Test
+    void testLongFormLength() {
+        int length = 70_000;
+        // OCTET STRING with a three byte length
+        ByteBuffer buffer = ByteBuffer.allocateDirect(5 + length);
+        buffer.put(HexFormat.of().parseHex("0483011170")).position(0);
+
+        DerReader reader = new DerReader(buffer);
+        reader.next(DerReader.TAG_OCTET_STRING);
+
+        assertThat(reader.length()).isEqualTo(length);
+        assertThat(reader.offset()).isEqualTo(5);
+        assertThat(reader.hasNext()).isFalse();
+        assertThat(buffer.position()).isZero();
+    }
+
+    @Test
+    void testReadOnlySlice() {
+        ByteBuffer buffer = ByteBuffer.allocate(NESTED.length + 4);
+        buffer.position(4);
+        buffer.put(NESTED);
+
+        // positions are relative to the slice
+        DerReader reader = new DerReader(buffer.slice(4, NESTED.length).asReadOnlyBuffer());
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+        reader.skip();
+        reader.next(DerReader.TAG_OCTET_STRING);
+
+        assertThat(reader.offset()).isEqualTo(7);
+        assertThat(reader.bytes()).containsExactly(1, 2);
+    }
+
+    @Test
+    void testReset() {
+        DerReader reader = new DerReader(ByteBuffer.wrap(NESTED));
+
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+        reader.skip();
+        reader.skip();
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+
+        // the state of the previous buffer is dropped, also within nested elements
+        reader.reset(ByteBuffer.wrap(NESTED));
+        assertThat(reader.depth()).isZero();
+
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+        reader.skip();
+        reader.skip();
+        reader.skip();
+        reader.next(DerReader.TAG_OBJECT_IDENTIFIER);
+        String first = reader.objectIdentifierValue();
+
+        // repeated object identifiers are returned from the cache
+        reader.reset(ByteBuffer.wrap(NESTED.clone()), 16, NESTED.length);
+        reader.next(DerReader.TAG_OBJECT_IDENTIFIER);
+        assertThat(reader.objectIdentifierValue()).isSameAs(first);
+        assertThat(reader.hasNext()).isFalse();
+    }
+
+    @Test
+    void testInvalid() {
+        // length exceeds the buffer
+        assertThatThrownBy(() -> new DerReader(ByteBuffer.wrap(HexFormat.of().parseHex("300501")))
+                        .next())
+                .isInstanceOf(InvalidCsrException.class)
+                .hasMessageContaining("offset 0")
+                .hasFieldOrPropertyWithValue("code", DecodeError.TRUNCATED)
+                .hasFieldOrPropertyWithValue("offset", 0);
+
+        // indefinite length
+        assertThatThrownBy(() -> new DerReader(ByteBuffer.wrap(HexFormat.of().parseHex("30800000")))
+                        .next())
+                .isInstanceOf(InvalidCsrException.class)
+                .hasFieldOrPropertyWithValue("code", DecodeError.INVALID_LENGTH);
+
+        // truncated long form length
+        assertThatThrownBy(() -> new DerReader(ByteBuffer.wrap(HexFormat.of().parseHex("048201")))
+                        .next())
+                .isInstanceOf(InvalidCsrException.class)
+                .hasFieldOrPropertyWithValue("code", DecodeError.TRUNCATED);
+
+        // length does not fit into an int
+        assertThatThrownBy(() -> new DerReader(ByteBuffer.wrap(HexFormat.of().parseHex("04850100000000")))
+                        .next())
+                .isInstanceOf(InvalidCsrException.class)
+                .hasFieldOrPropertyWithValue("code", DecodeError.LENGTH_OVERFLOW);
+
+        // unexpected tag
+        assertThatThrownBy(() -> new DerReader(ByteBuffer.wrap(NESTED)).next(DerReader.TAG_SET))
+                .isInstanceOf(InvalidCsrException.class)
+                .hasMessageContaining("0x30")
+                .hasFieldOrPropertyWithValue("code", DecodeError.BAD_TAG)
+                .hasFieldOrPropertyWithValue("expectedTag", DerReader.TAG_SET)
+                .hasFieldOrPropertyWithValue("actualTag", DerReader.TAG_SEQUENCE);
+
+        // child exceeds its parent
+        DerReader reader = new DerReader(ByteBuffer.wrap(HexFormat.of().parseHex("3003040500000000")));
+        reader.next(DerReader.TAG_SEQUENCE);
+        reader.enter();
+        assertThatThrownBy(reader::next).isInstanceOf(InvalidCsrException.class);
+    }
+}
@@ -0,0 +1,60 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import de.karaca.csrparser.differential.DifferentialParser;
+import de.karaca.csrparser.differential.DifferentialResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Replays the findings saved by the fuzzer. Neither engine may crash or hang, and both have to agree on the inputs
+ * they both accept. Inputs which only one engine accepts are not asserted, the engines differ in leniency,
+ * e.g. for trailing data, and the fixtures document where.
+ **/
+public class FuzzRegressionTest {
+    private static final Path FINDINGS = Path.of("src/test/resources/fuzz");
+
+    private static DifferentialParser parser;
+
+    @BeforeAll
+    static void setup() throws IOException {
+        parser = new DifferentialParser();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        parser.shutdown();
+    }
+
+    @TestFactory
+    Stream<DynamicTest> testFindings() throws IOException {
+        if (!Files.isDirectory(FINDINGS)) {
+            return Stream.empty();
+        }
+
+        List<Path> inputs;
+        try (Stream<Path> files = Files.list(FINDINGS)) {
+            inputs = files.filter(file -> !file.toString().endsWith(".txt")).sorted().toList();
+        }
+
+        return inputs.stream().map(file -> DynamicTest.dynamicTest(file.getFileName().toString(), () -> {
+            byte[] input = Files.readAllBytes(file);
+
+            DifferentialResult result = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> parser.parse(input));
+
+            assertThat(result.getCustom().getCrash()).as("crash of the custom engine").isNull();
+            assertThat(result.getBouncyCastle().getCrash()).as("crash of the BouncyCastle engine").isNull();
+            assertThat(result.getMismatchedFields()).as("fields parsed differently").isEmpty();
+        }));
+    }
+}
@@ -0,0 +1,214 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.karaca.csrparser.job.Job;
+import de.karaca.csrparser.job.JobService;
+import de.karaca.csrparser.job.JobStatus;
+import de.karaca.csrparser.service.ParserEngine;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class JobTest {
+    private static final byte[] INVALID_PEM =
+            "-----BEGIN CERTIFICATE REQUEST-----\nbm90IGEgY3Ny\n-----END CERTIFICATE REQUEST-----\n"
+                    .getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    static Path jobDirectory;
+
+    @Autowired
+    JobService jobService;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        // the directory is cleared on startup
+        registry.add("csr-parser.jobs.directory", () -> jobDirectory.toString());
+    }
+
+    @Test
+    void testMixedRecords() throws Exception {
+        byte[] bundle = bundle();
+
+        Job job = jobService.create(new ByteArrayInputStream(bundle), bundle.length, ParserEngine.BOUNCY_CASTLE);
+        awaitFinished(job);
+
+        // a record the engine can't parse is written as an error, the job goes on
+        assertThat(job.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(job.getRecords()).hasValue(4);
+        assertThat(job.getErrors()).hasValue(2);
+
+        List<JsonNode> results = results(jobService.getResultPage(job.getId(), 0, 100));
+        assertThat(results).extracting(result -> result.get("source").asText()).containsExactly("#1", "#2", "#3", "#4");
+
+        assertThat(results.get(0).get("result").get("commonName").asText()).isEqualTo("www.example.com");
+        assertThat(results.get(1).get("error").asText()).isNotEmpty();
+        assertThat(results.get(2).get("error").asText()).isNotEmpty();
+        assertThat(results.get(3).has("result")).isTrue();
+    }
+
+    @Test
+    void testPagination() throws Exception {
+        byte[] bundle = bundle();
+
+        Job job = jobService.create(new ByteArrayInputStream(bundle), bundle.length, ParserEngine.CUSTOM);
+        awaitFinished(job);
+
+        JobService.ResultPage first = jobService.getResultPage(job.getId(), 0, 3);
+        assertThat(first.getAvailable()).isEqualTo(4);
+        assertThat(results(first))
+                .extracting(result -> result.get("source").asText())
+                .containsExactly("#1", "#2", "#3");
+
+        JobService.ResultPage second = jobService.getResultPage(job.getId(), first.getTo(), 3);
+        assertThat(second.getStartByte()).isEqualTo(first.getEndByte());
+        assertThat(results(second)).extracting(result -> result.get("source").asText()).containsExactly("#4");
+
+        JobService.ResultPage beyond = jobService.getResultPage(job.getId(), 10, 3);
+        assertThat(beyond.getFrom()).isEqualTo(beyond.getTo()).isEqualTo(4);
+        assertThat(results(beyond)).isEmpty();
+    }
+
+    @Test
+    void testController() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/v1/jobs").param("engine", "CUSTOM").content(bundle()))
+                .andExpect(status().isAccepted())
+                .andReturn();
+
+        String id = objectMapper
+                .readTree(created.getResponse().getContentAsString())
+                .get("id")
+                .asText();
+
+        JsonNode model = awaitFinished(id);
+        assertThat(model.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(model.get("records").asLong()).isEqualTo(4);
+        assertThat(model.get("availableResults").asLong()).isEqualTo(4);
+
+        // the results are streamed asynchronously, the headers are set before
+        MvcResult firstPage = mockMvc.perform(get("/api/v1/jobs/{id}/results", id)
+                        .param("offset", "0")
+                        .param("limit", "2"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("X-Available-Results", "4"))
+                .andExpect(header().string("X-Next-Offset", "2"))
+                .andReturn();
+        assertThat(lines(firstPage)).hasSize(2);
+
+        MvcResult lastPage = mockMvc.perform(get("/api/v1/jobs/{id}/results", id)
+                        .param("offset", "2")
+                        .param("limit", "2"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().doesNotExist("X-Next-Offset"))
+                .andReturn();
+        assertThat(lines(lastPage))
+                .extracting(line -> objectMapper.readTree(line).get("source").asText())
+                .containsExactly("#3", "#4");
+
+        // the stream of a finished job contains the final progress and is completed
+        MvcResult events = mockMvc.perform(get("/api/v1/jobs/{id}/events", id))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String stream = mockMvc.perform(asyncDispatch(events))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertThat(stream).startsWith("event:progress").contains("\"status\":\"COMPLETED\"");
+
+        mockMvc.perform(get("/api/v1/jobs/{id}", "unknown")).andExpect(status().isNotFound());
+    }
+
+    /**
+     * A valid CSR, a CSR with a malformed other name which the custom parser rejects as well as BouncyCastle,
+     * a PEM block which is no CSR and another valid CSR.
+     **/
+    private static byte[] bundle() throws IOException {
+        ByteArrayOutputStream bundle = new ByteArrayOutputStream();
+        bundle.writeBytes(Files.readAllBytes(Path.of("src/test/resources/rsa-csr.pem")));
+        bundle.writeBytes(Files.readAllBytes(Path.of("src/test/resources/fuzz/crash-e7476ae67c2b9b9c.der")));
+        bundle.writeBytes(INVALID_PEM);
+        bundle.writeBytes(Files.readAllBytes(Path.of("src/test/resources/ecdsa-csr.pem")));
+        return bundle.toByteArray();
+    }
+
+    private List<JsonNode> results(JobService.ResultPage page) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        jobService.writeResultPage(page, output);
+
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).lines().toList()) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+
+    private List<String> lines(MvcResult result) throws Exception {
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8)
+                .lines()
+                .toList();
+    }
+
+    private static void awaitFinished(Job job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!job.getStatus().isFinished()) {
+            assertThat(System.nanoTime()).as("waiting for job %s", job.getId()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private JsonNode awaitFinished(String id) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (true) {
+            String content = mockMvc.perform(get("/api/v1/jobs/{id}", id))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            JsonNode model = objectMapper.readTree(content);
+
+            if (JobStatus.valueOf(model.get("status").asText()).isFinished()) {
+                return model;
+            }
+
+            assertThat(System.nanoTime()).as("waiting for job %s", id).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
+import de.karaca.csrparser.fingerprint.KeyFingerprintTable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class KeyFingerprintTableTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAddAndContains() throws Exception {
+        try (KeyFingerprintTable table = KeyFingerprintTable.open(tempDir.resolve("table.bin"), 1000)) {
+            byte[] fingerprint = fingerprint(1);
+
+            assertThat(table.contains(fingerprint)).isFalse();
+            assertThat(table.add(fingerprint)).isTrue();
+            assertThat(table.add(fingerprint)).isFalse();
+            assertThat(table.contains(fingerprint)).isTrue();
+            assertThat(table.contains(fingerprint(2))).isFalse();
+            assertThat(table.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testPersistence() throws Exception {
+        Path file = tempDir.resolve("table.bin");
+
+        try (KeyFingerprintTable table = KeyFingerprintTable.open(file, 1000)) {
+            for (int i = 0; i < 500; i++) {
+                table.add(fingerprint(i));
+            }
+        }
+
+        try (KeyFingerprintTable table = KeyFingerprintTable.open(file, 1000)) {
+            assertThat(table.size()).isEqualTo(500);
+
+            for (int i = 0; i < 500; i++) {
+                assertThat(table.contains(fingerprint(i))).isTrue();
+            }
+
+            assertThat(table.contains(fingerprint(500))).isFalse();
+        }
+    }
+
+    @Test
+    void testFull() throws Exception {
+        try (KeyFingerprintTable table = KeyFingerprintTable.open(tempDir.resolve("table.bin"), 10)) {
+            int added = 0;
+            for (int i = 0; i < 100; i++) {
+                if (table.add(fingerprint(i))) {
+                    added++;
+                }
+            }
+
+            assertThat(table.isFull()).isTrue();
+            assertThat(added).isEqualTo(table.size()).isLessThan(100);
+        }
+    }
+
+    @Test
+    void testStaleClaims() throws Exception {
+        Path file = tempDir.resolve("table.bin");
+
+        long capacity;
+        try (KeyFingerprintTable table = KeyFingerprintTable.open(file, 10)) {
+            capacity = table.capacity();
+            table.add(fingerprint(1));
+        }
+
+        // claim every empty slot, as if a process ended within an insert
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            byte[] claimed = new byte[8];
+            Arrays.fill(claimed, (byte) 0xFF);
+
+            for (long slot = 0; slot < capacity; slot++) {
+                // behind the 64 byte header, 32 bytes per slot
+                long position = 64 + slot * 32;
+
+                ByteBuffer first = ByteBuffer.allocate(8);
+                channel.read(first, position);
+
+                if (Arrays.equals(first.array(), new byte[8])) {
+                    channel.write(ByteBuffer.wrap(claimed), position);
+                }
+            }
+        }
+
+        try (KeyFingerprintTable table = KeyFingerprintTable.open(file, 10)) {
+            assertThat(table.size()).isEqualTo(1);
+            assertThat(table.contains(fingerprint(1))).isTrue();
+            assertThat(table.contains(fingerprint(2))).isFalse();
+            assertThat(table.add(fingerprint(2))).isTrue();
+        }
+    }
+
+    @Test
+    void testLocked() throws Exception {
+        Path file = tempDir.resolve("table.bin");
+
+        try (KeyFingerprintTable table = KeyFingerprintTable.open(file, 10)) {
+            assertThatIOException().isThrownBy(() -> KeyFingerprintTable.open(file, 10));
+        }
+
+        // released on close
+        KeyFingerprintTable.open(file, 10).close();
+    }
+
+    private static byte[] fingerprint(int value) {
+        return KeyFingerprintService.fingerprint(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+    }
+}
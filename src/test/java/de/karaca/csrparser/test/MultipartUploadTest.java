@@ -0,0 +1,217 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.karaca.csrparser.bulk.BulkResult;
+import de.karaca.csrparser.exception.InvalidUploadException;
+import de.karaca.csrparser.fixtures.TestParsers;
+import de.karaca.csrparser.model.CsrField;
+import de.karaca.csrparser.quota.QuotaProperties;
+import de.karaca.csrparser.quota.QuotaService;
+import de.karaca.csrparser.service.ParserEngine;
+import de.karaca.csrparser.upload.MultipartReader;
+import de.karaca.csrparser.upload.UploadProperties;
+import de.karaca.csrparser.upload.UploadService;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class MultipartUploadTest {
+    private static final String BOUNDARY = "----WebKitFormBoundary7MA4YWxkTrZu0gW";
+
+    @Autowired
+    UploadService uploadService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void testUpload() throws Exception {
+        byte[] body = body();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        uploadService.parse(new ByteArrayInputStream(body), BOUNDARY, ParserEngine.CUSTOM, CsrField.ALL, output);
+
+        List<JsonNode> lines = lines(output);
+        // the form field is skipped
+        assertThat(lines).hasSize(3);
+
+        assertThat(lines.get(0).get("source").asText()).isEqualTo("rsa-csr.pem");
+        assertThat(lines.get(0).get("result").get("commonName").asText()).isEqualTo("www.example.com");
+
+        assertThat(lines.get(1).get("source").asText()).isEqualTo("invalid.pem");
+        assertThat(lines.get(1).has("result")).isFalse();
+        assertThat(lines.get(1).get("error").asText()).isNotEmpty();
+
+        assertThat(lines.get(2).get("source").asText()).isEqualTo("junk.txt");
+        assertThat(lines.get(2).has("error")).isTrue();
+    }
+
+    @Test
+    void testUnserializableResult() throws Exception {
+        // fails for the parsed model of the first file only
+        ObjectMapper failingObjectMapper = new ObjectMapper() {
+            @Override
+            public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+                if (value instanceof BulkResult result && result.getResult() != null) {
+                    throw new JsonMappingException(null, "Failed to serialize " + result.getSource());
+                }
+
+                return super.writeValueAsBytes(value);
+            }
+        };
+
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("customParserService", TestParsers.custom());
+
+        UploadService service = new UploadService(
+                beanFactory,
+                failingObjectMapper.findAndRegisterModules(),
+                new UploadProperties(),
+                new QuotaService(new QuotaProperties()));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.parse(new ByteArrayInputStream(body()), BOUNDARY, ParserEngine.CUSTOM, CsrField.ALL, output);
+
+        // the file is reported as an error, the following files are still parsed
+        List<JsonNode> lines = lines(output);
+        assertThat(lines).hasSize(3);
+
+        assertThat(lines.get(0).get("source").asText()).isEqualTo("rsa-csr.pem");
+        assertThat(lines.get(0).has("result")).isFalse();
+        // the message of the exception is not exposed
+        assertThat(lines.get(0).get("error").asText()).isEqualTo("Could not serialize the result");
+
+        assertThat(lines.get(1).get("source").asText()).isEqualTo("invalid.pem");
+        assertThat(lines.get(2).get("source").asText()).isEqualTo("junk.txt");
+    }
+
+    @Test
+    void testTruncatedUpload() throws Exception {
+        byte[] body = body();
+        // cut off within the last file
+        byte[] truncated = Arrays.copyOf(body, body.length - 20);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        uploadService.parse(
+                new ByteArrayInputStream(truncated), BOUNDARY, ParserEngine.CUSTOM, CsrField.ALL, output);
+
+        List<JsonNode> lines = lines(output);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(2).has("source")).isFalse();
+        assertThat(lines.get(2).get("error").asText()).isEqualTo("Multipart body ends within a part");
+    }
+
+    @Test
+    void testPartsAcrossReads() throws Exception {
+        byte[] body = body();
+        byte[] pem = Files.readAllBytes(Path.of("src/test/resources/rsa-csr.pem"));
+
+        // delimiters and headers are split across many reads
+        MultipartReader reader = new MultipartReader(new TrickleInputStream(body), BOUNDARY);
+
+        MultipartReader.Part field = reader.next(4096);
+        assertThat(field.name()).isEqualTo("engine");
+        assertThat(field.fileName()).isNull();
+        assertThat(new String(field.content(), StandardCharsets.US_ASCII)).isEqualTo("CUSTOM");
+
+        MultipartReader.Part file = reader.next(4096);
+        assertThat(file.fileName()).isEqualTo("rsa-csr.pem");
+        assertThat(file.content()).isEqualTo(pem);
+
+        // larger than the maximum, skipped
+        assertThat(reader.next(16).isTooLarge()).isTrue();
+        assertThat(reader.next(4096).fileName()).isEqualTo("junk.txt");
+        assertThat(reader.next(4096)).isNull();
+    }
+
+    @Test
+    void testBoundary() {
+        assertThat(MultipartReader.boundary("multipart/form-data; boundary=" + BOUNDARY)).isEqualTo(BOUNDARY);
+        assertThat(MultipartReader.boundary("multipart/form-data; charset=UTF-8; boundary=\"a b\""))
+                .isEqualTo("a b");
+        assertThat(MultipartReader.boundary("multipart/form-data")).isNull();
+        assertThat(MultipartReader.boundary("application/octet-stream; boundary=x")).isNull();
+    }
+
+    @Test
+    void testMissingCloseDelimiter() {
+        byte[] body = ("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\nvalue\r\n--" + BOUNDARY)
+                .getBytes(StandardCharsets.US_ASCII);
+
+        MultipartReader reader = new MultipartReader(new ByteArrayInputStream(body), BOUNDARY);
+
+        assertThatExceptionOfType(InvalidUploadException.class).isThrownBy(() -> {
+            while (reader.next(4096) != null) {}
+        });
+    }
+
+    private List<JsonNode> lines(ByteArrayOutputStream output) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+
+        return lines;
+    }
+
+    private static byte[] body() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        // a preamble in front of the first boundary is ignored
+        body.write("preamble\r\n".getBytes(StandardCharsets.US_ASCII));
+        writePart(body, "name=\"engine\"", "CUSTOM".getBytes(StandardCharsets.US_ASCII));
+        writePart(
+                body,
+                "name=\"files\"; filename=\"rsa-csr.pem\"",
+                Files.readAllBytes(Path.of("src/test/resources/rsa-csr.pem")));
+        writePart(
+                body,
+                "name=\"files\"; filename=\"invalid.pem\"",
+                "-----BEGIN CERTIFICATE REQUEST-----\nAA==\n-----END CERTIFICATE REQUEST-----\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+        writePart(body, "name=\"files\"; filename=\"junk.txt\"", "junk".getBytes(StandardCharsets.US_ASCII));
+        body.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+
+        return body.toByteArray();
+    }
+
+    private static void writePart(ByteArrayOutputStream body, String disposition, byte[] content) throws IOException {
+        body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; " + disposition + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        body.write(content);
+        body.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns at most 3 bytes per read, like a slow upload.
+     **/
+    private static class TrickleInputStream extends FilterInputStream {
+        TrickleInputStream(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, 3));
+        }
+    }
+}
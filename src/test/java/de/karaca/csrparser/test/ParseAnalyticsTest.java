@@ -0,0 +1,74 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
+
+import de.karaca.csrparser.analytics.AnalyticsProperties;
+import de.karaca.csrparser.analytics.AnalyticsSnapshot;
+import de.karaca.csrparser.analytics.CounterSnapshot;
+import de.karaca.csrparser.analytics.ParseAnalytics;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.fixtures.TestParsers;
+import de.karaca.csrparser.service.BouncyCastleParserService;
+import de.karaca.csrparser.service.CustomParserService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+public class ParseAnalyticsTest {
+    @Test
+    void testParseAnalytics() throws Exception {
+        ParseAnalytics parseAnalytics = new ParseAnalytics(new AnalyticsProperties());
+
+        TestParsers.Builder parsers = TestParsers.builder().parseAnalytics(parseAnalytics);
+        CustomParserService customParserService = parsers.custom();
+        BouncyCastleParserService bouncyCastleParserService = parsers.bouncyCastle();
+
+        byte[] rsa = Files.readAllBytes(Path.of("src/test/resources/rsa-csr.pem"));
+        byte[] ecdsa = Files.readAllBytes(Path.of("src/test/resources/ecdsa-csr.pem"));
+        byte[] san = Files.readAllBytes(Path.of("src/test/resources/rsa-csr-san.pem"));
+
+        try {
+            customParserService.parse(rsa);
+            customParserService.parse(ecdsa);
+            customParserService.parse(san);
+            bouncyCastleParserService.parse(rsa);
+
+            assertThatExceptionOfType(InvalidCsrException.class)
+                    .isThrownBy(() -> customParserService.parse(new byte[] {0x30, 0x01}));
+
+            AnalyticsSnapshot snapshot = parseAnalytics.snapshot();
+
+            assertThat(snapshot.getParsed())
+                    .extracting(CounterSnapshot::getValue, CounterSnapshot::getCount)
+                    .containsExactly(tuple("BOUNCY_CASTLE", 1L), tuple("CUSTOM", 3L));
+            assertThat(snapshot.getFailed())
+                    .extracting(CounterSnapshot::getValue, CounterSnapshot::getCount)
+                    .containsExactly(tuple("CUSTOM", 1L));
+
+            assertThat(snapshot.getSignatureAlgorithms())
+                    .extracting(CounterSnapshot::getName, CounterSnapshot::getCount)
+                    .containsExactly(tuple("ecdsa-with-SHA256", 1L), tuple("sha256WithRSAEncryption", 3L));
+            assertThat(snapshot.getRsaKeyLengths())
+                    .extracting(CounterSnapshot::getValue, CounterSnapshot::getCount)
+                    .containsExactly(tuple("2048", 2L), tuple("4096", 1L));
+            assertThat(snapshot.getEcCurves())
+                    .extracting(CounterSnapshot::getName, CounterSnapshot::getCount)
+                    .containsExactly(tuple("secp384r1", 1L));
+
+            assertThat(snapshot.getInputBytes().getCount()).isEqualTo(5);
+            assertThat(snapshot.getInputBytes().getMax()).isEqualTo(san.length);
+
+            // only rsa-csr-san.pem has names, the others count as zero
+            assertThat(snapshot.getSubjectAlternativeNames().getCount()).isEqualTo(4);
+            assertThat(snapshot.getSubjectAlternativeNames().getPercentiles())
+                    .containsEntry("p50", 0L)
+                    .containsEntry("p99", 2L);
+
+            assertThat(snapshot.getParsed().get(1).getRates()).containsOnlyKeys("1m", "5m", "15m");
+        } finally {
+            parseAnalytics.shutdown();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.tuple;
+
+import de.karaca.csrparser.fixtures.TestParsers;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrField;
+import de.karaca.csrparser.model.PolicyViolation;
+import de.karaca.csrparser.policy.CompiledPolicy;
+import de.karaca.csrparser.policy.DomainSuffixTrie;
+import de.karaca.csrparser.policy.PolicyProperties;
+import de.karaca.csrparser.policy.PolicyService;
+import de.karaca.csrparser.service.CustomParserService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PolicyTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDomainSuffixTrie() {
+        DomainSuffixTrie trie = new DomainSuffixTrie(List.of("example.com", "*.example.org"));
+
+        assertThat(trie.matches("example.com")).isTrue();
+        assertThat(trie.matches("EXAMPLE.com.")).isTrue();
+        assertThat(trie.matches("www.example.com")).isFalse();
+        assertThat(trie.matches("example.org")).isFalse();
+        assertThat(trie.matches("www.example.org")).isTrue();
+        assertThat(trie.matches("a.b.example.org")).isTrue();
+        assertThat(trie.matches(".example.org")).isFalse();
+        assertThat(trie.matches("wwwexample.org")).isFalse();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> new DomainSuffixTrie(List.of("*.*.example.com")));
+    }
+
+    @Test
+    void testParseWithPolicy() throws Exception {
+        Path file = tempDir.resolve("policy.yaml");
+        Files.writeString(file, """
+                rules:
+                  - name: rsa-key-size
+                    type: MIN_RSA_KEY_LENGTH
+                    value: 2048
+                  - name: countries
+                    type: ALLOWED_COUNTRIES
+                    severity: SOFT
+                    values: [AT]
+                  - name: domains
+                    type: ALLOWED_DOMAINS
+                    values: [test.com]
+                  - name: signature-algorithms
+                    type: ALLOWED_SIGNATURE_ALGORITHMS
+                    values: [ecdsa-with-SHA256]
+                """);
+
+        PolicyProperties policyProperties = new PolicyProperties();
+        policyProperties.setFile(file);
+        PolicyService policyService = new PolicyService(policyProperties);
+
+        CustomParserService parserService = TestParsers.builder().policyService(policyService).custom();
+
+        byte[] csr = Files.readAllBytes(Path.of("src/test/resources/rsa-csr-san.pem"));
+
+        try {
+            // the hard violation of the domains rule ends the evaluation
+            CsrDetailsModel model = parserService.parse(csr);
+            assertThat(model.getPolicyViolations())
+                    .extracting(PolicyViolation::getRule, PolicyViolation::getSeverity, PolicyViolation::getMessage)
+                    .containsExactly(
+                            tuple("countries", PolicyViolation.Severity.SOFT, "Country DE is not allowed"),
+                            tuple("domains", PolicyViolation.Severity.HARD, "Domain test.de is not allowed"));
+
+            // the parts the policy needs are decoded even if they were not requested
+            CsrDetailsModel projected = parserService.parse(csr, CsrField.parse("commonName,policyViolations"));
+            assertThat(projected.getPolicyViolations())
+                    .extracting(PolicyViolation::getRule)
+                    .containsExactly("countries", "domains");
+
+            Files.writeString(file, """
+                    rules:
+                      - type: ALLOWED_DOMAINS
+                        values: [test.com, test.de]
+                      - type: ALLOWED_COUNTRIES
+                        values: [DE]
+                    """);
+            assertThat(policyService.reload()).isTrue();
+            assertThat(parserService.parse(csr).getPolicyViolations()).isEmpty();
+
+            // an invalid policy keeps the current one
+            CompiledPolicy current = policyService.getPolicy();
+            Files.writeString(file, "rules:\n  - type: ALLOWED_COUNTRIES\n");
+            assertThat(policyService.reload()).isFalse();
+            assertThat(policyService.getPolicy()).isSameAs(current);
+        } finally {
+            policyService.shutdown();
+        }
+    }
+}
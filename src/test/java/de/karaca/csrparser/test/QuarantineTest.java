@@ -0,0 +1,78 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import de.karaca.csrparser.exception.DecodeError;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.quarantine.QuarantineEntry;
+import de.karaca.csrparser.quarantine.QuarantineProperties;
+import de.karaca.csrparser.quarantine.RejectedInputQuarantine;
+import de.karaca.csrparser.service.ParserEngine;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+public class QuarantineTest {
+    @Test
+    void testCapture() {
+        QuarantineProperties properties = new QuarantineProperties();
+        properties.setMaxEntries(2);
+        properties.setMaxEntrySize(DataSize.ofBytes(4));
+        properties.setSampleRate(1);
+
+        RejectedInputQuarantine quarantine = new RejectedInputQuarantine(properties);
+
+        quarantine.capture(
+                ParserEngine.CUSTOM, bytes("first"), new InvalidCsrException(DecodeError.TRUNCATED, "Truncated", 3));
+        quarantine.capture(
+                ParserEngine.BOUNCY_CASTLE, ByteBuffer.wrap(bytes("xxsecond")).position(2), new InvalidCsrException());
+
+        assertThat(quarantine.entries())
+                .extracting(QuarantineEntry::getSequence, QuarantineEntry::getEngine, QuarantineEntry::getCode)
+                .containsExactly(
+                        tuple(1L, ParserEngine.BOUNCY_CASTLE, DecodeError.INVALID),
+                        tuple(0L, ParserEngine.CUSTOM, DecodeError.TRUNCATED));
+
+        QuarantineEntry first = quarantine.entry(0);
+        assertThat(first.getOffset()).isEqualTo(3);
+        assertThat(first.getLength()).isEqualTo(5);
+        assertThat(first.getBytes()).isEqualTo(bytes("firs"));
+
+        QuarantineEntry second = quarantine.entry(1);
+        assertThat(second.getOffset()).isNull();
+        assertThat(second.getBytes()).isEqualTo(bytes("seco"));
+
+        // the oldest entry is overwritten
+        quarantine.capture(ParserEngine.CUSTOM, bytes("third"), new InvalidCsrException());
+
+        assertThat(quarantine.entry(0)).isNull();
+        assertThat(quarantine.entry(2).getBytes()).isEqualTo(bytes("thir"));
+        assertThat(quarantine.snapshot().getCaptured()).isEqualTo(3);
+    }
+
+    @Test
+    void testSampling() {
+        QuarantineProperties properties = new QuarantineProperties();
+        properties.setSampleRate(0);
+
+        RejectedInputQuarantine quarantine = new RejectedInputQuarantine(properties);
+        quarantine.capture(ParserEngine.CUSTOM, bytes("input"), new InvalidCsrException());
+
+        assertThat(quarantine.entries()).isEmpty();
+
+        properties.setSampleRate(1);
+        properties.setEnabled(false);
+
+        quarantine = new RejectedInputQuarantine(properties);
+        quarantine.capture(ParserEngine.CUSTOM, bytes("input"), new InvalidCsrException());
+
+        assertThat(quarantine.entries()).isEmpty();
+        assertThat(quarantine.entry(0)).isNull();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,180 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.within;
+
+import de.karaca.csrparser.exception.QuotaExceededException;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.quota.BodySizeFilter;
+import de.karaca.csrparser.quota.QuotaInterceptor;
+import de.karaca.csrparser.quota.QuotaProperties;
+import de.karaca.csrparser.quota.QuotaService;
+import de.karaca.csrparser.quota.TenantSnapshot;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class QuotaTest {
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void resetRequestContext() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testBurst() throws Exception {
+        QuotaService quotaService = new QuotaService(properties());
+        QuotaInterceptor interceptor = new QuotaInterceptor(quotaService);
+
+        // the rate is too low to refill a token during the test
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = request(null);
+            interceptor.preHandle(request, response, null);
+            interceptor.afterCompletion(request, response, null, null);
+        }
+
+        assertThatExceptionOfType(QuotaExceededException.class)
+                .isThrownBy(() -> interceptor.preHandle(request(null), response, null))
+                .satisfies(e -> {
+                    assertThat(e.getTenant()).isEqualTo(QuotaService.DEFAULT_TENANT);
+                    assertThat(e.getRetryAfter()).isPositive();
+                });
+
+        // unknown keys share the default quota
+        assertThatExceptionOfType(QuotaExceededException.class)
+                .isThrownBy(() -> interceptor.preHandle(request("unknown"), response, null));
+
+        // other tenants are not affected
+        assertThat(interceptor.preHandle(request("batch-key"), response, null)).isTrue();
+
+        TenantSnapshot snapshot = quotaService.snapshot().getTenants().get(QuotaService.DEFAULT_TENANT);
+        assertThat(snapshot.getAdmitted()).isEqualTo(5);
+        assertThat(snapshot.getRejected()).isEqualTo(2);
+        assertThat(snapshot.getInFlight()).isZero();
+    }
+
+    @Test
+    void testConcurrentRequests() throws Exception {
+        QuotaService quotaService = new QuotaService(properties());
+        QuotaInterceptor interceptor = new QuotaInterceptor(quotaService);
+
+        MockHttpServletRequest first = request("batch-key");
+        interceptor.preHandle(first, response, null);
+
+        assertThatExceptionOfType(QuotaExceededException.class)
+                .isThrownBy(() -> interceptor.preHandle(request("batch-key"), response, null));
+
+        interceptor.afterCompletion(first, response, null, null);
+
+        assertThat(interceptor.preHandle(request("batch-key"), response, null)).isTrue();
+
+        TenantSnapshot snapshot = quotaService.snapshot().getTenants().get("batch");
+        assertThat(snapshot.getAdmitted()).isEqualTo(2);
+        assertThat(snapshot.getRejectedConcurrent()).isEqualTo(1);
+        assertThat(snapshot.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void testCosts() throws Exception {
+        QuotaService quotaService = new QuotaService(properties());
+        QuotaInterceptor interceptor = new QuotaInterceptor(quotaService);
+
+        MockHttpServletRequest request = request("batch-key");
+        // 1 for the request, 0.5 per KiB
+        request.setContent(new byte[2048]);
+        interceptor.preHandle(request, response, null);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // 0.5 per 1024 bits
+        quotaService.chargeParsed(CsrDetailsModel.builder().rsaKeyLength(4096).build());
+        quotaService.chargeParsed(CsrDetailsModel.builder().ecCurve("secp256r1").build());
+
+        interceptor.afterCompletion(request, response, null, null);
+
+        // not charged after the request is complete
+        quotaService.chargeParsed(CsrDetailsModel.builder().rsaKeyLength(4096).build());
+
+        TenantSnapshot snapshot = quotaService.snapshot().getTenants().get("batch");
+        assertThat(snapshot.getConsumed()).isEqualTo(2 + 2 + 0.25);
+        assertThat(snapshot.getAvailable()).isCloseTo(100 - 4.25, within(0.01));
+    }
+
+    @Test
+    void testChunkedBody() throws Exception {
+        QuotaService quotaService = new QuotaService(properties());
+        QuotaInterceptor interceptor = new QuotaInterceptor(quotaService);
+
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/api/v1/csr-batch") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunked.addHeader("X-Api-Key", "batch-key");
+        chunked.setContent(new byte[4096]);
+
+        MockFilterChain chain = new MockFilterChain();
+        new BodySizeFilter(quotaService).doFilter(chunked, response, chain);
+
+        HttpServletRequest request = (HttpServletRequest) chain.getRequest();
+        interceptor.preHandle(request, response, null);
+        request.getInputStream().readAllBytes();
+        interceptor.afterCompletion(request, response, null, null);
+
+        // 1 for the request when it is admitted, 0.5 per KiB after the body was read
+        TenantSnapshot snapshot = quotaService.snapshot().getTenants().get("batch");
+        assertThat(snapshot.getConsumed()).isEqualTo(1 + 2);
+        assertThat(snapshot.getInFlight()).isZero();
+    }
+
+    @Test
+    void testDisabled() throws Exception {
+        QuotaProperties properties = properties();
+        properties.setEnabled(false);
+
+        QuotaService quotaService = new QuotaService(properties);
+        QuotaInterceptor interceptor = new QuotaInterceptor(quotaService);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(interceptor.preHandle(request(null), response, null)).isTrue();
+        }
+
+        assertThat(quotaService.snapshot().isEnabled()).isFalse();
+        assertThat(quotaService.snapshot().getTenants().get(QuotaService.DEFAULT_TENANT).getAdmitted()).isZero();
+    }
+
+    private static QuotaProperties properties() {
+        QuotaProperties properties = new QuotaProperties();
+        properties.setEnabled(true);
+        properties.getDefaultQuota().setRate(0.001);
+        properties.getDefaultQuota().setBurst(5);
+
+        QuotaProperties.Tenant batch = new QuotaProperties.Tenant();
+        batch.setApiKeys(List.of("batch-key"));
+        batch.setRate(0.001);
+        batch.setBurst(100);
+        batch.setMaxConcurrentRequests(1);
+        properties.getTenants().put("batch", batch);
+
+        return properties;
+    }
+
+    private static MockHttpServletRequest request(String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/csr-custom");
+
+        if (apiKey != null) {
+            request.addHeader("X-Api-Key", apiKey);
+        }
+
+        return request;
+    }
+}
@@ -0,0 +1,92 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.karaca.csrparser.reactive.RequestBodyAssembler;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+public class RequestBodyAssemblerTest {
+    private static final int MAX_SIZE = 64 * 1024;
+
+    @Test
+    void testKnownLength() throws Exception {
+        byte[] csr = Files.readAllBytes(Path.of("src/test/resources/rsa-csr.pem"));
+
+        byte[] body = read(chunks(csr, 100), csr.length).block();
+
+        assertThat(body).isEqualTo(csr);
+    }
+
+    @Test
+    void testUnknownLength() throws Exception {
+        byte[] csr = Files.readAllBytes(Path.of("src/test/resources/rsa-csr-4096.pem"));
+
+        byte[] body = read(chunks(csr, 1000), -1).block();
+
+        assertThat(body).isEqualTo(csr);
+    }
+
+    @Test
+    void testSingleChunk() throws Exception {
+        byte[] csr = Files.readAllBytes(Path.of("src/test/resources/rsa-csr.pem"));
+
+        // the reader gets the memory of the chunk itself
+        Flux<DataBuffer> chunk = Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(csr));
+
+        ByteBuffer body = RequestBodyAssembler.read(
+                        chunk, csr.length, MAX_SIZE, Schedulers.immediate(), buffer -> buffer)
+                .block();
+
+        assertThat(body.array()).isSameAs(csr);
+        assertThat(body.remaining()).isEqualTo(csr.length);
+    }
+
+    @Test
+    void testEmptyBody() {
+        assertThat(read(Flux.empty(), 0).block()).isEmpty();
+    }
+
+    @Test
+    void testTooLarge() {
+        byte[] bytes = new byte[MAX_SIZE + 1];
+
+        // rejected from the Content-Length before the body is read
+        assertThatThrownBy(() -> read(chunks(bytes, 1000), bytes.length).block())
+                .isInstanceOf(DataBufferLimitException.class);
+
+        // rejected while reading a chunked body
+        assertThatThrownBy(() -> read(chunks(bytes, 1000), -1).block()).isInstanceOf(DataBufferLimitException.class);
+    }
+
+    private static Mono<byte[]> read(Flux<DataBuffer> body, long contentLength) {
+        return RequestBodyAssembler.read(body, contentLength, MAX_SIZE, Schedulers.immediate(), buffer -> {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(buffer.position(), bytes);
+            return bytes;
+        });
+    }
+
+    private static Flux<DataBuffer> chunks(byte[] bytes, int chunkSize) {
+        List<DataBuffer> chunks = new ArrayList<>();
+
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            byte[] chunk = Arrays.copyOfRange(bytes, offset, Math.min(offset + chunkSize, bytes.length));
+            chunks.add(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+        }
+
+        return Flux.fromIterable(chunks);
+    }
+}
@@ -0,0 +1,186 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import de.karaca.csrparser.config.SerializationConfiguration;
+import de.karaca.csrparser.job.Job;
+import de.karaca.csrparser.job.JobService;
+import de.karaca.csrparser.service.ParserEngine;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * The binary formats have to carry the same content as JSON. Responses are decoded into trees and compared with
+ * the JSON response, the models themselves are write-only.
+ **/
+@SpringBootTest
+@AutoConfigureMockMvc
+public class SerializationTest {
+    private static final ObjectMapper CBOR_MAPPER = new CBORMapper();
+    private static final ObjectMapper SMILE_MAPPER = new SmileMapper();
+
+    private static final byte[] INVALID_PEM =
+            "-----BEGIN CERTIFICATE REQUEST-----\nbm90IGEgY3Ny\n-----END CERTIFICATE REQUEST-----\n"
+                    .getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    static Path jobDirectory;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    JobService jobService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("csr-parser.jobs.directory", () -> jobDirectory.toString());
+    }
+
+    @Test
+    void testCsr() throws Exception {
+        byte[] csr = Files.readAllBytes(Path.of("src/test/resources/rsa-csr-san.pem"));
+
+        JsonNode json = objectMapper.readTree(parse("/api/v1/csr", csr, MediaType.APPLICATION_JSON));
+        assertThat(json.get("subjectAlternativeNames").size()).isPositive();
+
+        JsonNode cbor = CBOR_MAPPER.readTree(parse("/api/v1/csr", csr, MediaType.APPLICATION_CBOR));
+        JsonNode smile = SMILE_MAPPER.readTree(parse("/api/v1/csr", csr, SerializationConfiguration.APPLICATION_SMILE));
+
+        assertThat(cbor).isEqualTo(json);
+        assertThat(smile).isEqualTo(json);
+    }
+
+    @Test
+    void testSubjectAlternativeNamePage() throws Exception {
+        byte[] csr = Files.readAllBytes(Path.of("src/test/resources/rsa-csr-san-types.pem"));
+
+        JsonNode page = objectMapper.readTree(
+                parse("/api/v1/csr-custom?sanOffset=2&sanLimit=3", csr, MediaType.APPLICATION_JSON));
+
+        assertThat(page.get("subjectAlternativeNames").size()).isEqualTo(3);
+        assertThat(page.get("subjectAlternativeNameCount").asInt()).isEqualTo(8);
+        assertThat(page.get("subjectAlternativeNameNextOffset").asInt()).isEqualTo(5);
+        // deprecated string of the same names
+        assertThat(page.get("subjectAlternativeName").asText())
+                .isEqualTo("IP: 2001:db8::1, email: admin@example.com, URI: https://example.com/csr");
+
+        JsonNode lastPage = objectMapper.readTree(
+                parse("/api/v1/csr-custom?sanOffset=5&sanLimit=3", csr, MediaType.APPLICATION_JSON));
+        assertThat(lastPage.get("subjectAlternativeNames").size()).isEqualTo(3);
+        assertThat(lastPage.has("subjectAlternativeNameNextOffset")).isFalse();
+
+        // the deprecated string is only written without a projection
+        JsonNode projected = objectMapper.readTree(parse(
+                "/api/v1/csr-custom?fields=subjectAlternativeNames&sanLimit=3", csr, MediaType.APPLICATION_JSON));
+        assertThat(projected.fieldNames())
+                .toIterable()
+                .containsExactlyInAnyOrder("subjectAlternativeNames", "subjectAlternativeNameNextOffset");
+    }
+
+    @Test
+    void testCsrCustomWithFields() throws Exception {
+        byte[] csr = Files.readAllBytes(Path.of("src/test/resources/rsa-csr.pem"));
+        String path = "/api/v1/csr-custom?fields=commonName,rsaKeyLength";
+
+        JsonNode cbor = CBOR_MAPPER.readTree(parse(path, csr, MediaType.APPLICATION_CBOR));
+        JsonNode smile = SMILE_MAPPER.readTree(parse(path, csr, SerializationConfiguration.APPLICATION_SMILE));
+
+        // the field filter applies to the binary mappers as well
+        assertThat(cbor.properties()).hasSize(2);
+        assertThat(cbor.get("commonName").asText()).isEqualTo("www.example.com");
+        assertThat(cbor.get("rsaKeyLength").asInt()).isEqualTo(2048);
+        assertThat(smile).isEqualTo(cbor);
+    }
+
+    @Test
+    void testJobResults() throws Exception {
+        ByteArrayOutputStream bundle = new ByteArrayOutputStream();
+        bundle.writeBytes(Files.readAllBytes(Path.of("src/test/resources/rsa-csr.pem")));
+        bundle.writeBytes(Files.readAllBytes(Path.of("src/test/resources/ecdsa-csr.pem")));
+        bundle.writeBytes(INVALID_PEM);
+        bundle.writeBytes(Files.readAllBytes(Path.of("src/test/resources/rsa-csr-san.pem")));
+
+        Job job = jobService.create(
+                new ByteArrayInputStream(bundle.toByteArray()), bundle.size(), ParserEngine.CUSTOM);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!job.getStatus().isFinished()) {
+            assertThat(System.nanoTime()).as("waiting for job %s", job.getId()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+
+        String path = "/api/v1/jobs/" + job.getId() + "/results?offset=1&limit=2";
+
+        String lines = new String(results(path, MediaType.APPLICATION_NDJSON), StandardCharsets.UTF_8);
+
+        List<JsonNode> ndjson = new ArrayList<>();
+        for (String line : lines.lines().toList()) {
+            ndjson.add(objectMapper.readTree(line));
+        }
+        assertThat(ndjson).extracting(result -> result.get("source").asText()).containsExactly("#2", "#3");
+
+        List<JsonNode> cbor = readValues(CBOR_MAPPER, results(path, SerializationConfiguration.APPLICATION_CBOR_SEQ));
+        List<JsonNode> smile = readValues(SMILE_MAPPER, results(path, SerializationConfiguration.APPLICATION_SMILE));
+
+        assertThat(cbor).isEqualTo(ndjson);
+        assertThat(smile).isEqualTo(ndjson);
+    }
+
+    private byte[] parse(String path, byte[] csr, MediaType accept) throws Exception {
+        return mockMvc.perform(post(path).content(csr).accept(accept))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(accept))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+    }
+
+    private byte[] results(String path, MediaType accept) throws Exception {
+        // the results are streamed asynchronously
+        MvcResult result = mockMvc.perform(get(path).accept(accept))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().contentTypeCompatibleWith(accept))
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+    }
+
+    private static List<JsonNode> readValues(ObjectMapper mapper, byte[] content) throws IOException {
+        return mapper.readerFor(JsonNode.class).<JsonNode>readValues(content).readAll();
+    }
+}
@@ -0,0 +1,280 @@
+package de.karaca.csrparser.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
+import de.karaca.csrparser.fixtures.TestParsers;
+import de.karaca.csrparser.model.CsrFieldFilter;
+import de.karaca.csrparser.spool.SpoolIngestionService;
+import de.karaca.csrparser.spool.SpoolProperties;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.util.FileSystemUtils;
+
+public class SpoolIngestionTest {
+    private static final byte[] INVALID_CSR = "not a csr".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path directory;
+
+    private Path input;
+    private Path processing;
+    private Path output;
+    private Path archive;
+
+    private byte[] csr;
+
+    // results are only written once released, which blocks the workers
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private SpoolIngestionService service;
+
+    @BeforeEach
+    void setup() throws IOException {
+        input = directory.resolve("in");
+        processing = input.resolve(".processing");
+        output = directory.resolve("out");
+        archive = directory.resolve("archive");
+
+        csr = Files.readAllBytes(Path.of("src/test/resources/rsa-csr.pem"));
+    }
+
+    @AfterEach
+    void stop() {
+        released.countDown();
+
+        if (service != null && service.isRunning()) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void testProcess() throws Exception {
+        start(objectMapper(), 2, 10);
+
+        drop("valid.pem", csr);
+        drop("invalid.pem", INVALID_CSR);
+
+        await(archive.resolve(stem("valid.pem", csr)));
+        await(archive.resolve(stem("invalid.pem", INVALID_CSR)));
+
+        assertThat(Files.readString(output.resolve(stem("valid.pem", csr) + ".json"))).contains("www.example.com");
+        assertThat(output.resolve(stem("invalid.pem", INVALID_CSR) + ".error.json")).exists();
+        assertThat(processing).isEmptyDirectory();
+    }
+
+    @Test
+    void testRecoverClaimedFile() throws Exception {
+        // claimed, but not parsed before the last shutdown
+        Files.createDirectories(processing);
+        Files.write(processing.resolve("left.pem"), csr);
+
+        start(objectMapper(), 2, 10);
+
+        await(archive.resolve(stem("left.pem", csr)));
+
+        assertThat(output.resolve(stem("left.pem", csr) + ".json")).exists();
+        assertThat(processing).isEmptyDirectory();
+    }
+
+    @Test
+    void testRecoverCommittedFile() throws Exception {
+        leaveCommittedFile("done.pem");
+
+        start(objectMapper(), 2, 10);
+
+        await(archive.resolve(stem("done.pem", csr)));
+
+        // archived without being parsed again
+        assertThat(archive.resolve(stem("done.pem", csr))).isRegularFile();
+        assertThat(output.resolve(stem("done.pem", csr) + ".json")).doesNotExist();
+        assertThat(processing).isEmptyDirectory();
+    }
+
+    @Test
+    void testRecoverReusedName() throws Exception {
+        leaveCommittedFile("reused.pem");
+
+        // a new file with the name of the committed one, claimed but not parsed before the last shutdown
+        Files.write(processing.resolve("reused.pem"), INVALID_CSR);
+
+        start(objectMapper(), 2, 10);
+
+        await(archive.resolve(stem("reused.pem", INVALID_CSR)));
+
+        assertThat(output.resolve(stem("reused.pem", INVALID_CSR) + ".error.json")).exists();
+        assertThat(archive.resolve(stem("reused.pem", INVALID_CSR))).hasBinaryContent(INVALID_CSR);
+    }
+
+    @Test
+    void testReusedName() throws Exception {
+        start(objectMapper(), 2, 10);
+
+        drop("reused.pem", csr);
+        await(archive.resolve(stem("reused.pem", csr)));
+
+        // dropped after the first file was processed
+        drop("reused.pem", INVALID_CSR);
+        await(archive.resolve(stem("reused.pem", INVALID_CSR)));
+
+        // neither the result nor the archived file of the first one is replaced
+        assertThat(output.resolve(stem("reused.pem", csr) + ".json")).exists();
+        assertThat(output.resolve(stem("reused.pem", INVALID_CSR) + ".error.json")).exists();
+        assertThat(archive.resolve(stem("reused.pem", csr))).hasBinaryContent(csr);
+        assertThat(archive.resolve(stem("reused.pem", INVALID_CSR))).hasBinaryContent(INVALID_CSR);
+    }
+
+    @Test
+    void testDuplicateNames() throws Exception {
+        start(blockingObjectMapper(), 1, 10);
+
+        drop("duplicate.pem", csr);
+        awaitClaimed("duplicate.pem");
+
+        // the first file is still being processed
+        drop("duplicate.pem", INVALID_CSR);
+        awaitClaimed("duplicate.pem");
+
+        assertThat(processing.resolve("duplicate.pem")).hasBinaryContent(csr);
+        assertThat(processing.resolve("duplicate.pem.1")).hasBinaryContent(INVALID_CSR);
+
+        released.countDown();
+
+        await(output.resolve(stem("duplicate.pem", csr) + ".json"));
+        await(output.resolve(stem("duplicate.pem.1", INVALID_CSR) + ".error.json"));
+    }
+
+    @Test
+    void testOverflowRescan() throws Exception {
+        start(blockingObjectMapper(), 1, 1);
+
+        // one file is parsed, one is queued and the watcher waits for space in the queue for the third
+        for (int i = 0; i < 3; i++) {
+            drop("blocking-" + i + ".pem", INVALID_CSR);
+            awaitClaimed("blocking-" + i + ".pem");
+        }
+
+        // more events than a watch key holds, the rest is reported as an overflow
+        int files = 1000;
+        for (int i = 0; i < files; i++) {
+            drop("file-" + i + ".pem", INVALID_CSR);
+        }
+
+        released.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (count(archive) < files + 3) {
+            assertThat(System.nanoTime()).as("waiting for %d files", files + 3).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+
+        assertThat(count(output)).isEqualTo(files + 3);
+        assertThat(input).isDirectoryNotContaining(path -> !path.equals(processing));
+    }
+
+    /**
+     * Process the file, but fail to archive it, as if the application stopped right after the checkpoint entry.
+     * The result is deleted afterwards.
+     **/
+    private void leaveCommittedFile(String name) throws Exception {
+        // a directory with content can't be replaced by the archived file
+        Files.createDirectories(archive.resolve(stem(name, csr)).resolve("blocker"));
+
+        start(objectMapper(), 1, 10);
+        drop(name, csr);
+        await(output.resolve(stem(name, csr) + ".json"));
+        service.stop();
+
+        assertThat(processing.resolve(name)).exists();
+
+        FileSystemUtils.deleteRecursively(archive.resolve(stem(name, csr)));
+        Files.delete(output.resolve(stem(name, csr) + ".json"));
+    }
+
+    private void start(ObjectMapper objectMapper, int workers, int queueCapacity) {
+        SpoolProperties properties = new SpoolProperties();
+        properties.setEnabled(true);
+        properties.setInputDirectory(input);
+        properties.setOutputDirectory(output);
+        properties.setArchiveDirectory(archive);
+        properties.setCheckpointFile(directory.resolve("spool-checkpoint"));
+        properties.setWorkers(workers);
+        properties.setQueueCapacity(queueCapacity);
+
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("customParserService", TestParsers.custom());
+
+        service = new SpoolIngestionService(properties, beanFactory, objectMapper);
+        service.start();
+    }
+
+    private ObjectMapper objectMapper() {
+        return new ObjectMapper().findAndRegisterModules().setFilterProvider(CsrFieldFilter.PROVIDER);
+    }
+
+    private ObjectMapper blockingObjectMapper() {
+        return new ObjectMapper() {
+            @Override
+            public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return super.writeValueAsBytes(value);
+            }
+        }.findAndRegisterModules().setFilterProvider(CsrFieldFilter.PROVIDER);
+    }
+
+    /**
+     * Write the file like a producer should, under a temporary name which is renamed when complete.
+     **/
+    private void drop(String name, byte[] content) throws IOException {
+        Path temp = input.resolve("." + name + ".tmp");
+        Files.write(temp, content);
+        Files.move(temp, input.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void awaitClaimed(String name) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (Files.exists(input.resolve(name))) {
+            assertThat(System.nanoTime()).as("waiting for %s to be claimed", name).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * @return name of the result and the archived file of a file with the given name and content
+     **/
+    private static String stem(String name, byte[] content) {
+        return name + "." + KeyFingerprintService.toHex(KeyFingerprintService.fingerprint(content)).substring(0, 16);
+    }
+
+    private static void await(Path file) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!Files.exists(file)) {
+            assertThat(System.nanoTime()).as("waiting for %s", file).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static long count(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
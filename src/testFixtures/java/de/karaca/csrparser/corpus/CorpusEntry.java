@@ -0,0 +1,42 @@
+package de.karaca.csrparser.corpus;
+
+import java.util.Locale;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * A generated CSR with the parameters it was generated with.
+ **/
+@Getter
+@Builder
+public class CorpusEntry {
+    private final long index;
+    private final KeyType keyType;
+    private final SignatureAlgorithm signatureAlgorithm;
+    private final SubjectShape subjectShape;
+    private final int subjectAlternativeNames;
+    private final boolean pem;
+    // null if the CSR is valid
+    private final Malformation malformation;
+    private final byte[] bytes;
+
+    public boolean isValid() {
+        return malformation == null;
+    }
+
+    /**
+     * @return e.g. {@code 000000042-rsa_2048.pem} or {@code 000000043-ec_p256-truncated.der}
+     **/
+    public String getFileName() {
+        StringBuilder name = new StringBuilder(48)
+                .append(String.format("%09d", index))
+                .append('-')
+                .append(keyType.name().toLowerCase(Locale.ROOT));
+
+        if (malformation != null) {
+            name.append('-').append(malformation.name().toLowerCase(Locale.ROOT));
+        }
+
+        return name.append(pem ? ".pem" : ".der").toString();
+    }
+}
@@ -0,0 +1,488 @@
+package de.karaca.csrparser.corpus;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERSet;
+import org.bouncycastle.asn1.pkcs.Attribute;
+import org.bouncycastle.asn1.pkcs.CertificationRequest;
+import org.bouncycastle.asn1.pkcs.CertificationRequestInfo;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+
+/**
+ * Reproducible corpus of synthetic CSRs for benchmarks, load tests and differential tests.
+ *
+ * Every entry is derived from the seed and its index alone, so the same seed always gives the same bytes, entries
+ * can be generated in any order and in parallel, and a single entry of a corpus of millions can be regenerated on its
+ * own. Entries are generated on demand and not kept, so corpora of any size fit into memory when they are streamed.
+ *
+ * Key generation is the expensive part, so every key type uses a small pool of keys derived from the seed.
+ * CSRs are built and signed with the ASN.1 classes of BouncyCastle and the JCA providers of the JDK.
+ *
+ * <pre>{@code
+ * CsrCorpus corpus = CsrCorpus.builder().seed(42).malformedRate(0.05).build();
+ * corpus.stream(1_000_000).parallel().forEach(entry -> parse(entry.getBytes()));
+ * }</pre>
+ **/
+@Getter
+@Builder
+public class CsrCorpus {
+    private static final String PEM_HEADER = "-----BEGIN CERTIFICATE REQUEST-----";
+    private static final String PEM_FOOTER = "-----END CERTIFICATE REQUEST-----";
+
+    private static final String[] DOMAINS = {
+        "example.com", "example.org", "karaca.de", "test.internal", "corp.example"
+    };
+
+    private static final String USAGE =
+            """
+            Usage: generateCorpus --count=<n> --output=<directory|file> [options]
+
+            Options:
+              --seed=<n>                           seed of the corpus (default: 0)
+              --bundle                             write a single bundle file instead of one file per CSR
+              --pem-rate=<0..1>                    share of PEM encoded CSRs (default: 0.5)
+              --malformed-rate=<0..1>              share of malformed CSRs (default: 0)
+              --max-subject-alternative-names=<n>  upper bound of names per CSR (default: 50000)
+              --key-types=<type,...>               e.g. rsa_2048,ec_p256,ed25519 (default: all except ed25519)
+            """;
+
+    // entries generated at once by the writers, also the files per directory
+    private static final int CHUNK_SIZE = 1000;
+
+    @Builder.Default
+    private final long seed = 0;
+
+    @Builder.Default
+    private final Set<KeyType> keyTypes = KeyType.DEFAULTS;
+
+    @Builder.Default
+    private final Set<SubjectShape> subjectShapes = EnumSet.allOf(SubjectShape.class);
+
+    /**
+     * Keys generated per key type, CSRs of the same type share them.
+     **/
+    @Builder.Default
+    private final int keysPerType = 4;
+
+    /**
+     * Upper bound of the subject alternative names per CSR. Most CSRs have a few, about 2% more than 1000.
+     **/
+    @Builder.Default
+    private final int maxSubjectAlternativeNames = 50_000;
+
+    /**
+     * Share of PEM encoded entries, the others are DER encoded.
+     **/
+    @Builder.Default
+    private final double pemRate = 0.5;
+
+    /**
+     * Share of malformed entries.
+     **/
+    @Builder.Default
+    private final double malformedRate = 0;
+
+    @Builder.Default
+    private final Set<Malformation> malformations = EnumSet.allOf(Malformation.class);
+
+    @Getter(AccessLevel.NONE)
+    private final Map<KeyType, KeyPair[]> keys = new ConcurrentHashMap<>();
+
+    /**
+     * @return the entry at the given index, thread-safe
+     **/
+    public CorpusEntry entry(long index) {
+        SplittableRandom random = new SplittableRandom(mix(seed ^ mix(index)));
+
+        KeyType keyType = pick(random, keyTypes, KeyType::getWeight);
+        SignatureAlgorithm signatureAlgorithm =
+                pick(random, keyType.getSignatureAlgorithms(), SignatureAlgorithm::getWeight);
+        SubjectShape subjectShape = pick(random, subjectShapes, SubjectShape::getWeight);
+        int subjectAlternativeNames = subjectAlternativeNameCount(random);
+        KeyPair keyPair = keyPairs(keyType)[random.nextInt(keysPerType)];
+
+        boolean pem = random.nextDouble() < pemRate;
+        Malformation malformation = random.nextDouble() < malformedRate ? pick(random, malformations, m -> 1) : null;
+
+        String host = "host-" + index + "." + DOMAINS[random.nextInt(DOMAINS.length)];
+
+        byte[] der = encode(
+                random,
+                keyPair,
+                signatureAlgorithm,
+                subjectShape.subject(random, host),
+                host,
+                subjectAlternativeNames);
+
+        byte[] bytes;
+        if (malformation != null && malformation.isPem()) {
+            pem = true;
+            bytes = malformation.apply(pem(der, random), random).getBytes(StandardCharsets.US_ASCII);
+        } else {
+            if (malformation != null) {
+                der = malformation.apply(der, random);
+            }
+            bytes = pem ? pem(der, random).getBytes(StandardCharsets.US_ASCII) : der;
+        }
+
+        return CorpusEntry.builder()
+                .index(index)
+                .keyType(keyType)
+                .signatureAlgorithm(signatureAlgorithm)
+                .subjectShape(subjectShape)
+                .subjectAlternativeNames(subjectAlternativeNames)
+                .pem(pem)
+                .malformation(malformation)
+                .bytes(bytes)
+                .build();
+    }
+
+    /**
+     * @return the entries from 0 (inclusive) to count (exclusive), generated lazily and in parallel if the stream is
+     * parallel
+     **/
+    public Stream<CorpusEntry> stream(long count) {
+        return LongStream.range(0, count).mapToObj(this::entry);
+    }
+
+    /**
+     * @return the bytes of the entries from 0 (inclusive) to count (exclusive), e.g. as input of a benchmark
+     **/
+    public List<byte[]> generate(int count) {
+        List<byte[]> inputs = new ArrayList<>(count);
+        stream(count).map(CorpusEntry::getBytes).forEachOrdered(inputs::add);
+        return inputs;
+    }
+
+    /**
+     * Write every entry into its own file, 1000 files per sub directory, and a {@code manifest.csv}
+     * with the parameters of every entry.
+     **/
+    public void writeFiles(Path directory, long count) throws IOException {
+        Files.createDirectories(directory);
+
+        try (BufferedWriter manifest = Files.newBufferedWriter(directory.resolve("manifest.csv"))) {
+            manifest.write("file,keyType,signatureAlgorithm,subjectShape,subjectAlternativeNames,pem,malformation\n");
+
+            forEachEntry(count, entry -> {
+                String subDirectory = String.format("%06d", entry.getIndex() / CHUNK_SIZE);
+                if (entry.getIndex() % CHUNK_SIZE == 0) {
+                    Files.createDirectories(directory.resolve(subDirectory));
+                }
+
+                String file = subDirectory + "/" + entry.getFileName();
+                Files.write(directory.resolve(file), entry.getBytes());
+
+                manifest.write(String.join(
+                        ",",
+                        file,
+                        entry.getKeyType().name(),
+                        entry.getSignatureAlgorithm().name(),
+                        entry.getSubjectShape().name(),
+                        Integer.toString(entry.getSubjectAlternativeNames()),
+                        Boolean.toString(entry.isPem()),
+                        entry.isValid() ? "" : entry.getMalformation().name()));
+                manifest.write('\n');
+            });
+        }
+    }
+
+    /**
+     * Write all entries into a single bundle file as read by the command line bulk mode.
+     * Malformed entries cannot be split from a bundle reliably, so the corpus must not contain any.
+     **/
+    public void writeBundle(Path file, long count) throws IOException {
+        if (malformedRate > 0) {
+            throw new IllegalStateException("Bundles cannot contain malformed entries");
+        }
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            // PEM blocks end with a line break, DER records need no separator
+            forEachEntry(count, entry -> out.write(entry.getBytes()));
+        }
+    }
+
+    /**
+     * Generate a corpus on the command line, e.g. with
+     * {@code ./gradlew generateCorpus --args="--count=1000000 --output=build/corpus"}.
+     **/
+    public static void main(String[] args) throws IOException {
+        var builder = CsrCorpus.builder();
+        long count = 0;
+        Path output = null;
+        boolean bundle = false;
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg : arg.substring(0, separator);
+            String value = separator < 0 ? "" : arg.substring(separator + 1);
+
+            switch (name) {
+                case "--seed" -> builder.seed(Long.parseLong(value));
+                case "--count" -> count = Long.parseLong(value);
+                case "--output" -> output = Path.of(value);
+                case "--bundle" -> bundle = true;
+                case "--pem-rate" -> builder.pemRate(Double.parseDouble(value));
+                case "--malformed-rate" -> builder.malformedRate(Double.parseDouble(value));
+                case "--max-subject-alternative-names" -> builder.maxSubjectAlternativeNames(Integer.parseInt(value));
+                case "--key-types" -> {
+                    Set<KeyType> keyTypes = EnumSet.noneOf(KeyType.class);
+                    for (String keyType : value.split(",")) {
+                        keyTypes.add(KeyType.valueOf(keyType.trim().toUpperCase(Locale.ROOT)));
+                    }
+                    builder.keyTypes(keyTypes);
+                }
+                default -> {
+                    System.err.println(USAGE);
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+        }
+
+        if (count <= 0 || output == null) {
+            System.err.println(USAGE);
+            throw new IllegalArgumentException("--count and --output are required");
+        }
+
+        CsrCorpus corpus = builder.build();
+        long started = System.nanoTime();
+
+        if (bundle) {
+            corpus.writeBundle(output, count);
+        } else {
+            corpus.writeFiles(output, count);
+        }
+
+        System.err.printf(
+                "Generated %d CSRs in %.1f s to %s%n",
+                count, (System.nanoTime() - started) / 1e9, output.toAbsolutePath());
+    }
+
+    /**
+     * Generate the entries in chunks on all cores and pass them to the writer in the order of their index.
+     **/
+    private void forEachEntry(long count, EntryWriter writer) throws IOException {
+        for (long start = 0; start < count; start += CHUNK_SIZE) {
+            List<CorpusEntry> chunk = LongStream.range(start, Math.min(count, start + CHUNK_SIZE))
+                    .parallel()
+                    .mapToObj(this::entry)
+                    .toList();
+
+            for (CorpusEntry entry : chunk) {
+                writer.write(entry);
+            }
+        }
+    }
+
+    private KeyPair[] keyPairs(KeyType keyType) {
+        return keys.computeIfAbsent(keyType, type -> {
+            KeyPair[] pairs = new KeyPair[keysPerType];
+            for (int i = 0; i < keysPerType; i++) {
+                pairs[i] = type.generate(secureRandom(mix(seed + type.ordinal() * 1_000_003L + i)));
+            }
+            return pairs;
+        });
+    }
+
+    private static byte[] encode(
+            SplittableRandom random,
+            KeyPair keyPair,
+            SignatureAlgorithm signatureAlgorithm,
+            X500Name subject,
+            String host,
+            int subjectAlternativeNames) {
+        try {
+            ExtensionsGenerator extensions = new ExtensionsGenerator();
+
+            if (subjectAlternativeNames > 0) {
+                GeneralName[] names = new GeneralName[subjectAlternativeNames];
+                for (int i = 0; i < names.length; i++) {
+                    names[i] = subjectAlternativeName(random, host, i);
+                }
+
+                extensions.addExtension(Extension.subjectAlternativeName, false, new GeneralNames(names));
+            }
+
+            if (random.nextInt(3) == 0) {
+                extensions.addExtension(
+                        Extension.keyUsage, true, new KeyUsage(KeyUsage.digitalSignature | KeyUsage.keyEncipherment));
+                extensions.addExtension(
+                        Extension.extendedKeyUsage,
+                        false,
+                        new ExtendedKeyUsage(
+                                new KeyPurposeId[] {KeyPurposeId.id_kp_serverAuth, KeyPurposeId.id_kp_clientAuth}));
+            }
+
+            if (random.nextInt(10) == 0) {
+                extensions.addExtension(Extension.basicConstraints, true, new BasicConstraints(false));
+            }
+
+            DERSet attributes = extensions.isEmpty()
+                    ? new DERSet()
+                    : new DERSet(new Attribute(
+                            PKCSObjectIdentifiers.pkcs_9_at_extensionRequest, new DERSet(extensions.generate())));
+
+            CertificationRequestInfo info = new CertificationRequestInfo(
+                    subject, SubjectPublicKeyInfo.getInstance(keyPair.getPublic().getEncoded()), attributes);
+
+            byte[] signature = signatureAlgorithm.sign(
+                    keyPair.getPrivate(), secureRandom(random.nextLong()), info.getEncoded(ASN1Encoding.DER));
+
+            return new CertificationRequest(
+                            info, signatureAlgorithm.getAlgorithmIdentifier(), new DERBitString(signature))
+                    .getEncoded(ASN1Encoding.DER);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return mostly DNS names, some IP addresses, e-mail addresses and URIs
+     **/
+    private static GeneralName subjectAlternativeName(SplittableRandom random, String host, int i) {
+        int type = random.nextInt(100);
+
+        if (type < 85) {
+            return new GeneralName(GeneralName.dNSName, i == 0 ? host : (type < 5 ? "*." : "san-" + i + ".") + host);
+        }
+
+        if (type < 92) {
+            byte[] address = new byte[random.nextInt(4) == 0 ? 16 : 4];
+            for (int b = 0; b < address.length; b++) {
+                address[b] = (byte) random.nextInt(256);
+            }
+
+            try {
+                return new GeneralName(GeneralName.iPAddress, InetAddress.getByAddress(address).getHostAddress());
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        if (type < 96) {
+            return new GeneralName(GeneralName.rfc822Name, "user" + i + "@" + host);
+        }
+
+        return new GeneralName(GeneralName.uniformResourceIdentifier, "https://" + host + "/path/" + i);
+    }
+
+    private int subjectAlternativeNameCount(SplittableRandom random) {
+        int bucket = random.nextInt(100);
+
+        int count;
+        if (bucket < 25) {
+            count = 0;
+        } else if (bucket < 70) {
+            count = 1 + random.nextInt(4);
+        } else if (bucket < 90) {
+            count = 5 + random.nextInt(95);
+        } else if (bucket < 98) {
+            count = 100 + random.nextInt(900);
+        } else {
+            count = 1000 + random.nextInt(Math.max(1, maxSubjectAlternativeNames - 999));
+        }
+
+        return Math.min(count, maxSubjectAlternativeNames);
+    }
+
+    /**
+     * PEM with lines of 64 characters, one in ten entries with CRLF line breaks.
+     **/
+    private static String pem(byte[] der, SplittableRandom random) {
+        String lineBreak = random.nextInt(10) == 0 ? "\r\n" : "\n";
+
+        String base64 = Base64.getMimeEncoder(64, lineBreak.getBytes(StandardCharsets.US_ASCII))
+                .encodeToString(der);
+
+        return PEM_HEADER + lineBreak + base64 + lineBreak + PEM_FOOTER + lineBreak;
+    }
+
+    private static <E> E pick(SplittableRandom random, Collection<E> values, ToIntFunction<E> weight) {
+        int total = 0;
+        for (E value : values) {
+            total += weight.applyAsInt(value);
+        }
+
+        if (total == 0) {
+            throw new IllegalArgumentException("Nothing to pick from " + values);
+        }
+
+        int target = random.nextInt(total);
+        for (E value : values) {
+            target -= weight.applyAsInt(value);
+            if (target < 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalStateException();
+    }
+
+    /**
+     * @return a random which returns the same bytes for the same seed
+     **/
+    private static SecureRandom secureRandom(long seed) {
+        try {
+            SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
+            // seeding before the first use replaces the seed of the operating system
+            random.setSeed(seed);
+            return random;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Bit mixing of SplitMix64, so neighbouring indexes and seeds give unrelated randoms.
+     **/
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @FunctionalInterface
+    private interface EntryWriter {
+        void write(CorpusEntry entry) throws IOException;
+    }
+}
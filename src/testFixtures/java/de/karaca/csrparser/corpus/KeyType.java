@@ -0,0 +1,75 @@
+package de.karaca.csrparser.corpus;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * Key types of the generated CSRs with their share of a corpus.
+ **/
+@Getter
+public enum KeyType {
+    RSA_2048("RSA", 2048, null, 50),
+    RSA_3072("RSA", 3072, null, 8),
+    RSA_4096("RSA", 4096, null, 10),
+    EC_P256("EC", 0, "secp256r1", 22),
+    EC_P384("EC", 0, "secp384r1", 8),
+    EC_P521("EC", 0, "secp521r1", 2),
+    // not supported by the custom parser, only generated if selected
+    ED25519("Ed25519", 0, null, 10);
+
+    /**
+     * Key types generated by default.
+     **/
+    public static final Set<KeyType> DEFAULTS =
+            Collections.unmodifiableSet(EnumSet.complementOf(EnumSet.of(ED25519)));
+
+    private final String algorithm;
+    private final int keySize;
+    private final String curve;
+    // relative share among the selected key types
+    private final int weight;
+
+    KeyType(String algorithm, int keySize, String curve, int weight) {
+        this.algorithm = algorithm;
+        this.keySize = keySize;
+        this.curve = curve;
+        this.weight = weight;
+    }
+
+    /**
+     * @return signature algorithms which can be used with keys of this type
+     **/
+    public List<SignatureAlgorithm> getSignatureAlgorithms() {
+        return SignatureAlgorithm.forKeyAlgorithm(algorithm);
+    }
+
+    /**
+     * Generate a key pair, the same random bytes give the same key pair.
+     **/
+    KeyPair generate(SecureRandom random) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm);
+
+            if (keySize > 0) {
+                generator.initialize(keySize, random);
+            } else if (curve != null) {
+                generator.initialize(new ECGenParameterSpec(curve), random);
+            } else {
+                generator.initialize(255, random);
+            }
+
+            return generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException | InvalidAlgorithmParameterException e) {
+            throw new IllegalStateException("Cannot generate " + this + " keys", e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package de.karaca.csrparser.corpus;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Ways the generated CSRs are damaged. Every parser has to reject them, except where noted.
+ **/
+public enum Malformation {
+    // cut off at a random position
+    TRUNCATED,
+    // one random bit flipped, may still be accepted as the parsers do not verify signatures
+    BIT_FLIP,
+    // outer length larger than the input
+    LENGTH_OVERFLOW,
+    // outer SEQUENCE replaced with a SET
+    WRONG_TAG,
+    // outer length in the indefinite form of BER, which is not allowed in DER
+    INDEFINITE_LENGTH,
+    // random bytes after the CSR, may be ignored by lenient parsers
+    TRAILING_DATA,
+    // random bytes of the same length
+    RANDOM,
+    EMPTY,
+    // invalid character in the Base64 content, always PEM encoded
+    INVALID_BASE64(true),
+    // PEM without its END line, always PEM encoded, may be accepted by lenient parsers
+    MISSING_PEM_FOOTER(true);
+
+    private final boolean pem;
+
+    Malformation() {
+        this(false);
+    }
+
+    Malformation(boolean pem) {
+        this.pem = pem;
+    }
+
+    /**
+     * @return true if the malformation is applied to the PEM encoding, else to the DER encoding
+     **/
+    public boolean isPem() {
+        return pem;
+    }
+
+    /**
+     * Damage the DER encoding of a CSR, the result is PEM encoded by the caller if requested.
+     * Not used for PEM malformations.
+     **/
+    byte[] apply(byte[] der, SplittableRandom random) {
+        return switch (this) {
+            case TRUNCATED -> Arrays.copyOf(der, 1 + random.nextInt(der.length - 1));
+            case BIT_FLIP -> {
+                byte[] damaged = der.clone();
+                damaged[random.nextInt(damaged.length)] ^= (byte) (1 << random.nextInt(8));
+                yield damaged;
+            }
+            case LENGTH_OVERFLOW -> {
+                int contentLength = der.length - headerLength(der);
+                yield withHeader(der, header(contentLength + 1 + random.nextInt(256)), new byte[0]);
+            }
+            case WRONG_TAG -> {
+                byte[] damaged = der.clone();
+                damaged[0] = 0x31;
+                yield damaged;
+            }
+            case INDEFINITE_LENGTH -> withHeader(der, new byte[] {0x30, (byte) 0x80}, new byte[2]);
+            case TRAILING_DATA -> {
+                byte[] damaged = Arrays.copyOf(der, der.length + 1 + random.nextInt(64));
+                for (int i = der.length; i < damaged.length; i++) {
+                    damaged[i] = (byte) random.nextInt(256);
+                }
+                yield damaged;
+            }
+            case RANDOM -> {
+                byte[] damaged = new byte[der.length];
+                for (int i = 0; i < damaged.length; i++) {
+                    damaged[i] = (byte) random.nextInt(256);
+                }
+                yield damaged;
+            }
+            case EMPTY -> new byte[0];
+            case INVALID_BASE64, MISSING_PEM_FOOTER -> throw new IllegalStateException(this + " is applied to PEM");
+        };
+    }
+
+    /**
+     * Damage the PEM encoding of a CSR.
+     **/
+    String apply(String pem, SplittableRandom random) {
+        return switch (this) {
+            case INVALID_BASE64 -> {
+                int bodyStart = pem.indexOf('\n') + 1;
+                int bodyEnd = pem.indexOf("-----END");
+                int position = bodyStart + random.nextInt(bodyEnd - bodyStart);
+                while (pem.charAt(position) == '\r' || pem.charAt(position) == '\n') {
+                    position--;
+                }
+                yield pem.substring(0, position) + '*' + pem.substring(position + 1);
+            }
+            case MISSING_PEM_FOOTER -> pem.substring(0, pem.indexOf("-----END"));
+            default -> throw new IllegalStateException(this + " is applied to DER");
+        };
+    }
+
+    private static int headerLength(byte[] der) {
+        return (der[1] & 0x80) == 0 ? 2 : 2 + (der[1] & 0x7F);
+    }
+
+    /**
+     * @return SEQUENCE header with the shortest encoding of the length
+     **/
+    private static byte[] header(int length) {
+        if (length < 0x80) {
+            return new byte[] {0x30, (byte) length};
+        }
+
+        int bytes = (Integer.SIZE - Integer.numberOfLeadingZeros(length) + 7) / 8;
+
+        byte[] header = new byte[2 + bytes];
+        header[0] = 0x30;
+        header[1] = (byte) (0x80 | bytes);
+        for (int i = 0; i < bytes; i++) {
+            header[2 + i] = (byte) (length >>> (8 * (bytes - 1 - i)));
+        }
+
+        return header;
+    }
+
+    /**
+     * @return the content of the outer SEQUENCE with another header and the trailer appended
+     **/
+    private static byte[] withHeader(byte[] der, byte[] header, byte[] trailer) {
+        int headerLength = headerLength(der);
+        int contentLength = der.length - headerLength;
+
+        byte[] result = new byte[header.length + contentLength + trailer.length];
+        System.arraycopy(header, 0, result, 0, header.length);
+        System.arraycopy(der, headerLength, result, header.length, contentLength);
+        System.arraycopy(trailer, 0, result, header.length + contentLength, trailer.length);
+
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+package de.karaca.csrparser.corpus;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.util.Arrays;
+import java.util.List;
+import lombok.Getter;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.edec.EdECObjectIdentifiers;
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.RSASSAPSSparams;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+
+/**
+ * Signature algorithms of the generated CSRs with their share among the algorithms of a key type.
+ **/
+@Getter
+public enum SignatureAlgorithm {
+    SHA1_WITH_RSA("SHA1withRSA", "RSA", rsa(PKCSObjectIdentifiers.sha1WithRSAEncryption), 4),
+    SHA256_WITH_RSA("SHA256withRSA", "RSA", rsa(PKCSObjectIdentifiers.sha256WithRSAEncryption), 70),
+    SHA384_WITH_RSA("SHA384withRSA", "RSA", rsa(PKCSObjectIdentifiers.sha384WithRSAEncryption), 10),
+    SHA512_WITH_RSA("SHA512withRSA", "RSA", rsa(PKCSObjectIdentifiers.sha512WithRSAEncryption), 10),
+    // RSASSA-PSS with SHA-256, the parameters are part of the algorithm identifier
+    SHA256_WITH_RSA_PSS("RSASSA-PSS", "RSA", pss(), 6),
+    SHA256_WITH_ECDSA("SHA256withECDSA", "EC", new AlgorithmIdentifier(X9ObjectIdentifiers.ecdsa_with_SHA256), 60),
+    SHA384_WITH_ECDSA("SHA384withECDSA", "EC", new AlgorithmIdentifier(X9ObjectIdentifiers.ecdsa_with_SHA384), 30),
+    SHA512_WITH_ECDSA("SHA512withECDSA", "EC", new AlgorithmIdentifier(X9ObjectIdentifiers.ecdsa_with_SHA512), 10),
+    ED25519("Ed25519", "Ed25519", new AlgorithmIdentifier(EdECObjectIdentifiers.id_Ed25519), 1);
+
+    private final String jcaName;
+    private final String keyAlgorithm;
+    private final AlgorithmIdentifier algorithmIdentifier;
+    // relative share among the algorithms of the same key algorithm
+    private final int weight;
+
+    SignatureAlgorithm(String jcaName, String keyAlgorithm, AlgorithmIdentifier algorithmIdentifier, int weight) {
+        this.jcaName = jcaName;
+        this.keyAlgorithm = keyAlgorithm;
+        this.algorithmIdentifier = algorithmIdentifier;
+        this.weight = weight;
+    }
+
+    static List<SignatureAlgorithm> forKeyAlgorithm(String keyAlgorithm) {
+        return Arrays.stream(values())
+                .filter(algorithm -> algorithm.keyAlgorithm.equals(keyAlgorithm))
+                .toList();
+    }
+
+    /**
+     * Sign the data, randomized signatures (ECDSA, PSS) take their randomness from the given random.
+     **/
+    byte[] sign(PrivateKey key, SecureRandom random, byte[] data) {
+        try {
+            Signature signature = Signature.getInstance(jcaName);
+
+            if (this == SHA256_WITH_RSA_PSS) {
+                signature.setParameter(new PSSParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, 32, 1));
+            }
+
+            signature.initSign(key, random);
+            signature.update(data);
+
+            return signature.sign();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign with " + this, e);
+        }
+    }
+
+    private static AlgorithmIdentifier rsa(ASN1ObjectIdentifier algorithm) {
+        return new AlgorithmIdentifier(algorithm, DERNull.INSTANCE);
+    }
+
+    private static AlgorithmIdentifier pss() {
+        AlgorithmIdentifier sha256 = new AlgorithmIdentifier(NISTObjectIdentifiers.id_sha256, DERNull.INSTANCE);
+
+        return new AlgorithmIdentifier(
+                PKCSObjectIdentifiers.id_RSASSA_PSS,
+                new RSASSAPSSparams(
+                        sha256,
+                        new AlgorithmIdentifier(PKCSObjectIdentifiers.id_mgf1, sha256),
+                        new ASN1Integer(32),
+                        new ASN1Integer(1)));
+    }
+}
@@ -0,0 +1,96 @@
+package de.karaca.csrparser.corpus;
+
+import java.util.SplittableRandom;
+import lombok.Getter;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x500.X500NameBuilder;
+import org.bouncycastle.asn1.x500.style.BCStyle;
+
+/**
+ * Shapes of the subject names of generated CSRs with their share of a corpus.
+ **/
+@Getter
+public enum SubjectShape {
+    // no RDNs at all, common for CSRs which only carry subject alternative names
+    EMPTY(4),
+    COMMON_NAME(30),
+    ORGANIZATION(25),
+    // all attributes the parsers return, including the e-mail address as IA5String
+    FULL(15),
+    // common name and user id in a single RDN
+    MULTI_VALUED_RDN(6),
+    REPEATED_ORGANIZATION_UNIT(8),
+    DOMAIN_COMPONENTS(6),
+    // UTF8String values outside of ASCII
+    UNICODE(6);
+
+    private static final String[] COUNTRIES = {"DE", "US", "FR", "JP", "GB", "NL", "SE", "BR"};
+    private static final String[] ORGANIZATIONS = {"Karaca", "Example Corp", "ACME Ltd.", "Muster & S\u00f6hne"};
+    private static final String[] UNITS = {"Ops", "Engineering", "Sales", "Security", "IT", "R&D", "Legal", "HR"};
+    private static final String[] LOCALITIES = {"Berlin", "Hamburg", "New York", "Paris", "Tokyo", "K\u00f6ln"};
+    private static final String[] UNICODE_NAMES = {
+        "M\u00fcller GmbH & Co. KG",
+        "\u682a\u5f0f\u4f1a\u793e\u30b5\u30f3\u30d7\u30eb",
+        "\u0395\u03bb\u03bb\u03b7\u03bd\u03b9\u03ba\u03ae \u0395\u03c4\u03b1\u03b9\u03c1\u03b5\u03af\u03b1",
+        "\u041a\u043e\u043c\u043f\u0430\u043d\u0438\u044f \u041f\u0440\u0438\u043c\u0435\u0440",
+        "\u0634\u0631\u0643\u0629 \u0627\u0644\u0645\u062b\u0627\u0644",
+        "\u00c6r\u00f8 \u00d8st \u00c5/S"
+    };
+
+    // relative share of the corpus
+    private final int weight;
+
+    SubjectShape(int weight) {
+        this.weight = weight;
+    }
+
+    X500Name subject(SplittableRandom random, String host) {
+        X500NameBuilder builder = new X500NameBuilder(BCStyle.INSTANCE);
+
+        switch (this) {
+            case EMPTY -> {
+                // no attributes
+            }
+            case COMMON_NAME -> builder.addRDN(BCStyle.CN, host);
+            case ORGANIZATION -> builder.addRDN(BCStyle.C, pick(random, COUNTRIES))
+                    .addRDN(BCStyle.O, pick(random, ORGANIZATIONS))
+                    .addRDN(BCStyle.OU, pick(random, UNITS))
+                    .addRDN(BCStyle.CN, host);
+            case FULL -> builder.addRDN(BCStyle.C, pick(random, COUNTRIES))
+                    .addRDN(BCStyle.ST, "State " + random.nextInt(50))
+                    .addRDN(BCStyle.L, pick(random, LOCALITIES))
+                    .addRDN(BCStyle.O, pick(random, ORGANIZATIONS))
+                    .addRDN(BCStyle.OU, pick(random, UNITS))
+                    .addRDN(BCStyle.CN, host)
+                    .addRDN(BCStyle.EmailAddress, "admin@" + host);
+            case MULTI_VALUED_RDN -> builder.addRDN(BCStyle.C, pick(random, COUNTRIES))
+                    .addRDN(BCStyle.O, pick(random, ORGANIZATIONS))
+                    .addMultiValuedRDN(
+                            new ASN1ObjectIdentifier[] {BCStyle.CN, BCStyle.UID},
+                            new String[] {host, "user" + random.nextInt(100_000)});
+            case REPEATED_ORGANIZATION_UNIT -> {
+                builder.addRDN(BCStyle.O, pick(random, ORGANIZATIONS));
+
+                int units = 2 + random.nextInt(7);
+                for (int i = 0; i < units; i++) {
+                    builder.addRDN(BCStyle.OU, pick(random, UNITS));
+                }
+
+                builder.addRDN(BCStyle.CN, host);
+            }
+            case DOMAIN_COMPONENTS -> builder.addRDN(BCStyle.DC, "com")
+                    .addRDN(BCStyle.DC, "example")
+                    .addRDN(BCStyle.CN, host);
+            case UNICODE -> builder.addRDN(BCStyle.C, pick(random, COUNTRIES))
+                    .addRDN(BCStyle.O, pick(random, UNICODE_NAMES))
+                    .addRDN(BCStyle.CN, pick(random, UNICODE_NAMES));
+        }
+
+        return builder.build();
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,140 @@
+package de.karaca.csrparser.differential;
+
+import de.karaca.csrparser.analytics.AnalyticsProperties;
+import de.karaca.csrparser.analytics.ParseAnalytics;
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.fixtures.TestParsers;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.model.CsrField;
+import de.karaca.csrparser.quarantine.QuarantineProperties;
+import de.karaca.csrparser.quarantine.RejectedInputQuarantine;
+import de.karaca.csrparser.service.BouncyCastleParserService;
+import de.karaca.csrparser.service.CsrParserService;
+import de.karaca.csrparser.service.CustomParserService;
+import de.karaca.csrparser.service.ParserEngine;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Parses the same input with the custom and the BouncyCastle engine and compares the results field by field.
+ *
+ * Only fields which both engines decode the same way are compared: names of algorithms and curves are formatted
+ * differently by the engines, so the OIDs are compared instead. Key fingerprints are not recorded.
+ **/
+public class DifferentialParser {
+    private static final Map<String, Function<CsrDetailsModel, Object>> COMPARED_FIELDS = new LinkedHashMap<>();
+
+    static {
+        COMPARED_FIELDS.put("signatureAlgorithmId", CsrDetailsModel::getSignatureAlgorithmId);
+        COMPARED_FIELDS.put("publicKeyAlgorithmId", CsrDetailsModel::getPublicKeyAlgorithmId);
+        COMPARED_FIELDS.put("rsaKeyLength", CsrDetailsModel::getRsaKeyLength);
+        COMPARED_FIELDS.put("publicKeyFingerprint", CsrDetailsModel::getPublicKeyFingerprint);
+        COMPARED_FIELDS.put("subject", CsrDetailsModel::getSubject);
+        COMPARED_FIELDS.put("commonName", CsrDetailsModel::getCommonName);
+        COMPARED_FIELDS.put("country", CsrDetailsModel::getCountry);
+        COMPARED_FIELDS.put("locality", CsrDetailsModel::getLocality);
+        COMPARED_FIELDS.put("stateOrProvince", CsrDetailsModel::getStateOrProvince);
+        COMPARED_FIELDS.put("organizationName", CsrDetailsModel::getOrganizationName);
+        COMPARED_FIELDS.put("organizationUnit", CsrDetailsModel::getOrganizationUnit);
+        COMPARED_FIELDS.put("emailAddress", CsrDetailsModel::getEmailAddress);
+        // the engines have their own implementations, compared by their formatting
+        COMPARED_FIELDS.put("subjectAlternativeNames", model -> model.getSubjectAlternativeNames() == null
+                ? null
+                : model.getSubjectAlternativeNames().toString());
+        COMPARED_FIELDS.put("subjectAlternativeNameCount", CsrDetailsModel::getSubjectAlternativeNameCount);
+        COMPARED_FIELDS.put("keyUsage", CsrDetailsModel::getKeyUsage);
+        COMPARED_FIELDS.put("extendedKeyUsage", CsrDetailsModel::getExtendedKeyUsage);
+        COMPARED_FIELDS.put("basicConstraintsCa", CsrDetailsModel::getBasicConstraintsCa);
+        COMPARED_FIELDS.put("basicConstraintsPathLength", CsrDetailsModel::getBasicConstraintsPathLength);
+        COMPARED_FIELDS.put("subjectKeyIdentifier", CsrDetailsModel::getSubjectKeyIdentifier);
+        COMPARED_FIELDS.put("criticalExtensions", CsrDetailsModel::getCriticalExtensions);
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final ParseAnalytics parseAnalytics;
+    private final CustomParserService customParserService;
+    private final BouncyCastleParserService bouncyCastleParserService;
+
+    public DifferentialParser() {
+        AnalyticsProperties analyticsProperties = new AnalyticsProperties();
+        analyticsProperties.setEnabled(false);
+        parseAnalytics = new ParseAnalytics(analyticsProperties);
+
+        QuarantineProperties quarantineProperties = new QuarantineProperties();
+        quarantineProperties.setEnabled(false);
+
+        TestParsers.Builder parsers = TestParsers.builder()
+                .parseAnalytics(parseAnalytics)
+                .quarantine(new RejectedInputQuarantine(quarantineProperties));
+        customParserService = parsers.custom();
+        bouncyCastleParserService = parsers.bouncyCastle();
+
+        if (THREADS.isThreadAllocatedMemorySupported()) {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    public DifferentialResult parse(byte[] input) {
+        EngineResult custom = parse(ParserEngine.CUSTOM, customParserService, input);
+        EngineResult bouncyCastle = parse(ParserEngine.BOUNCY_CASTLE, bouncyCastleParserService, input);
+
+        List<String> mismatchedFields = new ArrayList<>();
+        if (custom.isAccepted() && bouncyCastle.isAccepted()) {
+            for (String name : COMPARED_FIELDS.keySet()) {
+                if (!Objects.equals(custom.getFields().get(name), bouncyCastle.getFields().get(name))) {
+                    mismatchedFields.add(name);
+                }
+            }
+        }
+
+        return DifferentialResult.builder()
+                .custom(custom)
+                .bouncyCastle(bouncyCastle)
+                .mismatchedFields(mismatchedFields)
+                .build();
+    }
+
+    public void shutdown() {
+        parseAnalytics.shutdown();
+    }
+
+    private static EngineResult parse(ParserEngine engine, CsrParserService service, byte[] input) {
+        var builder = EngineResult.builder().engine(engine);
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+
+        try {
+            CsrDetailsModel model = service.parse(input, CsrField.ALL);
+
+            // within the parse, names are formatted on access and fail like a parse would
+            Map<String, Object> fields = new LinkedHashMap<>();
+            COMPARED_FIELDS.forEach((name, getter) -> fields.put(name, getter.apply(model)));
+
+            builder.model(model).fields(fields);
+        } catch (InvalidCsrException e) {
+            builder.rejection(e);
+        } catch (Throwable e) {
+            // including errors, e.g. a StackOverflowError of a recursive decoder
+            builder.crash(e);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+
+        return builder.elapsedNanos(elapsed)
+                .allocatedBytes(allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore)
+                .build();
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.isThreadAllocatedMemoryEnabled() ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+}
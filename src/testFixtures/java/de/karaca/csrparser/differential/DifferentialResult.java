@@ -0,0 +1,33 @@
+package de.karaca.csrparser.differential;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Outcomes of both engines for the same input.
+ **/
+@Getter
+@Builder
+public class DifferentialResult {
+    private final EngineResult custom;
+    private final EngineResult bouncyCastle;
+
+    // fields which differ if both engines accepted the input, empty otherwise
+    private final List<String> mismatchedFields;
+
+    public boolean isCrashed() {
+        return custom.isCrashed() || bouncyCastle.isCrashed();
+    }
+
+    /**
+     * @return true if one engine accepted the input and the other one rejected it
+     **/
+    public boolean isAcceptanceMismatch() {
+        return !isCrashed() && custom.isAccepted() != bouncyCastle.isAccepted();
+    }
+
+    public boolean isMismatch() {
+        return !mismatchedFields.isEmpty();
+    }
+}
@@ -0,0 +1,49 @@
+package de.karaca.csrparser.differential;
+
+import de.karaca.csrparser.exception.InvalidCsrException;
+import de.karaca.csrparser.model.CsrDetailsModel;
+import de.karaca.csrparser.service.ParserEngine;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Outcome of parsing an input with one engine: exactly one of model, rejection and crash is set.
+ **/
+@Getter
+@Builder
+public class EngineResult {
+    private final ParserEngine engine;
+
+    private final CsrDetailsModel model;
+    // formatted values of the compared fields if the input was accepted
+    private final Map<String, Object> fields;
+    private final InvalidCsrException rejection;
+    // any other exception or error, always a bug
+    private final Throwable crash;
+
+    private final long elapsedNanos;
+    // -1 if the JVM does not count allocations per thread
+    private final long allocatedBytes;
+
+    public boolean isAccepted() {
+        return model != null;
+    }
+
+    public boolean isCrashed() {
+        return crash != null;
+    }
+
+    /**
+     * @return short description of the outcome, e.g. "accepted", "BAD_TAG" or "crash NullPointerException"
+     **/
+    public String describe() {
+        if (model != null) {
+            return "accepted";
+        }
+
+        return rejection != null
+                ? rejection.getCode().name()
+                : "crash " + crash.getClass().getSimpleName();
+    }
+}
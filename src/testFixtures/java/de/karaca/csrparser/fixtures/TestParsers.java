@@ -0,0 +1,113 @@
+package de.karaca.csrparser.fixtures;
+
+import de.karaca.csrparser.analytics.AnalyticsProperties;
+import de.karaca.csrparser.analytics.ParseAnalytics;
+import de.karaca.csrparser.audit.AuditLog;
+import de.karaca.csrparser.audit.AuditProperties;
+import de.karaca.csrparser.fingerprint.KeyFingerprintProperties;
+import de.karaca.csrparser.fingerprint.KeyFingerprintService;
+import de.karaca.csrparser.policy.PolicyProperties;
+import de.karaca.csrparser.policy.PolicyService;
+import de.karaca.csrparser.quarantine.QuarantineProperties;
+import de.karaca.csrparser.quarantine.RejectedInputQuarantine;
+import de.karaca.csrparser.service.BouncyCastleParserService;
+import de.karaca.csrparser.service.CustomParserService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Parser services for tests and benchmarks which run without a Spring context.
+ *
+ * Collaborators which are not set are created with their default properties, except for the key reuse detection,
+ * which is disabled so no run writes to the fingerprint file of the application. Both engines of a builder share the
+ * same collaborators.
+ **/
+public final class TestParsers {
+    private TestParsers() {}
+
+    public static CustomParserService custom() {
+        return builder().custom();
+    }
+
+    public static BouncyCastleParserService bouncyCastle() {
+        return builder().bouncyCastle();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private KeyFingerprintService keyFingerprintService;
+        private PolicyService policyService;
+        private ParseAnalytics parseAnalytics;
+        private RejectedInputQuarantine quarantine;
+        private AuditLog auditLog;
+
+        private Builder() {}
+
+        public Builder keyFingerprintService(KeyFingerprintService keyFingerprintService) {
+            this.keyFingerprintService = keyFingerprintService;
+            return this;
+        }
+
+        public Builder policyService(PolicyService policyService) {
+            this.policyService = policyService;
+            return this;
+        }
+
+        public Builder parseAnalytics(ParseAnalytics parseAnalytics) {
+            this.parseAnalytics = parseAnalytics;
+            return this;
+        }
+
+        public Builder quarantine(RejectedInputQuarantine quarantine) {
+            this.quarantine = quarantine;
+            return this;
+        }
+
+        public Builder auditLog(AuditLog auditLog) {
+            this.auditLog = auditLog;
+            return this;
+        }
+
+        public CustomParserService custom() {
+            initDefaults();
+            return new CustomParserService(keyFingerprintService, policyService, parseAnalytics, quarantine, auditLog);
+        }
+
+        public BouncyCastleParserService bouncyCastle() {
+            initDefaults();
+            return new BouncyCastleParserService(keyFingerprintService, parseAnalytics, quarantine, auditLog);
+        }
+
+        private void initDefaults() {
+            try {
+                if (keyFingerprintService == null) {
+                    KeyFingerprintProperties properties = new KeyFingerprintProperties();
+                    properties.setEnabled(false);
+                    keyFingerprintService = new KeyFingerprintService(properties);
+                }
+
+                if (policyService == null) {
+                    policyService = new PolicyService(new PolicyProperties());
+                }
+            } catch (IOException e) {
+                // neither reads a file with the default properties
+                throw new UncheckedIOException(e);
+            }
+
+            if (parseAnalytics == null) {
+                parseAnalytics = new ParseAnalytics(new AnalyticsProperties());
+            }
+
+            if (quarantine == null) {
+                quarantine = new RejectedInputQuarantine(new QuarantineProperties());
+            }
+
+            if (auditLog == null) {
+                auditLog = new AuditLog(new AuditProperties());
+            }
+        }
+    }
+}